@@ -1,8 +1,11 @@
 package com.habilis.api;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -16,17 +19,19 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
  *                        automática de Spring Boot
  *                        - @ComponentScan: Escanea componentes en el paquete
  *                        com.habilis.api
+ * 
+ * @EnableScheduling habilita las tareas periódicas (p. ej. persistencia
+ *                   diferida de carritos)
  */
 @SpringBootApplication
+@EnableScheduling
 public class HabilisApplication {
 
+    private static final Logger log = LoggerFactory.getLogger(HabilisApplication.class);
+
     public static void main(String[] args) {
         SpringApplication.run(HabilisApplication.class, args);
-        System.out.println("\n===========================================");
-        System.out.println("✓ Habilis API iniciada correctamente");
-        System.out.println("✓ Puerto: 8080");
-        System.out.println("✓ Documentación: http://localhost:8080");
-        System.out.println("===========================================\n");
+        log.info("Habilis API iniciada en http://localhost:8080");
     }
 
     /**
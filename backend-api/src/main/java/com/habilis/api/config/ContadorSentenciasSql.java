@@ -0,0 +1,66 @@
+package com.habilis.api.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Cuenta las sentencias SQL que Hibernate lanza en el hilo actual
+ *
+ * Solo cuenta mientras hay una medición abierta: la abren las pruebas de
+ * presupuesto SQL (PresupuestoSqlPedidosTest), que fallan si una lectura de
+ * pedidos supera su presupuesto o crece con el número de filas, y
+ * opcionalmente PresupuestoSqlFilter en cada petición. En modo estricto,
+ * superar el límite hace fallar la sentencia. Las consultas JdbcTemplate no
+ * pasan por Hibernate y no cuentan.
+ */
+public class ContadorSentenciasSql implements StatementInspector {
+
+    private static final ThreadLocal<Medicion> MEDICION = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        Medicion medicion = MEDICION.get();
+        if (medicion != null) {
+            medicion.sentencias++;
+            if (medicion.estricto && medicion.sentencias > medicion.limite) {
+                throw new IllegalStateException("Presupuesto de SQL superado: más de " + medicion.limite
+                        + " sentencias en " + medicion.descripcion);
+            }
+        }
+        return sql;
+    }
+
+    /**
+     * Abrir una medición en el hilo actual
+     *
+     * @param descripcion Qué se mide (p. ej. "GET /api/pedidos/5")
+     * @param limite      Sentencias permitidas
+     * @param estricto    Fallar al superar el límite en lugar de solo contar
+     */
+    public static void iniciar(String descripcion, int limite, boolean estricto) {
+        MEDICION.set(new Medicion(descripcion, limite, estricto));
+    }
+
+    /**
+     * Cerrar la medición del hilo actual
+     *
+     * @return Sentencias lanzadas desde iniciar()
+     */
+    public static int terminar() {
+        Medicion medicion = MEDICION.get();
+        MEDICION.remove();
+        return medicion != null ? medicion.sentencias : 0;
+    }
+
+    private static final class Medicion {
+        private final String descripcion;
+        private final int limite;
+        private final boolean estricto;
+        private int sentencias;
+
+        private Medicion(String descripcion, int limite, boolean estricto) {
+            this.descripcion = descripcion;
+            this.limite = limite;
+            this.estricto = estricto;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.habilis.api.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Identificador de correlación y muestreo de trazas DEBUG por petición
+ *
+ * Cada línea de log de la petición lleva el id en el MDC (correlacionId),
+ * que se toma de la cabecera X-Request-Id si llega (p. ej. desde Nginx) y se
+ * devuelve en la respuesta. Una fracción de las peticiones
+ * (habilis.logging.muestreo-debug) se marca para que MuestreoDebugTurboFilter
+ * deje pasar sus mensajes DEBUG aunque el nivel configurado sea INFO.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CorrelacionFilter extends OncePerRequestFilter {
+
+    public static final String CABECERA = "X-Request-Id";
+    public static final String MDC_CORRELACION = "correlacionId";
+    public static final String MDC_MUESTREO = "muestreoDebug";
+
+    private final double muestreoDebug;
+
+    public CorrelacionFilter(@Value("${habilis.logging.muestreo-debug:0.0}") double muestreoDebug) {
+        this.muestreoDebug = muestreoDebug;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String correlacionId = request.getHeader(CABECERA);
+        if (correlacionId == null || correlacionId.isBlank() || correlacionId.length() > 64) {
+            correlacionId = UUID.randomUUID().toString();
+        }
+
+        MDC.put(MDC_CORRELACION, correlacionId);
+        if (muestreoDebug > 0 && ThreadLocalRandom.current().nextDouble() < muestreoDebug) {
+            MDC.put(MDC_MUESTREO, "true");
+        }
+        response.setHeader(CABECERA, correlacionId);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            MDC.remove(MDC_CORRELACION);
+            MDC.remove(MDC_MUESTREO);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.habilis.api.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DataSource de la aplicación: primaria más réplicas de lectura opcionales
+ *
+ * La primaria se configura con spring.datasource.* como siempre y las réplicas
+ * con habilis.datasource.replicas (URLs JDBC separadas por comas, mismas
+ * credenciales). Todos los pools comparten los ajustes de
+ * spring.datasource.hikari.*. Sin réplicas todo va a la primaria.
+ *
+ * Los pools no son beans, así que la autoconfiguración de Actuator no los
+ * encuentra: sus métricas (hikaricp.connections.*) se registran aquí.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(DataSourceConfig.class);
+
+    @Bean
+    public EnrutadorDataSource enrutadorDataSource(DataSourceProperties propiedades,
+            Environment entorno,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${habilis.datasource.replicas:}") List<String> urlsReplicas,
+            @Value("${habilis.datasource.retraso-maximo-ms:5000}") long retrasoMaximoMs) {
+        Binder binder = Binder.get(entorno);
+
+        HikariDataSource primaria = propiedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primaria));
+        primaria.setPoolName("habilis-primaria");
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : urlsReplicas) {
+            if (url.isBlank()) {
+                continue;
+            }
+            // Sin conexión inicial: una réplica caída no impide arrancar
+            HikariDataSource replica = new HikariDataSource();
+            binder.bind("spring.datasource.hikari", Bindable.ofInstance(replica));
+            replica.setJdbcUrl(url.trim());
+            replica.setUsername(propiedades.determineUsername());
+            replica.setPassword(propiedades.determinePassword());
+            replica.setDriverClassName(propiedades.determineDriverClassName());
+            replica.setPoolName("habilis-replica-" + (replicas.size() + 1));
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+
+        meterRegistry.ifAvailable(registro -> {
+            primaria.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registro));
+            replicas.forEach(replica -> replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registro)));
+        });
+
+        if (!replicas.isEmpty()) {
+            log.info("Lecturas @LecturaReplica repartidas entre {} réplicas", replicas.size());
+        }
+        return new EnrutadorDataSource(primaria, replicas, retrasoMaximoMs);
+    }
+
+    /**
+     * DataSource que usan JPA, JdbcTemplate y Flyway
+     * La conexión real se pide en la primera sentencia, con la transacción ya
+     * iniciada, para que el enrutador vea si es de solo lectura
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(EnrutadorDataSource enrutadorDataSource) {
+        return new LazyConnectionDataSourceProxy(enrutadorDataSource);
+    }
+}
@@ -0,0 +1,331 @@
+package com.habilis.api.config;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * DataSource que reparte las conexiones entre la base de datos primaria y
+ * sus réplicas de lectura
+ *
+ * Solo van a una réplica, por turnos, las transacciones de solo lectura
+ * dentro de un método marcado con @LecturaReplica (catálogo, listados,
+ * estadísticas, analítica, exportaciones); todo lo demás, incluidas las
+ * lecturas que deben ver lo último confirmado (contadores de inventario,
+ * reservas, autenticación), va a la primaria. enPrimaria() fija la primaria
+ * dentro de una lectura marcada.
+ * Una comprobación periódica mide el retraso de replicación de cada réplica:
+ * si supera el máximo o la réplica no responde deja de recibir lecturas hasta
+ * que se recupera, y sin réplicas disponibles las lecturas van a la primaria.
+ *
+ * Necesita LazyConnectionDataSourceProxy delante (DataSourceConfig): la
+ * conexión se elige en la primera sentencia, cuando ya se sabe si la
+ * transacción es de solo lectura.
+ *
+ * Por pool mide cuánto se espera para obtener una conexión, cuánto se retiene
+ * y el máximo de conexiones en uso a la vez; la retención también se atribuye
+ * a la petición en curso (UsoConexiones). En las peticiones trazadas cada
+ * sentencia, commit y rollback es además un tramo de la traza (Trazas).
+ */
+public class EnrutadorDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(EnrutadorDataSource.class);
+
+    private static final String PRIMARIA = "primaria";
+
+    // TRUE dentro de un método @LecturaReplica; FALSE dentro de enPrimaria()
+    private static final ThreadLocal<Boolean> REPLICA_PERMITIDA = new ThreadLocal<>();
+
+    // Milisegundos de retraso de una réplica; 0 si está al día o no es réplica
+    private static final String SQL_RETRASO = "SELECT CASE " +
+            "WHEN NOT pg_is_in_recovery() THEN 0 " +
+            "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+
+    private final Pool primaria;
+    private final List<Pool> replicas;
+    private final Map<String, Pool> porNombre = new HashMap<>();
+    private final long retrasoMaximoMs;
+    private final AtomicInteger turno = new AtomicInteger();
+
+    public EnrutadorDataSource(HikariDataSource primaria, List<HikariDataSource> replicas, long retrasoMaximoMs) {
+        this.primaria = new Pool(PRIMARIA, primaria);
+        this.primaria.disponible = true;
+        this.replicas = new ArrayList<>();
+        for (int i = 0; i < replicas.size(); i++) {
+            this.replicas.add(new Pool("replica-" + (i + 1), replicas.get(i)));
+        }
+        this.retrasoMaximoMs = retrasoMaximoMs;
+        porNombre.put(PRIMARIA, this.primaria);
+        this.replicas.forEach(replica -> porNombre.put(replica.nombre, replica));
+
+        Map<Object, Object> destinos = new HashMap<>();
+        destinos.put(PRIMARIA, primaria);
+        this.replicas.forEach(replica -> destinos.put(replica.nombre, replica.dataSource));
+        setTargetDataSources(destinos);
+        setDefaultTargetDataSource(primaria);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Pool pool = primaria;
+        if (!replicas.isEmpty() && Boolean.TRUE.equals(REPLICA_PERMITIDA.get())
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            // Por turnos entre las réplicas disponibles
+            int inicio = Math.floorMod(turno.getAndIncrement(), replicas.size());
+            for (int i = 0; i < replicas.size(); i++) {
+                Pool replica = replicas.get((inicio + i) % replicas.size());
+                if (replica.disponible) {
+                    pool = replica;
+                    break;
+                }
+            }
+        }
+        pool.conexiones.incrementAndGet();
+        return pool.nombre;
+    }
+
+    /**
+     * Ejecutar una lectura en la primaria aunque se llame desde un método
+     * marcado con @LecturaReplica
+     * Solo cambia algo si la lectura abre su propia transacción (REQUIRES_NEW):
+     * si se une a una ya iniciada usa la conexión de esa transacción
+     */
+    public static <T> T enPrimaria(Supplier<T> lectura) {
+        Boolean anterior = permitirReplica(Boolean.FALSE);
+        try {
+            return lectura.get();
+        } finally {
+            permitirReplica(anterior);
+        }
+    }
+
+    /**
+     * Cambiar la marca del hilo y devolver la anterior (null = sin marca)
+     */
+    static Boolean permitirReplica(Boolean permitir) {
+        Boolean anterior = REPLICA_PERMITIDA.get();
+        if (permitir == null) {
+            REPLICA_PERMITIDA.remove();
+        } else {
+            REPLICA_PERMITIDA.set(permitir);
+        }
+        return anterior;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return porNombre.get((String) determineCurrentLookupKey()).obtener();
+    }
+
+    @Override
+    public Connection getConnection(String usuario, String contrasena) throws SQLException {
+        return getConnection();
+    }
+
+    /**
+     * Medir el retraso de cada réplica y activarla o retirarla
+     * La primera comprobación se hace al arrancar: hasta entonces las lecturas
+     * van a la primaria
+     */
+    @Scheduled(fixedDelayString = "${habilis.datasource.comprobacion-ms:5000}")
+    public void comprobarReplicas() {
+        for (Pool replica : replicas) {
+            boolean disponible;
+            try (Connection conexion = replica.dataSource.getConnection();
+                    Statement sentencia = conexion.createStatement()) {
+                sentencia.setQueryTimeout(2);
+                try (ResultSet rs = sentencia.executeQuery(SQL_RETRASO)) {
+                    rs.next();
+                    replica.retrasoMs = rs.getLong(1);
+                }
+                disponible = replica.retrasoMs <= retrasoMaximoMs;
+                if (!disponible && replica.disponible) {
+                    log.warn("Réplica {} retirada: {} ms de retraso (máximo {} ms)",
+                            replica.nombre, replica.retrasoMs, retrasoMaximoMs);
+                }
+            } catch (Exception e) {
+                disponible = false;
+                replica.retrasoMs = -1;
+                if (replica.disponible) {
+                    log.error("Réplica {} retirada: {}", replica.nombre, e.getMessage());
+                }
+            }
+
+            if (disponible && !replica.disponible) {
+                log.info("Réplica {} disponible para lecturas ({} ms de retraso)", replica.nombre, replica.retrasoMs);
+            }
+            replica.disponible = disponible;
+        }
+    }
+
+    /**
+     * Estado de cada pool: disponibilidad, retraso y conexiones
+     */
+    public List<Map<String, Object>> estado() {
+        List<Map<String, Object>> pools = new ArrayList<>();
+        pools.add(primaria.estado("PRIMARIA"));
+        replicas.forEach(replica -> pools.add(replica.estado("REPLICA")));
+        return pools;
+    }
+
+    /**
+     * Cambiar en caliente el máximo de conexiones de un pool
+     *
+     * @param nombre Nombre del pool ("primaria", "replica-1"...)
+     * @param maximo Nuevo máximo (al menos 1)
+     */
+    public void cambiarTamano(String nombre, int maximo) {
+        Pool pool = porNombre.get(nombre);
+        if (pool == null) {
+            throw new RuntimeException("Pool no encontrado: " + nombre);
+        }
+        if (maximo < 1) {
+            throw new RuntimeException("El pool necesita al menos 1 conexión");
+        }
+
+        HikariConfigMXBean config = pool.dataSource.getHikariConfigMXBean();
+        if (config.getMinimumIdle() > maximo) {
+            config.setMinimumIdle(maximo);
+        }
+        config.setMaximumPoolSize(maximo);
+        log.info("Pool {}: máximo de conexiones cambiado a {}", nombre, maximo);
+    }
+
+    @Override
+    public void destroy() {
+        replicas.forEach(replica -> replica.dataSource.close());
+        primaria.dataSource.close();
+    }
+
+    private static final class Pool {
+        private final String nombre;
+        private final HikariDataSource dataSource;
+        private final AtomicLong conexiones = new AtomicLong();
+        private final HistogramaTiempos espera = new HistogramaTiempos();
+        private final HistogramaTiempos retencion = new HistogramaTiempos();
+        private final AtomicInteger enUso = new AtomicInteger();
+        private final AtomicInteger picoEnUso = new AtomicInteger();
+        private volatile boolean disponible;
+        private volatile long retrasoMs;
+
+        private Pool(String nombre, HikariDataSource dataSource) {
+            this.nombre = nombre;
+            this.dataSource = dataSource;
+        }
+
+        /**
+         * Obtener una conexión del pool midiendo la espera y, al cerrarla, la retención
+         */
+        private Connection obtener() throws SQLException {
+            long inicio = System.nanoTime();
+            Connection conexion;
+            try (Tramo tramo = Trazas.tramo("pool.conexion")) {
+                tramo.atributo("db.pool", nombre);
+                conexion = dataSource.getConnection();
+            }
+            long obtenida = System.nanoTime();
+            espera.registrar(obtenida - inicio);
+            picoEnUso.accumulateAndGet(enUso.incrementAndGet(), Math::max);
+
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class }, new InvocationHandler() {
+                        private boolean cerrada;
+
+                        @Override
+                        public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+                            switch (metodo.getName()) {
+                                case "equals":
+                                    return proxy == args[0];
+                                case "hashCode":
+                                    return System.identityHashCode(proxy);
+                                case "close":
+                                    if (!cerrada) {
+                                        cerrada = true;
+                                        long retenida = System.nanoTime() - obtenida;
+                                        retencion.registrar(retenida);
+                                        enUso.decrementAndGet();
+                                        UsoConexiones.registrarRetencion(retenida);
+                                    }
+                                    break;
+                                case "prepareStatement":
+                                case "prepareCall":
+                                case "createStatement":
+                                    // Solo en peticiones trazadas: cada execute* es un tramo
+                                    if (Trazas.activa()) {
+                                        String sql = args != null && args.length > 0 && args[0] instanceof String s
+                                                ? s : null;
+                                        return TrazaJdbc.sentencia((Statement) invocar(metodo, args),
+                                                metodo.getName(), sql, nombre);
+                                    }
+                                    break;
+                                case "commit":
+                                case "rollback":
+                                    try (Tramo tramo = Trazas.tramoExterno(
+                                            TrazaJdbc.PREFIJO + metodo.getName().toUpperCase())) {
+                                        tramo.atributo("db.pool", nombre);
+                                        return invocar(metodo, args);
+                                    }
+                                default:
+                                    break;
+                            }
+                            return invocar(metodo, args);
+                        }
+
+                        private Object invocar(Method metodo, Object[] args) throws Throwable {
+                            try {
+                                return metodo.invoke(conexion, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getTargetException();
+                            }
+                        }
+                    });
+        }
+
+        private Map<String, Object> estado(String rol) {
+            Map<String, Object> estado = new LinkedHashMap<>();
+            estado.put("nombre", nombre);
+            estado.put("rol", rol);
+            estado.put("url", dataSource.getJdbcUrl());
+            estado.put("disponible", disponible);
+            estado.put("retrasoMs", retrasoMs);
+            estado.put("conexionesEnrutadas", conexiones.get());
+
+            // null hasta que el pool abre su primera conexión
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            estado.put("conexionesActivas", pool != null ? pool.getActiveConnections() : 0);
+            estado.put("conexionesInactivas", pool != null ? pool.getIdleConnections() : 0);
+            estado.put("conexionesTotales", pool != null ? pool.getTotalConnections() : 0);
+            estado.put("hilosEsperando", pool != null ? pool.getThreadsAwaitingConnection() : 0);
+            estado.put("maximoConexiones", dataSource.getMaximumPoolSize());
+            estado.put("picoConexionesEnUso", picoEnUso.get());
+            estado.put("umbralFugasMs", dataSource.getLeakDetectionThreshold());
+            estado.put("esperaConexion", espera.resumen());
+            estado.put("retencionConexion", retencion.resumen());
+            return estado;
+        }
+    }
+}
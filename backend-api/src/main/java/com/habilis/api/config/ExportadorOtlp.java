@@ -0,0 +1,139 @@
+package com.habilis.api.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Exportación opcional de las trazas a un colector OpenTelemetry (OTLP/HTTP)
+ *
+ * Con habilis.trazas.otlp.endpoint vacío no hace nada. Si está configurado
+ * (p. ej. http://localhost:4318/v1/traces), las trazas terminadas se encolan
+ * y se envían por lotes en JSON de OTLP, sin bloquear las peticiones: si el
+ * colector no responde o la cola se llena, las trazas se descartan.
+ */
+@Component
+public class ExportadorOtlp {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportadorOtlp.class);
+
+    private static final int MAXIMO_LOTE = 256;
+
+    private final String endpoint;
+    private final String servicio;
+    private final ObjectMapper objectMapper;
+    private final BlockingQueue<Traza> pendientes;
+    private final HttpClient cliente;
+    private volatile boolean fallando;
+
+    public ExportadorOtlp(@Value("${habilis.trazas.otlp.endpoint:}") String endpoint,
+            @Value("${spring.application.name:habilis-api}") String servicio,
+            @Value("${habilis.trazas.otlp.cola:2048}") int tamanoCola,
+            ObjectMapper objectMapper) {
+        this.endpoint = endpoint.isBlank() ? null : endpoint.trim();
+        this.servicio = servicio;
+        this.objectMapper = objectMapper;
+        this.pendientes = new ArrayBlockingQueue<>(tamanoCola);
+        this.cliente = this.endpoint == null ? null
+                : HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+    }
+
+    void encolar(Traza traza) {
+        if (endpoint != null) {
+            pendientes.offer(traza);
+        }
+    }
+
+    /**
+     * Enviar las trazas pendientes en un lote
+     */
+    @Scheduled(fixedDelayString = "${habilis.trazas.otlp.intervalo-ms:5000}")
+    public void exportar() {
+        if (endpoint == null || pendientes.isEmpty()) {
+            return;
+        }
+        List<Traza> lote = new ArrayList<>(MAXIMO_LOTE);
+        pendientes.drainTo(lote, MAXIMO_LOTE);
+
+        byte[] cuerpo;
+        try {
+            cuerpo = objectMapper.writeValueAsBytes(aOtlp(lote));
+        } catch (Exception e) {
+            log.error("Error al serializar trazas OTLP: {}", e.getMessage());
+            return;
+        }
+
+        HttpRequest peticion = HttpRequest.newBuilder(URI.create(endpoint))
+                .timeout(Duration.ofSeconds(5))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(cuerpo))
+                .build();
+        cliente.sendAsync(peticion, HttpResponse.BodyHandlers.discarding()).whenComplete((respuesta, error) -> {
+            boolean correcto = error == null && respuesta.statusCode() < 300;
+            // Un aviso al empezar a fallar y otro al recuperarse, no uno por lote
+            if (!correcto && !fallando) {
+                log.warn("No se pudieron exportar trazas a {}: {}", endpoint,
+                        error != null ? error.getMessage() : "HTTP " + respuesta.statusCode());
+            } else if (correcto && fallando) {
+                log.info("Exportación de trazas a {} recuperada", endpoint);
+            }
+            fallando = !correcto;
+        });
+    }
+
+    private Map<String, Object> aOtlp(List<Traza> trazas) {
+        List<Map<String, Object>> spans = new ArrayList<>();
+        for (Traza traza : trazas) {
+            long inicioRaiz = traza.getRaiz().getInicioNanos();
+            for (Tramo tramo : traza.getTramos()) {
+                long inicio = traza.getInicioEpochNanos() + (tramo.getInicioNanos() - inicioRaiz);
+
+                Map<String, Object> span = new LinkedHashMap<>();
+                span.put("traceId", traza.getId());
+                span.put("spanId", idTramo(traza, tramo.getId()));
+                if (tramo.getPadre() >= 0) {
+                    span.put("parentSpanId", idTramo(traza, tramo.getPadre()));
+                }
+                span.put("name", tramo.getNombre());
+                // 1 = INTERNAL, 2 = SERVER, 3 = CLIENT
+                span.put("kind", tramo == traza.getRaiz() ? 2 : tramo.isExterno() ? 3 : 1);
+                span.put("startTimeUnixNano", String.valueOf(inicio));
+                span.put("endTimeUnixNano", String.valueOf(inicio + tramo.getDuracionNanos()));
+                span.put("attributes", atributos(tramo.getAtributos()));
+                spans.add(span);
+            }
+        }
+
+        return Map.of("resourceSpans", List.of(Map.of(
+                "resource", Map.of("attributes", atributos(Map.of("service.name", servicio))),
+                "scopeSpans", List.of(Map.of(
+                        "scope", Map.of("name", "com.habilis.api"),
+                        "spans", spans)))));
+    }
+
+    // 16 hex, único dentro de la traza y nunca todo ceros
+    private static String idTramo(Traza traza, int tramo) {
+        return traza.getId().substring(0, 8) + String.format("%08x", tramo + 1);
+    }
+
+    private static List<Map<String, Object>> atributos(Map<String, String> atributos) {
+        List<Map<String, Object>> lista = new ArrayList<>(atributos.size());
+        atributos.forEach((clave, valor) -> lista.add(Map.of("key", clave, "value", Map.of("stringValue", valor))));
+        return lista;
+    }
+}
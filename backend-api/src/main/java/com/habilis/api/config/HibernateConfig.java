@@ -0,0 +1,40 @@
+package com.habilis.api.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+
+/**
+ * Ajustes de Hibernate que no se pueden dar como propiedades de texto
+ */
+@Configuration
+public class HibernateConfig {
+
+    /**
+     * Registrar el contador de sentencias SQL (presupuesto por petición)
+     */
+    @Bean
+    public HibernatePropertiesCustomizer contadorSentenciasSql() {
+        return propiedades -> propiedades.put(AvailableSettings.STATEMENT_INSPECTOR, new ContadorSentenciasSql());
+    }
+
+    /**
+     * Usar SesionSoloLecturaJpaDialect en lugar del dialecto de
+     * HibernateJpaVendorAdapter (las transacciones lo toman de la factoría)
+     */
+    @Bean
+    public static BeanPostProcessor sesionSoloLecturaJpaDialect() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof AbstractEntityManagerFactoryBean factoria) {
+                    factoria.setJpaDialect(new SesionSoloLecturaJpaDialect());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,56 @@
+package com.habilis.api.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de duraciones con cubetas fijas en milisegundos
+ *
+ * Pensado para medir en caliente (obtener y devolver conexiones): registrar
+ * no bloquea y solo actualiza contadores atómicos.
+ */
+public class HistogramaTiempos {
+
+    // Límite superior (incluido) de cada cubeta; la última recoge el resto
+    private static final long[] LIMITES_MS = { 1, 5, 10, 25, 50, 100, 250, 500, 1000, 5000 };
+
+    private final AtomicLongArray cubetas = new AtomicLongArray(LIMITES_MS.length + 1);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sumaNanos = new LongAdder();
+    private final AtomicLong maximoNanos = new AtomicLong();
+
+    public void registrar(long nanos) {
+        long ms = TimeUnit.NANOSECONDS.toMillis(nanos);
+        int i = 0;
+        while (i < LIMITES_MS.length && ms > LIMITES_MS[i]) {
+            i++;
+        }
+        cubetas.incrementAndGet(i);
+        total.increment();
+        sumaNanos.add(nanos);
+        maximoNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Total, media, máximo y recuento por cubeta ("<=5ms", ">5000ms"...)
+     */
+    public Map<String, Object> resumen() {
+        long n = total.sum();
+        Map<String, Object> resumen = new LinkedHashMap<>();
+        resumen.put("total", n);
+        resumen.put("mediaMs", n > 0 ? sumaNanos.sum() / n / 1_000_000.0 : 0.0);
+        resumen.put("maximoMs", maximoNanos.get() / 1_000_000.0);
+
+        Map<String, Long> porCubeta = new LinkedHashMap<>();
+        for (int i = 0; i < LIMITES_MS.length; i++) {
+            porCubeta.put("<=" + LIMITES_MS[i] + "ms", cubetas.get(i));
+        }
+        porCubeta.put(">" + LIMITES_MS[LIMITES_MS.length - 1] + "ms", cubetas.get(LIMITES_MS.length));
+        resumen.put("cubetas", porCubeta);
+        return resumen;
+    }
+}
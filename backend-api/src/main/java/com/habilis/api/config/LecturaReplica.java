@@ -0,0 +1,23 @@
+package com.habilis.api.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca las lecturas que pueden ir a una réplica (catálogo, listados,
+ * estadísticas, analítica, exportaciones)
+ *
+ * Las réplicas pueden ir hasta habilis.datasource.retraso-maximo-ms por
+ * detrás de la primaria, así que solo se marcan las lecturas que toleran no
+ * ver lo último confirmado. Todo lo demás, aunque sea de solo lectura, va a
+ * la primaria. Solo tiene efecto en transacciones de solo lectura y en
+ * llamadas a través del proxy del bean (LecturaReplicaAspect).
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.TYPE, ElementType.METHOD })
+public @interface LecturaReplica {
+}
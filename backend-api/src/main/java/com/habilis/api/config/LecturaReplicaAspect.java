@@ -0,0 +1,29 @@
+package com.habilis.api.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Permite las réplicas mientras se ejecuta un método marcado con @LecturaReplica
+ * Va por fuera de @Transactional: la conexión se elige en la primera
+ * sentencia (EnrutadorDataSource), con la marca ya puesta
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class LecturaReplicaAspect {
+
+    @Around("@within(com.habilis.api.config.LecturaReplica) || @annotation(com.habilis.api.config.LecturaReplica)")
+    public Object enReplica(ProceedingJoinPoint punto) throws Throwable {
+        Boolean anterior = EnrutadorDataSource.permitirReplica(Boolean.TRUE);
+        try {
+            return punto.proceed();
+        } finally {
+            EnrutadorDataSource.permitirReplica(anterior);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.habilis.api.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+/**
+ * Activa los mensajes DEBUG de la aplicación en las peticiones muestreadas
+ *
+ * Se declara en logback-spring.xml. En las peticiones que CorrelacionFilter
+ * marca, los DEBUG de com.habilis.api se aceptan sin mirar el nivel del
+ * logger; el resto de peticiones y de loggers siguen su nivel normal, así que
+ * el coste fuera del muestreo es una consulta al MDC por mensaje DEBUG.
+ */
+public class MuestreoDebugTurboFilter extends TurboFilter {
+
+    private static final String PAQUETE = "com.habilis.api";
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params,
+            Throwable t) {
+        if (level != Level.DEBUG || !logger.getName().startsWith(PAQUETE)) {
+            return FilterReply.NEUTRAL;
+        }
+        return MDC.get(CorrelacionFilter.MDC_MUESTREO) != null ? FilterReply.ACCEPT : FilterReply.NEUTRAL;
+    }
+}
@@ -0,0 +1,71 @@
+package com.habilis.api.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Presupuesto de sentencias SQL para las lecturas de pedidos en ejecución
+ *
+ * Complemento opcional de las pruebas de presupuesto (PresupuestoSqlPedidosTest),
+ * que son las que hacen fallar el build: cuenta las sentencias de Hibernate
+ * (ContadorSentenciasSql) en cada GET de las rutas configuradas y avisa si una
+ * petición real supera el presupuesto. Con habilis.sql.presupuesto.estricto=true
+ * la petición falla en la sentencia que lo supera.
+ */
+@Component
+public class PresupuestoSqlFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(PresupuestoSqlFilter.class);
+
+    private final AntPathMatcher rutas = new AntPathMatcher();
+    private final boolean activo;
+    private final int limite;
+    private final boolean estricto;
+    private final List<String> patrones;
+
+    public PresupuestoSqlFilter(
+            @Value("${habilis.sql.presupuesto.activo:true}") boolean activo,
+            @Value("${habilis.sql.presupuesto.sentencias:8}") int limite,
+            @Value("${habilis.sql.presupuesto.estricto:false}") boolean estricto,
+            @Value("${habilis.sql.presupuesto.rutas:/api/pedidos/**,/api/facturas/**}") List<String> patrones) {
+        this.activo = activo;
+        this.limite = limite;
+        this.estricto = estricto;
+        this.patrones = patrones;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!activo || !"GET".equals(request.getMethod())) {
+            return true;
+        }
+        String ruta = request.getRequestURI().substring(request.getContextPath().length());
+        return patrones.stream().noneMatch(patron -> rutas.match(patron, ruta));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String descripcion = request.getMethod() + " " + request.getRequestURI();
+        ContadorSentenciasSql.iniciar(descripcion, limite, estricto);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            int sentencias = ContadorSentenciasSql.terminar();
+            if (sentencias > limite) {
+                log.warn("{}: {} sentencias SQL (presupuesto: {})", descripcion, sentencias, limite);
+            }
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.habilis.api.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -60,10 +62,29 @@ public class SecurityConfig {
         /**
          * Bean para encriptar contraseñas con BCrypt
          * Fuerza de encriptación: 10 rondas (por defecto)
+         * Cada verificación (login) se mide en habilis.bcrypt.verificacion
          */
         @Bean
-        public PasswordEncoder passwordEncoder() {
-                return new BCryptPasswordEncoder();
+        public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+                BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder();
+                Timer verificacion = meterRegistry.timer("habilis.bcrypt.verificacion");
+
+                return new PasswordEncoder() {
+                        @Override
+                        public String encode(CharSequence rawPassword) {
+                                return bcrypt.encode(rawPassword);
+                        }
+
+                        @Override
+                        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                                return verificacion.record(() -> bcrypt.matches(rawPassword, encodedPassword));
+                        }
+
+                        @Override
+                        public boolean upgradeEncoding(String encodedPassword) {
+                                return bcrypt.upgradeEncoding(encodedPassword);
+                        }
+                };
         }
 
         /**
@@ -0,0 +1,59 @@
+package com.habilis.api.config;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.http.HttpServletRequest;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewFilter;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Sesión JPA abierta durante toda la petición, solo para los métodos indicados
+ *
+ * Sustituye a spring.jpa.open-in-view (desactivado): la sesión por petición
+ * retiene su conexión hasta el final, también mientras se genera un PDF o se
+ * envía un correo. Con habilis.jpa.sesion-por-peticion.metodos=GET,HEAD las
+ * lecturas siguen pudiendo serializar asociaciones perezosas, y en el resto
+ * cada servicio abre y cierra su propia transacción y la conexión vuelve al
+ * pool al terminarla. Vacío = nunca.
+ *
+ * Además evita que una petición reutilice para escribir la conexión de
+ * réplica que obtuvo en una lectura anterior (EnrutadorDataSource).
+ *
+ * La sesión se abre en modo read-only: lo que se carga al serializar, fuera
+ * de las transacciones, no guarda copia para el dirty checking. Las
+ * transacciones de escritura la vuelven modificable mientras duran
+ * (SesionSoloLecturaJpaDialect).
+ */
+@Component
+public class SesionJpaPorPeticionFilter extends OpenEntityManagerInViewFilter {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final List<String> metodos;
+
+    public SesionJpaPorPeticionFilter(EntityManagerFactory entityManagerFactory,
+            @Value("${habilis.jpa.sesion-por-peticion.metodos:GET,HEAD}") List<String> metodos) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.metodos = metodos;
+    }
+
+    @Override
+    protected EntityManagerFactory lookupEntityManagerFactory() {
+        return entityManagerFactory;
+    }
+
+    @Override
+    protected EntityManager createEntityManager(EntityManagerFactory emf) {
+        EntityManager entityManager = super.createEntityManager(emf);
+        entityManager.unwrap(Session.class).setDefaultReadOnly(true);
+        return entityManager;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !metodos.contains(request.getMethod());
+    }
+}
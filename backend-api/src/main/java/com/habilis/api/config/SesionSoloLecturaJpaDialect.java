@@ -0,0 +1,58 @@
+package com.habilis.api.config;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Modo read-only de Hibernate también en la sesión abierta por petición
+ *
+ * HibernateJpaDialect solo deja la sesión en read-only cuando la transacción
+ * abre su propio EntityManager. Con la sesión de SesionJpaPorPeticionFilter
+ * ya abierta, una transacción readOnly solo desactiva el flush y las entidades
+ * siguen guardando su copia para el dirty checking. Aquí el modo por defecto
+ * de la sesión sigue al de la transacción y se restablece al terminarla.
+ *
+ * Una transacción de escritura vuelve modificables las entidades que la
+ * petición ya había cargado como read-only, para que sus cambios se guarden.
+ */
+public class SesionSoloLecturaJpaDialect extends HibernateJpaDialect {
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws PersistenceException, SQLException, TransactionException {
+        Object datos = super.beginTransaction(entityManager, definition);
+
+        SessionImplementor sesion = entityManager.unwrap(SessionImplementor.class);
+        boolean soloLecturaAnterior = sesion.isDefaultReadOnly();
+        sesion.setDefaultReadOnly(definition.isReadOnly());
+        if (!definition.isReadOnly()) {
+            for (Map.Entry<Object, EntityEntry> entrada : sesion.getPersistenceContextInternal()
+                    .reentrantSafeEntityEntries()) {
+                if (entrada.getValue().isReadOnly()) {
+                    sesion.setReadOnly(entrada.getKey(), false);
+                }
+            }
+        }
+        return new DatosTransaccion(datos, sesion, soloLecturaAnterior);
+    }
+
+    @Override
+    public void cleanupTransaction(Object transactionData) {
+        DatosTransaccion datos = (DatosTransaccion) transactionData;
+        super.cleanupTransaction(datos.datos());
+        if (datos.sesion().isOpen()) {
+            datos.sesion().setDefaultReadOnly(datos.soloLecturaAnterior());
+        }
+    }
+
+    private record DatosTransaccion(Object datos, SessionImplementor sesion, boolean soloLecturaAnterior) {
+    }
+}
@@ -0,0 +1,103 @@
+package com.habilis.api.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Un tramo (span) de una traza: una operación con su inicio y duración
+ *
+ * Se abre con Trazas.tramo() y se cierra con close(), normalmente con
+ * try-with-resources. Fuera de una petición trazada se recibe NINGUNO, que
+ * no mide nada, así que el código instrumentado no tiene que comprobarlo.
+ */
+public final class Tramo implements AutoCloseable {
+
+    static final Tramo NINGUNO = new Tramo(null, -1, -1, "", false, 0);
+
+    private final Traza traza;
+    private final int id;
+    private final int padre;
+    private String nombre;
+    private final boolean externo;
+    private final long inicioNanos;
+    private long duracionNanos = -1;
+    private Map<String, String> atributos;
+
+    Tramo(Traza traza, int id, int padre, String nombre, boolean externo, long inicioNanos) {
+        this.traza = traza;
+        this.id = id;
+        this.padre = padre;
+        this.nombre = nombre;
+        this.externo = externo;
+        this.inicioNanos = inicioNanos;
+    }
+
+    /**
+     * Añadir un atributo (sentencia SQL, tipo de email...) al tramo
+     */
+    public Tramo atributo(String clave, Object valor) {
+        if (traza != null && valor != null) {
+            if (atributos == null) {
+                atributos = new LinkedHashMap<>();
+            }
+            atributos.put(clave, String.valueOf(valor));
+        }
+        return this;
+    }
+
+    @Override
+    public void close() {
+        if (traza != null && duracionNanos < 0) {
+            traza.cerrar(this);
+        }
+    }
+
+    void terminar(long finNanos) {
+        duracionNanos = finNanos - inicioNanos;
+    }
+
+    void renombrar(String nombre) {
+        this.nombre = nombre;
+    }
+
+    int getId() {
+        return id;
+    }
+
+    int getPadre() {
+        return padre;
+    }
+
+    String getNombre() {
+        return nombre;
+    }
+
+    boolean isExterno() {
+        return externo;
+    }
+
+    long getInicioNanos() {
+        return inicioNanos;
+    }
+
+    long getDuracionNanos() {
+        return duracionNanos;
+    }
+
+    Map<String, String> getAtributos() {
+        return atributos != null ? atributos : Map.of();
+    }
+
+    Map<String, Object> resumen(long inicioTrazaNanos) {
+        Map<String, Object> resumen = new LinkedHashMap<>();
+        resumen.put("id", id);
+        resumen.put("padre", padre);
+        resumen.put("nombre", nombre);
+        resumen.put("inicioMs", (inicioNanos - inicioTrazaNanos) / 1_000_000.0);
+        resumen.put("duracionMs", duracionNanos / 1_000_000.0);
+        if (atributos != null) {
+            resumen.put("atributos", atributos);
+        }
+        return resumen;
+    }
+}
@@ -0,0 +1,114 @@
+package com.habilis.api.config;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Traza de una petición: el tramo raíz (la petición) y los tramos anidados
+ * que se abren en su hilo (servicios, sentencias JDBC, SMTP)
+ *
+ * La usa un único hilo mientras está abierta; una vez terminada no cambia y
+ * se puede leer desde cualquier hilo (Trazas.lentas, ExportadorOtlp). El
+ * número de tramos está acotado: los que superan el máximo se cuentan como
+ * descartados.
+ */
+public final class Traza {
+
+    private final String id;
+    private final long inicioEpochNanos;
+    private final int maximoTramos;
+    private final List<Tramo> tramos = new ArrayList<>();
+    private final List<Tramo> abiertos = new ArrayList<>();
+    private final Tramo raiz;
+    private int descartados;
+
+    Traza(String id, int maximoTramos) {
+        this.id = id;
+        this.maximoTramos = maximoTramos;
+        Instant ahora = Instant.now();
+        this.inicioEpochNanos = ahora.getEpochSecond() * 1_000_000_000L + ahora.getNano();
+        this.raiz = abrir("peticion", false);
+    }
+
+    Tramo abrir(String nombre, boolean externo) {
+        if (tramos.size() >= maximoTramos) {
+            descartados++;
+            return Tramo.NINGUNO;
+        }
+        int padre = abiertos.isEmpty() ? -1 : abiertos.get(abiertos.size() - 1).getId();
+        Tramo tramo = new Tramo(this, tramos.size(), padre, nombre, externo, System.nanoTime());
+        tramos.add(tramo);
+        abiertos.add(tramo);
+        return tramo;
+    }
+
+    void cerrar(Tramo tramo) {
+        tramo.terminar(System.nanoTime());
+        int posicion = abiertos.lastIndexOf(tramo);
+        if (posicion >= 0) {
+            abiertos.remove(posicion);
+        }
+    }
+
+    /**
+     * Cerrar los tramos que sigan abiertos y la raíz, con su nombre definitivo
+     */
+    void terminar(String nombre) {
+        raiz.renombrar(nombre);
+        for (int i = abiertos.size() - 1; i >= 0; i--) {
+            abiertos.get(i).terminar(System.nanoTime());
+        }
+        abiertos.clear();
+    }
+
+    String getId() {
+        return id;
+    }
+
+    Tramo getRaiz() {
+        return raiz;
+    }
+
+    List<Tramo> getTramos() {
+        return tramos;
+    }
+
+    long getInicioEpochNanos() {
+        return inicioEpochNanos;
+    }
+
+    long getDuracionNanos() {
+        return raiz.getDuracionNanos();
+    }
+
+    Map<String, Object> resumen() {
+        Map<String, Object> resumen = new LinkedHashMap<>();
+        resumen.put("id", id);
+        resumen.put("nombre", raiz.getNombre());
+        resumen.put("inicio", Instant.ofEpochSecond(0, inicioEpochNanos).toString());
+        resumen.put("duracionMs", getDuracionNanos() / 1_000_000.0);
+        resumen.put("atributos", raiz.getAtributos());
+        resumen.put("tramosDescartados", descartados);
+
+        // Tiempo total en base de datos, para ver de un vistazo si pesa más el SQL
+        long jdbcNanos = 0;
+        int sentencias = 0;
+        List<Map<String, Object>> detalle = new ArrayList<>(tramos.size());
+        for (Tramo tramo : tramos) {
+            if (tramo.getNombre().startsWith(TrazaJdbc.PREFIJO)) {
+                jdbcNanos += tramo.getDuracionNanos();
+                sentencias++;
+            }
+            if (tramo != raiz) {
+                detalle.add(tramo.resumen(raiz.getInicioNanos()));
+            }
+        }
+        resumen.put("sentenciasJdbc", sentencias);
+        resumen.put("jdbcMs", jdbcNanos / 1_000_000.0);
+        resumen.put("tramos", detalle);
+        return resumen;
+    }
+}
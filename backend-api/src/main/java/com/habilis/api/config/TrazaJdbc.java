@@ -0,0 +1,91 @@
+package com.habilis.api.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+/**
+ * Tramos de las sentencias JDBC de una petición trazada
+ *
+ * EnrutadorDataSource envuelve con sentencia() los Statement que se crean
+ * mientras hay una traza abierta en el hilo: cada execute* es un tramo con
+ * el SQL (recortado) y el pool que lo ejecuta. Fuera de una traza las
+ * sentencias se devuelven sin envolver.
+ */
+final class TrazaJdbc {
+
+    static final String PREFIJO = "jdbc ";
+
+    private static final int MAXIMO_SQL = 500;
+
+    private TrazaJdbc() {
+    }
+
+    /**
+     * Envolver la sentencia devuelta por prepareStatement, prepareCall o
+     * createStatement
+     *
+     * @param sql SQL de la sentencia preparada, o null en createStatement
+     */
+    static Statement sentencia(Statement sentencia, String metodo, String sql, String pool) {
+        Class<?> tipo = switch (metodo) {
+            case "prepareCall" -> CallableStatement.class;
+            case "prepareStatement" -> PreparedStatement.class;
+            default -> Statement.class;
+        };
+        int[] lote = new int[1];
+
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[] { tipo },
+                (proxy, m, args) -> {
+                    String nombre = m.getName();
+                    if (nombre.equals("equals")) {
+                        return proxy == args[0];
+                    }
+                    if (nombre.equals("hashCode")) {
+                        return System.identityHashCode(proxy);
+                    }
+                    if (nombre.equals("addBatch")) {
+                        lote[0]++;
+                    }
+                    if (!nombre.startsWith("execute")) {
+                        return invocar(sentencia, m, args);
+                    }
+
+                    // Statement.execute*(sql) lleva el SQL en el primer argumento
+                    String texto = sql != null ? sql
+                            : args != null && args.length > 0 && args[0] instanceof String s ? s : "";
+                    try (Tramo tramo = Trazas.tramoExterno(PREFIJO + verbo(texto))) {
+                        tramo.atributo("db.statement", recortar(texto)).atributo("db.pool", pool);
+                        if (nombre.contains("Batch")) {
+                            tramo.atributo("db.lote", lote[0]);
+                            lote[0] = 0;
+                        }
+                        return invocar(sentencia, m, args);
+                    }
+                });
+    }
+
+    private static Object invocar(Object destino, Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(destino, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private static String verbo(String sql) {
+        String texto = sql.stripLeading();
+        int fin = 0;
+        while (fin < texto.length() && Character.isLetter(texto.charAt(fin))) {
+            fin++;
+        }
+        return fin == 0 ? "sql" : texto.substring(0, fin).toUpperCase();
+    }
+
+    private static String recortar(String sql) {
+        return sql.length() <= MAXIMO_SQL ? sql : sql.substring(0, MAXIMO_SQL) + "...";
+    }
+}
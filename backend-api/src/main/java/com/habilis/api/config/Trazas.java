@@ -0,0 +1,135 @@
+package com.habilis.api.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * Trazas en proceso de las peticiones HTTP
+ *
+ * TrazasFilter abre una traza por petición en el hilo que la atiende, con el
+ * id de correlación de los logs; el código instrumentado abre tramos anidados
+ * con Trazas.tramo() (servicios) y Trazas.tramoExterno() (JDBC, SMTP). Al
+ * terminar, la traza entra en el ranking de las más lentas si supera a la
+ * más rápida guardada y, si está configurado, se exporta por OTLP.
+ *
+ * Solo se traza el hilo de la petición: el trabajo que se delega a otros
+ * hilos (cola de admisión, notificaciones, tareas programadas) no aparece.
+ */
+@Component
+public class Trazas {
+
+    private static final ThreadLocal<Traza> ACTUAL = new ThreadLocal<>();
+    private static final Pattern ID_HEX = Pattern.compile("[0-9a-f]{32}");
+
+    private final int maximoGuardadas;
+    private final int maximoTramos;
+    private final ExportadorOtlp exportadorOtlp;
+
+    // Montículo con la traza guardada más rápida en la cabeza
+    private final PriorityQueue<Traza> lentas = new PriorityQueue<>(Comparator.comparingLong(Traza::getDuracionNanos));
+    private volatile long umbralNanos;
+
+    public Trazas(@Value("${habilis.trazas.guardadas:50}") int maximoGuardadas,
+            @Value("${habilis.trazas.tramos-por-traza:500}") int maximoTramos,
+            ExportadorOtlp exportadorOtlp) {
+        this.maximoGuardadas = maximoGuardadas;
+        this.maximoTramos = maximoTramos;
+        this.exportadorOtlp = exportadorOtlp;
+    }
+
+    /**
+     * Abrir un tramo interno (servicio) en la traza del hilo actual
+     * Sin traza abierta devuelve un tramo que no mide nada
+     */
+    public static Tramo tramo(String nombre) {
+        Traza traza = ACTUAL.get();
+        return traza != null ? traza.abrir(nombre, false) : Tramo.NINGUNO;
+    }
+
+    /**
+     * Abrir un tramo de una llamada a un sistema externo (base de datos, SMTP)
+     */
+    public static Tramo tramoExterno(String nombre) {
+        Traza traza = ACTUAL.get();
+        return traza != null ? traza.abrir(nombre, true) : Tramo.NINGUNO;
+    }
+
+    static boolean activa() {
+        return ACTUAL.get() != null;
+    }
+
+    /**
+     * Abrir la traza de la petición del hilo actual
+     *
+     * @param correlacionId Id de los logs; si no tiene formato de trace id
+     *                      de W3C/OTLP (32 hex) se genera uno
+     */
+    Traza iniciar(String correlacionId) {
+        String id = correlacionId != null ? correlacionId.replace("-", "").toLowerCase() : "";
+        if (!ID_HEX.matcher(id).matches()) {
+            ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+            id = String.format("%016x%016x", aleatorio.nextLong(), aleatorio.nextLong());
+        }
+        Traza traza = new Traza(id, maximoTramos);
+        ACTUAL.set(traza);
+        return traza;
+    }
+
+    /**
+     * Cerrar la traza del hilo actual
+     *
+     * @param nombre Nombre definitivo del tramo raíz (p. ej. "POST /api/pedidos")
+     */
+    void terminar(String nombre) {
+        Traza traza = ACTUAL.get();
+        ACTUAL.remove();
+        if (traza == null) {
+            return;
+        }
+        traza.terminar(nombre);
+
+        // La mayoría de peticiones no entra en el ranking: se descarta sin bloqueo
+        if (traza.getDuracionNanos() > umbralNanos) {
+            clasificar(traza);
+        }
+        exportadorOtlp.encolar(traza);
+    }
+
+    private synchronized void clasificar(Traza traza) {
+        if (lentas.size() < maximoGuardadas) {
+            lentas.add(traza);
+        } else if (traza.getDuracionNanos() > lentas.peek().getDuracionNanos()) {
+            lentas.poll();
+            lentas.add(traza);
+        }
+        umbralNanos = lentas.size() < maximoGuardadas ? 0 : lentas.peek().getDuracionNanos();
+    }
+
+    /**
+     * Las trazas más lentas guardadas, de la más lenta a la más rápida
+     */
+    public List<Map<String, Object>> lentas() {
+        List<Traza> copia;
+        synchronized (this) {
+            copia = new ArrayList<>(lentas);
+        }
+        copia.sort(Comparator.comparingLong(Traza::getDuracionNanos).reversed());
+        return copia.stream().map(Traza::resumen).toList();
+    }
+
+    /**
+     * Vaciar el ranking (p. ej. antes de una prueba de carga)
+     */
+    public synchronized void limpiar() {
+        lentas.clear();
+        umbralNanos = 0;
+    }
+}
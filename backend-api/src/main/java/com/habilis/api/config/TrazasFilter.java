@@ -0,0 +1,57 @@
+package com.habilis.api.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Abre y cierra la traza de cada petición (Trazas)
+ *
+ * Va justo después de CorrelacionFilter para reutilizar su id como id de la
+ * traza. Las peticiones de Actuator (scrape de Prometheus) no se trazan.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class TrazasFilter extends OncePerRequestFilter {
+
+    private final Trazas trazas;
+    private final boolean activo;
+
+    public TrazasFilter(Trazas trazas, @Value("${habilis.trazas.activo:true}") boolean activo) {
+        this.trazas = trazas;
+        this.activo = activo;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !activo || request.getRequestURI().startsWith(request.getContextPath() + "/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Traza traza = trazas.iniciar(MDC.get(CorrelacionFilter.MDC_CORRELACION));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            // Patrón de la ruta (/api/pedidos/{id}) para agrupar las trazas
+            Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String ruta = patron != null ? patron.toString() : request.getRequestURI();
+            traza.getRaiz()
+                    .atributo("http.method", request.getMethod())
+                    .atributo("http.route", ruta)
+                    .atributo("http.status_code", response.getStatus());
+            trazas.terminar(request.getMethod() + " " + ruta);
+        }
+    }
+}
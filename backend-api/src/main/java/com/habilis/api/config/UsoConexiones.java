@@ -0,0 +1,117 @@
+package com.habilis.api.config;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tiempo que cada ruta mantiene conexiones de base de datos
+ *
+ * EnrutadorDataSource suma al hilo actual lo que dura cada conexión desde que
+ * se obtiene hasta que se devuelve; UsoConexionesFilter abre la medición al
+ * empezar la petición y la cierra al terminar, agrupando por ruta. Sirve para
+ * ver qué endpoints retienen conexiones mientras hacen otro trabajo (PDF,
+ * SMTP) y dimensionar el pool con datos. Las conexiones de otros hilos
+ * (consultas en paralelo, tareas programadas) no se atribuyen a la petición.
+ */
+@Component
+public class UsoConexiones {
+
+    private static final ThreadLocal<Medicion> MEDICION = new ThreadLocal<>();
+
+    private final Map<String, Ruta> rutas = new ConcurrentHashMap<>();
+
+    /**
+     * Sumar una conexión devuelta a la petición del hilo actual, si la hay
+     */
+    static void registrarRetencion(long nanos) {
+        Medicion medicion = MEDICION.get();
+        if (medicion != null) {
+            medicion.conexiones++;
+            medicion.retencionNanos += nanos;
+        }
+    }
+
+    /**
+     * Abrir la medición de la petición del hilo actual
+     */
+    void iniciar() {
+        MEDICION.set(new Medicion(System.nanoTime()));
+    }
+
+    /**
+     * Cerrar la medición del hilo actual y acumularla en su ruta
+     *
+     * @param ruta Método y patrón de la ruta (p. ej. "POST /api/pedidos")
+     */
+    void terminar(String ruta) {
+        Medicion medicion = MEDICION.get();
+        MEDICION.remove();
+        if (medicion == null || medicion.conexiones == 0) {
+            return;
+        }
+        rutas.computeIfAbsent(ruta, r -> new Ruta()).registrar(medicion, System.nanoTime() - medicion.inicio);
+    }
+
+    /**
+     * Rutas ordenadas por tiempo total de retención (la que más ocupa el pool primero)
+     */
+    public List<Map<String, Object>> estado() {
+        List<Map<String, Object>> estado = new ArrayList<>();
+        rutas.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, Ruta> e) -> e.getValue().retencionNanos.sum())
+                        .reversed())
+                .forEach(e -> estado.add(e.getValue().estado(e.getKey())));
+        return estado;
+    }
+
+    private static final class Medicion {
+        private final long inicio;
+        private int conexiones;
+        private long retencionNanos;
+
+        private Medicion(long inicio) {
+            this.inicio = inicio;
+        }
+    }
+
+    private static final class Ruta {
+        private final LongAdder peticiones = new LongAdder();
+        private final LongAdder conexiones = new LongAdder();
+        private final LongAdder retencionNanos = new LongAdder();
+        private final LongAdder duracionNanos = new LongAdder();
+        private final AtomicLong retencionMaximaNanos = new AtomicLong();
+        private final HistogramaTiempos retencion = new HistogramaTiempos();
+
+        private void registrar(Medicion medicion, long duracion) {
+            peticiones.increment();
+            conexiones.add(medicion.conexiones);
+            retencionNanos.add(medicion.retencionNanos);
+            duracionNanos.add(duracion);
+            retencionMaximaNanos.accumulateAndGet(medicion.retencionNanos, Math::max);
+            retencion.registrar(medicion.retencionNanos);
+        }
+
+        private Map<String, Object> estado(String ruta) {
+            long n = peticiones.sum();
+            long duracion = duracionNanos.sum();
+            Map<String, Object> estado = new LinkedHashMap<>();
+            estado.put("ruta", ruta);
+            estado.put("peticiones", n);
+            estado.put("conexionesPorPeticion", (double) conexiones.sum() / n);
+            estado.put("retencionMediaMs", retencionNanos.sum() / n / 1_000_000.0);
+            estado.put("retencionMaximaMs", retencionMaximaNanos.get() / 1_000_000.0);
+            // Parte de la petición con una conexión ocupada (1.0 = toda)
+            estado.put("fraccionConConexion", duracion > 0 ? (double) retencionNanos.sum() / duracion : 0.0);
+            estado.put("retencion", retencion.resumen());
+            return estado;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.habilis.api.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Mide por petición el tiempo de retención de conexiones (UsoConexiones)
+ *
+ * Va por delante del resto de filtros para que también cuente la conexión
+ * que la sesión JPA por petición devuelve al terminar.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class UsoConexionesFilter extends OncePerRequestFilter {
+
+    private final UsoConexiones usoConexiones;
+
+    public UsoConexionesFilter(UsoConexiones usoConexiones) {
+        this.usoConexiones = usoConexiones;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        usoConexiones.iniciar();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            // Patrón de la ruta (/api/pedidos/{id}) para no crear una entrada por ID
+            Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            usoConexiones.terminar(request.getMethod() + " " + (patron != null ? patron : "(sin ruta)"));
+        }
+    }
+}
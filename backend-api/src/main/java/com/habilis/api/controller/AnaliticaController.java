@@ -0,0 +1,127 @@
+package com.habilis.api.controller;
+
+import com.habilis.api.dto.PuntoVentas;
+import com.habilis.api.dto.RankingVentas;
+import com.habilis.api.service.AnaliticaVentasService;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controlador REST para la analítica de ventas del panel de administración
+ * Solo lee las tablas de resumen; todas las operaciones requieren rol ADMIN
+ */
+@RestController
+@RequestMapping("/api/analitica")
+public class AnaliticaController {
+
+    private final AnaliticaVentasService analiticaVentasService;
+
+    public AnaliticaController(AnaliticaVentasService analiticaVentasService) {
+        this.analiticaVentasService = analiticaVentasService;
+    }
+
+    /**
+     * GET /api/analitica/ventas?desde=2026-01-01&hasta=2026-01-31&granularidad=DIA
+     * Serie temporal de pedidos, unidades e ingresos (HORA, DIA, SEMANA o MES)
+     * hasta es inclusiva
+     */
+    @GetMapping("/ventas")
+    public ResponseEntity<?> ventas(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(defaultValue = "DIA") String granularidad,
+            HttpSession session) {
+
+        ResponseEntity<?> denegado = comprobarAdmin(session);
+        if (denegado != null) {
+            return denegado;
+        }
+
+        try {
+            List<PuntoVentas> serie = analiticaVentasService.serie(desde, hasta, granularidad);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("desde", desde);
+            response.put("hasta", hasta);
+            response.put("granularidad", granularidad.toUpperCase());
+            response.put("serie", serie);
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/analitica/productos/top?desde=...&hasta=...&limite=10&orden=INGRESOS&categoriaId=X
+     * Productos más vendidos (ingresos o unidades netos de cancelaciones)
+     */
+    @GetMapping("/productos/top")
+    public ResponseEntity<?> topProductos(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(defaultValue = "10") int limite,
+            @RequestParam(defaultValue = "INGRESOS") String orden,
+            @RequestParam(required = false) Long categoriaId,
+            HttpSession session) {
+
+        ResponseEntity<?> denegado = comprobarAdmin(session);
+        if (denegado != null) {
+            return denegado;
+        }
+
+        try {
+            List<RankingVentas> productos = analiticaVentasService.topProductos(desde, hasta, limite,
+                    orden, categoriaId);
+            return ResponseEntity.ok(productos);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/analitica/categorias?desde=...&hasta=...
+     * Ventas por categoría en el rango
+     */
+    @GetMapping("/categorias")
+    public ResponseEntity<?> porCategoria(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            HttpSession session) {
+
+        ResponseEntity<?> denegado = comprobarAdmin(session);
+        if (denegado != null) {
+            return denegado;
+        }
+
+        try {
+            List<RankingVentas> categorias = analiticaVentasService.porCategoria(desde, hasta);
+            return ResponseEntity.ok(categorias);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage()));
+        }
+    }
+
+    private ResponseEntity<?> comprobarAdmin(HttpSession session) {
+        String tipoUsuario = (String) session.getAttribute("userRole");
+        if (tipoUsuario == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(
+                    Map.of("error", "Debes iniciar sesión primero"));
+        }
+        if (!"ADMIN".equals(tipoUsuario)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(
+                    Map.of("error", "Solo los administradores pueden consultar la analítica de ventas"));
+        }
+        return null;
+    }
+}
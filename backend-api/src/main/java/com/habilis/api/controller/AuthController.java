@@ -4,9 +4,12 @@ import com.habilis.api.dto.AuthResponse;
 import com.habilis.api.dto.LoginRequest;
 import com.habilis.api.dto.RegistroRequest;
 import com.habilis.api.entity.Usuario;
+import com.habilis.api.service.ConsultaUsuarioService;
 import com.habilis.api.service.UsuarioService;
 import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -22,10 +25,15 @@ import java.util.Map;
 @RequestMapping("/api/auth")
 public class AuthController {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthController.class);
+
     private final UsuarioService usuarioService;
+    private final ConsultaUsuarioService consultaUsuarioService;
 
-    public AuthController(UsuarioService usuarioService) {
+    public AuthController(UsuarioService usuarioService,
+            ConsultaUsuarioService consultaUsuarioService) {
         this.usuarioService = usuarioService;
+        this.consultaUsuarioService = consultaUsuarioService;
     }
 
     /**
@@ -87,16 +95,14 @@ public class AuthController {
     @PostMapping("/login")
     public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request, HttpSession session) {
         try {
-            System.out.println("=== LOGIN - DEBUG ===");
-            System.out.println("Email: " + request.getCorreoElectronico());
-            System.out.println("Session ID antes de login: " + session.getId());
+            log.debug("Login de {}", request.getCorreoElectronico());
 
-            Usuario usuario = usuarioService.login(request.getCorreoElectronico(), request.getContrasena());
+            Usuario usuario = consultaUsuarioService.login(request.getCorreoElectronico(), request.getContrasena());
 
             // Verificar si tiene 2FA habilitado
             if (usuario.getTwoFactorEnabled()) {
                 // NO crear sesión aún - esperar código 2FA
-                System.out.println("⚠️ Usuario tiene 2FA habilitado, esperando código");
+                log.debug("Usuario {} con 2FA, esperando código", usuario.getId());
                 AuthResponse response = new AuthResponse(true, "Se requiere autenticación de dos factores");
                 response.setUserId(usuario.getId());
                 response.setRequires2FA(true);
@@ -106,12 +112,8 @@ public class AuthController {
                 session.setAttribute("userId", usuario.getId());
                 session.setAttribute("userRole", usuario.getTipoUsuario());
 
-                System.out.println("✅ Sesión creada:");
-                System.out.println("  - Session ID: " + session.getId());
-                System.out.println("  - User ID: " + session.getAttribute("userId"));
-                System.out.println("  - User Role: " + session.getAttribute("userRole"));
-                System.out.println("  - Max Inactive Interval: " + session.getMaxInactiveInterval() + " segundos");
-                System.out.println("=== FIN LOGIN ===");
+                log.debug("Sesión iniciada: usuario={}, rol={}, inactividad máxima={}s",
+                        usuario.getId(), usuario.getTipoUsuario(), session.getMaxInactiveInterval());
 
                 return ResponseEntity.ok(new AuthResponse(
                         true,
@@ -120,7 +122,7 @@ public class AuthController {
                         usuario.getTipoUsuario()));
             }
         } catch (RuntimeException e) {
-            System.err.println("❌ Error en login: " + e.getMessage());
+            log.info("Login fallido: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new AuthResponse(false, e.getMessage()));
         }
     }
@@ -133,7 +135,7 @@ public class AuthController {
     @GetMapping("/check-email")
     public ResponseEntity<?> checkEmail(@RequestParam String email) {
         try {
-            boolean exists = usuarioService.existeEmail(email);
+            boolean exists = consultaUsuarioService.existeEmail(email);
 
             Map<String, Object> response = new HashMap<>();
             response.put("exists", exists);
@@ -160,7 +162,7 @@ public class AuthController {
 
             if (codigoValido) {
                 // Código correcto - crear sesión
-                Usuario usuario = usuarioService.buscarPorId(usuarioId);
+                Usuario usuario = consultaUsuarioService.buscarPorId(usuarioId);
                 session.setAttribute("userId", usuario.getId());
                 session.setAttribute("userEmail", usuario.getCorreoElectronico());
                 session.setAttribute("userRole", usuario.getTipoUsuario());
@@ -193,7 +195,7 @@ public class AuthController {
         }
 
         try {
-            Usuario usuario = usuarioService.buscarPorId(userId);
+            Usuario usuario = consultaUsuarioService.buscarPorId(userId);
 
             Map<String, Object> response = new HashMap<>();
             response.put("id", usuario.getId());
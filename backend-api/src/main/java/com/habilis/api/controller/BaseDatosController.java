@@ -0,0 +1,88 @@
+package com.habilis.api.controller;
+
+import com.habilis.api.config.EnrutadorDataSource;
+import com.habilis.api.config.UsoConexiones;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Controlador REST con el estado de los pools de base de datos
+ * (primaria y réplicas de lectura) y el uso de conexiones por ruta;
+ * requiere rol ADMIN
+ */
+@RestController
+@RequestMapping("/api/bases-datos")
+public class BaseDatosController {
+
+    private final EnrutadorDataSource enrutadorDataSource;
+    private final UsoConexiones usoConexiones;
+
+    public BaseDatosController(EnrutadorDataSource enrutadorDataSource, UsoConexiones usoConexiones) {
+        this.enrutadorDataSource = enrutadorDataSource;
+        this.usoConexiones = usoConexiones;
+    }
+
+    /**
+     * GET /api/bases-datos
+     * Por pool: disponibilidad, retraso de replicación, conexiones enrutadas,
+     * conexiones activas, inactivas y en espera, pico de uso e histogramas de
+     * espera y retención de conexiones
+     * Por ruta: conexiones por petición y tiempo que las retiene
+     */
+    @GetMapping
+    public ResponseEntity<?> estado(HttpSession session) {
+        ResponseEntity<?> denegado = comprobarAdmin(session);
+        if (denegado != null) {
+            return denegado;
+        }
+
+        return ResponseEntity.ok(Map.of(
+                "pools", enrutadorDataSource.estado(),
+                "rutas", usoConexiones.estado()));
+    }
+
+    /**
+     * PUT /api/bases-datos/{pool}/tamano?maximo=20
+     * Cambiar en caliente el máximo de conexiones de un pool
+     * El cambio no se guarda: al reiniciar vuelve spring.datasource.hikari.maximum-pool-size
+     */
+    @PutMapping("/{pool}/tamano")
+    public ResponseEntity<?> cambiarTamano(
+            @PathVariable String pool,
+            @RequestParam int maximo,
+            HttpSession session) {
+        ResponseEntity<?> denegado = comprobarAdmin(session);
+        if (denegado != null) {
+            return denegado;
+        }
+
+        try {
+            enrutadorDataSource.cambiarTamano(pool, maximo);
+            return ResponseEntity.ok(Map.of("pool", pool, "maximoConexiones", maximo));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private ResponseEntity<?> comprobarAdmin(HttpSession session) {
+        String tipoUsuario = (String) session.getAttribute("userRole");
+        if (tipoUsuario == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(
+                    Map.of("error", "Debes iniciar sesión primero"));
+        }
+        if (!"ADMIN".equals(tipoUsuario)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(
+                    Map.of("error", "Solo los administradores pueden consultar las bases de datos"));
+        }
+        return null;
+    }
+}
@@ -0,0 +1,127 @@
+package com.habilis.api.controller;
+
+import com.habilis.api.dto.CarritoResponse;
+import com.habilis.api.dto.ItemPedidoRequest;
+import com.habilis.api.service.CarritoService;
+import jakarta.servlet.http.HttpSession;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Controlador REST para el carrito persistente del usuario actual
+ * Todas las operaciones requieren sesión activa
+ */
+@RestController
+@RequestMapping("/api/carrito")
+public class CarritoController {
+
+    private final CarritoService carritoService;
+
+    public CarritoController(CarritoService carritoService) {
+        this.carritoService = carritoService;
+    }
+
+    /**
+     * GET /api/carrito
+     * Obtener el carrito del usuario actual con su total
+     */
+    @GetMapping
+    public ResponseEntity<?> obtener(HttpSession session) {
+        Long userId = (Long) session.getAttribute("userId");
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(
+                    Map.of("error", "Debes iniciar sesión primero"));
+        }
+
+        CarritoResponse carrito = carritoService.obtener(userId);
+        return ResponseEntity.ok(carrito);
+    }
+
+    /**
+     * POST /api/carrito/items
+     * Añadir unidades de un producto al carrito
+     */
+    @PostMapping("/items")
+    public ResponseEntity<?> agregar(
+            @Valid @RequestBody ItemPedidoRequest request,
+            HttpSession session) {
+
+        Long userId = (Long) session.getAttribute("userId");
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(
+                    Map.of("error", "Debes iniciar sesión primero"));
+        }
+
+        try {
+            CarritoResponse carrito = carritoService.agregar(userId, request.getProductoId(), request.getCantidad());
+            return ResponseEntity.ok(carrito);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * PUT /api/carrito/items/{productoId}?cantidad=3
+     * Fijar la cantidad de un producto (0 lo elimina)
+     */
+    @PutMapping("/items/{productoId}")
+    public ResponseEntity<?> actualizarCantidad(
+            @PathVariable Long productoId,
+            @RequestParam Integer cantidad,
+            HttpSession session) {
+
+        Long userId = (Long) session.getAttribute("userId");
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(
+                    Map.of("error", "Debes iniciar sesión primero"));
+        }
+
+        try {
+            CarritoResponse carrito = carritoService.actualizarCantidad(userId, productoId, cantidad);
+            return ResponseEntity.ok(carrito);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * DELETE /api/carrito/items/{productoId}
+     * Eliminar un producto del carrito
+     */
+    @DeleteMapping("/items/{productoId}")
+    public ResponseEntity<?> eliminar(
+            @PathVariable Long productoId,
+            HttpSession session) {
+
+        Long userId = (Long) session.getAttribute("userId");
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(
+                    Map.of("error", "Debes iniciar sesión primero"));
+        }
+
+        CarritoResponse carrito = carritoService.eliminar(userId, productoId);
+        return ResponseEntity.ok(carrito);
+    }
+
+    /**
+     * DELETE /api/carrito
+     * Vaciar el carrito
+     */
+    @DeleteMapping
+    public ResponseEntity<?> vaciar(HttpSession session) {
+        Long userId = (Long) session.getAttribute("userId");
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(
+                    Map.of("error", "Debes iniciar sesión primero"));
+        }
+
+        CarritoResponse carrito = carritoService.vaciar(userId);
+        return ResponseEntity.ok(carrito);
+    }
+}
@@ -3,6 +3,7 @@ package com.habilis.api.controller;
 import com.habilis.api.dto.CategoriaRequest;
 import com.habilis.api.entity.Categoria;
 import com.habilis.api.service.CategoriaService;
+import com.habilis.api.service.ConsultaCategoriaService;
 import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
@@ -22,9 +23,12 @@ import java.util.Map;
 public class CategoriaController {
 
     private final CategoriaService categoriaService;
+    private final ConsultaCategoriaService consultaCategoriaService;
 
-    public CategoriaController(CategoriaService categoriaService) {
+    public CategoriaController(CategoriaService categoriaService,
+            ConsultaCategoriaService consultaCategoriaService) {
         this.categoriaService = categoriaService;
+        this.consultaCategoriaService = consultaCategoriaService;
     }
 
     /**
@@ -33,7 +37,7 @@ public class CategoriaController {
      */
     @GetMapping
     public ResponseEntity<List<Categoria>> listarTodas() {
-        List<Categoria> categorias = categoriaService.listarTodas();
+        List<Categoria> categorias = consultaCategoriaService.listarTodas();
         return ResponseEntity.ok(categorias);
     }
 
@@ -44,7 +48,7 @@ public class CategoriaController {
     @GetMapping("/{id}")
     public ResponseEntity<?> obtenerPorId(@PathVariable Long id) {
         try {
-            Categoria categoria = categoriaService.buscarPorId(id);
+            Categoria categoria = consultaCategoriaService.buscarPorId(id);
             return ResponseEntity.ok(categoria);
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(
@@ -172,7 +176,7 @@ public class CategoriaController {
     @GetMapping("/{id}/productos/count")
     public ResponseEntity<?> contarProductos(@PathVariable Long id) {
         try {
-            long count = categoriaService.contarProductos(id);
+            long count = consultaCategoriaService.contarProductos(id);
             return ResponseEntity.ok(Map.of(
                     "categoriaId", id,
                     "cantidadProductos", count));
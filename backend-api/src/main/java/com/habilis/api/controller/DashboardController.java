@@ -0,0 +1,61 @@
+package com.habilis.api.controller;
+
+import com.habilis.api.service.DashboardService;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Controlador REST para el panel del usuario (user-dashboard.html)
+ */
+@RestController
+@RequestMapping("/api/dashboard")
+public class DashboardController {
+
+    private final DashboardService dashboardService;
+
+    public DashboardController(DashboardService dashboardService) {
+        this.dashboardService = dashboardService;
+    }
+
+    /**
+     * GET /api/dashboard?pedidos=20
+     * Perfil, estadísticas y pedidos recientes (con líneas y código de factura)
+     * en una sola respuesta
+     */
+    @GetMapping
+    public ResponseEntity<?> obtener(
+            @RequestParam(name = "pedidos", defaultValue = "20") int limitePedidos,
+            HttpSession session) {
+
+        Long userId = (Long) session.getAttribute("userId");
+
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(
+                    Map.of("error", "No hay sesión activa"));
+        }
+
+        try {
+            return ResponseEntity.ok(dashboardService.obtener(userId, limitePedidos));
+        } catch (RejectedExecutionException e) {
+            return noDisponible("Hay demasiados paneles cargándose. Inténtalo de nuevo en unos segundos");
+        } catch (RuntimeException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                return noDisponible(e.getMessage());
+            }
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private ResponseEntity<?> noDisponible(String mensaje) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(Map.of("error", mensaje));
+    }
+}
@@ -0,0 +1,100 @@
+package com.habilis.api.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.habilis.api.service.ExportacionService;
+import jakarta.servlet.http.HttpSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Controlador REST para exportaciones de contabilidad
+ * Las respuestas se escriben en streaming; requieren rol ADMIN
+ */
+@RestController
+@RequestMapping("/api/exportaciones")
+public class ExportacionController {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportacionController.class);
+
+    private final ExportacionService exportacionService;
+    private final ObjectMapper objectMapper;
+
+    public ExportacionController(ExportacionService exportacionService, ObjectMapper objectMapper) {
+        this.exportacionService = exportacionService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * GET /api/exportaciones/{tipo}?formato=csv&desde=2026-01-01&hasta=2026-01-31&comprimir=true
+     * tipo: pedidos, detalles o facturas; formato: csv o ndjson
+     * Fechas opcionales (hasta es inclusiva); por defecto se comprime con gzip
+     */
+    @GetMapping("/{tipo}")
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @PathVariable String tipo,
+            @RequestParam(defaultValue = "csv") String formato,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(defaultValue = "true") boolean comprimir,
+            HttpSession session) {
+
+        String tipoUsuario = (String) session.getAttribute("userRole");
+        if (tipoUsuario == null) {
+            return error(HttpStatus.UNAUTHORIZED, "Debes iniciar sesión primero");
+        }
+        if (!"ADMIN".equals(tipoUsuario)) {
+            return error(HttpStatus.FORBIDDEN, "Solo los administradores pueden exportar datos");
+        }
+
+        try {
+            exportacionService.validar(tipo, formato);
+        } catch (RuntimeException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        String nombre = tipo + "." + formato + (comprimir ? ".gz" : "");
+        MediaType tipoContenido;
+        if (comprimir) {
+            tipoContenido = MediaType.parseMediaType("application/gzip");
+        } else if ("csv".equals(formato)) {
+            tipoContenido = MediaType.parseMediaType("text/csv;charset=UTF-8");
+        } else {
+            tipoContenido = MediaType.parseMediaType("application/x-ndjson;charset=UTF-8");
+        }
+
+        StreamingResponseBody cuerpo = salida -> {
+            try {
+                exportacionService.exportar(tipo, formato, desde, hasta, salida, comprimir);
+            } catch (IOException e) {
+                log.warn("Exportación de {} interrumpida: {}", tipo, e.getMessage());
+                throw e;
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(tipoContenido)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(nombre).build().toString())
+                .body(cuerpo);
+    }
+
+    // Spring solo escribe en streaming si el tipo del cuerpo es StreamingResponseBody,
+    // así que los errores también van como cuerpo en streaming
+    private ResponseEntity<StreamingResponseBody> error(HttpStatus estado, String mensaje) {
+        return ResponseEntity.status(estado)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(salida -> objectMapper.writeValue(salida, Map.of("error", mensaje)));
+    }
+}
@@ -2,14 +2,24 @@ package com.habilis.api.controller;
 
 import com.habilis.api.entity.Factura;
 import com.habilis.api.service.FacturaService;
+import com.habilis.api.service.FacturacionLoteService;
 import com.habilis.api.service.PdfService;
 import jakarta.servlet.http.HttpSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -20,12 +30,17 @@ import java.util.Map;
 @RequestMapping("/api/facturas")
 public class FacturaController {
 
+    private static final Logger log = LoggerFactory.getLogger(FacturaController.class);
+
     private final FacturaService facturaService;
     private final PdfService pdfService;
+    private final FacturacionLoteService facturacionLoteService;
 
-    public FacturaController(FacturaService facturaService, PdfService pdfService) {
+    public FacturaController(FacturaService facturaService, PdfService pdfService,
+            FacturacionLoteService facturacionLoteService) {
         this.facturaService = facturaService;
         this.pdfService = pdfService;
+        this.facturacionLoteService = facturacionLoteService;
     }
 
     /**
@@ -68,8 +83,11 @@ public class FacturaController {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
             }
 
-            // Generar PDF
-            byte[] pdfBytes = pdfService.generarFacturaPedido(factura.getPedido().getId());
+            // Usar el PDF guardado por la facturación por lotes si existe
+            byte[] pdfBytes = leerPdfGuardado(factura);
+            if (pdfBytes == null) {
+                pdfBytes = pdfService.generarFacturaPedido(factura.getPedido().getId());
+            }
 
             // Configurar headers para descarga
             HttpHeaders headers = new HttpHeaders();
@@ -118,4 +136,83 @@ public class FacturaController {
                     Map.of("error", e.getMessage()));
         }
     }
+
+    /**
+     * POST /api/facturas/lote?periodo=YYYY-MM
+     * Facturar en segundo plano los pedidos de suscripción de un mes (solo ADMIN)
+     * Puede lanzarse en varias instancias a la vez para repartir el trabajo
+     */
+    @PostMapping("/lote")
+    public ResponseEntity<?> facturarLote(
+            @RequestParam String periodo,
+            HttpSession session) {
+
+        ResponseEntity<?> denegado = comprobarAdmin(session);
+        if (denegado != null) {
+            return denegado;
+        }
+
+        try {
+            YearMonth.parse(periodo);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(
+                    Map.of("error", "Periodo no válido, formato esperado YYYY-MM"));
+        }
+
+        try {
+            facturacionLoteService.lanzar(periodo);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(
+                    Map.of("error", e.getMessage()));
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("mensaje", "Facturación por lotes iniciada");
+        response.put("periodo", periodo);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    /**
+     * GET /api/facturas/lote/{periodo}
+     * Pendientes de facturar y de PDF de un mes y métricas de esta instancia (solo ADMIN)
+     */
+    @GetMapping("/lote/{periodo}")
+    public ResponseEntity<?> progresoLote(
+            @PathVariable String periodo,
+            HttpSession session) {
+
+        ResponseEntity<?> denegado = comprobarAdmin(session);
+        if (denegado != null) {
+            return denegado;
+        }
+
+        return ResponseEntity.ok(facturacionLoteService.progreso(periodo));
+    }
+
+    private byte[] leerPdfGuardado(Factura factura) {
+        if (factura.getRutaPdf() == null) {
+            return null;
+        }
+
+        Path ruta = Paths.get(factura.getRutaPdf());
+        try {
+            return Files.isReadable(ruta) ? Files.readAllBytes(ruta) : null;
+        } catch (IOException e) {
+            log.warn("No se pudo leer el PDF guardado de {}: {}", factura.getCodigoFactura(), e.getMessage());
+            return null;
+        }
+    }
+
+    private ResponseEntity<?> comprobarAdmin(HttpSession session) {
+        String tipoUsuario = (String) session.getAttribute("userRole");
+        if (tipoUsuario == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(
+                    Map.of("error", "Debes iniciar sesión primero"));
+        }
+        if (!"ADMIN".equals(tipoUsuario)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(
+                    Map.of("error", "Solo los administradores pueden facturar por lotes"));
+        }
+        return null;
+    }
 }
@@ -0,0 +1,158 @@
+package com.habilis.api.controller;
+
+import com.habilis.api.dto.LineaPreparacion;
+import com.habilis.api.entity.OleadaEnvio;
+import com.habilis.api.service.OleadaEnvioService;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controlador REST para oleadas de envío del almacén
+ * Todas las operaciones requieren rol ADMIN
+ */
+@RestController
+@RequestMapping("/api/oleadas")
+public class OleadaEnvioController {
+
+    private final OleadaEnvioService oleadaEnvioService;
+
+    public OleadaEnvioController(OleadaEnvioService oleadaEnvioService) {
+        this.oleadaEnvioService = oleadaEnvioService;
+    }
+
+    /**
+     * POST /api/oleadas?fechaDesde=2026-01-01&fechaHasta=2026-01-31&categoriaId=X&limite=N
+     * Crear una oleada con los pedidos pendientes que cumplen los filtros (todos opcionales)
+     * fechaHasta es inclusiva
+     */
+    @PostMapping
+    public ResponseEntity<?> crear(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaDesde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaHasta,
+            @RequestParam(required = false) Long categoriaId,
+            @RequestParam(required = false) Integer limite,
+            HttpSession session) {
+
+        ResponseEntity<?> denegado = comprobarAdmin(session);
+        if (denegado != null) {
+            return denegado;
+        }
+
+        try {
+            OleadaEnvio oleada = oleadaEnvioService.crear(
+                    fechaDesde != null ? fechaDesde.atStartOfDay() : null,
+                    fechaHasta != null ? fechaHasta.plusDays(1).atStartOfDay() : null,
+                    categoriaId, limite);
+            return ResponseEntity.status(HttpStatus.CREATED).body(oleada);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/oleadas
+     * Listar oleadas (más recientes primero)
+     */
+    @GetMapping
+    public ResponseEntity<?> listarTodas(HttpSession session) {
+        ResponseEntity<?> denegado = comprobarAdmin(session);
+        if (denegado != null) {
+            return denegado;
+        }
+
+        List<OleadaEnvio> oleadas = oleadaEnvioService.listarTodas();
+        return ResponseEntity.ok(oleadas);
+    }
+
+    /**
+     * GET /api/oleadas/{id}/lista-preparacion
+     * Unidades a recoger por producto para los pedidos de la oleada
+     */
+    @GetMapping("/{id}/lista-preparacion")
+    public ResponseEntity<?> listaPreparacion(@PathVariable Long id, HttpSession session) {
+        ResponseEntity<?> denegado = comprobarAdmin(session);
+        if (denegado != null) {
+            return denegado;
+        }
+
+        try {
+            List<LineaPreparacion> lineas = oleadaEnvioService.listaPreparacion(id);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("oleadaId", id);
+            response.put("lineas", lineas);
+            response.put("totalUnidades", lineas.stream().mapToLong(LineaPreparacion::getUnidades).sum());
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(
+                    Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * POST /api/oleadas/{id}/enviar
+     * Pasar a ENVIADO todos los pedidos pendientes de la oleada
+     */
+    @PostMapping("/{id}/enviar")
+    public ResponseEntity<?> enviar(@PathVariable Long id, HttpSession session) {
+        ResponseEntity<?> denegado = comprobarAdmin(session);
+        if (denegado != null) {
+            return denegado;
+        }
+
+        try {
+            OleadaEnvio oleada = oleadaEnvioService.enviar(id);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Oleada enviada: " + oleada.getPedidosEnviados() + " pedidos");
+            response.put("oleada", oleada);
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * DELETE /api/oleadas/{id}
+     * Anular una oleada en preparación (sus pedidos quedan libres)
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> anular(@PathVariable Long id, HttpSession session) {
+        ResponseEntity<?> denegado = comprobarAdmin(session);
+        if (denegado != null) {
+            return denegado;
+        }
+
+        try {
+            OleadaEnvio oleada = oleadaEnvioService.anular(id);
+            return ResponseEntity.ok(oleada);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage()));
+        }
+    }
+
+    private ResponseEntity<?> comprobarAdmin(HttpSession session) {
+        String tipoUsuario = (String) session.getAttribute("userRole");
+        if (tipoUsuario == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(
+                    Map.of("error", "Debes iniciar sesión primero"));
+        }
+        if (!"ADMIN".equals(tipoUsuario)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(
+                    Map.of("error", "Solo los administradores pueden gestionar oleadas de envío"));
+        }
+        return null;
+    }
+}
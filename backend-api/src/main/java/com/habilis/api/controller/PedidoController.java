@@ -1,14 +1,25 @@
 package com.habilis.api.controller;
 
+import com.habilis.api.dto.CambioEstadoMasivoRequest;
+import com.habilis.api.dto.CotizacionResponse;
 import com.habilis.api.dto.PedidoRequest;
+import com.habilis.api.dto.TicketPedido;
 import com.habilis.api.entity.Factura;
 import com.habilis.api.entity.Pedido;
+import com.habilis.api.entity.ReservaStock;
+import com.habilis.api.service.AdmisionPedidoService;
+import com.habilis.api.service.CambioEstadoMasivoService;
+import com.habilis.api.service.ConsultaPedidoService;
+import com.habilis.api.service.CotizacionService;
 import com.habilis.api.service.EmailService;
 import com.habilis.api.service.FacturaService;
 import com.habilis.api.service.PdfService;
 import com.habilis.api.service.PedidoService;
+import com.habilis.api.service.ReservaStockService;
 import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -17,9 +28,9 @@ import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
 import java.util.HashMap;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * Controlador REST para gestión de pedidos
@@ -28,17 +39,33 @@ import java.util.Map;
 @RequestMapping("/api/pedidos")
 public class PedidoController {
 
+    private static final Logger log = LoggerFactory.getLogger(PedidoController.class);
+
     private final PedidoService pedidoService;
+    private final ConsultaPedidoService consultaPedidoService;
     private final PdfService pdfService;
     private final FacturaService facturaService;
     private final EmailService emailService;
-
-    public PedidoController(PedidoService pedidoService, PdfService pdfService,
-            FacturaService facturaService, EmailService emailService) {
+    private final CotizacionService cotizacionService;
+    private final ReservaStockService reservaStockService;
+    private final AdmisionPedidoService admisionPedidoService;
+    private final CambioEstadoMasivoService cambioEstadoMasivoService;
+
+    public PedidoController(PedidoService pedidoService,
+            ConsultaPedidoService consultaPedidoService, PdfService pdfService,
+            FacturaService facturaService, EmailService emailService,
+            CotizacionService cotizacionService, ReservaStockService reservaStockService,
+            AdmisionPedidoService admisionPedidoService,
+            CambioEstadoMasivoService cambioEstadoMasivoService) {
         this.pedidoService = pedidoService;
+        this.consultaPedidoService = consultaPedidoService;
         this.pdfService = pdfService;
         this.facturaService = facturaService;
         this.emailService = emailService;
+        this.cotizacionService = cotizacionService;
+        this.reservaStockService = reservaStockService;
+        this.admisionPedidoService = admisionPedidoService;
+        this.cambioEstadoMasivoService = cambioEstadoMasivoService;
     }
 
     /**
@@ -51,16 +78,11 @@ public class PedidoController {
             @Valid @RequestBody PedidoRequest request,
             HttpSession session) {
 
-        // 🔍 LOG: Verificar sesión
-        System.out.println("=== CREAR PEDIDO - DEBUG ===");
-        System.out.println("Session ID: " + session.getId());
-        System.out.println("User ID from session: " + session.getAttribute("userId"));
-        System.out.println("User Role from session: " + session.getAttribute("userRole"));
-        System.out.println("Request items: " + request.getItems().size());
-
         Long userId = (Long) session.getAttribute("userId");
+        log.debug("Crear pedido: usuario={}, rol={}, items={}",
+                userId, session.getAttribute("userRole"), request.getItems().size());
         if (userId == null) {
-            System.err.println("❌ ERROR: No hay sesión activa (userId es null)");
+            log.info("Crear pedido sin sesión activa");
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(
                     Map.of("error", "Debes iniciar sesión primero"));
         }
@@ -69,34 +91,71 @@ public class PedidoController {
         request.setUsuarioId(userId);
 
         try {
-            System.out.println("✅ Usuario autenticado: " + userId);
-
-            // Validar carrito
-            List<String> errores = pedidoService.validarCarrito(request.getItems());
-            if (!errores.isEmpty()) {
-                System.err.println("❌ Errores en validación del carrito: " + errores);
-                return ResponseEntity.badRequest().body(Map.of(
-                        "error", "Errores en el carrito",
-                        "detalles", errores));
+            Map<Long, BigDecimal> preciosCotizados = null;
+
+            if (request.getCotizacionToken() != null && !request.getCotizacionToken().isBlank()) {
+                // Con cotización firmada no hace falta volver a validar ni valorar
+                // el carrito (el stock se sigue comprobando al crear el pedido)
+                try {
+                    preciosCotizados = cotizacionService.verificar(
+                            request.getCotizacionToken(), userId, request.getItems());
+                } catch (RuntimeException e) {
+                    log.info("Cotización rechazada para el usuario {}: {}", userId, e.getMessage());
+                    return ResponseEntity.status(HttpStatus.CONFLICT).body(
+                            Map.of("error", e.getMessage()));
+                }
+
+                log.debug("Cotización verificada");
+            } else {
+                // Validar carrito
+                List<String> errores = consultaPedidoService.validarCarrito(request.getItems(), userId);
+                if (!errores.isEmpty()) {
+                    log.info("Carrito no válido para el usuario {}: {}", userId, errores);
+                    return ResponseEntity.badRequest().body(Map.of(
+                            "error", "Errores en el carrito",
+                            "detalles", errores));
+                }
+
+                log.debug("Carrito validado");
             }
 
-            System.out.println("✅ Carrito validado correctamente");
+            // Lanzamientos limitados: el pedido se procesa en la cola de admisión
+            if (admisionPedidoService.requiereAdmision(request.getItems())) {
+                TicketPedido ticket = admisionPedidoService.encolar(userId, request.getItems(), preciosCotizados);
+                if (ticket == null) {
+                    log.warn("Cola de admisión llena");
+                    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                            .header(HttpHeaders.RETRY_AFTER, "5")
+                            .body(Map.of("error", "Hay demasiados pedidos en curso. Inténtalo de nuevo en unos segundos"));
+                }
+
+                log.debug("Pedido en cola de admisión, ticket {}", ticket.getTicket());
+
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.put("encolado", true);
+                response.put("message", "Pedido en cola, consulta el ticket para ver el resultado");
+                response.put("ticket", ticket.getTicket());
+                response.put("posicion", ticket.getPosicion());
+
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+            }
 
             // Crear pedido
-            Pedido pedido = pedidoService.crearPedido(userId, request.getItems());
-            System.out.println("✅ Pedido creado con ID: " + pedido.getId());
+            Pedido pedido = pedidoService.crearPedido(userId, request.getItems(), preciosCotizados);
+            log.debug("Pedido {} creado", pedido.getId());
 
             // Generar código de factura único
             String codigoFactura = facturaService.generarCodigoFactura();
-            System.out.println("✅ Código de factura generado: " + codigoFactura);
 
             // Crear factura
             Factura factura = facturaService.crearFactura(pedido, codigoFactura);
-            System.out.println("✅ Factura creada con ID: " + factura.getId());
+            log.debug("Factura {} ({}) creada", factura.getId(), codigoFactura);
 
             // Generar PDF de la factura
+            // Pedido y factura ya están confirmados y sus conexiones devueltas al
+            // pool: el render y el envío del correo no retienen ninguna
             byte[] pdfBytes = pdfService.generarFacturaPedido(pedido.getId());
-            System.out.println("✅ PDF generado: " + pdfBytes.length + " bytes");
 
             // Enviar email con PDF adjunto
             try {
@@ -105,9 +164,8 @@ public class PedidoController {
                         pedido,
                         factura,
                         pdfBytes);
-                System.out.println("✅ Email de confirmación enviado a: " + pedido.getUsuario().getCorreoElectronico());
             } catch (Exception e) {
-                System.err.println("⚠️ Error al enviar email, pero pedido creado: " + e.getMessage());
+                log.warn("Pedido {} creado, pero falló el email de confirmación: {}", pedido.getId(), e.getMessage());
                 // No fallar la creación del pedido si el email falla
             }
 
@@ -120,18 +178,104 @@ public class PedidoController {
             response.put("facturaId", factura.getId());
             response.put("totalPedido", pedido.getTotalPedido());
 
-            System.out.println("✅ Respuesta enviada al cliente");
-            System.out.println("=== FIN CREAR PEDIDO ===");
-
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
         } catch (RuntimeException e) {
-            System.err.println("❌ ERROR al crear pedido: " + e.getMessage());
-            e.printStackTrace();
+            log.warn("Error al crear pedido del usuario {}: {}", userId, e.getMessage(), e);
             return ResponseEntity.badRequest().body(
                     Map.of("error", e.getMessage()));
         }
     }
 
+    /**
+     * GET /api/pedidos/tickets/{ticket}
+     * Consultar el resultado de un pedido de la cola de admisión
+     * Estados: EN_COLA, PROCESANDO, COMPLETADO, RECHAZADO
+     */
+    @GetMapping("/tickets/{ticket}")
+    public ResponseEntity<?> consultarTicket(@PathVariable String ticket, HttpSession session) {
+        Long userId = (Long) session.getAttribute("userId");
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(
+                    Map.of("error", "Debes iniciar sesión primero"));
+        }
+
+        TicketPedido estado = admisionPedidoService.consultar(ticket, userId);
+        if (estado == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(
+                    Map.of("error", "Ticket no encontrado o caducado"));
+        }
+
+        return ResponseEntity.ok(estado);
+    }
+
+    /**
+     * POST /api/pedidos/cotizar
+     * Validar y valorar el carrito en una sola llamada
+     * Devuelve el veredicto de stock y subtotal de cada línea, el total y, si
+     * hay sesión y el carrito es válido, un token de cotización para
+     * POST /api/pedidos
+     */
+    @PostMapping("/cotizar")
+    public ResponseEntity<?> cotizar(@Valid @RequestBody PedidoRequest request, HttpSession session) {
+        Long userId = (Long) session.getAttribute("userId");
+
+        CotizacionResponse cotizacion = cotizacionService.cotizar(userId, request.getItems());
+
+        if (cotizacion.isValido()) {
+            return ResponseEntity.ok(cotizacion);
+        } else {
+            return ResponseEntity.badRequest().body(cotizacion);
+        }
+    }
+
+    /**
+     * POST /api/pedidos/reservar
+     * Retener el stock del carrito mientras el usuario completa el pago
+     * Sustituye la reserva anterior del usuario; caduca sola si no se paga
+     */
+    @PostMapping("/reservar")
+    public ResponseEntity<?> reservar(@Valid @RequestBody PedidoRequest request, HttpSession session) {
+        Long userId = (Long) session.getAttribute("userId");
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(
+                    Map.of("error", "Debes iniciar sesión primero"));
+        }
+
+        try {
+            List<ReservaStock> reservas = reservaStockService.reservar(userId, request.getItems());
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("expiraEn", reservas.get(0).getExpiraEn());
+            response.put("reservas", reservas.stream()
+                    .map(r -> Map.of(
+                            "productoId", r.getProducto().getId(),
+                            "cantidad", r.getCantidad()))
+                    .collect(Collectors.toList()));
+
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(
+                    Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * DELETE /api/pedidos/reservar
+     * Liberar la reserva de stock del usuario (pago abandonado)
+     */
+    @DeleteMapping("/reservar")
+    public ResponseEntity<?> liberarReserva(HttpSession session) {
+        Long userId = (Long) session.getAttribute("userId");
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(
+                    Map.of("error", "Debes iniciar sesión primero"));
+        }
+
+        reservaStockService.liberar(userId);
+        return ResponseEntity.ok(Map.of("message", "Reserva liberada"));
+    }
+
     /**
      * POST /api/pedidos/calcular-total
      * Calcular total del carrito sin crear pedido
@@ -139,7 +283,7 @@ public class PedidoController {
     @PostMapping("/calcular-total")
     public ResponseEntity<?> calcularTotal(@Valid @RequestBody PedidoRequest request) {
         try {
-            BigDecimal total = pedidoService.calcularTotal(request.getItems());
+            BigDecimal total = consultaPedidoService.calcularTotal(request.getItems());
 
             return ResponseEntity.ok(Map.of(
                     "total", total,
@@ -155,8 +299,9 @@ public class PedidoController {
      * Validar carrito antes de crear pedido
      */
     @PostMapping("/validar-carrito")
-    public ResponseEntity<?> validarCarrito(@Valid @RequestBody PedidoRequest request) {
-        List<String> errores = pedidoService.validarCarrito(request.getItems());
+    public ResponseEntity<?> validarCarrito(@Valid @RequestBody PedidoRequest request, HttpSession session) {
+        Long userId = (Long) session.getAttribute("userId");
+        List<String> errores = consultaPedidoService.validarCarrito(request.getItems(), userId);
 
         if (errores.isEmpty()) {
             return ResponseEntity.ok(Map.of(
@@ -187,10 +332,10 @@ public class PedidoController {
 
         if ("ADMIN".equals(tipoUsuario)) {
             // Admin ve todos los pedidos
-            pedidos = pedidoService.listarTodos();
+            pedidos = consultaPedidoService.listarTodos();
         } else {
             // Usuario normal ve solo sus pedidos
-            pedidos = pedidoService.listarPorUsuario(userId);
+            pedidos = consultaPedidoService.listarPorUsuario(userId);
         }
 
         return ResponseEntity.ok(pedidos);
@@ -215,7 +360,7 @@ public class PedidoController {
         }
 
         try {
-            Pedido pedido = pedidoService.buscarPorId(id);
+            Pedido pedido = consultaPedidoService.buscarConDetalles(id);
 
             // Verificar que el usuario puede ver este pedido
             if (!"ADMIN".equals(tipoUsuario) && !pedido.getUsuario().getId().equals(userId)) {
@@ -280,7 +425,7 @@ public class PedidoController {
                     Map.of("error", "Solo los administradores pueden ver pedidos de otros usuarios"));
         }
 
-        List<Pedido> pedidos = pedidoService.listarPorUsuario(usuarioId);
+        List<Pedido> pedidos = consultaPedidoService.listarPorUsuario(usuarioId);
         return ResponseEntity.ok(pedidos);
     }
 
@@ -305,7 +450,7 @@ public class PedidoController {
                     Map.of("error", "Solo los administradores pueden filtrar pedidos por estado"));
         }
 
-        List<Pedido> pedidos = pedidoService.listarPorEstado(estado);
+        List<Pedido> pedidos = consultaPedidoService.listarPorEstado(estado);
         return ResponseEntity.ok(pedidos);
     }
 
@@ -346,6 +491,36 @@ public class PedidoController {
         }
     }
 
+    /**
+     * POST /api/pedidos/estado-masivo
+     * Cambiar el estado de muchos pedidos, por IDs o por filtro (solo ADMIN)
+     * Solo cambian los pedidos en un estado de origen válido; el resto se omite
+     */
+    @PostMapping("/estado-masivo")
+    public ResponseEntity<?> cambiarEstadoMasivo(
+            @Valid @RequestBody CambioEstadoMasivoRequest request,
+            HttpSession session) {
+
+        String tipoUsuario = (String) session.getAttribute("userRole");
+
+        if (tipoUsuario == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(
+                    Map.of("error", "Debes iniciar sesión primero"));
+        }
+
+        if (!"ADMIN".equals(tipoUsuario)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(
+                    Map.of("error", "Solo los administradores pueden cambiar el estado de pedidos"));
+        }
+
+        try {
+            return ResponseEntity.ok(cambioEstadoMasivoService.cambiarEstado(request));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage()));
+        }
+    }
+
     /**
      * POST /api/pedidos/{id}/cancelar
      * Cancelar un pedido (solo si está PENDIENTE)
@@ -365,7 +540,7 @@ public class PedidoController {
         }
 
         try {
-            Pedido pedido = pedidoService.buscarPorId(id);
+            Pedido pedido = consultaPedidoService.buscarPorId(id);
 
             // Verificar que el usuario puede cancelar este pedido
             if (!"ADMIN".equals(tipoUsuario) && !pedido.getUsuario().getId().equals(userId)) {
@@ -400,7 +575,7 @@ public class PedidoController {
                     Map.of("error", "Debes iniciar sesión primero"));
         }
 
-        Map<String, Object> estadisticas = pedidoService.obtenerEstadisticasUsuario(userId);
+        Map<String, Object> estadisticas = consultaPedidoService.obtenerEstadisticasUsuario(userId);
         return ResponseEntity.ok(estadisticas);
     }
 
@@ -422,7 +597,7 @@ public class PedidoController {
         }
 
         try {
-            Pedido pedido = pedidoService.buscarPorId(id);
+            Pedido pedido = consultaPedidoService.buscarPorId(id);
 
             // Verificar que el usuario puede descargar esta factura
             if (!"ADMIN".equals(tipoUsuario) && !pedido.getUsuario().getId().equals(userId)) {
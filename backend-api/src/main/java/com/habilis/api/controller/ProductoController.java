@@ -1,7 +1,10 @@
 package com.habilis.api.controller;
 
 import com.habilis.api.dto.ProductoRequest;
+import com.habilis.api.dto.ProductoResumen;
+import com.habilis.api.dto.ProductosLoteRequest;
 import com.habilis.api.entity.Producto;
+import com.habilis.api.service.ConsultaProductoService;
 import com.habilis.api.service.ProductoService;
 import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
@@ -23,9 +26,12 @@ import java.util.Map;
 public class ProductoController {
 
     private final ProductoService productoService;
+    private final ConsultaProductoService consultaProductoService;
 
-    public ProductoController(ProductoService productoService) {
+    public ProductoController(ProductoService productoService,
+            ConsultaProductoService consultaProductoService) {
         this.productoService = productoService;
+        this.consultaProductoService = consultaProductoService;
     }
 
     /**
@@ -34,10 +40,41 @@ public class ProductoController {
      */
     @GetMapping
     public ResponseEntity<List<Producto>> listarTodos() {
-        List<Producto> productos = productoService.listarTodos();
+        List<Producto> productos = consultaProductoService.listarTodos();
         return ResponseEntity.ok(productos);
     }
 
+    /**
+     * GET /api/productos?ids=1,2,3
+     * Resolver varios productos en una sola petición (público)
+     * Devuelve solo nombre, precio, stock e imagen de cada producto
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<?> buscarPorIds(@RequestParam List<Long> ids) {
+        try {
+            List<ProductoResumen> productos = consultaProductoService.buscarResumenPorIds(ids);
+            return ResponseEntity.ok(productos);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * POST /api/productos/lote
+     * Igual que GET /api/productos?ids=... para carritos grandes (público)
+     */
+    @PostMapping("/lote")
+    public ResponseEntity<?> buscarPorIdsLote(@Valid @RequestBody ProductosLoteRequest request) {
+        try {
+            List<ProductoResumen> productos = consultaProductoService.buscarResumenPorIds(request.getIds());
+            return ResponseEntity.ok(productos);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage()));
+        }
+    }
+
     /**
      * GET /api/productos/{id}
      * Obtener un producto por ID (público)
@@ -45,7 +82,7 @@ public class ProductoController {
     @GetMapping("/{id}")
     public ResponseEntity<?> obtenerPorId(@PathVariable Long id) {
         try {
-            Producto producto = productoService.buscarPorId(id);
+            Producto producto = consultaProductoService.buscarPorId(id);
             return ResponseEntity.ok(producto);
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(
@@ -59,7 +96,7 @@ public class ProductoController {
      */
     @GetMapping("/categoria/{categoriaId}")
     public ResponseEntity<List<Producto>> listarPorCategoria(@PathVariable Long categoriaId) {
-        List<Producto> productos = productoService.listarPorCategoria(categoriaId);
+        List<Producto> productos = consultaProductoService.listarPorCategoria(categoriaId);
         return ResponseEntity.ok(productos);
     }
 
@@ -77,7 +114,7 @@ public class ProductoController {
             @RequestParam(required = false) BigDecimal precioMax,
             @RequestParam(required = false) Boolean disponible) {
 
-        List<Producto> productos = productoService.buscarConFiltros(
+        List<Producto> productos = consultaProductoService.buscarConFiltros(
                 nombre, categoriaId, precioMin, precioMax, disponible);
 
         return ResponseEntity.ok(productos);
@@ -89,7 +126,7 @@ public class ProductoController {
      */
     @GetMapping("/buscar")
     public ResponseEntity<List<Producto>> buscarPorNombre(@RequestParam String nombre) {
-        List<Producto> productos = productoService.buscarPorNombre(nombre);
+        List<Producto> productos = consultaProductoService.buscarPorNombre(nombre);
         return ResponseEntity.ok(productos);
     }
 
@@ -113,7 +150,7 @@ public class ProductoController {
                     Map.of("error", "Solo los administradores pueden ver esta información"));
         }
 
-        List<Producto> productos = productoService.listarConStockBajo(umbral);
+        List<Producto> productos = consultaProductoService.listarConStockBajo(umbral);
         return ResponseEntity.ok(productos);
     }
 
@@ -240,6 +277,46 @@ public class ProductoController {
         }
     }
 
+    /**
+     * PATCH /api/productos/{id}/admision?activa=true
+     * Activar o desactivar la cola de admisión de un producto (solo ADMIN)
+     * Con la cola activa, los pedidos que lo incluyen se procesan por lotes
+     */
+    @PatchMapping("/{id}/admision")
+    public ResponseEntity<?> cambiarAdmisionCola(
+            @PathVariable Long id,
+            @RequestParam Boolean activa,
+            HttpSession session) {
+
+        // Verificar rol ADMIN
+        String tipoUsuario = (String) session.getAttribute("userRole");
+        if (tipoUsuario == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(
+                    Map.of("error", "Debes iniciar sesión primero"));
+        }
+
+        if (!"ADMIN".equals(tipoUsuario)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(
+                    Map.of("error", "Solo los administradores pueden modificar productos"));
+        }
+
+        try {
+            Producto producto = productoService.cambiarAdmisionCola(id, activa);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", activa
+                    ? "Cola de admisión activada"
+                    : "Cola de admisión desactivada");
+            response.put("producto", producto);
+
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage()));
+        }
+    }
+
     /**
      * DELETE /api/productos/{id}
      * Eliminar producto (solo ADMIN)
@@ -282,7 +359,7 @@ public class ProductoController {
             @PathVariable Long id,
             @RequestParam Integer cantidad) {
         try {
-            boolean disponible = productoService.hayStockDisponible(id, cantidad);
+            boolean disponible = consultaProductoService.hayStockDisponible(id, cantidad);
 
             return ResponseEntity.ok(Map.of(
                     "productoId", id,
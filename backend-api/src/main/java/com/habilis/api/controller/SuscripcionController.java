@@ -0,0 +1,162 @@
+package com.habilis.api.controller;
+
+import com.habilis.api.entity.ProgresoGeneracion;
+import com.habilis.api.entity.Suscripcion;
+import com.habilis.api.service.GeneracionSuscripcionesService;
+import com.habilis.api.service.SuscripcionService;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controlador REST para suscripciones mensuales
+ * La generación de pedidos mensuales requiere rol ADMIN
+ */
+@RestController
+@RequestMapping("/api/suscripciones")
+public class SuscripcionController {
+
+    private final SuscripcionService suscripcionService;
+    private final GeneracionSuscripcionesService generacionSuscripcionesService;
+
+    public SuscripcionController(SuscripcionService suscripcionService,
+            GeneracionSuscripcionesService generacionSuscripcionesService) {
+        this.suscripcionService = suscripcionService;
+        this.generacionSuscripcionesService = generacionSuscripcionesService;
+    }
+
+    /**
+     * POST /api/suscripciones?categoriaId=X
+     * Suscribir al usuario de la sesión a una línea de edad
+     */
+    @PostMapping
+    public ResponseEntity<?> crear(@RequestParam Long categoriaId, HttpSession session) {
+        Long userId = (Long) session.getAttribute("userId");
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(
+                    Map.of("error", "Debes iniciar sesión primero"));
+        }
+
+        try {
+            Suscripcion suscripcion = suscripcionService.crear(userId, categoriaId);
+            return ResponseEntity.status(HttpStatus.CREATED).body(suscripcion);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(
+                    Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/suscripciones
+     * Listar las suscripciones del usuario de la sesión
+     */
+    @GetMapping
+    public ResponseEntity<?> listarMias(HttpSession session) {
+        Long userId = (Long) session.getAttribute("userId");
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(
+                    Map.of("error", "Debes iniciar sesión primero"));
+        }
+
+        List<Suscripcion> suscripciones = suscripcionService.listarPorUsuario(userId);
+        return ResponseEntity.ok(suscripciones);
+    }
+
+    /**
+     * DELETE /api/suscripciones/{id}
+     * Cancelar una suscripción del usuario de la sesión
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> cancelar(@PathVariable Long id, HttpSession session) {
+        Long userId = (Long) session.getAttribute("userId");
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(
+                    Map.of("error", "Debes iniciar sesión primero"));
+        }
+
+        try {
+            Suscripcion suscripcion = suscripcionService.cancelar(id, userId);
+            return ResponseEntity.ok(suscripcion);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(
+                    Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * POST /api/suscripciones/generar?periodo=YYYY-MM&reiniciar=false
+     * Lanzar la generación de pedidos de un mes (solo ADMIN)
+     * Responde 202 en cuanto empieza; el avance se consulta en GET /generar/{periodo}
+     */
+    @PostMapping("/generar")
+    public ResponseEntity<?> generar(
+            @RequestParam(required = false) String periodo,
+            @RequestParam(defaultValue = "false") boolean reiniciar,
+            HttpSession session) {
+
+        ResponseEntity<?> denegado = comprobarAdmin(session);
+        if (denegado != null) {
+            return denegado;
+        }
+
+        YearMonth mes;
+        try {
+            mes = periodo == null ? YearMonth.now() : YearMonth.parse(periodo);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(
+                    Map.of("error", "Periodo no válido, formato esperado YYYY-MM"));
+        }
+
+        try {
+            generacionSuscripcionesService.lanzar(mes, reiniciar);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(
+                    Map.of("error", e.getMessage()));
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("mensaje", "Generación de pedidos de suscripción iniciada");
+        response.put("periodo", mes.toString());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    /**
+     * GET /api/suscripciones/generar/{periodo}
+     * Avance de la generación de un mes por partición (solo ADMIN)
+     */
+    @GetMapping("/generar/{periodo}")
+    public ResponseEntity<?> progreso(@PathVariable String periodo, HttpSession session) {
+        ResponseEntity<?> denegado = comprobarAdmin(session);
+        if (denegado != null) {
+            return denegado;
+        }
+
+        try {
+            List<ProgresoGeneracion> particiones = generacionSuscripcionesService.progreso(YearMonth.parse(periodo));
+            return ResponseEntity.ok(particiones);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(
+                    Map.of("error", "Periodo no válido, formato esperado YYYY-MM"));
+        }
+    }
+
+    private ResponseEntity<?> comprobarAdmin(HttpSession session) {
+        String tipoUsuario = (String) session.getAttribute("userRole");
+        if (tipoUsuario == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(
+                    Map.of("error", "Debes iniciar sesión primero"));
+        }
+        if (!"ADMIN".equals(tipoUsuario)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(
+                    Map.of("error", "Solo los administradores pueden generar pedidos de suscripción"));
+        }
+        return null;
+    }
+}
@@ -3,6 +3,8 @@ package com.habilis.api.controller;
 import com.habilis.api.entity.Categoria;
 import com.habilis.api.repository.CategoriaRepository;
 import jakarta.servlet.http.HttpSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -22,6 +24,8 @@ import java.util.Map;
 @RequestMapping("/api/test")
 public class TestController {
 
+    private static final Logger log = LoggerFactory.getLogger(TestController.class);
+
     @Autowired
     private CategoriaRepository categoriaRepository;
 
@@ -66,13 +70,7 @@ public class TestController {
         response.put("isAuthenticated", userId != null);
         response.put("maxInactiveInterval", session.getMaxInactiveInterval());
 
-        System.out.println("=== TEST SESSION ===");
-        System.out.println("Session ID: " + session.getId());
-        System.out.println("User ID: " + userId);
-        System.out.println("User Role: " + userRole);
-        System.out.println("Is New: " + session.isNew());
-        System.out.println("Is Authenticated: " + (userId != null));
-        System.out.println("===================");
+        log.debug("Test de sesión: usuario={}, rol={}, nueva={}", userId, userRole, session.isNew());
 
         return ResponseEntity.ok(response);
     }
@@ -0,0 +1,70 @@
+package com.habilis.api.controller;
+
+import com.habilis.api.config.Trazas;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Controlador REST con las peticiones más lentas y su desglose en tramos
+ * (servicios, sentencias JDBC, SMTP); requiere rol ADMIN
+ */
+@RestController
+@RequestMapping("/api/trazas")
+public class TrazaController {
+
+    private final Trazas trazas;
+
+    public TrazaController(Trazas trazas) {
+        this.trazas = trazas;
+    }
+
+    /**
+     * GET /api/trazas
+     * Las trazas más lentas desde el arranque (o desde la última limpieza),
+     * de la más lenta a la más rápida, con sus tramos y el tiempo en JDBC
+     */
+    @GetMapping
+    public ResponseEntity<?> lentas(HttpSession session) {
+        ResponseEntity<?> denegado = comprobarAdmin(session);
+        if (denegado != null) {
+            return denegado;
+        }
+
+        return ResponseEntity.ok(trazas.lentas());
+    }
+
+    /**
+     * DELETE /api/trazas
+     * Vaciar el ranking de trazas lentas
+     */
+    @DeleteMapping
+    public ResponseEntity<?> limpiar(HttpSession session) {
+        ResponseEntity<?> denegado = comprobarAdmin(session);
+        if (denegado != null) {
+            return denegado;
+        }
+
+        trazas.limpiar();
+        return ResponseEntity.noContent().build();
+    }
+
+    private ResponseEntity<?> comprobarAdmin(HttpSession session) {
+        String tipoUsuario = (String) session.getAttribute("userRole");
+        if (tipoUsuario == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(
+                    Map.of("error", "Debes iniciar sesión primero"));
+        }
+        if (!"ADMIN".equals(tipoUsuario)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(
+                    Map.of("error", "Solo los administradores pueden consultar las trazas"));
+        }
+        return null;
+    }
+}
@@ -0,0 +1,71 @@
+package com.habilis.api.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DTO para cambiar el estado de muchos pedidos en una sola petición
+ * Se indica una lista de IDs o un filtro (estado actual y fechas), no ambos
+ */
+public class CambioEstadoMasivoRequest {
+
+    @NotBlank(message = "El nuevo estado es obligatorio")
+    private String nuevoEstado;
+
+    @Size(max = 50000, message = "No se pueden cambiar más de 50000 pedidos por IDs a la vez")
+    private List<@NotNull(message = "El ID del pedido es obligatorio") Long> ids;
+
+    // Filtro (alternativa a ids)
+    private String estadoActual;
+    private LocalDate fechaDesde;
+    private LocalDate fechaHasta;
+
+    // Constructores
+    public CambioEstadoMasivoRequest() {
+    }
+
+    // Getters y Setters
+    public String getNuevoEstado() {
+        return nuevoEstado;
+    }
+
+    public void setNuevoEstado(String nuevoEstado) {
+        this.nuevoEstado = nuevoEstado;
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public String getEstadoActual() {
+        return estadoActual;
+    }
+
+    public void setEstadoActual(String estadoActual) {
+        this.estadoActual = estadoActual;
+    }
+
+    public LocalDate getFechaDesde() {
+        return fechaDesde;
+    }
+
+    public void setFechaDesde(LocalDate fechaDesde) {
+        this.fechaDesde = fechaDesde;
+    }
+
+    public LocalDate getFechaHasta() {
+        return fechaHasta;
+    }
+
+    public void setFechaHasta(LocalDate fechaHasta) {
+        this.fechaHasta = fechaHasta;
+    }
+}
@@ -0,0 +1,63 @@
+package com.habilis.api.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO con el contenido de un carrito persistente
+ * Es una copia inmutable del carrito en caché en el momento de la petición
+ */
+public class CarritoResponse {
+
+    private List<LineaCarrito> lineas = new ArrayList<>();
+    private int cantidadItems;
+    private BigDecimal total;
+    private LocalDateTime fechaActualizacion;
+
+    // Constructores
+    public CarritoResponse() {
+    }
+
+    public CarritoResponse(List<LineaCarrito> lineas, int cantidadItems, BigDecimal total,
+            LocalDateTime fechaActualizacion) {
+        this.lineas = lineas;
+        this.cantidadItems = cantidadItems;
+        this.total = total;
+        this.fechaActualizacion = fechaActualizacion;
+    }
+
+    // Getters y Setters
+    public List<LineaCarrito> getLineas() {
+        return lineas;
+    }
+
+    public void setLineas(List<LineaCarrito> lineas) {
+        this.lineas = lineas;
+    }
+
+    public int getCantidadItems() {
+        return cantidadItems;
+    }
+
+    public void setCantidadItems(int cantidadItems) {
+        this.cantidadItems = cantidadItems;
+    }
+
+    public BigDecimal getTotal() {
+        return total;
+    }
+
+    public void setTotal(BigDecimal total) {
+        this.total = total;
+    }
+
+    public LocalDateTime getFechaActualizacion() {
+        return fechaActualizacion;
+    }
+
+    public void setFechaActualizacion(LocalDateTime fechaActualizacion) {
+        this.fechaActualizacion = fechaActualizacion;
+    }
+}
@@ -0,0 +1,71 @@
+package com.habilis.api.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO con el resultado de cotizar un carrito
+ * Si el carrito es válido incluye un token firmado que POST /api/pedidos
+ * acepta para no volver a valorar el carrito
+ */
+public class CotizacionResponse {
+
+    private boolean valido;
+    private List<LineaCotizacion> lineas = new ArrayList<>();
+    private BigDecimal total;
+    private String token;
+    private Instant expiraEn;
+
+    // Constructores
+    public CotizacionResponse() {
+    }
+
+    public CotizacionResponse(boolean valido, List<LineaCotizacion> lineas, BigDecimal total) {
+        this.valido = valido;
+        this.lineas = lineas;
+        this.total = total;
+    }
+
+    // Getters y Setters
+    public boolean isValido() {
+        return valido;
+    }
+
+    public void setValido(boolean valido) {
+        this.valido = valido;
+    }
+
+    public List<LineaCotizacion> getLineas() {
+        return lineas;
+    }
+
+    public void setLineas(List<LineaCotizacion> lineas) {
+        this.lineas = lineas;
+    }
+
+    public BigDecimal getTotal() {
+        return total;
+    }
+
+    public void setTotal(BigDecimal total) {
+        this.total = total;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    public Instant getExpiraEn() {
+        return expiraEn;
+    }
+
+    public void setExpiraEn(Instant expiraEn) {
+        this.expiraEn = expiraEn;
+    }
+}
@@ -0,0 +1,79 @@
+package com.habilis.api.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Línea de un carrito persistente
+ */
+public class LineaCarrito {
+
+    private Long productoId;
+    private String nombre;
+    private String imagenUrl;
+    private Integer cantidad;
+    private BigDecimal precioUnitario;
+    private BigDecimal subtotal;
+
+    // Constructores
+    public LineaCarrito() {
+    }
+
+    public LineaCarrito(Long productoId, String nombre, String imagenUrl,
+            Integer cantidad, BigDecimal precioUnitario) {
+        this.productoId = productoId;
+        this.nombre = nombre;
+        this.imagenUrl = imagenUrl;
+        this.cantidad = cantidad;
+        this.precioUnitario = precioUnitario;
+        this.subtotal = precioUnitario.multiply(BigDecimal.valueOf(cantidad));
+    }
+
+    // Getters y Setters
+    public Long getProductoId() {
+        return productoId;
+    }
+
+    public void setProductoId(Long productoId) {
+        this.productoId = productoId;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public void setNombre(String nombre) {
+        this.nombre = nombre;
+    }
+
+    public String getImagenUrl() {
+        return imagenUrl;
+    }
+
+    public void setImagenUrl(String imagenUrl) {
+        this.imagenUrl = imagenUrl;
+    }
+
+    public Integer getCantidad() {
+        return cantidad;
+    }
+
+    public void setCantidad(Integer cantidad) {
+        this.cantidad = cantidad;
+    }
+
+    public BigDecimal getPrecioUnitario() {
+        return precioUnitario;
+    }
+
+    public void setPrecioUnitario(BigDecimal precioUnitario) {
+        this.precioUnitario = precioUnitario;
+    }
+
+    public BigDecimal getSubtotal() {
+        return subtotal;
+    }
+
+    public void setSubtotal(BigDecimal subtotal) {
+        this.subtotal = subtotal;
+    }
+}
@@ -0,0 +1,67 @@
+package com.habilis.api.dto;
+
+/**
+ * Línea de la lista de preparación (pick list) de una oleada de envío
+ * Unidades de un producto a recoger para todos los pedidos de la oleada
+ */
+public class LineaPreparacion {
+
+    private Long productoId;
+    private String nombre;
+    private String categoria;
+    private Long unidades;
+    private Long pedidos;
+
+    // Constructores
+    public LineaPreparacion() {
+    }
+
+    public LineaPreparacion(Long productoId, String nombre, String categoria, Long unidades, Long pedidos) {
+        this.productoId = productoId;
+        this.nombre = nombre;
+        this.categoria = categoria;
+        this.unidades = unidades;
+        this.pedidos = pedidos;
+    }
+
+    // Getters y Setters
+    public Long getProductoId() {
+        return productoId;
+    }
+
+    public void setProductoId(Long productoId) {
+        this.productoId = productoId;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public void setNombre(String nombre) {
+        this.nombre = nombre;
+    }
+
+    public String getCategoria() {
+        return categoria;
+    }
+
+    public void setCategoria(String categoria) {
+        this.categoria = categoria;
+    }
+
+    public Long getUnidades() {
+        return unidades;
+    }
+
+    public void setUnidades(Long unidades) {
+        this.unidades = unidades;
+    }
+
+    public Long getPedidos() {
+        return pedidos;
+    }
+
+    public void setPedidos(Long pedidos) {
+        this.pedidos = pedidos;
+    }
+}
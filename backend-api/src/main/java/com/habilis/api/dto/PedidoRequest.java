@@ -18,6 +18,10 @@ public class PedidoRequest {
     @Valid
     private List<ItemPedidoRequest> items;
 
+    // Token opcional devuelto por POST /api/pedidos/cotizar
+    // Si es válido, el pedido se crea con los precios cotizados
+    private String cotizacionToken;
+
     // Constructores
     public PedidoRequest() {
     }
@@ -43,4 +47,12 @@ public class PedidoRequest {
     public void setItems(List<ItemPedidoRequest> items) {
         this.items = items;
     }
+
+    public String getCotizacionToken() {
+        return cotizacionToken;
+    }
+
+    public void setCotizacionToken(String cotizacionToken) {
+        this.cotizacionToken = cotizacionToken;
+    }
 }
@@ -0,0 +1,69 @@
+package com.habilis.api.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Proyección compacta de un producto para carrito y pago
+ * Solo incluye los datos necesarios para mostrar y valorar una línea
+ */
+public class ProductoResumen {
+
+    private Long id;
+    private String nombre;
+    private BigDecimal precio;
+    private Integer stock;
+    private String imagenUrl;
+
+    // Constructores
+    public ProductoResumen() {
+    }
+
+    public ProductoResumen(Long id, String nombre, BigDecimal precio, Integer stock, String imagenUrl) {
+        this.id = id;
+        this.nombre = nombre;
+        this.precio = precio;
+        this.stock = stock;
+        this.imagenUrl = imagenUrl;
+    }
+
+    // Getters y Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public void setNombre(String nombre) {
+        this.nombre = nombre;
+    }
+
+    public BigDecimal getPrecio() {
+        return precio;
+    }
+
+    public void setPrecio(BigDecimal precio) {
+        this.precio = precio;
+    }
+
+    public Integer getStock() {
+        return stock;
+    }
+
+    public void setStock(Integer stock) {
+        this.stock = stock;
+    }
+
+    public String getImagenUrl() {
+        return imagenUrl;
+    }
+
+    public void setImagenUrl(String imagenUrl) {
+        this.imagenUrl = imagenUrl;
+    }
+}
@@ -0,0 +1,38 @@
+package com.habilis.api.dto;
+
+import com.habilis.api.service.ConsultaProductoService;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * DTO para consultar varios productos en una sola petición
+ * Usado por carritos grandes que no caben en la query string
+ */
+public class ProductosLoteRequest {
+
+    @NotEmpty(message = "Debes indicar al menos un producto")
+    @Size(max = ConsultaProductoService.MAX_PRODUCTOS_LOTE,
+            message = "No se pueden consultar más de " + ConsultaProductoService.MAX_PRODUCTOS_LOTE
+                    + " productos a la vez")
+    private List<@NotNull(message = "El ID del producto es obligatorio") Long> ids;
+
+    // Constructores
+    public ProductosLoteRequest() {
+    }
+
+    public ProductosLoteRequest(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    // Getters y Setters
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+}
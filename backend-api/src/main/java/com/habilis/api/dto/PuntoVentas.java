@@ -0,0 +1,91 @@
+package com.habilis.api.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Punto de una serie temporal de ventas (hora, día, semana o mes)
+ * Los importes netos descuentan los pedidos cancelados
+ */
+public class PuntoVentas {
+
+    private LocalDateTime periodo;
+    private Long pedidos;
+    private Long unidades;
+    private BigDecimal ingresos;
+    private Long cancelados;
+    private BigDecimal ingresosCancelados;
+    private BigDecimal ingresosNetos;
+
+    // Constructores
+    public PuntoVentas() {
+    }
+
+    public PuntoVentas(LocalDateTime periodo, Long pedidos, Long unidades, BigDecimal ingresos,
+            Long cancelados, BigDecimal ingresosCancelados) {
+        this.periodo = periodo;
+        this.pedidos = pedidos;
+        this.unidades = unidades;
+        this.ingresos = ingresos;
+        this.cancelados = cancelados;
+        this.ingresosCancelados = ingresosCancelados;
+        this.ingresosNetos = ingresos.subtract(ingresosCancelados);
+    }
+
+    // Getters y Setters
+    public LocalDateTime getPeriodo() {
+        return periodo;
+    }
+
+    public void setPeriodo(LocalDateTime periodo) {
+        this.periodo = periodo;
+    }
+
+    public Long getPedidos() {
+        return pedidos;
+    }
+
+    public void setPedidos(Long pedidos) {
+        this.pedidos = pedidos;
+    }
+
+    public Long getUnidades() {
+        return unidades;
+    }
+
+    public void setUnidades(Long unidades) {
+        this.unidades = unidades;
+    }
+
+    public BigDecimal getIngresos() {
+        return ingresos;
+    }
+
+    public void setIngresos(BigDecimal ingresos) {
+        this.ingresos = ingresos;
+    }
+
+    public Long getCancelados() {
+        return cancelados;
+    }
+
+    public void setCancelados(Long cancelados) {
+        this.cancelados = cancelados;
+    }
+
+    public BigDecimal getIngresosCancelados() {
+        return ingresosCancelados;
+    }
+
+    public void setIngresosCancelados(BigDecimal ingresosCancelados) {
+        this.ingresosCancelados = ingresosCancelados;
+    }
+
+    public BigDecimal getIngresosNetos() {
+        return ingresosNetos;
+    }
+
+    public void setIngresosNetos(BigDecimal ingresosNetos) {
+        this.ingresosNetos = ingresosNetos;
+    }
+}
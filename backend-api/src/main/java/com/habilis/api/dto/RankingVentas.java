@@ -0,0 +1,69 @@
+package com.habilis.api.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Fila de un ranking de ventas (productos o categorías) en un rango de fechas
+ * Unidades e ingresos netos: sin los pedidos cancelados
+ */
+public class RankingVentas {
+
+    private Long id;
+    private String nombre;
+    private Long pedidos;
+    private Long unidades;
+    private BigDecimal ingresos;
+
+    // Constructores
+    public RankingVentas() {
+    }
+
+    public RankingVentas(Long id, String nombre, Long pedidos, Long unidades, BigDecimal ingresos) {
+        this.id = id;
+        this.nombre = nombre;
+        this.pedidos = pedidos;
+        this.unidades = unidades;
+        this.ingresos = ingresos;
+    }
+
+    // Getters y Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public void setNombre(String nombre) {
+        this.nombre = nombre;
+    }
+
+    public Long getPedidos() {
+        return pedidos;
+    }
+
+    public void setPedidos(Long pedidos) {
+        this.pedidos = pedidos;
+    }
+
+    public Long getUnidades() {
+        return unidades;
+    }
+
+    public void setUnidades(Long unidades) {
+        this.unidades = unidades;
+    }
+
+    public BigDecimal getIngresos() {
+        return ingresos;
+    }
+
+    public void setIngresos(BigDecimal ingresos) {
+        this.ingresos = ingresos;
+    }
+}
@@ -0,0 +1,115 @@
+package com.habilis.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * DTO con el estado de un pedido que espera en la cola de admisión
+ * Estados: EN_COLA, PROCESANDO, COMPLETADO, RECHAZADO
+ * Lo actualizan los hilos de la cola y lo lee el cliente al consultar
+ * GET /api/pedidos/tickets/{ticket}
+ */
+public class TicketPedido {
+
+    private final String ticket;
+    @JsonIgnore
+    private final Long usuarioId;
+    private final Instant creadoEn;
+    private final int posicion;
+
+    private volatile String estado;
+    private volatile Long pedidoId;
+    private volatile String codigoFactura;
+    private volatile Long facturaId;
+    private volatile BigDecimal totalPedido;
+    private volatile String error;
+    private volatile Instant finalizadoEn;
+
+    public TicketPedido(String ticket, Long usuarioId, int posicion) {
+        this.ticket = ticket;
+        this.usuarioId = usuarioId;
+        this.posicion = posicion;
+        this.creadoEn = Instant.now();
+        this.estado = "EN_COLA";
+    }
+
+    /**
+     * Marcar el pedido como creado
+     */
+    public void completar(Long pedidoId, String codigoFactura, Long facturaId, BigDecimal totalPedido) {
+        this.pedidoId = pedidoId;
+        this.codigoFactura = codigoFactura;
+        this.facturaId = facturaId;
+        this.totalPedido = totalPedido;
+        this.finalizadoEn = Instant.now();
+        this.estado = "COMPLETADO";
+    }
+
+    /**
+     * Marcar el pedido como rechazado (sin stock, datos inválidos...)
+     */
+    public void rechazar(String error) {
+        this.error = error;
+        this.finalizadoEn = Instant.now();
+        this.estado = "RECHAZADO";
+    }
+
+    @JsonIgnore
+    public boolean isFinalizado() {
+        return finalizadoEn != null;
+    }
+
+    // Getters y Setters
+    public String getTicket() {
+        return ticket;
+    }
+
+    public Long getUsuarioId() {
+        return usuarioId;
+    }
+
+    public Instant getCreadoEn() {
+        return creadoEn;
+    }
+
+    /**
+     * Solicitudes que había en la cola al entrar
+     */
+    public int getPosicion() {
+        return posicion;
+    }
+
+    public String getEstado() {
+        return estado;
+    }
+
+    public void setEstado(String estado) {
+        this.estado = estado;
+    }
+
+    public Long getPedidoId() {
+        return pedidoId;
+    }
+
+    public String getCodigoFactura() {
+        return codigoFactura;
+    }
+
+    public Long getFacturaId() {
+        return facturaId;
+    }
+
+    public BigDecimal getTotalPedido() {
+        return totalPedido;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public Instant getFinalizadoEn() {
+        return finalizadoEn;
+    }
+}
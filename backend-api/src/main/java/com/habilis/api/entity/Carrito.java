@@ -0,0 +1,97 @@
+package com.habilis.api.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entidad Carrito - Representa la tabla 'carritos'
+ * Carrito persistente de un usuario (uno por usuario)
+ */
+@Entity
+@Table(name = "carritos")
+public class Carrito {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "carritos_id_seq")
+    @SequenceGenerator(name = "carritos_id_seq", sequenceName = "carritos_id_seq", allocationSize = 50)
+    private Long id;
+
+    @NotNull(message = "El usuario es obligatorio")
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "usuario_id", nullable = false, unique = true)
+    private Usuario usuario;
+
+    /**
+     * Total acumulado de las líneas con el precio vigente
+     * Se mantiene de forma incremental en cada modificación del carrito
+     */
+    @NotNull(message = "El total del carrito es obligatorio")
+    @Column(name = "total", nullable = false, precision = 10, scale = 2)
+    private BigDecimal total;
+
+    @NotNull(message = "La fecha de actualización es obligatoria")
+    @Column(name = "fecha_actualizacion", nullable = false)
+    private LocalDateTime fechaActualizacion;
+
+    // Relación con CarritoItem (un carrito tiene muchas líneas)
+    @OneToMany(mappedBy = "carrito", cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<CarritoItem> items = new ArrayList<>();
+
+    // Constructores
+    public Carrito() {
+        this.total = BigDecimal.ZERO;
+        this.fechaActualizacion = LocalDateTime.now();
+    }
+
+    public Carrito(Usuario usuario) {
+        this.usuario = usuario;
+        this.total = BigDecimal.ZERO;
+        this.fechaActualizacion = LocalDateTime.now();
+    }
+
+    // Getters y Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Usuario getUsuario() {
+        return usuario;
+    }
+
+    public void setUsuario(Usuario usuario) {
+        this.usuario = usuario;
+    }
+
+    public BigDecimal getTotal() {
+        return total;
+    }
+
+    public void setTotal(BigDecimal total) {
+        this.total = total;
+    }
+
+    public LocalDateTime getFechaActualizacion() {
+        return fechaActualizacion;
+    }
+
+    public void setFechaActualizacion(LocalDateTime fechaActualizacion) {
+        this.fechaActualizacion = fechaActualizacion;
+    }
+
+    public List<CarritoItem> getItems() {
+        return items;
+    }
+
+    public void setItems(List<CarritoItem> items) {
+        this.items = items;
+    }
+}
@@ -0,0 +1,98 @@
+package com.habilis.api.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+
+/**
+ * Entidad CarritoItem - Representa la tabla 'carrito_items'
+ * Línea de un carrito persistente
+ */
+@Entity
+@Table(name = "carrito_items", uniqueConstraints = @UniqueConstraint(columnNames = { "carrito_id", "producto_id" }))
+public class CarritoItem {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "carrito_items_id_seq")
+    @SequenceGenerator(name = "carrito_items_id_seq", sequenceName = "carrito_items_id_seq", allocationSize = 50)
+    private Long id;
+
+    @NotNull(message = "El carrito es obligatorio")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "carrito_id", nullable = false)
+    private Carrito carrito;
+
+    @NotNull(message = "El producto es obligatorio")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "producto_id", nullable = false)
+    private Producto producto;
+
+    @NotNull(message = "La cantidad es obligatoria")
+    @Min(value = 1, message = "La cantidad debe ser al menos 1")
+    @Column(name = "cantidad", nullable = false)
+    private Integer cantidad;
+
+    /**
+     * Precio unitario vigente con el que se calculó el total del carrito
+     * A diferencia de DetallePedido, se actualiza cuando cambia el precio
+     */
+    @NotNull(message = "El precio unitario es obligatorio")
+    @DecimalMin(value = "0.01", message = "El precio debe ser mayor a 0")
+    @Column(name = "precio_unitario", nullable = false, precision = 10, scale = 2)
+    private BigDecimal precioUnitario;
+
+    // Constructores
+    public CarritoItem() {
+    }
+
+    public CarritoItem(Carrito carrito, Producto producto, Integer cantidad, BigDecimal precioUnitario) {
+        this.carrito = carrito;
+        this.producto = producto;
+        this.cantidad = cantidad;
+        this.precioUnitario = precioUnitario;
+    }
+
+    // Getters y Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Carrito getCarrito() {
+        return carrito;
+    }
+
+    public void setCarrito(Carrito carrito) {
+        this.carrito = carrito;
+    }
+
+    public Producto getProducto() {
+        return producto;
+    }
+
+    public void setProducto(Producto producto) {
+        this.producto = producto;
+    }
+
+    public Integer getCantidad() {
+        return cantidad;
+    }
+
+    public void setCantidad(Integer cantidad) {
+        this.cantidad = cantidad;
+    }
+
+    public BigDecimal getPrecioUnitario() {
+        return precioUnitario;
+    }
+
+    public void setPrecioUnitario(BigDecimal precioUnitario) {
+        this.precioUnitario = precioUnitario;
+    }
+}
@@ -0,0 +1,50 @@
+package com.habilis.api.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDate;
+
+/**
+ * Entidad ContadorFactura - Representa la tabla 'contadores_factura'
+ * Último número de factura emitido en cada día (FAC-YYYYMMDD-XXXXX)
+ * Se incrementa con un upsert atómico, nunca contando facturas
+ */
+@Entity
+@Table(name = "contadores_factura")
+public class ContadorFactura {
+
+    @Id
+    @Column(name = "fecha")
+    private LocalDate fecha;
+
+    @NotNull(message = "El último número es obligatorio")
+    @Column(name = "ultimo", nullable = false)
+    private Integer ultimo;
+
+    // Constructores
+    public ContadorFactura() {
+    }
+
+    public ContadorFactura(LocalDate fecha, Integer ultimo) {
+        this.fecha = fecha;
+        this.ultimo = ultimo;
+    }
+
+    // Getters y Setters
+    public LocalDate getFecha() {
+        return fecha;
+    }
+
+    public void setFecha(LocalDate fecha) {
+        this.fecha = fecha;
+    }
+
+    public Integer getUltimo() {
+        return ultimo;
+    }
+
+    public void setUltimo(Integer ultimo) {
+        this.ultimo = ultimo;
+    }
+}
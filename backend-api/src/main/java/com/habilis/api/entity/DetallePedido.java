@@ -17,7 +17,9 @@ import java.math.BigDecimal;
 public class DetallePedido {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "detalle_pedido_id_seq")
+    @SequenceGenerator(name = "detalle_pedido_id_seq", sequenceName = "detalle_pedido_id_seq", allocationSize = 50)
+    @Column(name = "id", columnDefinition = "BIGINT DEFAULT nextval('detalle_pedido_id_seq')")
     private Long id;
 
     @NotNull(message = "El pedido es obligatorio")
@@ -0,0 +1,128 @@
+package com.habilis.api.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad EstadisticasUsuario - Representa la tabla 'estadisticas_usuario'
+ * Resumen de pedidos de cada usuario, mantenido de forma incremental al crear
+ * pedidos y al cambiar su estado (EstadisticasUsuarioService)
+ */
+@Entity
+@Table(name = "estadisticas_usuario")
+public class EstadisticasUsuario {
+
+    @Id
+    @Column(name = "usuario_id")
+    private Long usuarioId;
+
+    @Column(name = "total_pedidos", nullable = false)
+    private Integer totalPedidos = 0;
+
+    @Column(name = "pendientes", nullable = false)
+    private Integer pendientes = 0;
+
+    @Column(name = "enviados", nullable = false)
+    private Integer enviados = 0;
+
+    @Column(name = "completados", nullable = false)
+    private Integer completados = 0;
+
+    @Column(name = "cancelados", nullable = false)
+    private Integer cancelados = 0;
+
+    // Suma del total de todos los pedidos del usuario
+    @Column(name = "total_gastado", nullable = false, precision = 12, scale = 2)
+    private BigDecimal totalGastado = BigDecimal.ZERO;
+
+    @Column(name = "ultimo_pedido")
+    private LocalDateTime ultimoPedido;
+
+    @Column(name = "fecha_actualizacion", nullable = false)
+    private LocalDateTime fechaActualizacion;
+
+    // Constructores
+    public EstadisticasUsuario() {
+        this.fechaActualizacion = LocalDateTime.now();
+    }
+
+    public EstadisticasUsuario(Long usuarioId) {
+        this.usuarioId = usuarioId;
+        this.fechaActualizacion = LocalDateTime.now();
+    }
+
+    // Getters y Setters
+    public Long getUsuarioId() {
+        return usuarioId;
+    }
+
+    public void setUsuarioId(Long usuarioId) {
+        this.usuarioId = usuarioId;
+    }
+
+    public Integer getTotalPedidos() {
+        return totalPedidos;
+    }
+
+    public void setTotalPedidos(Integer totalPedidos) {
+        this.totalPedidos = totalPedidos;
+    }
+
+    public Integer getPendientes() {
+        return pendientes;
+    }
+
+    public void setPendientes(Integer pendientes) {
+        this.pendientes = pendientes;
+    }
+
+    public Integer getEnviados() {
+        return enviados;
+    }
+
+    public void setEnviados(Integer enviados) {
+        this.enviados = enviados;
+    }
+
+    public Integer getCompletados() {
+        return completados;
+    }
+
+    public void setCompletados(Integer completados) {
+        this.completados = completados;
+    }
+
+    public Integer getCancelados() {
+        return cancelados;
+    }
+
+    public void setCancelados(Integer cancelados) {
+        this.cancelados = cancelados;
+    }
+
+    public BigDecimal getTotalGastado() {
+        return totalGastado;
+    }
+
+    public void setTotalGastado(BigDecimal totalGastado) {
+        this.totalGastado = totalGastado;
+    }
+
+    public LocalDateTime getUltimoPedido() {
+        return ultimoPedido;
+    }
+
+    public void setUltimoPedido(LocalDateTime ultimoPedido) {
+        this.ultimoPedido = ultimoPedido;
+    }
+
+    public LocalDateTime getFechaActualizacion() {
+        return fechaActualizacion;
+    }
+
+    public void setFechaActualizacion(LocalDateTime fechaActualizacion) {
+        this.fechaActualizacion = fechaActualizacion;
+    }
+}
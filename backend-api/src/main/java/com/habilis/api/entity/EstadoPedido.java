@@ -0,0 +1,64 @@
+package com.habilis.api.entity;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Estados de un pedido y transiciones permitidas entre ellos
+ * La columna pedidos.estado guarda el nombre del estado
+ *
+ * PENDIENTE → ENVIADO → COMPLETADO
+ *     ↓          ↓
+ * CANCELADO ←────┘
+ */
+public enum EstadoPedido {
+
+    PENDIENTE,
+    ENVIADO,
+    COMPLETADO,
+    CANCELADO;
+
+    /**
+     * Estados a los que se puede pasar desde este
+     */
+    public Set<EstadoPedido> siguientes() {
+        switch (this) {
+            case PENDIENTE:
+                return EnumSet.of(ENVIADO, CANCELADO);
+            case ENVIADO:
+                return EnumSet.of(COMPLETADO, CANCELADO);
+            default:
+                return EnumSet.noneOf(EstadoPedido.class);
+        }
+    }
+
+    public boolean puedePasarA(EstadoPedido destino) {
+        return siguientes().contains(destino);
+    }
+
+    /**
+     * Estados desde los que se puede llegar a este
+     */
+    public List<EstadoPedido> origenes() {
+        return Arrays.stream(values())
+                .filter(origen -> origen.puedePasarA(this))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Convertir el texto de la columna o de una petición
+     *
+     * @throws RuntimeException si no es un estado válido
+     */
+    public static EstadoPedido desde(String estado) {
+        try {
+            return valueOf(estado);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new RuntimeException("Estado inválido. Estados válidos: " +
+                    Arrays.stream(values()).map(Enum::name).collect(Collectors.joining(", ")));
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.habilis.api.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad EventoPedido - Representa la tabla 'eventos_pedido'
+ * Bandeja de salida (outbox) de cambios de estado de pedidos
+ * Se inserta en la misma transacción que el cambio de estado y un publicador
+ * periódico la procesa después (avisos al cliente), así un cambio confirmado
+ * nunca se queda sin aviso y un cambio deshecho nunca lo envía
+ * La creación de un pedido también se registra (sin estado anterior) para
+ * alimentar los resúmenes de ventas
+ */
+@Entity
+@Table(name = "eventos_pedido")
+public class EventoPedido {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "eventos_pedido_id_seq")
+    @SequenceGenerator(name = "eventos_pedido_id_seq", sequenceName = "eventos_pedido_id_seq", allocationSize = 50)
+    @Column(name = "id", columnDefinition = "BIGINT DEFAULT nextval('eventos_pedido_id_seq')")
+    private Long id;
+
+    // Solo el ID: las inserciones por lotes no cargan el pedido
+    @NotNull(message = "El pedido es obligatorio")
+    @Column(name = "pedido_id", nullable = false)
+    private Long pedidoId;
+
+    // null: creación del pedido
+    @Column(name = "estado_anterior", length = 20)
+    private String estadoAnterior;
+
+    @NotNull(message = "El estado nuevo es obligatorio")
+    @Column(name = "estado_nuevo", nullable = false, length = 20)
+    private String estadoNuevo;
+
+    @NotNull(message = "La fecha es obligatoria")
+    @Column(name = "fecha", nullable = false)
+    private LocalDateTime fecha;
+
+    @Column(name = "publicado", nullable = false)
+    private Boolean publicado = false;
+
+    @Column(name = "fecha_publicacion")
+    private LocalDateTime fechaPublicacion;
+
+    // Ya sumado a los resúmenes de ventas (AnaliticaVentasService)
+    @Column(name = "agregado", columnDefinition = "BOOLEAN NOT NULL DEFAULT false")
+    private Boolean agregado = false;
+
+    // Constructores
+    public EventoPedido() {
+        this.fecha = LocalDateTime.now();
+    }
+
+    public EventoPedido(Long pedidoId, String estadoAnterior, String estadoNuevo) {
+        this.pedidoId = pedidoId;
+        this.estadoAnterior = estadoAnterior;
+        this.estadoNuevo = estadoNuevo;
+        this.fecha = LocalDateTime.now();
+        this.publicado = false;
+        this.agregado = false;
+    }
+
+    // Getters y Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getPedidoId() {
+        return pedidoId;
+    }
+
+    public void setPedidoId(Long pedidoId) {
+        this.pedidoId = pedidoId;
+    }
+
+    public String getEstadoAnterior() {
+        return estadoAnterior;
+    }
+
+    public void setEstadoAnterior(String estadoAnterior) {
+        this.estadoAnterior = estadoAnterior;
+    }
+
+    public String getEstadoNuevo() {
+        return estadoNuevo;
+    }
+
+    public void setEstadoNuevo(String estadoNuevo) {
+        this.estadoNuevo = estadoNuevo;
+    }
+
+    public LocalDateTime getFecha() {
+        return fecha;
+    }
+
+    public void setFecha(LocalDateTime fecha) {
+        this.fecha = fecha;
+    }
+
+    public Boolean getPublicado() {
+        return publicado;
+    }
+
+    public void setPublicado(Boolean publicado) {
+        this.publicado = publicado;
+    }
+
+    public LocalDateTime getFechaPublicacion() {
+        return fechaPublicacion;
+    }
+
+    public void setFechaPublicacion(LocalDateTime fechaPublicacion) {
+        this.fechaPublicacion = fechaPublicacion;
+    }
+
+    public Boolean getAgregado() {
+        return agregado;
+    }
+
+    public void setAgregado(Boolean agregado) {
+        this.agregado = agregado;
+    }
+}
@@ -15,7 +15,9 @@ import java.time.LocalDateTime;
 public class Factura {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "facturas_id_seq")
+    @SequenceGenerator(name = "facturas_id_seq", sequenceName = "facturas_id_seq", allocationSize = 50)
+    @Column(name = "id", columnDefinition = "BIGINT DEFAULT nextval('facturas_id_seq')")
     private Long id;
 
     @NotNull(message = "El código de factura es obligatorio")
@@ -30,6 +32,8 @@ public class Factura {
     @NotNull(message = "El usuario es obligatorio")
     @ManyToOne(fetch = FetchType.EAGER)
     @JoinColumn(name = "usuario_id", nullable = false)
+    // Si el pedido ya lo cargó como proxy perezoso, la factura recibe ese mismo proxy
+    @com.fasterxml.jackson.annotation.JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
     private Usuario usuario;
 
     @NotNull(message = "La fecha de emisión es obligatoria")
@@ -0,0 +1,116 @@
+package com.habilis.api.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad MovimientoStock - Representa la tabla 'movimientos_stock'
+ * Diario de solo inserción con cada cambio del stock comprometido
+ * Los movimientos pendientes (aplicado = false) se suman periódicamente a
+ * productos.stock, así que el stock real es stock + SUM(delta pendiente)
+ */
+@Entity
+@Table(name = "movimientos_stock")
+public class MovimientoStock {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "movimientos_stock_id_seq")
+    @SequenceGenerator(name = "movimientos_stock_id_seq", sequenceName = "movimientos_stock_id_seq", allocationSize = 50)
+    private Long id;
+
+    // Solo el ID: insertar un movimiento no debe cargar el producto
+    @NotNull(message = "El producto es obligatorio")
+    @Column(name = "producto_id", nullable = false)
+    private Long productoId;
+
+    @NotNull(message = "El delta es obligatorio")
+    @Column(name = "delta", nullable = false)
+    private Integer delta;
+
+    @NotNull(message = "El motivo es obligatorio")
+    @Column(name = "motivo", nullable = false, length = 20)
+    private String motivo; // 'VENTA', 'CANCELACION', 'REPOSICION', 'AJUSTE'
+
+    @Column(name = "pedido_id")
+    private Long pedidoId;
+
+    @NotNull(message = "La fecha es obligatoria")
+    @Column(name = "fecha", nullable = false)
+    private LocalDateTime fecha;
+
+    @Column(name = "aplicado", nullable = false)
+    private Boolean aplicado = false;
+
+    // Constructores
+    public MovimientoStock() {
+        this.fecha = LocalDateTime.now();
+    }
+
+    public MovimientoStock(Long productoId, Integer delta, String motivo, Long pedidoId) {
+        this.productoId = productoId;
+        this.delta = delta;
+        this.motivo = motivo;
+        this.pedidoId = pedidoId;
+        this.fecha = LocalDateTime.now();
+        this.aplicado = false;
+    }
+
+    // Getters y Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getProductoId() {
+        return productoId;
+    }
+
+    public void setProductoId(Long productoId) {
+        this.productoId = productoId;
+    }
+
+    public Integer getDelta() {
+        return delta;
+    }
+
+    public void setDelta(Integer delta) {
+        this.delta = delta;
+    }
+
+    public String getMotivo() {
+        return motivo;
+    }
+
+    public void setMotivo(String motivo) {
+        this.motivo = motivo;
+    }
+
+    public Long getPedidoId() {
+        return pedidoId;
+    }
+
+    public void setPedidoId(Long pedidoId) {
+        this.pedidoId = pedidoId;
+    }
+
+    public LocalDateTime getFecha() {
+        return fecha;
+    }
+
+    public void setFecha(LocalDateTime fecha) {
+        this.fecha = fecha;
+    }
+
+    public Boolean getAplicado() {
+        return aplicado;
+    }
+
+    public void setAplicado(Boolean aplicado) {
+        this.aplicado = aplicado;
+    }
+}
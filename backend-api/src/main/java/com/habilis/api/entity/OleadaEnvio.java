@@ -0,0 +1,135 @@
+package com.habilis.api.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad OleadaEnvio - Representa la tabla 'oleadas_envio'
+ * Grupo de pedidos pendientes que el almacén prepara y envía a la vez
+ * Los pedidos de la oleada se marcan con pedidos.oleada_id
+ */
+@Entity
+@Table(name = "oleadas_envio")
+public class OleadaEnvio {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Filtros con los que se seleccionaron los pedidos
+    @Column(name = "fecha_desde")
+    private LocalDateTime fechaDesde;
+
+    @Column(name = "fecha_hasta")
+    private LocalDateTime fechaHasta;
+
+    @ManyToOne(fetch = FetchType.EAGER)
+    @JoinColumn(name = "categoria_id")
+    private Categoria categoria;
+
+    @NotNull(message = "El estado es obligatorio")
+    @Column(name = "estado", nullable = false, length = 20)
+    private String estado; // 'PREPARACION', 'ENVIADA', 'ANULADA'
+
+    @Column(name = "numero_pedidos", nullable = false)
+    private Integer numeroPedidos = 0;
+
+    @Column(name = "pedidos_enviados", nullable = false)
+    private Integer pedidosEnviados = 0;
+
+    @NotNull(message = "La fecha de creación es obligatoria")
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+
+    @Column(name = "fecha_envio")
+    private LocalDateTime fechaEnvio;
+
+    // Constructores
+    public OleadaEnvio() {
+        this.fechaCreacion = LocalDateTime.now();
+        this.estado = "PREPARACION";
+    }
+
+    public OleadaEnvio(LocalDateTime fechaDesde, LocalDateTime fechaHasta, Categoria categoria) {
+        this.fechaDesde = fechaDesde;
+        this.fechaHasta = fechaHasta;
+        this.categoria = categoria;
+        this.fechaCreacion = LocalDateTime.now();
+        this.estado = "PREPARACION";
+    }
+
+    // Getters y Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDateTime getFechaDesde() {
+        return fechaDesde;
+    }
+
+    public void setFechaDesde(LocalDateTime fechaDesde) {
+        this.fechaDesde = fechaDesde;
+    }
+
+    public LocalDateTime getFechaHasta() {
+        return fechaHasta;
+    }
+
+    public void setFechaHasta(LocalDateTime fechaHasta) {
+        this.fechaHasta = fechaHasta;
+    }
+
+    public Categoria getCategoria() {
+        return categoria;
+    }
+
+    public void setCategoria(Categoria categoria) {
+        this.categoria = categoria;
+    }
+
+    public String getEstado() {
+        return estado;
+    }
+
+    public void setEstado(String estado) {
+        this.estado = estado;
+    }
+
+    public Integer getNumeroPedidos() {
+        return numeroPedidos;
+    }
+
+    public void setNumeroPedidos(Integer numeroPedidos) {
+        this.numeroPedidos = numeroPedidos;
+    }
+
+    public Integer getPedidosEnviados() {
+        return pedidosEnviados;
+    }
+
+    public void setPedidosEnviados(Integer pedidosEnviados) {
+        this.pedidosEnviados = pedidosEnviados;
+    }
+
+    public LocalDateTime getFechaCreacion() {
+        return fechaCreacion;
+    }
+
+    public void setFechaCreacion(LocalDateTime fechaCreacion) {
+        this.fechaCreacion = fechaCreacion;
+    }
+
+    public LocalDateTime getFechaEnvio() {
+        return fechaEnvio;
+    }
+
+    public void setFechaEnvio(LocalDateTime fechaEnvio) {
+        this.fechaEnvio = fechaEnvio;
+    }
+}
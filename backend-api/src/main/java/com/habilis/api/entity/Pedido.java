@@ -14,11 +14,36 @@ import java.util.List;
  * Cabecera de la compra
  */
 @Entity
-@Table(name = "pedidos")
+@NamedEntityGraph(name = Pedido.GRAFO_CON_DETALLES,
+        attributeNodes = @NamedAttributeNode(value = "detalles", subgraph = "detalles"),
+        subgraphs = {
+                @NamedSubgraph(name = "detalles", attributeNodes = @NamedAttributeNode(value = "producto",
+                        subgraph = "producto")),
+                @NamedSubgraph(name = "producto", attributeNodes = @NamedAttributeNode("categoria"))
+        })
+@NamedEntityGraph(name = Pedido.GRAFO_FACTURA,
+        attributeNodes = {
+                @NamedAttributeNode("usuario"),
+                @NamedAttributeNode(value = "detalles", subgraph = "detalles")
+        },
+        subgraphs = @NamedSubgraph(name = "detalles", attributeNodes = @NamedAttributeNode("producto")))
+@Table(name = "pedidos",
+        uniqueConstraints = @UniqueConstraint(name = "uk_pedido_suscripcion_periodo",
+                columnNames = { "suscripcion_id", "periodo" }))
 public class Pedido {
 
+    // Planes de carga (PedidoRepository): pedido con líneas, productos y
+    // categorías, y pedido para factura (usuario, líneas y productos)
+    public static final String GRAFO_CON_DETALLES = "Pedido.conDetalles";
+    public static final String GRAFO_FACTURA = "Pedido.paraFactura";
+
+    // Secuencia con asignación por bloques de 50 (pooled-lo): Hibernate no
+    // necesita un INSERT por fila para conocer el ID y puede agrupar los
+    // INSERT en lotes. Las inserciones JDBC usan el DEFAULT de la columna
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pedidos_id_seq")
+    @SequenceGenerator(name = "pedidos_id_seq", sequenceName = "pedidos_id_seq", allocationSize = 50)
+    @Column(name = "id", columnDefinition = "BIGINT DEFAULT nextval('pedidos_id_seq')")
     private Long id;
 
     @NotNull(message = "El usuario es obligatorio")
@@ -41,6 +66,27 @@ public class Pedido {
     @Column(name = "estado", nullable = false, length = 20)
     private String estado; // 'PENDIENTE', 'ENVIADO', 'COMPLETADO', 'CANCELADO'
 
+    // Control de concurrencia optimista: cada cambio de estado la incrementa
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    @com.fasterxml.jackson.annotation.JsonIgnore
+    private Long version = 0L;
+
+    // Pedidos mensuales de suscripción: un pedido por suscripción y periodo
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "suscripcion_id")
+    @com.fasterxml.jackson.annotation.JsonIgnore
+    private Suscripcion suscripcion;
+
+    @Column(name = "periodo", length = 7)
+    private String periodo; // 'YYYY-MM', solo en pedidos de suscripción
+
+    // Oleada de envío en la que se prepara el pedido (null si no está en ninguna)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "oleada_id")
+    @com.fasterxml.jackson.annotation.JsonIgnore
+    private OleadaEnvio oleada;
+
     // Relación con DetallePedido (un pedido tiene muchos detalles)
     @OneToMany(mappedBy = "pedido", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<DetallePedido> detalles = new ArrayList<>();
@@ -99,6 +145,38 @@ public class Pedido {
         this.estado = estado;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Suscripcion getSuscripcion() {
+        return suscripcion;
+    }
+
+    public void setSuscripcion(Suscripcion suscripcion) {
+        this.suscripcion = suscripcion;
+    }
+
+    public String getPeriodo() {
+        return periodo;
+    }
+
+    public void setPeriodo(String periodo) {
+        this.periodo = periodo;
+    }
+
+    public OleadaEnvio getOleada() {
+        return oleada;
+    }
+
+    public void setOleada(OleadaEnvio oleada) {
+        this.oleada = oleada;
+    }
+
     public List<DetallePedido> getDetalles() {
         return detalles;
     }
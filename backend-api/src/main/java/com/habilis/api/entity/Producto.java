@@ -40,13 +40,19 @@ public class Producto {
 
     @NotNull(message = "El stock es obligatorio")
     @Min(value = 0, message = "El stock no puede ser negativo")
-    @Column(name = "stock", nullable = false)
+    // Stock comprometido ya volcado: solo lo modifica InventarioService
+    // (diario movimientos_stock), nunca el guardado de la entidad
+    @Column(name = "stock", nullable = false, updatable = false)
     private Integer stock;
 
     @Size(max = 255, message = "La URL de imagen no puede exceder 255 caracteres")
     @Column(name = "imagen_url", length = 255)
     private String imagenUrl;
 
+    // Lanzamientos limitados: los pedidos pasan por la cola de admisión
+    @Column(name = "admision_cola", nullable = false, columnDefinition = "BOOLEAN NOT NULL DEFAULT FALSE")
+    private Boolean admisionCola = false;
+
     // Relación con DetallePedido
     @OneToMany(mappedBy = "producto", cascade = CascadeType.ALL)
     @com.fasterxml.jackson.annotation.JsonIgnore
@@ -115,6 +121,14 @@ public class Producto {
         this.stock = stock;
     }
 
+    public Boolean getAdmisionCola() {
+        return admisionCola;
+    }
+
+    public void setAdmisionCola(Boolean admisionCola) {
+        this.admisionCola = admisionCola;
+    }
+
     public String getImagenUrl() {
         return imagenUrl;
     }
@@ -0,0 +1,152 @@
+package com.habilis.api.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad ProgresoGeneracion - Representa la tabla 'progreso_generacion'
+ * Punto de control de la generación mensual de pedidos de suscripción
+ * Una fila por periodo y partición (rango de IDs de usuario); si el proceso
+ * se interrumpe, cada partición continúa desde su última suscripción procesada
+ */
+@Entity
+@Table(name = "progreso_generacion",
+        uniqueConstraints = @UniqueConstraint(name = "uk_progreso_periodo_particion",
+                columnNames = { "periodo", "particion" }))
+public class ProgresoGeneracion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull(message = "El periodo es obligatorio")
+    @Column(name = "periodo", nullable = false, length = 7)
+    private String periodo; // 'YYYY-MM'
+
+    @NotNull(message = "La partición es obligatoria")
+    @Column(name = "particion", nullable = false)
+    private Integer particion;
+
+    // Rango de usuario_id [usuarioDesde, usuarioHasta)
+    @NotNull(message = "El inicio del rango es obligatorio")
+    @Column(name = "usuario_desde", nullable = false)
+    private Long usuarioDesde;
+
+    @NotNull(message = "El fin del rango es obligatorio")
+    @Column(name = "usuario_hasta", nullable = false)
+    private Long usuarioHasta;
+
+    // Última suscripción procesada, en orden (usuario_id, id)
+    @Column(name = "ultimo_usuario_id", nullable = false)
+    private Long ultimoUsuarioId;
+
+    @Column(name = "ultima_suscripcion_id", nullable = false)
+    private Long ultimaSuscripcionId = 0L;
+
+    @Column(name = "pedidos_generados", nullable = false)
+    private Integer pedidosGenerados = 0;
+
+    @Column(name = "completada", nullable = false)
+    private Boolean completada = false;
+
+    @Column(name = "fecha_actualizacion", nullable = false)
+    private LocalDateTime fechaActualizacion;
+
+    // Constructores
+    public ProgresoGeneracion() {
+        this.fechaActualizacion = LocalDateTime.now();
+    }
+
+    public ProgresoGeneracion(String periodo, Integer particion, Long usuarioDesde, Long usuarioHasta) {
+        this.periodo = periodo;
+        this.particion = particion;
+        this.usuarioDesde = usuarioDesde;
+        this.usuarioHasta = usuarioHasta;
+        this.ultimoUsuarioId = usuarioDesde;
+        this.ultimaSuscripcionId = 0L;
+        this.fechaActualizacion = LocalDateTime.now();
+    }
+
+    // Getters y Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getPeriodo() {
+        return periodo;
+    }
+
+    public void setPeriodo(String periodo) {
+        this.periodo = periodo;
+    }
+
+    public Integer getParticion() {
+        return particion;
+    }
+
+    public void setParticion(Integer particion) {
+        this.particion = particion;
+    }
+
+    public Long getUsuarioDesde() {
+        return usuarioDesde;
+    }
+
+    public void setUsuarioDesde(Long usuarioDesde) {
+        this.usuarioDesde = usuarioDesde;
+    }
+
+    public Long getUsuarioHasta() {
+        return usuarioHasta;
+    }
+
+    public void setUsuarioHasta(Long usuarioHasta) {
+        this.usuarioHasta = usuarioHasta;
+    }
+
+    public Long getUltimoUsuarioId() {
+        return ultimoUsuarioId;
+    }
+
+    public void setUltimoUsuarioId(Long ultimoUsuarioId) {
+        this.ultimoUsuarioId = ultimoUsuarioId;
+    }
+
+    public Long getUltimaSuscripcionId() {
+        return ultimaSuscripcionId;
+    }
+
+    public void setUltimaSuscripcionId(Long ultimaSuscripcionId) {
+        this.ultimaSuscripcionId = ultimaSuscripcionId;
+    }
+
+    public Integer getPedidosGenerados() {
+        return pedidosGenerados;
+    }
+
+    public void setPedidosGenerados(Integer pedidosGenerados) {
+        this.pedidosGenerados = pedidosGenerados;
+    }
+
+    public Boolean getCompletada() {
+        return completada;
+    }
+
+    public void setCompletada(Boolean completada) {
+        this.completada = completada;
+    }
+
+    public LocalDateTime getFechaActualizacion() {
+        return fechaActualizacion;
+    }
+
+    public void setFechaActualizacion(LocalDateTime fechaActualizacion) {
+        this.fechaActualizacion = fechaActualizacion;
+    }
+}
@@ -0,0 +1,121 @@
+package com.habilis.api.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad ReservaStock - Representa la tabla 'reservas_stock'
+ * Retención temporal de stock mientras el usuario completa el pago
+ * Mientras está ACTIVA, sus unidades cuentan en productos.stock_reservado
+ */
+@Entity
+@Table(name = "reservas_stock")
+public class ReservaStock {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservas_stock_id_seq")
+    @SequenceGenerator(name = "reservas_stock_id_seq", sequenceName = "reservas_stock_id_seq", allocationSize = 50)
+    private Long id;
+
+    @NotNull(message = "El usuario es obligatorio")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "usuario_id", nullable = false)
+    private Usuario usuario;
+
+    @NotNull(message = "El producto es obligatorio")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "producto_id", nullable = false)
+    private Producto producto;
+
+    @NotNull(message = "La cantidad es obligatoria")
+    @Min(value = 1, message = "La cantidad debe ser al menos 1")
+    @Column(name = "cantidad", nullable = false)
+    private Integer cantidad;
+
+    @NotNull(message = "La fecha de creación es obligatoria")
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+
+    @NotNull(message = "La fecha de expiración es obligatoria")
+    @Column(name = "expira_en", nullable = false)
+    private LocalDateTime expiraEn;
+
+    @NotNull(message = "El estado de la reserva es obligatorio")
+    @Column(name = "estado", nullable = false, length = 20)
+    private String estado; // 'ACTIVA', 'CONSUMIDA', 'LIBERADA', 'CADUCADA'
+
+    // Constructores
+    public ReservaStock() {
+        this.fechaCreacion = LocalDateTime.now();
+        this.estado = "ACTIVA";
+    }
+
+    public ReservaStock(Usuario usuario, Producto producto, Integer cantidad, LocalDateTime expiraEn) {
+        this.usuario = usuario;
+        this.producto = producto;
+        this.cantidad = cantidad;
+        this.expiraEn = expiraEn;
+        this.fechaCreacion = LocalDateTime.now();
+        this.estado = "ACTIVA";
+    }
+
+    // Getters y Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Usuario getUsuario() {
+        return usuario;
+    }
+
+    public void setUsuario(Usuario usuario) {
+        this.usuario = usuario;
+    }
+
+    public Producto getProducto() {
+        return producto;
+    }
+
+    public void setProducto(Producto producto) {
+        this.producto = producto;
+    }
+
+    public Integer getCantidad() {
+        return cantidad;
+    }
+
+    public void setCantidad(Integer cantidad) {
+        this.cantidad = cantidad;
+    }
+
+    public LocalDateTime getFechaCreacion() {
+        return fechaCreacion;
+    }
+
+    public void setFechaCreacion(LocalDateTime fechaCreacion) {
+        this.fechaCreacion = fechaCreacion;
+    }
+
+    public LocalDateTime getExpiraEn() {
+        return expiraEn;
+    }
+
+    public void setExpiraEn(LocalDateTime expiraEn) {
+        this.expiraEn = expiraEn;
+    }
+
+    public String getEstado() {
+        return estado;
+    }
+
+    public void setEstado(String estado) {
+        this.estado = estado;
+    }
+}
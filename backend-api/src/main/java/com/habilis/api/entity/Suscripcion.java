@@ -0,0 +1,120 @@
+package com.habilis.api.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad Suscripcion - Representa la tabla 'suscripciones'
+ * Suscripción anual de un usuario a una línea de edad (categoría)
+ * Cada mes de vigencia genera un pedido con la "Misión" del mes
+ */
+@Entity
+@Table(name = "suscripciones")
+public class Suscripcion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "suscripciones_id_seq")
+    @SequenceGenerator(name = "suscripciones_id_seq", sequenceName = "suscripciones_id_seq", allocationSize = 50)
+    private Long id;
+
+    @NotNull(message = "El usuario es obligatorio")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "usuario_id", nullable = false)
+    @com.fasterxml.jackson.annotation.JsonIgnore
+    private Usuario usuario;
+
+    @NotNull(message = "La categoría es obligatoria")
+    @ManyToOne(fetch = FetchType.EAGER)
+    @JoinColumn(name = "categoria_id", nullable = false)
+    private Categoria categoria;
+
+    @NotNull(message = "La fecha de inicio es obligatoria")
+    @Column(name = "fecha_inicio", nullable = false)
+    private LocalDate fechaInicio;
+
+    @NotNull(message = "La fecha de fin es obligatoria")
+    @Column(name = "fecha_fin", nullable = false)
+    private LocalDate fechaFin;
+
+    @NotNull(message = "El estado es obligatorio")
+    @Column(name = "estado", nullable = false, length = 20)
+    private String estado; // 'ACTIVA', 'CANCELADA', 'FINALIZADA'
+
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+
+    // Constructores
+    public Suscripcion() {
+        this.fechaCreacion = LocalDateTime.now();
+        this.estado = "ACTIVA";
+    }
+
+    public Suscripcion(Usuario usuario, Categoria categoria, LocalDate fechaInicio) {
+        this.usuario = usuario;
+        this.categoria = categoria;
+        this.fechaInicio = fechaInicio;
+        this.fechaFin = fechaInicio.plusYears(1);
+        this.fechaCreacion = LocalDateTime.now();
+        this.estado = "ACTIVA";
+    }
+
+    // Getters y Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Usuario getUsuario() {
+        return usuario;
+    }
+
+    public void setUsuario(Usuario usuario) {
+        this.usuario = usuario;
+    }
+
+    public Categoria getCategoria() {
+        return categoria;
+    }
+
+    public void setCategoria(Categoria categoria) {
+        this.categoria = categoria;
+    }
+
+    public LocalDate getFechaInicio() {
+        return fechaInicio;
+    }
+
+    public void setFechaInicio(LocalDate fechaInicio) {
+        this.fechaInicio = fechaInicio;
+    }
+
+    public LocalDate getFechaFin() {
+        return fechaFin;
+    }
+
+    public void setFechaFin(LocalDate fechaFin) {
+        this.fechaFin = fechaFin;
+    }
+
+    public String getEstado() {
+        return estado;
+    }
+
+    public void setEstado(String estado) {
+        this.estado = estado;
+    }
+
+    public LocalDateTime getFechaCreacion() {
+        return fechaCreacion;
+    }
+
+    public void setFechaCreacion(LocalDateTime fechaCreacion) {
+        this.fechaCreacion = fechaCreacion;
+    }
+}
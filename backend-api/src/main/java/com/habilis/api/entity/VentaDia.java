@@ -0,0 +1,105 @@
+package com.habilis.api.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Entidad VentaDia - Representa la tabla 'ventas_dia'
+ * Resumen de ventas por día (mismas columnas que 'ventas_hora'), para las
+ * series diarias, semanales y mensuales de rangos largos
+ */
+@Entity
+@Table(name = "ventas_dia")
+public class VentaDia {
+
+    @Id
+    @Column(name = "dia")
+    private LocalDate dia;
+
+    // Pedidos creados en el periodo (por fecha del pedido)
+    @Column(name = "pedidos", nullable = false)
+    private Integer pedidos = 0;
+
+    @Column(name = "unidades", nullable = false)
+    private Integer unidades = 0;
+
+    @Column(name = "ingresos", nullable = false, precision = 14, scale = 2)
+    private BigDecimal ingresos = BigDecimal.ZERO;
+
+    // De esos pedidos, los cancelados después
+    @Column(name = "cancelados", nullable = false)
+    private Integer cancelados = 0;
+
+    @Column(name = "unidades_canceladas", nullable = false)
+    private Integer unidadesCanceladas = 0;
+
+    @Column(name = "ingresos_cancelados", nullable = false, precision = 14, scale = 2)
+    private BigDecimal ingresosCancelados = BigDecimal.ZERO;
+
+    // Constructores
+    public VentaDia() {
+    }
+
+    public VentaDia(LocalDate dia) {
+        this.dia = dia;
+    }
+
+    // Getters y Setters
+    public LocalDate getDia() {
+        return dia;
+    }
+
+    public void setDia(LocalDate dia) {
+        this.dia = dia;
+    }
+
+    public Integer getPedidos() {
+        return pedidos;
+    }
+
+    public void setPedidos(Integer pedidos) {
+        this.pedidos = pedidos;
+    }
+
+    public Integer getUnidades() {
+        return unidades;
+    }
+
+    public void setUnidades(Integer unidades) {
+        this.unidades = unidades;
+    }
+
+    public BigDecimal getIngresos() {
+        return ingresos;
+    }
+
+    public void setIngresos(BigDecimal ingresos) {
+        this.ingresos = ingresos;
+    }
+
+    public Integer getCancelados() {
+        return cancelados;
+    }
+
+    public void setCancelados(Integer cancelados) {
+        this.cancelados = cancelados;
+    }
+
+    public Integer getUnidadesCanceladas() {
+        return unidadesCanceladas;
+    }
+
+    public void setUnidadesCanceladas(Integer unidadesCanceladas) {
+        this.unidadesCanceladas = unidadesCanceladas;
+    }
+
+    public BigDecimal getIngresosCancelados() {
+        return ingresosCancelados;
+    }
+
+    public void setIngresosCancelados(BigDecimal ingresosCancelados) {
+        this.ingresosCancelados = ingresosCancelados;
+    }
+}
@@ -0,0 +1,143 @@
+package com.habilis.api.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Entidad VentaDiaProducto - Representa la tabla 'ventas_dia_producto'
+ * Resumen de ventas por día y producto, con la categoría del producto para
+ * agrupar por categoría sin consultar 'productos'
+ */
+@Entity
+@Table(name = "ventas_dia_producto", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_ventas_dia_producto", columnNames = { "dia", "producto_id" })
+})
+public class VentaDiaProducto {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "dia", nullable = false)
+    private LocalDate dia;
+
+    // Solo los IDs: se actualiza con upserts JDBC
+    @Column(name = "producto_id", nullable = false)
+    private Long productoId;
+
+    @Column(name = "categoria_id")
+    private Long categoriaId;
+
+    // Pedidos creados en el periodo (por fecha del pedido)
+    @Column(name = "pedidos", nullable = false)
+    private Integer pedidos = 0;
+
+    @Column(name = "unidades", nullable = false)
+    private Integer unidades = 0;
+
+    @Column(name = "ingresos", nullable = false, precision = 14, scale = 2)
+    private BigDecimal ingresos = BigDecimal.ZERO;
+
+    // De esos pedidos, los cancelados después
+    @Column(name = "cancelados", nullable = false)
+    private Integer cancelados = 0;
+
+    @Column(name = "unidades_canceladas", nullable = false)
+    private Integer unidadesCanceladas = 0;
+
+    @Column(name = "ingresos_cancelados", nullable = false, precision = 14, scale = 2)
+    private BigDecimal ingresosCancelados = BigDecimal.ZERO;
+
+    // Constructores
+    public VentaDiaProducto() {
+    }
+
+    public VentaDiaProducto(LocalDate dia, Long productoId, Long categoriaId) {
+        this.dia = dia;
+        this.productoId = productoId;
+        this.categoriaId = categoriaId;
+    }
+
+    // Getters y Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDate getDia() {
+        return dia;
+    }
+
+    public void setDia(LocalDate dia) {
+        this.dia = dia;
+    }
+
+    public Long getProductoId() {
+        return productoId;
+    }
+
+    public void setProductoId(Long productoId) {
+        this.productoId = productoId;
+    }
+
+    public Long getCategoriaId() {
+        return categoriaId;
+    }
+
+    public void setCategoriaId(Long categoriaId) {
+        this.categoriaId = categoriaId;
+    }
+
+    public Integer getPedidos() {
+        return pedidos;
+    }
+
+    public void setPedidos(Integer pedidos) {
+        this.pedidos = pedidos;
+    }
+
+    public Integer getUnidades() {
+        return unidades;
+    }
+
+    public void setUnidades(Integer unidades) {
+        this.unidades = unidades;
+    }
+
+    public BigDecimal getIngresos() {
+        return ingresos;
+    }
+
+    public void setIngresos(BigDecimal ingresos) {
+        this.ingresos = ingresos;
+    }
+
+    public Integer getCancelados() {
+        return cancelados;
+    }
+
+    public void setCancelados(Integer cancelados) {
+        this.cancelados = cancelados;
+    }
+
+    public Integer getUnidadesCanceladas() {
+        return unidadesCanceladas;
+    }
+
+    public void setUnidadesCanceladas(Integer unidadesCanceladas) {
+        this.unidadesCanceladas = unidadesCanceladas;
+    }
+
+    public BigDecimal getIngresosCancelados() {
+        return ingresosCancelados;
+    }
+
+    public void setIngresosCancelados(BigDecimal ingresosCancelados) {
+        this.ingresosCancelados = ingresosCancelados;
+    }
+}
@@ -0,0 +1,105 @@
+package com.habilis.api.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad VentaHora - Representa la tabla 'ventas_hora'
+ * Resumen de ventas por hora, mantenido por AnaliticaVentasService a partir de
+ * los eventos de pedido. Las cancelaciones se imputan a la hora del pedido
+ */
+@Entity
+@Table(name = "ventas_hora")
+public class VentaHora {
+
+    @Id
+    @Column(name = "hora")
+    private LocalDateTime hora;
+
+    // Pedidos creados en el periodo (por fecha del pedido)
+    @Column(name = "pedidos", nullable = false)
+    private Integer pedidos = 0;
+
+    @Column(name = "unidades", nullable = false)
+    private Integer unidades = 0;
+
+    @Column(name = "ingresos", nullable = false, precision = 14, scale = 2)
+    private BigDecimal ingresos = BigDecimal.ZERO;
+
+    // De esos pedidos, los cancelados después
+    @Column(name = "cancelados", nullable = false)
+    private Integer cancelados = 0;
+
+    @Column(name = "unidades_canceladas", nullable = false)
+    private Integer unidadesCanceladas = 0;
+
+    @Column(name = "ingresos_cancelados", nullable = false, precision = 14, scale = 2)
+    private BigDecimal ingresosCancelados = BigDecimal.ZERO;
+
+    // Constructores
+    public VentaHora() {
+    }
+
+    public VentaHora(LocalDateTime hora) {
+        this.hora = hora;
+    }
+
+    // Getters y Setters
+    public LocalDateTime getHora() {
+        return hora;
+    }
+
+    public void setHora(LocalDateTime hora) {
+        this.hora = hora;
+    }
+
+    public Integer getPedidos() {
+        return pedidos;
+    }
+
+    public void setPedidos(Integer pedidos) {
+        this.pedidos = pedidos;
+    }
+
+    public Integer getUnidades() {
+        return unidades;
+    }
+
+    public void setUnidades(Integer unidades) {
+        this.unidades = unidades;
+    }
+
+    public BigDecimal getIngresos() {
+        return ingresos;
+    }
+
+    public void setIngresos(BigDecimal ingresos) {
+        this.ingresos = ingresos;
+    }
+
+    public Integer getCancelados() {
+        return cancelados;
+    }
+
+    public void setCancelados(Integer cancelados) {
+        this.cancelados = cancelados;
+    }
+
+    public Integer getUnidadesCanceladas() {
+        return unidadesCanceladas;
+    }
+
+    public void setUnidadesCanceladas(Integer unidadesCanceladas) {
+        this.unidadesCanceladas = unidadesCanceladas;
+    }
+
+    public BigDecimal getIngresosCancelados() {
+        return ingresosCancelados;
+    }
+
+    public void setIngresosCancelados(BigDecimal ingresosCancelados) {
+        this.ingresosCancelados = ingresosCancelados;
+    }
+}
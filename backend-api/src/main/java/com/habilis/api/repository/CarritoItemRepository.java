@@ -0,0 +1,26 @@
+package com.habilis.api.repository;
+
+import com.habilis.api.entity.CarritoItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repositorio para la entidad CarritoItem
+ */
+@Repository
+public interface CarritoItemRepository extends JpaRepository<CarritoItem, Long> {
+
+    /**
+     * Elimina el producto de todos los carritos
+     * Usado antes de eliminar un producto del catálogo
+     * 
+     * @param productoId ID del producto
+     * @return Número de líneas eliminadas
+     */
+    @Modifying
+    @Query("DELETE FROM CarritoItem i WHERE i.producto.id = :productoId")
+    int deleteByProductoId(@Param("productoId") Long productoId);
+}
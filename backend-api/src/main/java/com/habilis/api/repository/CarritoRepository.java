@@ -0,0 +1,29 @@
+package com.habilis.api.repository;
+
+import com.habilis.api.entity.Carrito;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repositorio para la entidad Carrito
+ */
+@Repository
+public interface CarritoRepository extends JpaRepository<Carrito, Long> {
+
+    /**
+     * Busca el carrito de un usuario con sus líneas y productos
+     * en una sola consulta
+     * 
+     * @param usuarioId ID del usuario
+     * @return Optional con el carrito si existe
+     */
+    @Query("SELECT DISTINCT c FROM Carrito c " +
+            "LEFT JOIN FETCH c.items i " +
+            "LEFT JOIN FETCH i.producto " +
+            "WHERE c.usuario.id = :usuarioId")
+    Optional<Carrito> findConItemsByUsuarioId(@Param("usuarioId") Long usuarioId);
+}
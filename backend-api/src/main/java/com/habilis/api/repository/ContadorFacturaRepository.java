@@ -0,0 +1,82 @@
+package com.habilis.api.repository;
+
+import com.habilis.api.entity.ContadorFactura;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Repositorio para la entidad ContadorFactura
+ * Las reservas de números van en su propia transacción: el bloqueo de la fila
+ * del contador se suelta al momento y no dura lo que dure el pedido. Si el
+ * pedido falla, los números reservados quedan sin usar (huecos en la serie).
+ *
+ * Las variantes EnTransaccion reservan en la transacción que llama: el bloque
+ * se deshace con ella y no deja huecos, pero la fila del contador queda
+ * bloqueada hasta su commit. Solo para quien reserva justo antes de confirmar
+ * (facturación por lotes).
+ */
+@Repository
+public interface ContadorFacturaRepository extends JpaRepository<ContadorFactura, LocalDate> {
+
+    /**
+     * Reserva un bloque de números de factura si el contador del día ya existe
+     * 
+     * @param fecha    Día de emisión
+     * @param cantidad Números a reservar
+     * @return Último número del bloque reservado, o null si no hay contador
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query(value = "UPDATE contadores_factura SET ultimo = ultimo + :cantidad " +
+            "WHERE fecha = :fecha RETURNING ultimo", nativeQuery = true)
+    Integer incrementar(@Param("fecha") LocalDate fecha, @Param("cantidad") int cantidad);
+
+    /**
+     * Crea el contador de un día y reserva el primer bloque
+     * Parte de las facturas ya emitidas ese día (instalaciones anteriores al
+     * contador); si otro hilo lo creó a la vez, incrementa el existente
+     * 
+     * @param fecha    Día de emisión
+     * @param cantidad Números a reservar
+     * @param inicio   Inicio del día
+     * @param fin      Inicio del día siguiente
+     * @return Último número del bloque reservado
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query(value = "INSERT INTO contadores_factura (fecha, ultimo) " +
+            "SELECT :fecha, COUNT(*) + :cantidad FROM facturas " +
+            "WHERE fecha_emision >= :inicio AND fecha_emision < :fin " +
+            "ON CONFLICT (fecha) DO UPDATE SET ultimo = contadores_factura.ultimo + :cantidad " +
+            "RETURNING ultimo", nativeQuery = true)
+    Integer reservarBloque(@Param("fecha") LocalDate fecha, @Param("cantidad") int cantidad,
+            @Param("inicio") LocalDateTime inicio, @Param("fin") LocalDateTime fin);
+
+    /**
+     * Como incrementar, dentro de la transacción actual
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query(value = "UPDATE contadores_factura SET ultimo = ultimo + :cantidad " +
+            "WHERE fecha = :fecha RETURNING ultimo", nativeQuery = true)
+    Integer incrementarEnTransaccion(@Param("fecha") LocalDate fecha, @Param("cantidad") int cantidad);
+
+    /**
+     * Como reservarBloque, dentro de la transacción actual
+     * No cuenta las facturas con código provisional (LOTE-) que la propia
+     * transacción está numerando
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query(value = "INSERT INTO contadores_factura (fecha, ultimo) " +
+            "SELECT :fecha, COUNT(*) + :cantidad FROM facturas " +
+            "WHERE fecha_emision >= :inicio AND fecha_emision < :fin " +
+            "AND codigo_factura NOT LIKE 'LOTE-%' " +
+            "ON CONFLICT (fecha) DO UPDATE SET ultimo = contadores_factura.ultimo + :cantidad " +
+            "RETURNING ultimo", nativeQuery = true)
+    Integer reservarBloqueEnTransaccion(@Param("fecha") LocalDate fecha, @Param("cantidad") int cantidad,
+            @Param("inicio") LocalDateTime inicio, @Param("fin") LocalDateTime fin);
+}
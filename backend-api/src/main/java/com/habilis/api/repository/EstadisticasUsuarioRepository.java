@@ -0,0 +1,13 @@
+package com.habilis.api.repository;
+
+import com.habilis.api.entity.EstadisticasUsuario;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repositorio para la entidad EstadisticasUsuario
+ * Las actualizaciones incrementales van por SQL en EstadisticasUsuarioService
+ */
+@Repository
+public interface EstadisticasUsuarioRepository extends JpaRepository<EstadisticasUsuario, Long> {
+}
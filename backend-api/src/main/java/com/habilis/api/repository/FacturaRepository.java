@@ -28,7 +28,6 @@ public interface FacturaRepository extends JpaRepository<Factura, Long> {
 
     /**
      * Contar facturas emitidas en un rango de fechas
-     * Usado para generar código secuencial
      */
     @Query("SELECT COUNT(f) FROM Factura f WHERE f.fechaEmision BETWEEN :inicio AND :fin")
     long countByFechaEmisionBetween(@Param("inicio") LocalDateTime inicio, @Param("fin") LocalDateTime fin);
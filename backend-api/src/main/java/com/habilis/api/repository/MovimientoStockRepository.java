@@ -0,0 +1,76 @@
+package com.habilis.api.repository;
+
+import com.habilis.api.entity.MovimientoStock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repositorio para la entidad MovimientoStock
+ */
+@Repository
+public interface MovimientoStockRepository extends JpaRepository<MovimientoStock, Long> {
+
+    /**
+     * Aplica a productos.stock un lote de movimientos pendientes
+     * En una sola sentencia: marca el lote como aplicado y suma sus deltas
+     * agregados por producto (un UPDATE por producto, no por movimiento).
+     * Las filas bloqueadas por otro volcado se saltan (SKIP LOCKED)
+     * 
+     * @param limite Movimientos máximos por lote
+     * @return Número de productos actualizados (0 = no quedaban pendientes)
+     */
+    @Modifying
+    @Query(value = "WITH lote AS (" +
+            "    SELECT id FROM movimientos_stock WHERE aplicado = false " +
+            "    ORDER BY id LIMIT :limite FOR UPDATE SKIP LOCKED" +
+            "), aplicados AS (" +
+            "    UPDATE movimientos_stock m SET aplicado = true FROM lote WHERE m.id = lote.id " +
+            "    RETURNING m.producto_id, m.delta" +
+            ") " +
+            "UPDATE productos p SET stock = p.stock + a.delta " +
+            "FROM (SELECT producto_id, SUM(delta) AS delta FROM aplicados GROUP BY producto_id) a " +
+            "WHERE p.id = a.producto_id", nativeQuery = true)
+    int aplicarPendientes(@Param("limite") int limite);
+
+    /**
+     * Stock comprometido de un producto: stock volcado + movimientos pendientes
+     * 
+     * @param productoId ID del producto
+     * @return Stock comprometido, o null si el producto no existe
+     */
+    @Query(value = "SELECT p.stock + COALESCE((SELECT SUM(m.delta) FROM movimientos_stock m " +
+            "WHERE m.producto_id = p.id AND m.aplicado = false), 0) " +
+            "FROM productos p WHERE p.id = :productoId", nativeQuery = true)
+    Long stockComprometido(@Param("productoId") Long productoId);
+
+    /**
+     * Stock disponible de uno o todos los productos:
+     * stock volcado + movimientos pendientes - reservas activas
+     * 
+     * @param productoId ID del producto, o null para todos
+     * @return Filas [productoId, disponible]
+     */
+    @Query(value = "SELECT p.id, p.stock " +
+            "+ COALESCE((SELECT SUM(m.delta) FROM movimientos_stock m " +
+            "    WHERE m.producto_id = p.id AND m.aplicado = false), 0) " +
+            "- COALESCE((SELECT SUM(r.cantidad) FROM reservas_stock r " +
+            "    WHERE r.producto_id = p.id AND r.estado = 'ACTIVA'), 0) " +
+            "FROM productos p WHERE (CAST(:productoId AS BIGINT) IS NULL OR p.id = :productoId)", nativeQuery = true)
+    List<Object[]> stockDisponible(@Param("productoId") Long productoId);
+
+    /**
+     * Elimina el diario de un producto
+     * Usado antes de eliminar un producto del catálogo
+     * 
+     * @param productoId ID del producto
+     * @return Número de movimientos eliminados
+     */
+    @Modifying
+    @Query("DELETE FROM MovimientoStock m WHERE m.productoId = :productoId")
+    int deleteByProductoId(@Param("productoId") Long productoId);
+}
@@ -0,0 +1,32 @@
+package com.habilis.api.repository;
+
+import com.habilis.api.entity.OleadaEnvio;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositorio para la entidad OleadaEnvio
+ */
+@Repository
+public interface OleadaEnvioRepository extends JpaRepository<OleadaEnvio, Long> {
+
+    /**
+     * Listar oleadas (más recientes primero)
+     */
+    List<OleadaEnvio> findAllByOrderByFechaCreacionDesc();
+
+    /**
+     * Buscar una oleada bloqueando su fila (envío o anulación)
+     * Evita que dos administradores envíen o anulen la misma oleada a la vez
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM OleadaEnvio o WHERE o.id = :id")
+    Optional<OleadaEnvio> findConBloqueoById(@Param("id") Long id);
+}
@@ -1,14 +1,21 @@
 package com.habilis.api.repository;
 
 import com.habilis.api.entity.Pedido;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repositorio para la entidad Pedido
+ * Las lecturas que se serializan o recorren los detalles usan los grafos de
+ * carga de Pedido para traer líneas y productos en la misma consulta
  */
 @Repository
 public interface PedidoRepository extends JpaRepository<Pedido, Long> {
@@ -19,6 +26,7 @@ public interface PedidoRepository extends JpaRepository<Pedido, Long> {
      * @param usuarioId ID del usuario
      * @return Lista de pedidos ordenados por fecha descendente
      */
+    @EntityGraph(Pedido.GRAFO_CON_DETALLES)
     List<Pedido> findByUsuarioIdOrderByFechaPedidoDesc(Long usuarioId);
 
     /**
@@ -27,8 +35,32 @@ public interface PedidoRepository extends JpaRepository<Pedido, Long> {
      * @param estado Estado del pedido ('PENDIENTE', 'ENVIADO', etc.)
      * @return Lista de pedidos con ese estado
      */
+    @EntityGraph(Pedido.GRAFO_CON_DETALLES)
     List<Pedido> findByEstado(String estado);
 
+    /**
+     * Todos los pedidos con sus detalles y productos (listado de admin)
+     */
+    @Override
+    @EntityGraph(Pedido.GRAFO_CON_DETALLES)
+    List<Pedido> findAll();
+
+    /**
+     * Pedido con sus detalles, productos y categorías en una consulta
+     * 
+     * @param id ID del pedido
+     */
+    @EntityGraph(Pedido.GRAFO_CON_DETALLES)
+    Optional<Pedido> findConDetallesById(Long id);
+
+    /**
+     * Pedido con usuario, detalles y productos: todo lo que pinta la factura
+     * 
+     * @param id ID del pedido
+     */
+    @EntityGraph(Pedido.GRAFO_FACTURA)
+    Optional<Pedido> findParaFacturaById(Long id);
+
     /**
      * Obtiene todos los pedidos ordenados por fecha descendente
      * 
@@ -36,4 +68,36 @@ public interface PedidoRepository extends JpaRepository<Pedido, Long> {
      */
     @Query("SELECT p FROM Pedido p ORDER BY p.fechaPedido DESC")
     List<Pedido> findAllOrderByFechaDesc();
+
+    /**
+     * Carga varios pedidos con usuario, detalles y productos en una consulta
+     * Usado para renderizar facturas por lotes fuera de la sesión
+     * 
+     * @param ids IDs de los pedidos
+     * @return Pedidos completamente inicializados
+     */
+    @Query("SELECT DISTINCT p FROM Pedido p JOIN FETCH p.usuario " +
+            "LEFT JOIN FETCH p.detalles d LEFT JOIN FETCH d.producto WHERE p.id IN :ids")
+    List<Pedido> findConDetallesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Leer estado y versión actuales de un pedido sin pasar por la caché de
+     * la sesión (siempre lo último confirmado)
+     * 
+     * @return Una fila [estado, version], o ninguna si el pedido no existe
+     */
+    @Query(value = "SELECT estado, version FROM pedidos WHERE id = :id", nativeQuery = true)
+    List<Object[]> leerEstadoYVersion(@Param("id") Long id);
+
+    /**
+     * Cambio de estado con comparar-e-intercambiar
+     * Solo cambia si el pedido sigue en el estado y la versión leídos
+     * 
+     * @return 1 si cambió, 0 si otro proceso lo modificó antes
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE pedidos SET estado = :hacia, version = version + 1 " +
+            "WHERE id = :id AND estado = :desde AND version = :version", nativeQuery = true)
+    int compararYCambiarEstado(@Param("id") Long id, @Param("desde") String desde,
+            @Param("hacia") String hacia, @Param("version") Long version);
 }
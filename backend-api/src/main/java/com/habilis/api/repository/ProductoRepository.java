@@ -1,5 +1,6 @@
 package com.habilis.api.repository;
 
+import com.habilis.api.dto.ProductoResumen;
 import com.habilis.api.entity.Producto;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -7,6 +8,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -31,11 +33,6 @@ public interface ProductoRepository extends JpaRepository<Producto, Long> {
          */
         List<Producto> findByNombreContainingIgnoreCase(String nombre);
 
-        /**
-         * Listar productos con stock menor a un valor dado
-         */
-        List<Producto> findByStockLessThan(int umbral);
-
         /**
          * Busca productos con stock mayor a 0
          * 
@@ -51,19 +48,27 @@ public interface ProductoRepository extends JpaRepository<Producto, Long> {
          * @param categoriaId ID de la categoría (puede ser null)
          * @param precioMin   Precio mínimo (puede ser null)
          * @param precioMax   Precio máximo (puede ser null)
-         * @param disponible  Solo productos con stock > 0 (puede ser null)
          * @return Lista de productos que coinciden con los criterios
          */
         @Query("SELECT p FROM Producto p WHERE " +
-                        "(:nombre IS NULL OR LOWER(p.nombre) LIKE LOWER(CONCAT('%', :nombre, '%'))) AND " +
+                        "(:nombre IS NULL OR LOWER(p.nombre) LIKE LOWER(CONCAT('%', CAST(:nombre AS String), '%'))) AND " +
                         "(:categoriaId IS NULL OR p.categoria.id = :categoriaId) AND " +
                         "(:precioMin IS NULL OR p.precio >= :precioMin) AND " +
-                        "(:precioMax IS NULL OR p.precio <= :precioMax) AND " +
-                        "(:disponible IS NULL OR (:disponible = true AND p.stock > 0) OR (:disponible = false))")
+                        "(:precioMax IS NULL OR p.precio <= :precioMax)")
         List<Producto> buscarConFiltros(
                         @Param("nombre") String nombre,
                         @Param("categoriaId") Long categoriaId,
                         @Param("precioMin") BigDecimal precioMin,
-                        @Param("precioMax") BigDecimal precioMax,
-                        @Param("disponible") Boolean disponible);
+                        @Param("precioMax") BigDecimal precioMax);
+
+        /**
+         * Resuelve varios productos en una sola consulta como proyección compacta
+         * No carga la categoría, solo precio, stock volcado y nombre
+         * 
+         * @param ids IDs de los productos
+         * @return Resúmenes de los productos que existen
+         */
+        @Query("SELECT new com.habilis.api.dto.ProductoResumen(p.id, p.nombre, p.precio, p.stock, p.imagenUrl) " +
+                        "FROM Producto p WHERE p.id IN :ids")
+        List<ProductoResumen> findResumenByIdIn(@Param("ids") Collection<Long> ids);
 }
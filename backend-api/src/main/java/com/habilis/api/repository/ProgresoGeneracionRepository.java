@@ -0,0 +1,19 @@
+package com.habilis.api.repository;
+
+import com.habilis.api.entity.ProgresoGeneracion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repositorio para la entidad ProgresoGeneracion
+ */
+@Repository
+public interface ProgresoGeneracionRepository extends JpaRepository<ProgresoGeneracion, Long> {
+
+    /**
+     * Particiones de la generación de un periodo
+     */
+    List<ProgresoGeneracion> findByPeriodoOrderByParticion(String periodo);
+}
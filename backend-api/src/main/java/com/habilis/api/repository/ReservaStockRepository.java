@@ -0,0 +1,79 @@
+package com.habilis.api.repository;
+
+import com.habilis.api.entity.ReservaStock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositorio para la entidad ReservaStock
+ */
+@Repository
+public interface ReservaStockRepository extends JpaRepository<ReservaStock, Long> {
+
+    /**
+     * Bloquea las reservas activas de un usuario
+     * El barrido de caducadas salta las filas bloqueadas, así que una reserva
+     * no puede consumirse y liberarse a la vez
+     * 
+     * @param usuarioId ID del usuario
+     * @return Reservas activas del usuario
+     */
+    @Query(value = "SELECT * FROM reservas_stock WHERE usuario_id = :usuarioId AND estado = 'ACTIVA' " +
+            "ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<ReservaStock> bloquearActivasDeUsuario(@Param("usuarioId") Long usuarioId);
+
+    /**
+     * Bloquea un lote de reservas activas ya caducadas
+     * Las filas bloqueadas por otra transacción (otro barrido u otro nodo, o
+     * un pedido consumiéndolas) se saltan
+     * 
+     * @param ahora  Instante de referencia
+     * @param limite Tamaño máximo del lote
+     * @return Reservas caducadas bloqueadas
+     */
+    @Query(value = "SELECT * FROM reservas_stock WHERE estado = 'ACTIVA' AND expira_en < :ahora " +
+            "ORDER BY id LIMIT :limite FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<ReservaStock> bloquearCaducadas(@Param("ahora") LocalDateTime ahora, @Param("limite") int limite);
+
+    /**
+     * Cambia el estado de varias reservas en una sola sentencia
+     * 
+     * @param ids    IDs de las reservas
+     * @param estado Nuevo estado
+     * @return Número de reservas actualizadas
+     */
+    @Modifying
+    @Query("UPDATE ReservaStock r SET r.estado = :estado WHERE r.id IN :ids")
+    int actualizarEstado(@Param("ids") Collection<Long> ids, @Param("estado") String estado);
+
+    /**
+     * Unidades reservadas por un usuario (activas y vigentes) por producto
+     * 
+     * @param usuarioId ID del usuario
+     * @param ahora     Instante de referencia
+     * @return Filas [productoId, cantidad]
+     */
+    @Query("SELECT r.producto.id, SUM(r.cantidad) FROM ReservaStock r " +
+            "WHERE r.usuario.id = :usuarioId AND r.estado = 'ACTIVA' AND r.expiraEn >= :ahora " +
+            "GROUP BY r.producto.id")
+    List<Object[]> sumarActivasPorProducto(@Param("usuarioId") Long usuarioId,
+            @Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Elimina las reservas de un producto
+     * Usado antes de eliminar un producto del catálogo
+     * 
+     * @param productoId ID del producto
+     * @return Número de reservas eliminadas
+     */
+    @Modifying
+    @Query("DELETE FROM ReservaStock r WHERE r.producto.id = :productoId")
+    int deleteByProductoId(@Param("productoId") Long productoId);
+}
@@ -0,0 +1,29 @@
+package com.habilis.api.repository;
+
+import com.habilis.api.entity.Suscripcion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repositorio para la entidad Suscripcion
+ */
+@Repository
+public interface SuscripcionRepository extends JpaRepository<Suscripcion, Long> {
+
+    /**
+     * Listar suscripciones de un usuario (más recientes primero)
+     */
+    List<Suscripcion> findByUsuarioIdOrderByFechaCreacionDesc(Long usuarioId);
+
+    /**
+     * Menor y mayor usuario_id con suscripciones activas
+     * Usado para repartir la generación mensual en rangos de usuarios
+     * 
+     * @return Una fila [min, max] (ambos null si no hay suscripciones activas)
+     */
+    @Query("SELECT MIN(s.usuario.id), MAX(s.usuario.id) FROM Suscripcion s WHERE s.estado = 'ACTIVA'")
+    List<Object[]> rangoUsuariosActivos();
+}
@@ -0,0 +1,469 @@
+package com.habilis.api.service;
+
+import com.habilis.api.dto.ItemPedidoRequest;
+import com.habilis.api.dto.TicketPedido;
+import com.habilis.api.entity.Factura;
+import com.habilis.api.entity.Pedido;
+import com.habilis.api.entity.Producto;
+import com.habilis.api.entity.Usuario;
+import com.habilis.api.repository.UsuarioRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Cola de admisión de pedidos para lanzamientos limitados
+ *
+ * Los pedidos que incluyen un producto con admision_cola entran en una cola
+ * FIFO acotada y el cliente recibe un ticket para consultar el resultado. Un
+ * grupo fijo de hilos vacía la cola en micro-lotes: cada lote valida las
+ * solicitudes en orden de llegada, descuenta el stock una sola vez por
+ * producto, reserva todos los números de factura de golpe y crea los pedidos
+ * en una única transacción. Si el lote falla (por ejemplo, el stock se vendió
+ * por otra vía entre medias) sus solicitudes se procesan una a una.
+ *
+ * La cola y los tickets viven en memoria: al reiniciar la API las solicitudes
+ * pendientes se pierden y los clientes deben volver a pedir.
+ */
+@Service
+public class AdmisionPedidoService {
+
+    private static final Logger log = LoggerFactory.getLogger(AdmisionPedidoService.class);
+
+    private final PedidoService pedidoService;
+    private final ConsultaPedidoService consultaPedidoService;
+    private final ReservaStockService reservaStockService;
+    private final InventarioService inventarioService;
+    private final FacturaService facturaService;
+    private final PdfService pdfService;
+    private final EmailService emailService;
+    private final UsuarioRepository usuarioRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int hilos;
+    private final int tamanoLote;
+    private final long retencionTicketsMillis;
+
+    private final BlockingQueue<Solicitud> cola;
+    private final Map<String, TicketPedido> tickets = new ConcurrentHashMap<>();
+
+    private ExecutorService trabajadores;
+    private ExecutorService notificaciones;
+    private volatile boolean activo;
+
+    public AdmisionPedidoService(PedidoService pedidoService,
+            ConsultaPedidoService consultaPedidoService,
+            ReservaStockService reservaStockService,
+            InventarioService inventarioService,
+            FacturaService facturaService,
+            PdfService pdfService,
+            EmailService emailService,
+            UsuarioRepository usuarioRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${habilis.admision.capacidad:10000}") int capacidad,
+            @Value("${habilis.admision.hilos:4}") int hilos,
+            @Value("${habilis.admision.lote:50}") int tamanoLote,
+            @Value("${habilis.admision.retencion-tickets-minutos:15}") long retencionTicketsMinutos) {
+        this.pedidoService = pedidoService;
+        this.consultaPedidoService = consultaPedidoService;
+        this.reservaStockService = reservaStockService;
+        this.inventarioService = inventarioService;
+        this.facturaService = facturaService;
+        this.pdfService = pdfService;
+        this.emailService = emailService;
+        this.usuarioRepository = usuarioRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cola = new ArrayBlockingQueue<>(capacidad);
+        this.hilos = hilos;
+        this.tamanoLote = tamanoLote;
+        this.retencionTicketsMillis = retencionTicketsMinutos * 60_000;
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        activo = true;
+        trabajadores = Executors.newFixedThreadPool(hilos, hilosConNombre("admision-pedidos-"));
+        notificaciones = Executors.newFixedThreadPool(2, hilosConNombre("admision-notificaciones-"));
+        for (int i = 0; i < hilos; i++) {
+            trabajadores.submit(this::vaciarCola);
+        }
+    }
+
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        activo = false;
+        trabajadores.shutdown();
+        trabajadores.awaitTermination(30, TimeUnit.SECONDS);
+
+        Solicitud pendiente;
+        while ((pendiente = cola.poll()) != null) {
+            pendiente.ticket.rechazar("El servicio se ha detenido, vuelve a intentarlo");
+        }
+
+        notificaciones.shutdown();
+        notificaciones.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Indica si un carrito debe pasar por la cola de admisión
+     */
+    public boolean requiereAdmision(List<ItemPedidoRequest> items) {
+        return consultaPedidoService.cargarProductos(items).values().stream()
+                .anyMatch(p -> Boolean.TRUE.equals(p.getAdmisionCola()));
+    }
+
+    /**
+     * Poner un pedido en la cola de admisión
+     *
+     * @return Ticket para consultar el resultado, o null si la cola está llena
+     */
+    public TicketPedido encolar(Long usuarioId, List<ItemPedidoRequest> items,
+            Map<Long, BigDecimal> preciosCotizados) {
+        TicketPedido ticket = new TicketPedido(UUID.randomUUID().toString(), usuarioId, cola.size());
+        if (!cola.offer(new Solicitud(ticket, usuarioId, items, preciosCotizados))) {
+            return null;
+        }
+        tickets.put(ticket.getTicket(), ticket);
+        return ticket;
+    }
+
+    /**
+     * Consultar un ticket (solo su propietario)
+     *
+     * @return El ticket, o null si no existe, ha caducado o es de otro usuario
+     */
+    public TicketPedido consultar(String ticketId, Long usuarioId) {
+        TicketPedido ticket = tickets.get(ticketId);
+        if (ticket == null || !ticket.getUsuarioId().equals(usuarioId)) {
+            return null;
+        }
+        return ticket;
+    }
+
+    /**
+     * Olvidar los tickets ya resueltos que nadie ha vuelto a consultar
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void purgarTickets() {
+        Instant limite = Instant.now().minusMillis(retencionTicketsMillis);
+        tickets.values().removeIf(t -> t.isFinalizado() && t.getFinalizadoEn().isBefore(limite));
+    }
+
+    private void vaciarCola() {
+        while (activo) {
+            try {
+                Solicitud primera = cola.poll(500, TimeUnit.MILLISECONDS);
+                if (primera == null) {
+                    continue;
+                }
+
+                List<Solicitud> lote = new ArrayList<>(tamanoLote);
+                lote.add(primera);
+                cola.drainTo(lote, tamanoLote - 1);
+
+                procesarLote(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // Un fallo inesperado no puede matar al hilo de la cola
+                log.error("Error en la cola de admisión: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void procesarLote(List<Solicitud> lote) {
+        lote.forEach(s -> s.ticket.setEstado("PROCESANDO"));
+
+        List<PedidoCreado> creados;
+        try {
+            creados = transactionTemplate.execute(status -> crearLote(lote));
+        } catch (RuntimeException e) {
+            log.warn("Lote de admisión fallido ({}), procesando {} solicitudes una a una",
+                    e.getMessage(), lote.size());
+            creados = new ArrayList<>();
+            for (Solicitud solicitud : lote) {
+                if (solicitud.ticket.isFinalizado()) {
+                    continue;
+                }
+                try {
+                    creados.add(transactionTemplate.execute(status -> crearIndividual(solicitud)));
+                } catch (RuntimeException ex) {
+                    solicitud.ticket.rechazar(ex.getMessage());
+                }
+            }
+        }
+
+        for (PedidoCreado creado : creados) {
+            creado.solicitud.ticket.completar(creado.pedido.getId(), creado.factura.getCodigoFactura(),
+                    creado.factura.getId(), creado.pedido.getTotalPedido());
+            notificaciones.submit(() -> notificar(creado));
+        }
+
+        log.debug("Lote de admisión procesado: {}/{} pedidos creados", creados.size(), lote.size());
+    }
+
+    /**
+     * Crear en una sola transacción los pedidos del lote que caben en el stock
+     * Las solicitudes inválidas o sin stock se rechazan al confirmar el lote
+     */
+    private List<PedidoCreado> crearLote(List<Solicitud> lote) {
+        List<ItemPedidoRequest> todosLosItems = lote.stream()
+                .flatMap(s -> s.items.stream())
+                .collect(Collectors.toList());
+        Map<Long, Producto> productos = consultaPedidoService.cargarProductos(todosLosItems);
+        Map<Long, Usuario> usuarios = usuarioRepository.findAllById(
+                lote.stream().map(s -> s.usuarioId).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Usuario::getId, Function.identity()));
+
+        // 1. Decidir en orden de llegada qué solicitudes caben en el stock
+        Map<Long, Long> restante = new HashMap<>();
+        Map<Long, Integer> aVender = new LinkedHashMap<>();
+        Set<Long> usuariosVistos = new HashSet<>();
+        List<Solicitud> aceptadas = new ArrayList<>();
+        Map<Solicitud, Map<Long, Integer>> reservadoPrevisto = new HashMap<>();
+        Map<Solicitud, String> rechazadas = new LinkedHashMap<>();
+
+        for (Solicitud solicitud : lote) {
+            String motivo = validar(solicitud, productos, usuarios);
+            if (motivo != null) {
+                rechazadas.put(solicitud, motivo);
+                continue;
+            }
+
+            // Las reservas de un usuario solo cuentan para su primera solicitud del lote
+            Map<Long, Integer> reservado = usuariosVistos.add(solicitud.usuarioId)
+                    ? reservaStockService.reservadoPorUsuario(solicitud.usuarioId)
+                    : Map.of();
+
+            Map<Long, Integer> extra = new HashMap<>();
+            for (Map.Entry<Long, Integer> entrada : solicitud.cantidades().entrySet()) {
+                int falta = entrada.getValue() - reservado.getOrDefault(entrada.getKey(), 0);
+                if (falta > 0) {
+                    extra.put(entrada.getKey(), falta);
+                }
+            }
+
+            String sinStock = null;
+            for (Map.Entry<Long, Integer> entrada : extra.entrySet()) {
+                long disponible = restante.computeIfAbsent(entrada.getKey(), inventarioService::disponible);
+                if (disponible < entrada.getValue()) {
+                    Producto producto = productos.get(entrada.getKey());
+                    sinStock = "Stock insuficiente para " + producto.getNombre() +
+                            ". Disponible: " + Math.max(disponible, 0) +
+                            ", solicitado: " + entrada.getValue();
+                    break;
+                }
+            }
+            if (sinStock != null) {
+                rechazadas.put(solicitud, sinStock);
+                continue;
+            }
+
+            extra.forEach((productoId, cantidad) -> {
+                restante.merge(productoId, (long) -cantidad, Long::sum);
+                aVender.merge(productoId, cantidad, Integer::sum);
+            });
+            aceptadas.add(solicitud);
+            reservadoPrevisto.put(solicitud, reservado);
+        }
+
+        // 2. Un solo descuento de stock por producto para todo el lote
+        aVender.forEach((productoId, cantidad) -> {
+            if (!inventarioService.vender(productoId, cantidad, null)) {
+                throw new RuntimeException("El stock del producto " + productoId + " cambió durante el lote");
+            }
+        });
+
+        // 3. Pedidos y facturas, con un solo bloque de números de factura
+        List<PedidoCreado> creados = new ArrayList<>();
+        if (!aceptadas.isEmpty()) {
+            List<String> codigos = facturaService.generarCodigosFactura(aceptadas.size());
+            Set<Long> usuariosConsumidos = new HashSet<>();
+
+            for (int i = 0; i < aceptadas.size(); i++) {
+                Solicitud solicitud = aceptadas.get(i);
+                Usuario usuario = usuarios.get(solicitud.usuarioId);
+
+                Pedido pedido = pedidoService.registrarPedido(usuario, solicitud.items, productos,
+                        solicitud.preciosCotizados);
+
+                if (usuariosConsumidos.add(solicitud.usuarioId)) {
+                    consumirReservas(solicitud, reservadoPrevisto.get(solicitud), pedido);
+                }
+
+                Factura factura = facturaService.crearFactura(pedido, codigos.get(i));
+                creados.add(new PedidoCreado(solicitud, pedido, factura));
+            }
+        }
+
+        // Los rechazos solo se publican si el lote se confirma
+        rechazadasTrasCommit(rechazadas);
+
+        return creados;
+    }
+
+    /**
+     * Convertir en venta las reservas del usuario para su pedido
+     * El paso 1 ya vendió la parte que no cubría la reserva prevista; si
+     * alguna reserva caducó entre medias, lo que falte se vende aquí
+     */
+    private void consumirReservas(Solicitud solicitud, Map<Long, Integer> previsto, Pedido pedido) {
+        Map<Long, Integer> reservado = reservaStockService.consumir(solicitud.usuarioId);
+
+        for (Map.Entry<Long, Integer> entrada : solicitud.cantidades().entrySet()) {
+            Long productoId = entrada.getKey();
+            int cubiertoPorReserva = Math.min(previsto.getOrDefault(productoId, 0), entrada.getValue());
+            int deReserva = Math.min(reservado.getOrDefault(productoId, 0), cubiertoPorReserva);
+
+            if (deReserva > 0) {
+                inventarioService.venderReservado(productoId, deReserva, pedido.getId());
+            }
+            if (cubiertoPorReserva > deReserva
+                    && !inventarioService.vender(productoId, cubiertoPorReserva - deReserva, pedido.getId())) {
+                throw new RuntimeException("El stock del producto " + productoId + " cambió durante el lote");
+            }
+            reservado.computeIfPresent(productoId, (id, cantidad) -> cantidad - deReserva);
+        }
+
+        // Devolver al disponible lo reservado que no se ha pedido
+        reservado.forEach((productoId, cantidad) -> {
+            if (cantidad > 0) {
+                inventarioService.liberar(productoId, cantidad);
+            }
+        });
+    }
+
+    /**
+     * Camino de respaldo: la misma secuencia que POST /api/pedidos
+     */
+    private PedidoCreado crearIndividual(Solicitud solicitud) {
+        Pedido pedido = pedidoService.crearPedido(solicitud.usuarioId, solicitud.items,
+                solicitud.preciosCotizados);
+        Factura factura = facturaService.crearFactura(pedido, facturaService.generarCodigoFactura());
+        return new PedidoCreado(solicitud, pedido, factura);
+    }
+
+    private String validar(Solicitud solicitud, Map<Long, Producto> productos, Map<Long, Usuario> usuarios) {
+        if (!usuarios.containsKey(solicitud.usuarioId)) {
+            return "Usuario no encontrado con ID: " + solicitud.usuarioId;
+        }
+        for (ItemPedidoRequest item : solicitud.items) {
+            if (!productos.containsKey(item.getProductoId())) {
+                return "Producto no encontrado con ID: " + item.getProductoId();
+            }
+        }
+        return null;
+    }
+
+    private void rechazadasTrasCommit(Map<Solicitud, String> rechazadas) {
+        if (rechazadas.isEmpty()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                rechazadas.forEach((solicitud, motivo) -> solicitud.ticket.rechazar(motivo));
+            }
+        });
+    }
+
+    /**
+     * PDF y email de confirmación, fuera de los hilos de la cola
+     */
+    private void notificar(PedidoCreado creado) {
+        try {
+            byte[] pdfBytes = transactionTemplate.execute(
+                    status -> pdfService.generarFacturaPedido(creado.pedido.getId()));
+            emailService.enviarConfirmacionPedido(
+                    creado.pedido.getUsuario().getCorreoElectronico(),
+                    creado.pedido,
+                    creado.factura,
+                    pdfBytes);
+        } catch (Exception e) {
+            log.warn("Error al notificar el pedido {}: {}", creado.pedido.getId(), e.getMessage());
+        }
+    }
+
+    private static ThreadFactory hilosConNombre(String prefijo) {
+        AtomicInteger contador = new AtomicInteger();
+        return tarea -> {
+            Thread hilo = new Thread(tarea, prefijo + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        };
+    }
+
+    /**
+     * Pedido recibido por la cola
+     */
+    private static final class Solicitud {
+        private final TicketPedido ticket;
+        private final Long usuarioId;
+        private final List<ItemPedidoRequest> items;
+        private final Map<Long, BigDecimal> preciosCotizados;
+
+        Solicitud(TicketPedido ticket, Long usuarioId, List<ItemPedidoRequest> items,
+                Map<Long, BigDecimal> preciosCotizados) {
+            this.ticket = ticket;
+            this.usuarioId = usuarioId;
+            this.items = items;
+            this.preciosCotizados = preciosCotizados;
+        }
+
+        /**
+         * Unidades pedidas por producto
+         */
+        Map<Long, Integer> cantidades() {
+            Map<Long, Integer> cantidades = new LinkedHashMap<>();
+            for (ItemPedidoRequest item : items) {
+                cantidades.merge(item.getProductoId(), item.getCantidad(), Integer::sum);
+            }
+            return cantidades;
+        }
+    }
+
+    /**
+     * Pedido ya confirmado, pendiente de notificar
+     */
+    private static final class PedidoCreado {
+        private final Solicitud solicitud;
+        private final Pedido pedido;
+        private final Factura factura;
+
+        PedidoCreado(Solicitud solicitud, Pedido pedido, Factura factura) {
+            this.solicitud = solicitud;
+            this.pedido = pedido;
+            this.factura = factura;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.habilis.api.service;
+
+import com.habilis.api.config.LecturaReplica;
+import com.habilis.api.dto.PuntoVentas;
+import com.habilis.api.dto.RankingVentas;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Analítica de ventas para el panel de administración
+ *
+ * Mantiene tres tablas de resumen: ventas por hora ('ventas_hora'), por día
+ * ('ventas_dia') y por día y producto ('ventas_dia_producto'). Se alimentan
+ * de la bandeja de salida de eventos de pedido: un agregador periódico reclama
+ * los eventos sin agregar con SKIP LOCKED y, por lote y en una transacción,
+ * suma las creaciones y las cancelaciones con un upsert agrupado por tabla.
+ * Las ventas y sus cancelaciones se imputan a la fecha del pedido.
+ *
+ * Las consultas solo leen los resúmenes (más los nombres de productos y
+ * categorías), nunca 'pedidos' ni 'detalle_pedido'.
+ */
+@Service
+public class AnaliticaVentasService {
+
+    private static final Logger log = LoggerFactory.getLogger(AnaliticaVentasService.class);
+
+    private static final String SQL_RECLAMAR = "SELECT id FROM eventos_pedido " +
+            "WHERE agregado = false ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String SQL_MARCAR_AGREGADOS =
+            "UPDATE eventos_pedido SET agregado = true WHERE id = ANY(?)";
+
+    // Eventos del lote que cuentan: creaciones (alta) y cancelaciones (baja)
+    private static final String CTE_EVENTOS = "WITH ev AS (" +
+            "SELECT e.pedido_id, " +
+            "CASE WHEN e.estado_anterior IS NULL THEN 1 ELSE 0 END AS alta, " +
+            "CASE WHEN e.estado_nuevo = 'CANCELADO' THEN 1 ELSE 0 END AS baja " +
+            "FROM eventos_pedido e WHERE e.id = ANY(?) " +
+            "AND (e.estado_anterior IS NULL OR e.estado_nuevo = 'CANCELADO')) ";
+
+    private static final String SET_METRICAS = "pedidos = v.pedidos + EXCLUDED.pedidos, " +
+            "unidades = v.unidades + EXCLUDED.unidades, " +
+            "ingresos = v.ingresos + EXCLUDED.ingresos, " +
+            "cancelados = v.cancelados + EXCLUDED.cancelados, " +
+            "unidades_canceladas = v.unidades_canceladas + EXCLUDED.unidades_canceladas, " +
+            "ingresos_cancelados = v.ingresos_cancelados + EXCLUDED.ingresos_cancelados";
+
+    // %1$s: tabla, %2$s: columna clave, %3$s: expresión de la clave
+    private static final String SQL_AGREGAR_PERIODO = CTE_EVENTOS + ", " +
+            "un AS (SELECT d.pedido_id, SUM(d.cantidad) AS unidades FROM detalle_pedido d " +
+            "WHERE d.pedido_id IN (SELECT pedido_id FROM ev) GROUP BY d.pedido_id) " +
+            "INSERT INTO %1$s AS v " +
+            "(%2$s, pedidos, unidades, ingresos, cancelados, unidades_canceladas, ingresos_cancelados) " +
+            "SELECT %3$s, SUM(ev.alta), SUM(ev.alta * COALESCE(un.unidades, 0)), SUM(ev.alta * p.total_pedido), " +
+            "SUM(ev.baja), SUM(ev.baja * COALESCE(un.unidades, 0)), SUM(ev.baja * p.total_pedido) " +
+            "FROM ev JOIN pedidos p ON p.id = ev.pedido_id LEFT JOIN un ON un.pedido_id = p.id " +
+            "GROUP BY 1 " +
+            "ON CONFLICT (%2$s) DO UPDATE SET " + SET_METRICAS;
+
+    private static final String SQL_AGREGAR_HORA = String.format(SQL_AGREGAR_PERIODO,
+            "ventas_hora", "hora", "date_trunc('hour', p.fecha_pedido)");
+
+    private static final String SQL_AGREGAR_DIA = String.format(SQL_AGREGAR_PERIODO,
+            "ventas_dia", "dia", "CAST(p.fecha_pedido AS DATE)");
+
+    private static final String SQL_AGREGAR_PRODUCTO = CTE_EVENTOS +
+            "INSERT INTO ventas_dia_producto AS v " +
+            "(dia, producto_id, categoria_id, pedidos, unidades, ingresos, " +
+            "cancelados, unidades_canceladas, ingresos_cancelados) " +
+            "SELECT CAST(p.fecha_pedido AS DATE), d.producto_id, MAX(pr.categoria_id), " +
+            "COUNT(DISTINCT p.id) FILTER (WHERE ev.alta = 1), SUM(ev.alta * d.cantidad), " +
+            "SUM(ev.alta * d.cantidad * d.precio_unitario), " +
+            "COUNT(DISTINCT p.id) FILTER (WHERE ev.baja = 1), SUM(ev.baja * d.cantidad), " +
+            "SUM(ev.baja * d.cantidad * d.precio_unitario) " +
+            "FROM ev JOIN pedidos p ON p.id = ev.pedido_id " +
+            "JOIN detalle_pedido d ON d.pedido_id = p.id " +
+            "JOIN productos pr ON pr.id = d.producto_id " +
+            "GROUP BY 1, 2 " +
+            "ON CONFLICT (dia, producto_id) DO UPDATE SET " + SET_METRICAS;
+
+    // %1$s: unidad de date_trunc, %2$s: columna, %3$s: tabla
+    private static final String SQL_SERIE = "SELECT date_trunc('%1$s', CAST(%2$s AS TIMESTAMP)), " +
+            "SUM(pedidos), SUM(unidades), SUM(ingresos), SUM(cancelados), SUM(ingresos_cancelados) " +
+            "FROM %3$s WHERE %2$s >= ? AND %2$s < ? GROUP BY 1 ORDER BY 1";
+
+    // %s: columna de ordenación
+    private static final String SQL_TOP_PRODUCTOS = "SELECT v.producto_id, MAX(pr.nombre), " +
+            "SUM(v.pedidos - v.cancelados), SUM(v.unidades - v.unidades_canceladas) AS unidades, " +
+            "SUM(v.ingresos - v.ingresos_cancelados) AS ingresos " +
+            "FROM ventas_dia_producto v LEFT JOIN productos pr ON pr.id = v.producto_id " +
+            "WHERE v.dia >= ? AND v.dia < ? AND (CAST(? AS BIGINT) IS NULL OR v.categoria_id = ?) " +
+            "GROUP BY v.producto_id ORDER BY %s DESC, v.producto_id LIMIT ?";
+
+    private static final String SQL_POR_CATEGORIA = "SELECT v.categoria_id, MAX(c.nombre), " +
+            "SUM(v.pedidos - v.cancelados), SUM(v.unidades - v.unidades_canceladas), " +
+            "SUM(v.ingresos - v.ingresos_cancelados) AS ingresos " +
+            "FROM ventas_dia_producto v LEFT JOIN categorias c ON c.id = v.categoria_id " +
+            "WHERE v.dia >= ? AND v.dia < ? " +
+            "GROUP BY v.categoria_id ORDER BY ingresos DESC";
+
+    // Granularidad de las series: unidad de date_trunc y tabla que se lee
+    private static final Map<String, String[]> GRANULARIDADES = Map.of(
+            "HORA", new String[] { "hour", "hora", "ventas_hora" },
+            "DIA", new String[] { "day", "dia", "ventas_dia" },
+            "SEMANA", new String[] { "week", "dia", "ventas_dia" },
+            "MES", new String[] { "month", "dia", "ventas_dia" });
+
+    // Rango máximo de una serie por horas
+    private static final int MAX_DIAS_POR_HORA = 93;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanoLote;
+
+    public AnaliticaVentasService(JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${habilis.analitica.lote:1000}") int tamanoLote) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tamanoLote = tamanoLote;
+    }
+
+    /**
+     * Agregación periódica de los eventos pendientes
+     * Cada lote va en su propia transacción
+     */
+    @Scheduled(fixedDelayString = "${habilis.analitica.agregacion-ms:10000}")
+    public void agregarPendientes() {
+        int total = 0;
+        try {
+            // Tope de lotes por pasada para no acaparar el planificador
+            for (int i = 0; i < 50; i++) {
+                Integer agregados = transactionTemplate.execute(status -> agregarLote());
+                if (agregados == null || agregados == 0) {
+                    break;
+                }
+                total += agregados;
+            }
+        } catch (Exception e) {
+            log.error("Error al agregar eventos de pedido: {}", e.getMessage());
+        }
+
+        if (total > 0) {
+            log.info("Eventos de pedido agregados a la analítica: {}", total);
+        }
+    }
+
+    private int agregarLote() {
+        List<Long> eventos = jdbcTemplate.queryForList(SQL_RECLAMAR, Long.class, tamanoLote);
+        if (eventos.isEmpty()) {
+            return 0;
+        }
+
+        Long[] ids = eventos.toArray(new Long[0]);
+        jdbcTemplate.update(SQL_AGREGAR_HORA, (Object) ids);
+        jdbcTemplate.update(SQL_AGREGAR_DIA, (Object) ids);
+        jdbcTemplate.update(SQL_AGREGAR_PRODUCTO, (Object) ids);
+        jdbcTemplate.update(SQL_MARCAR_AGREGADOS, (Object) ids);
+        return ids.length;
+    }
+
+    /**
+     * Serie temporal de ventas
+     *
+     * @param desde         Primer día (incluido)
+     * @param hasta         Último día (incluido)
+     * @param granularidad  HORA, DIA, SEMANA o MES
+     */
+    @Transactional(readOnly = true)
+    @LecturaReplica
+    public List<PuntoVentas> serie(LocalDate desde, LocalDate hasta, String granularidad) {
+        validarRango(desde, hasta);
+        String[] g = GRANULARIDADES.get(granularidad.toUpperCase());
+        if (g == null) {
+            throw new RuntimeException("Granularidad no válida: " + granularidad
+                    + ". Valores permitidos: HORA, DIA, SEMANA, MES");
+        }
+        if ("hour".equals(g[0]) && desde.plusDays(MAX_DIAS_POR_HORA).isBefore(hasta)) {
+            throw new RuntimeException("Las series por horas admiten como máximo " + MAX_DIAS_POR_HORA + " días");
+        }
+
+        Object inicio = "hora".equals(g[1]) ? desde.atStartOfDay() : desde;
+        Object fin = "hora".equals(g[1]) ? hasta.plusDays(1).atStartOfDay() : hasta.plusDays(1);
+
+        return jdbcTemplate.query(String.format(SQL_SERIE, g[0], g[1], g[2]),
+                (rs, i) -> new PuntoVentas(
+                        rs.getTimestamp(1).toLocalDateTime(),
+                        rs.getLong(2), rs.getLong(3), rs.getBigDecimal(4),
+                        rs.getLong(5), rs.getBigDecimal(6)),
+                inicio, fin);
+    }
+
+    /**
+     * Productos más vendidos en un rango de días
+     *
+     * @param orden       INGRESOS o UNIDADES
+     * @param categoriaId Solo productos de esta categoría (opcional)
+     */
+    @Transactional(readOnly = true)
+    @LecturaReplica
+    public List<RankingVentas> topProductos(LocalDate desde, LocalDate hasta, int limite,
+            String orden, Long categoriaId) {
+        validarRango(desde, hasta);
+        if (limite <= 0 || limite > 100) {
+            throw new RuntimeException("El límite debe estar entre 1 y 100");
+        }
+
+        String columna;
+        if ("INGRESOS".equalsIgnoreCase(orden)) {
+            columna = "ingresos";
+        } else if ("UNIDADES".equalsIgnoreCase(orden)) {
+            columna = "unidades";
+        } else {
+            throw new RuntimeException("Orden no válido: " + orden + ". Valores permitidos: INGRESOS, UNIDADES");
+        }
+
+        return jdbcTemplate.query(String.format(SQL_TOP_PRODUCTOS, columna),
+                (rs, i) -> new RankingVentas(rs.getLong(1), rs.getString(2),
+                        rs.getLong(3), rs.getLong(4), rs.getBigDecimal(5)),
+                desde, hasta.plusDays(1), categoriaId, categoriaId, limite);
+    }
+
+    /**
+     * Ventas por categoría en un rango de días (mayores ingresos primero)
+     */
+    @Transactional(readOnly = true)
+    @LecturaReplica
+    public List<RankingVentas> porCategoria(LocalDate desde, LocalDate hasta) {
+        validarRango(desde, hasta);
+        return jdbcTemplate.query(SQL_POR_CATEGORIA,
+                (rs, i) -> new RankingVentas((Long) rs.getObject(1, Long.class), rs.getString(2),
+                        rs.getLong(3), rs.getLong(4), rs.getBigDecimal(5)),
+                desde, hasta.plusDays(1));
+    }
+
+    private void validarRango(LocalDate desde, LocalDate hasta) {
+        if (desde == null || hasta == null) {
+            throw new RuntimeException("Las fechas desde y hasta son obligatorias");
+        }
+        if (hasta.isBefore(desde)) {
+            throw new RuntimeException("La fecha hasta no puede ser anterior a la fecha desde");
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.habilis.api.service;
+
+import com.habilis.api.dto.CambioEstadoMasivoRequest;
+import com.habilis.api.entity.EstadoPedido;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cambios de estado masivos de pedidos (cancelaciones en bloque, cierres de
+ * envíos...)
+ *
+ * Los pedidos se procesan por lotes, cada uno en su propia transacción, con
+ * UPDATE ... WHERE estado = ? RETURNING id: solo cambian los que siguen en un
+ * estado de origen válido (EstadoPedido), sin cargar ningún Pedido en memoria.
+ * Los hooks de transición se ejecutan una vez por lote: al cancelar pedidos
+ * PENDIENTE el stock se devuelve con una sola agregación por lote.
+ */
+@Service
+public class CambioEstadoMasivoService {
+
+    private static final Logger log = LoggerFactory.getLogger(CambioEstadoMasivoService.class);
+
+    private static final String SQL_CAMBIAR_IDS = "UPDATE pedidos SET estado = ?, version = version + 1 " +
+            "WHERE id = ANY(?) AND estado = ? RETURNING id";
+
+    private static final String SQL_CAMBIAR_FILTRO = "UPDATE pedidos SET estado = ?, version = version + 1 " +
+            "WHERE id IN (" +
+            "SELECT id FROM pedidos WHERE estado = ? AND fecha_pedido >= ? AND fecha_pedido < ? " +
+            "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) RETURNING id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransicionPedidoService transicionPedidoService;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanoLote;
+
+    public CambioEstadoMasivoService(JdbcTemplate jdbcTemplate,
+            TransicionPedidoService transicionPedidoService,
+            PlatformTransactionManager transactionManager,
+            @Value("${habilis.pedidos.lote-cambio-estado:500}") int tamanoLote) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transicionPedidoService = transicionPedidoService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tamanoLote = tamanoLote;
+    }
+
+    /**
+     * Cambiar el estado de los pedidos indicados por IDs o por filtro
+     *
+     * @return Resumen: pedidos cambiados por estado de origen y omitidos
+     */
+    public Map<String, Object> cambiarEstado(CambioEstadoMasivoRequest request) {
+        EstadoPedido nuevoEstado = EstadoPedido.desde(request.getNuevoEstado());
+        List<EstadoPedido> origenes = nuevoEstado.origenes();
+        if (origenes.isEmpty()) {
+            throw new RuntimeException("Ningún pedido puede pasar a " + nuevoEstado);
+        }
+
+        boolean porIds = request.getIds() != null && !request.getIds().isEmpty();
+        if (porIds == (request.getEstadoActual() != null)) {
+            throw new RuntimeException("Indica una lista de IDs o un estado actual, no ambos");
+        }
+
+        long inicio = System.currentTimeMillis();
+        Map<String, Integer> cambiados = new HashMap<>();
+        int omitidos = 0;
+
+        if (porIds) {
+            List<Long> ids = new ArrayList<>(new LinkedHashSet<>(request.getIds()));
+            for (int desde = 0; desde < ids.size(); desde += tamanoLote) {
+                Long[] lote = ids.subList(desde, Math.min(desde + tamanoLote, ids.size())).toArray(new Long[0]);
+                Map<String, Integer> resultado = transactionTemplate.execute(
+                        status -> cambiarLote(lote, origenes, nuevoEstado));
+                int total = 0;
+                for (Map.Entry<String, Integer> entrada : resultado.entrySet()) {
+                    cambiados.merge(entrada.getKey(), entrada.getValue(), Integer::sum);
+                    total += entrada.getValue();
+                }
+                omitidos += lote.length - total;
+            }
+        } else {
+            EstadoPedido origen = EstadoPedido.desde(request.getEstadoActual());
+            if (!origenes.contains(origen)) {
+                throw new RuntimeException("No se puede pasar de " + origen + " a " + nuevoEstado);
+            }
+
+            LocalDateTime fechaDesde = request.getFechaDesde() != null
+                    ? request.getFechaDesde().atStartOfDay()
+                    : LocalDateTime.of(1970, 1, 1, 0, 0);
+            LocalDateTime fechaHasta = request.getFechaHasta() != null
+                    ? request.getFechaHasta().plusDays(1).atStartOfDay()
+                    : LocalDateTime.now().plusYears(100);
+
+            while (true) {
+                Integer resultado = transactionTemplate.execute(
+                        status -> cambiarLoteFiltro(origen, nuevoEstado, fechaDesde, fechaHasta));
+                if (resultado == null || resultado == 0) {
+                    break;
+                }
+                cambiados.merge(origen.name(), resultado, Integer::sum);
+            }
+        }
+
+        int total = cambiados.values().stream().mapToInt(Integer::intValue).sum();
+        log.info("Cambio de estado masivo a {}: {} pedidos en {} ms",
+                nuevoEstado, total, System.currentTimeMillis() - inicio);
+
+        Map<String, Object> resumen = new HashMap<>();
+        resumen.put("nuevoEstado", nuevoEstado);
+        resumen.put("cambiados", total);
+        resumen.put("cambiadosPorOrigen", cambiados);
+        resumen.put("omitidos", omitidos);
+        return resumen;
+    }
+
+    private Map<String, Integer> cambiarLote(Long[] ids, List<EstadoPedido> origenes, EstadoPedido nuevoEstado) {
+        Map<String, Integer> cambiados = new HashMap<>();
+        for (EstadoPedido origen : origenes) {
+            List<Long> cambiadosOrigen = jdbcTemplate.queryForList(SQL_CAMBIAR_IDS, Long.class,
+                    nuevoEstado.name(), ids, origen.name());
+            transicionPedidoService.ejecutarHooks(cambiadosOrigen, origen, nuevoEstado);
+            cambiados.put(origen.name(), cambiadosOrigen.size());
+        }
+        return cambiados;
+    }
+
+    private int cambiarLoteFiltro(EstadoPedido origen, EstadoPedido nuevoEstado,
+            LocalDateTime fechaDesde, LocalDateTime fechaHasta) {
+        List<Long> cambiados = jdbcTemplate.queryForList(SQL_CAMBIAR_FILTRO, Long.class,
+                nuevoEstado.name(), origen.name(), fechaDesde, fechaHasta, tamanoLote);
+        transicionPedidoService.ejecutarHooks(cambiados, origen, nuevoEstado);
+        return cambiados.size();
+    }
+}
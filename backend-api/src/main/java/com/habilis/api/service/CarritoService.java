@@ -0,0 +1,464 @@
+package com.habilis.api.service;
+
+import com.habilis.api.dto.CarritoResponse;
+import com.habilis.api.dto.LineaCarrito;
+import com.habilis.api.entity.Carrito;
+import com.habilis.api.entity.CarritoItem;
+import com.habilis.api.entity.Producto;
+import com.habilis.api.repository.CarritoItemRepository;
+import com.habilis.api.repository.CarritoRepository;
+import com.habilis.api.repository.ProductoRepository;
+import com.habilis.api.repository.UsuarioRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Servicio de carritos persistentes
+ * 
+ * Los carritos de los usuarios activos viven en una caché en memoria con
+ * escritura diferida (write-back): cada modificación actualiza el carrito en
+ * memoria y su total de forma incremental, y una tarea periódica persiste en
+ * 'carritos'/'carrito_items' solo los carritos modificados. Los carritos
+ * inactivos y ya persistidos se desalojan de la caché.
+ */
+@Service
+public class CarritoService {
+
+    private static final Logger log = LoggerFactory.getLogger(CarritoService.class);
+
+    private final CarritoRepository carritoRepository;
+    private final CarritoItemRepository carritoItemRepository;
+    private final ProductoRepository productoRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final InventarioService inventarioService;
+    private final TransactionTemplate transactionTemplate;
+    private final long inactividadMillis;
+    private final Counter aciertos;
+    private final Counter fallos;
+
+    private final Map<Long, CarritoEnMemoria> carritos = new ConcurrentHashMap<>();
+
+    public CarritoService(CarritoRepository carritoRepository,
+            CarritoItemRepository carritoItemRepository,
+            ProductoRepository productoRepository,
+            UsuarioRepository usuarioRepository,
+            InventarioService inventarioService,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${habilis.carrito.inactividad-minutos:30}") long inactividadMinutos) {
+        this.carritoRepository = carritoRepository;
+        this.carritoItemRepository = carritoItemRepository;
+        this.productoRepository = productoRepository;
+        this.usuarioRepository = usuarioRepository;
+        this.inventarioService = inventarioService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.inactividadMillis = inactividadMinutos * 60_000;
+
+        // Ratio de aciertos de la caché: aciertos / (aciertos + fallos)
+        this.aciertos = meterRegistry.counter("habilis.cache.accesos", "cache", "carritos", "resultado", "acierto");
+        this.fallos = meterRegistry.counter("habilis.cache.accesos", "cache", "carritos", "resultado", "fallo");
+        meterRegistry.gaugeMapSize("habilis.cache.entradas", Tags.of("cache", "carritos"), carritos);
+    }
+
+    /**
+     * Obtener el carrito de un usuario
+     */
+    public CarritoResponse obtener(Long usuarioId) {
+        CarritoResponse[] resultado = new CarritoResponse[1];
+        modificar(usuarioId, carrito -> resultado[0] = carrito.aResponse());
+        return resultado[0];
+    }
+
+    /**
+     * Añadir unidades de un producto al carrito
+     */
+    public CarritoResponse agregar(Long usuarioId, Long productoId, Integer cantidad) {
+        if (cantidad == null || cantidad < 1) {
+            throw new RuntimeException("La cantidad debe ser al menos 1");
+        }
+
+        Producto producto = buscarProducto(productoId);
+        CarritoResponse[] resultado = new CarritoResponse[1];
+
+        modificar(usuarioId, carrito -> {
+            Linea linea = carrito.lineas.get(productoId);
+            int nuevaCantidad = (linea != null ? linea.cantidad : 0) + cantidad;
+            verificarStock(producto, nuevaCantidad);
+            carrito.fijarCantidad(producto, nuevaCantidad);
+            resultado[0] = carrito.aResponse();
+        });
+
+        return resultado[0];
+    }
+
+    /**
+     * Fijar la cantidad de un producto en el carrito
+     * Una cantidad de 0 elimina la línea
+     */
+    public CarritoResponse actualizarCantidad(Long usuarioId, Long productoId, Integer cantidad) {
+        if (cantidad == null || cantidad < 0) {
+            throw new RuntimeException("La cantidad no puede ser negativa");
+        }
+
+        if (cantidad == 0) {
+            return eliminar(usuarioId, productoId);
+        }
+
+        Producto producto = buscarProducto(productoId);
+        verificarStock(producto, cantidad);
+
+        CarritoResponse[] resultado = new CarritoResponse[1];
+        modificar(usuarioId, carrito -> {
+            carrito.fijarCantidad(producto, cantidad);
+            resultado[0] = carrito.aResponse();
+        });
+
+        return resultado[0];
+    }
+
+    /**
+     * Eliminar un producto del carrito
+     */
+    public CarritoResponse eliminar(Long usuarioId, Long productoId) {
+        CarritoResponse[] resultado = new CarritoResponse[1];
+        modificar(usuarioId, carrito -> {
+            carrito.quitar(productoId);
+            resultado[0] = carrito.aResponse();
+        });
+        return resultado[0];
+    }
+
+    /**
+     * Vaciar el carrito de un usuario
+     */
+    public CarritoResponse vaciar(Long usuarioId) {
+        CarritoResponse[] resultado = new CarritoResponse[1];
+        modificar(usuarioId, carrito -> {
+            carrito.vaciar();
+            resultado[0] = carrito.aResponse();
+        });
+        return resultado[0];
+    }
+
+    /**
+     * Notificar un cambio de precio, nombre o imagen de un producto
+     * Actualiza las líneas de los carritos en caché y su total de forma
+     * incremental. Los carritos fuera de caché se revaloran al cargarse.
+     * Si hay una transacción activa se aplica tras el commit.
+     */
+    public void productoActualizado(Producto producto) {
+        Long productoId = producto.getId();
+        String nombre = producto.getNombre();
+        String imagenUrl = producto.getImagenUrl();
+        BigDecimal precio = producto.getPrecio();
+
+        ejecutarTrasCommit(() -> {
+            for (CarritoEnMemoria carrito : carritos.values()) {
+                synchronized (carrito) {
+                    carrito.actualizarProducto(productoId, nombre, imagenUrl, precio);
+                }
+            }
+        });
+    }
+
+    /**
+     * Quitar un producto de todos los carritos
+     * Debe llamarse dentro de la transacción que elimina el producto: las
+     * líneas persistidas se borran en ella y las de los carritos en caché
+     * tras el commit, así que si se deshace la eliminación no se pierden.
+     */
+    public void productoEliminado(Long productoId) {
+        carritoItemRepository.deleteByProductoId(productoId);
+
+        ejecutarTrasCommit(() -> {
+            for (CarritoEnMemoria carrito : carritos.values()) {
+                synchronized (carrito) {
+                    carrito.quitar(productoId);
+                }
+            }
+        });
+    }
+
+    /**
+     * Persistir los carritos modificados y desalojar los inactivos
+     * Se ejecuta periódicamente (escritura diferida)
+     */
+    @Scheduled(fixedDelayString = "${habilis.carrito.flush-ms:5000}")
+    public void persistirPendientes() {
+        long limiteInactividad = System.currentTimeMillis() - inactividadMillis;
+
+        for (Map.Entry<Long, CarritoEnMemoria> entrada : carritos.entrySet()) {
+            Long usuarioId = entrada.getKey();
+            CarritoEnMemoria carrito = entrada.getValue();
+
+            List<Linea> copia;
+            BigDecimal total;
+            synchronized (carrito) {
+                if (!carrito.sucio) {
+                    if (carrito.ultimoAcceso < limiteInactividad) {
+                        carrito.desalojado = true;
+                        carritos.remove(usuarioId, carrito);
+                    }
+                    continue;
+                }
+                copia = carrito.copiarLineas();
+                total = carrito.total;
+                carrito.sucio = false;
+            }
+
+            try {
+                persistir(usuarioId, copia, total);
+            } catch (RuntimeException e) {
+                log.error("Error guardando carrito del usuario {}: {}", usuarioId, e.getMessage());
+                synchronized (carrito) {
+                    carrito.sucio = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Guardar todos los carritos pendientes al parar la aplicación
+     */
+    @PreDestroy
+    public void persistirAlCerrar() {
+        persistirPendientes();
+    }
+
+    /**
+     * Aplicar una modificación al carrito en caché de un usuario
+     * Si el carrito se desalojó mientras tanto, se vuelve a cargar
+     */
+    private void modificar(Long usuarioId, Consumer<CarritoEnMemoria> accion) {
+        while (true) {
+            CarritoEnMemoria carrito = carritos.get(usuarioId);
+            if (carrito == null) {
+                fallos.increment();
+                CarritoEnMemoria cargado = cargar(usuarioId);
+                CarritoEnMemoria existente = carritos.putIfAbsent(usuarioId, cargado);
+                carrito = existente != null ? existente : cargado;
+            } else {
+                aciertos.increment();
+            }
+
+            synchronized (carrito) {
+                if (carrito.desalojado) {
+                    continue;
+                }
+                carrito.ultimoAcceso = System.currentTimeMillis();
+                accion.accept(carrito);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Cargar el carrito persistido de un usuario revalorado con los precios
+     * actuales de los productos
+     */
+    private CarritoEnMemoria cargar(Long usuarioId) {
+        CarritoEnMemoria carrito = new CarritoEnMemoria();
+
+        carritoRepository.findConItemsByUsuarioId(usuarioId).ifPresent(persistido -> {
+            for (CarritoItem item : persistido.getItems()) {
+                carrito.fijarCantidad(item.getProducto(), item.getCantidad());
+            }
+            carrito.fechaActualizacion = persistido.getFechaActualizacion();
+            carrito.sucio = persistido.getTotal().compareTo(carrito.total) != 0;
+        });
+
+        return carrito;
+    }
+
+    private void persistir(Long usuarioId, List<Linea> lineas, BigDecimal total) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Carrito carrito = carritoRepository.findConItemsByUsuarioId(usuarioId).orElse(null);
+            if (carrito == null) {
+                if (lineas.isEmpty()) {
+                    return;
+                }
+                carrito = new Carrito(usuarioRepository.getReferenceById(usuarioId));
+            }
+
+            Map<Long, CarritoItem> existentes = new HashMap<>();
+            for (CarritoItem item : carrito.getItems()) {
+                existentes.put(item.getProducto().getId(), item);
+            }
+
+            for (Linea linea : lineas) {
+                CarritoItem item = existentes.remove(linea.productoId);
+                if (item == null) {
+                    item = new CarritoItem(carrito, productoRepository.getReferenceById(linea.productoId),
+                            linea.cantidad, linea.precio);
+                    carrito.getItems().add(item);
+                } else {
+                    item.setCantidad(linea.cantidad);
+                    item.setPrecioUnitario(linea.precio);
+                }
+            }
+
+            // Las líneas que ya no están en memoria se eliminan (orphanRemoval)
+            carrito.getItems().removeAll(existentes.values());
+
+            carrito.setTotal(total);
+            carrito.setFechaActualizacion(LocalDateTime.now());
+            carritoRepository.save(carrito);
+        });
+    }
+
+    private Producto buscarProducto(Long productoId) {
+        return productoRepository.findById(productoId)
+                .orElseThrow(() -> new RuntimeException("Producto no encontrado con ID: " + productoId));
+    }
+
+    private void verificarStock(Producto producto, int cantidad) {
+        long disponible = inventarioService.disponible(producto.getId());
+        if (disponible < cantidad) {
+            throw new RuntimeException(
+                    "Stock insuficiente para " + producto.getNombre() +
+                            ". Disponible: " + disponible +
+                            ", solicitado: " + cantidad);
+        }
+    }
+
+    private void ejecutarTrasCommit(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+
+    /**
+     * Carrito de un usuario en caché
+     * Todos los accesos se sincronizan sobre la propia instancia
+     */
+    private static class CarritoEnMemoria {
+
+        private final Map<Long, Linea> lineas = new LinkedHashMap<>();
+        private BigDecimal total = BigDecimal.ZERO;
+        private LocalDateTime fechaActualizacion = LocalDateTime.now();
+        private long ultimoAcceso = System.currentTimeMillis();
+        private boolean sucio;
+        private boolean desalojado;
+
+        void fijarCantidad(Producto producto, int cantidad) {
+            Linea linea = lineas.get(producto.getId());
+            if (linea == null) {
+                linea = new Linea(producto.getId(), producto.getNombre(), producto.getImagenUrl(),
+                        producto.getPrecio(), 0);
+                lineas.put(producto.getId(), linea);
+            } else {
+                // Revalorar la línea existente al precio actual
+                total = total.add(producto.getPrecio().subtract(linea.precio)
+                        .multiply(BigDecimal.valueOf(linea.cantidad)));
+                linea.precio = producto.getPrecio();
+            }
+
+            total = total.add(linea.precio.multiply(BigDecimal.valueOf(cantidad - linea.cantidad)));
+            linea.cantidad = cantidad;
+            modificado();
+        }
+
+        void quitar(Long productoId) {
+            Linea linea = lineas.remove(productoId);
+            if (linea != null) {
+                total = total.subtract(linea.precio.multiply(BigDecimal.valueOf(linea.cantidad)));
+                modificado();
+            }
+        }
+
+        void vaciar() {
+            if (!lineas.isEmpty()) {
+                lineas.clear();
+                total = BigDecimal.ZERO;
+                modificado();
+            }
+        }
+
+        void actualizarProducto(Long productoId, String nombre, String imagenUrl, BigDecimal precio) {
+            Linea linea = lineas.get(productoId);
+            if (linea == null) {
+                return;
+            }
+
+            linea.nombre = nombre;
+            linea.imagenUrl = imagenUrl;
+            if (linea.precio.compareTo(precio) != 0) {
+                total = total.add(precio.subtract(linea.precio).multiply(BigDecimal.valueOf(linea.cantidad)));
+                linea.precio = precio;
+                modificado();
+            }
+        }
+
+        List<Linea> copiarLineas() {
+            List<Linea> copia = new ArrayList<>(lineas.size());
+            for (Linea linea : lineas.values()) {
+                copia.add(new Linea(linea.productoId, linea.nombre, linea.imagenUrl, linea.precio, linea.cantidad));
+            }
+            return copia;
+        }
+
+        CarritoResponse aResponse() {
+            List<LineaCarrito> lineasResponse = new ArrayList<>(lineas.size());
+            int cantidadItems = 0;
+            for (Linea linea : lineas.values()) {
+                lineasResponse.add(new LineaCarrito(linea.productoId, linea.nombre, linea.imagenUrl,
+                        linea.cantidad, linea.precio));
+                cantidadItems += linea.cantidad;
+            }
+            return new CarritoResponse(lineasResponse, cantidadItems, total, fechaActualizacion);
+        }
+
+        private void modificado() {
+            sucio = true;
+            fechaActualizacion = LocalDateTime.now();
+        }
+    }
+
+    /**
+     * Línea de un carrito en caché
+     */
+    private static class Linea {
+
+        private final Long productoId;
+        private String nombre;
+        private String imagenUrl;
+        private BigDecimal precio;
+        private int cantidad;
+
+        Linea(Long productoId, String nombre, String imagenUrl, BigDecimal precio, int cantidad) {
+            this.productoId = productoId;
+            this.nombre = nombre;
+            this.imagenUrl = imagenUrl;
+            this.precio = precio;
+            this.cantidad = cantidad;
+        }
+    }
+}
@@ -10,7 +10,8 @@ import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 
 /**
- * Servicio para gestión de categorías
+ * Servicio para gestión de categorías (altas, cambios y bajas)
+ * Las lecturas están en ConsultaCategoriaService
  */
 @Service
 @Transactional
@@ -25,21 +26,6 @@ public class CategoriaService {
         this.productoRepository = productoRepository;
     }
 
-    /**
-     * Listar todas las categorías
-     */
-    public List<Categoria> listarTodas() {
-        return categoriaRepository.findAll();
-    }
-
-    /**
-     * Buscar categoría por ID
-     */
-    public Categoria buscarPorId(Long id) {
-        return categoriaRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Categoría no encontrada con ID: " + id));
-    }
-
     /**
      * Crear una nueva categoría
      */
@@ -60,7 +46,7 @@ public class CategoriaService {
      * Actualizar categoría existente
      */
     public Categoria actualizar(Long id, String nombre, String descripcion) {
-        Categoria categoria = buscarPorId(id);
+        Categoria categoria = cargar(id);
 
         // Verificar que el nombre no esté duplicado (excepto para sí misma)
         categoriaRepository.findByNombre(nombre).ifPresent(existente -> {
@@ -80,7 +66,7 @@ public class CategoriaService {
      * NO permite eliminar si tiene productos asociados
      */
     public void eliminar(Long id) {
-        Categoria categoria = buscarPorId(id);
+        Categoria categoria = cargar(id);
 
         // Verificar si tiene productos asociados
         List<Producto> productos = productoRepository.findByCategoriaId(id);
@@ -95,9 +81,10 @@ public class CategoriaService {
     }
 
     /**
-     * Contar productos por categoría
+     * Cargar una categoría para modificarla en la transacción actual
      */
-    public long contarProductos(Long categoriaId) {
-        return productoRepository.findByCategoriaId(categoriaId).size();
+    private Categoria cargar(Long id) {
+        return categoriaRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Categoría no encontrada con ID: " + id));
     }
 }
@@ -0,0 +1,51 @@
+package com.habilis.api.service;
+
+import com.habilis.api.config.LecturaReplica;
+import com.habilis.api.entity.Categoria;
+import com.habilis.api.repository.CategoriaRepository;
+import com.habilis.api.repository.ProductoRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Consultas de categorías (solo lectura, ver ConsultaProductoService)
+ * Todas pueden ir a una réplica; las modificaciones están en CategoriaService
+ */
+@Service
+@Transactional(readOnly = true)
+@LecturaReplica
+public class ConsultaCategoriaService {
+
+    private final CategoriaRepository categoriaRepository;
+    private final ProductoRepository productoRepository;
+
+    public ConsultaCategoriaService(CategoriaRepository categoriaRepository,
+            ProductoRepository productoRepository) {
+        this.categoriaRepository = categoriaRepository;
+        this.productoRepository = productoRepository;
+    }
+
+    /**
+     * Listar todas las categorías
+     */
+    public List<Categoria> listarTodas() {
+        return categoriaRepository.findAll();
+    }
+
+    /**
+     * Buscar categoría por ID
+     */
+    public Categoria buscarPorId(Long id) {
+        return categoriaRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Categoría no encontrada con ID: " + id));
+    }
+
+    /**
+     * Contar productos por categoría
+     */
+    public long contarProductos(Long categoriaId) {
+        return productoRepository.findByCategoriaId(categoriaId).size();
+    }
+}
@@ -0,0 +1,226 @@
+package com.habilis.api.service;
+
+import com.habilis.api.config.LecturaReplica;
+import com.habilis.api.dto.CotizacionResponse;
+import com.habilis.api.dto.ItemPedidoRequest;
+import com.habilis.api.dto.LineaCotizacion;
+import com.habilis.api.entity.Pedido;
+import com.habilis.api.entity.Producto;
+import com.habilis.api.repository.PedidoRepository;
+import com.habilis.api.repository.ProductoRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Consultas de pedidos y valoración de carritos (solo lectura, ver
+ * ConsultaProductoService)
+ * Los listados de administración y las estadísticas pueden ir a una réplica
+ * (@LecturaReplica); la cotización, la validación del carrito y la búsqueda de
+ * un pedido van a la primaria porque deben ver las reservas y los pedidos
+ * recién confirmados
+ * La creación de pedidos y los cambios de estado están en PedidoService
+ */
+@Service
+@Transactional(readOnly = true)
+public class ConsultaPedidoService {
+
+    private final PedidoRepository pedidoRepository;
+    private final ProductoRepository productoRepository;
+    private final ReservaStockService reservaStockService;
+    private final InventarioService inventarioService;
+    private final EstadisticasUsuarioService estadisticasUsuarioService;
+
+    public ConsultaPedidoService(PedidoRepository pedidoRepository,
+            ProductoRepository productoRepository,
+            ReservaStockService reservaStockService,
+            InventarioService inventarioService,
+            EstadisticasUsuarioService estadisticasUsuarioService) {
+        this.pedidoRepository = pedidoRepository;
+        this.productoRepository = productoRepository;
+        this.reservaStockService = reservaStockService;
+        this.inventarioService = inventarioService;
+        this.estadisticasUsuarioService = estadisticasUsuarioService;
+    }
+
+    /**
+     * Obtener pedido por ID
+     */
+    public Pedido buscarPorId(Long id) {
+        return pedidoRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Pedido no encontrado con ID: " + id));
+    }
+
+    /**
+     * Obtener pedido por ID con sus detalles y productos en una sola consulta
+     */
+    public Pedido buscarConDetalles(Long id) {
+        return pedidoRepository.findConDetallesById(id)
+                .orElseThrow(() -> new RuntimeException("Pedido no encontrado con ID: " + id));
+    }
+
+    /**
+     * Listar todos los pedidos (solo ADMIN)
+     */
+    @LecturaReplica
+    public List<Pedido> listarTodos() {
+        return pedidoRepository.findAll();
+    }
+
+    /**
+     * Listar pedidos de un usuario
+     */
+    public List<Pedido> listarPorUsuario(Long usuarioId) {
+        return pedidoRepository.findByUsuarioIdOrderByFechaPedidoDesc(usuarioId);
+    }
+
+    /**
+     * Listar pedidos por estado
+     */
+    @LecturaReplica
+    public List<Pedido> listarPorEstado(String estado) {
+        return pedidoRepository.findByEstado(estado);
+    }
+
+    /**
+     * Cargar los productos de un carrito en una sola consulta
+     * Los productos que no existen no aparecen en el mapa
+     */
+    public Map<Long, Producto> cargarProductos(List<ItemPedidoRequest> items) {
+        List<Long> ids = items.stream()
+                .map(ItemPedidoRequest::getProductoId)
+                .distinct()
+                .collect(Collectors.toList());
+
+        return productoRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Producto::getId, Function.identity()));
+    }
+
+    /**
+     * Cotizar un carrito en una sola pasada
+     * Devuelve el veredicto de stock, precio y subtotal de cada línea y el total
+     * Las cantidades de un mismo producto repetido se suman para validar el stock
+     */
+    public CotizacionResponse cotizar(List<ItemPedidoRequest> items) {
+        return cotizar(items, null);
+    }
+
+    /**
+     * Cotizar un carrito para un usuario
+     * El stock disponible descuenta las reservas de otros usuarios pero no las
+     * del propio usuario, que siguen contando a su favor
+     */
+    public CotizacionResponse cotizar(List<ItemPedidoRequest> items, Long usuarioId) {
+        Map<Long, Producto> productos = cargarProductos(items);
+        Map<Long, Integer> reservadoPropio = usuarioId != null
+                ? reservaStockService.reservadoPorUsuario(usuarioId)
+                : Map.of();
+
+        Map<Long, Integer> cantidadPorProducto = new HashMap<>();
+        for (ItemPedidoRequest item : items) {
+            cantidadPorProducto.merge(item.getProductoId(), item.getCantidad(), Integer::sum);
+        }
+
+        boolean valido = true;
+        BigDecimal total = BigDecimal.ZERO;
+        List<LineaCotizacion> lineas = new ArrayList<>();
+
+        for (ItemPedidoRequest item : items) {
+            LineaCotizacion linea = new LineaCotizacion(item.getProductoId(), item.getCantidad());
+            Producto producto = productos.get(item.getProductoId());
+
+            if (producto == null) {
+                linea.setDisponible(false);
+                linea.setMensaje("Producto con ID " + item.getProductoId() + " no encontrado");
+                lineas.add(linea);
+                valido = false;
+                continue;
+            }
+
+            BigDecimal subtotal = producto.getPrecio().multiply(BigDecimal.valueOf(item.getCantidad()));
+            linea.setNombre(producto.getNombre());
+            linea.setPrecioUnitario(producto.getPrecio());
+            linea.setSubtotal(subtotal);
+            int disponible = (int) inventarioService.disponible(producto.getId())
+                    + reservadoPropio.getOrDefault(producto.getId(), 0);
+            linea.setStockDisponible(disponible);
+
+            int solicitado = cantidadPorProducto.get(producto.getId());
+            if (disponible < solicitado) {
+                linea.setDisponible(false);
+                linea.setMensaje(producto.getNombre() + ": Stock insuficiente. " +
+                        "Disponible: " + disponible +
+                        ", solicitado: " + solicitado);
+                valido = false;
+            } else {
+                linea.setDisponible(true);
+            }
+
+            total = total.add(subtotal);
+            lineas.add(linea);
+        }
+
+        return new CotizacionResponse(valido, lineas, total);
+    }
+
+    /**
+     * Calcular total de un pedido (sin guardarlo)
+     * Útil para mostrar en el carrito antes de confirmar
+     */
+    public BigDecimal calcularTotal(List<ItemPedidoRequest> items) {
+        Map<Long, Producto> productos = cargarProductos(items);
+        BigDecimal total = BigDecimal.ZERO;
+
+        for (ItemPedidoRequest item : items) {
+            Producto producto = productos.get(item.getProductoId());
+            if (producto == null) {
+                throw new RuntimeException("Producto no encontrado con ID: " + item.getProductoId());
+            }
+
+            BigDecimal subtotal = producto.getPrecio()
+                    .multiply(BigDecimal.valueOf(item.getCantidad()));
+            total = total.add(subtotal);
+        }
+
+        return total;
+    }
+
+    /**
+     * Validar carrito antes de crear pedido
+     * Retorna lista de productos con stock insuficiente
+     */
+    public List<String> validarCarrito(List<ItemPedidoRequest> items) {
+        return validarCarrito(items, null);
+    }
+
+    /**
+     * Validar carrito de un usuario teniendo en cuenta sus reservas
+     */
+    public List<String> validarCarrito(List<ItemPedidoRequest> items, Long usuarioId) {
+        List<String> errores = new ArrayList<>();
+
+        for (LineaCotizacion linea : cotizar(items, usuarioId).getLineas()) {
+            if (!linea.isDisponible()) {
+                errores.add(linea.getMensaje());
+            }
+        }
+
+        return errores;
+    }
+
+    /**
+     * Obtener estadísticas de pedidos por usuario
+     * Lectura por clave primaria de las estadísticas preagregadas
+     */
+    @LecturaReplica
+    public Map<String, Object> obtenerEstadisticasUsuario(Long usuarioId) {
+        return estadisticasUsuarioService.obtener(usuarioId);
+    }
+}
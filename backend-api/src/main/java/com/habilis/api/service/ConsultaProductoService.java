@@ -0,0 +1,159 @@
+package com.habilis.api.service;
+
+import com.habilis.api.config.LecturaReplica;
+import com.habilis.api.dto.ProductoResumen;
+import com.habilis.api.entity.Producto;
+import com.habilis.api.repository.ProductoRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Consultas del catálogo de productos (solo lectura)
+ *
+ * Las transacciones de solo lectura dejan la sesión de Hibernate en modo
+ * read-only y sin flush: las entidades cargadas no guardan copia para el
+ * dirty checking. Los listados del catálogo pueden ir a una réplica
+ * (@LecturaReplica); la búsqueda por ID y la comprobación de stock van a la
+ * primaria. Las modificaciones están en ProductoService.
+ *
+ * productos.stock va por detrás del inventario (el volcado de
+ * movimientos_stock es periódico), así que el stock que devuelven las
+ * consultas sale de InventarioService: en los listados, el disponible
+ * (descontadas las reservas), que es lo que se puede vender; en la búsqueda
+ * por ID, el comprometido, que es lo que el panel edita y vuelve a guardar.
+ * Los filtros por stock se aplican sobre esos mismos valores.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ConsultaProductoService {
+
+    /**
+     * Máximo de productos que se pueden resolver en una sola consulta por lotes
+     */
+    public static final int MAX_PRODUCTOS_LOTE = 500;
+
+    private final ProductoRepository productoRepository;
+    private final InventarioService inventarioService;
+
+    public ConsultaProductoService(ProductoRepository productoRepository,
+            InventarioService inventarioService) {
+        this.productoRepository = productoRepository;
+        this.inventarioService = inventarioService;
+    }
+
+    /**
+     * Listar todos los productos
+     */
+    @LecturaReplica
+    public List<Producto> listarTodos() {
+        return conStockDisponible(productoRepository.findAll());
+    }
+
+    /**
+     * Buscar producto por ID
+     */
+    public Producto buscarPorId(Long id) {
+        Producto producto = productoRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Producto no encontrado con ID: " + id));
+        producto.setStock((int) inventarioService.comprometido(id));
+        return producto;
+    }
+
+    /**
+     * Buscar varios productos por ID en una sola consulta
+     * Los IDs duplicados se ignoran y los inexistentes no aparecen en el resultado
+     */
+    @LecturaReplica
+    public List<ProductoResumen> buscarResumenPorIds(List<Long> ids) {
+        Set<Long> unicos = new LinkedHashSet<>(ids);
+        unicos.remove(null);
+
+        if (unicos.isEmpty()) {
+            return List.of();
+        }
+
+        if (unicos.size() > MAX_PRODUCTOS_LOTE) {
+            throw new RuntimeException(
+                    "No se pueden consultar más de " + MAX_PRODUCTOS_LOTE + " productos a la vez");
+        }
+
+        List<ProductoResumen> resumenes = productoRepository.findResumenByIdIn(unicos);
+        resumenes.forEach(resumen -> resumen.setStock(disponible(resumen.getId())));
+        return resumenes;
+    }
+
+    /**
+     * Listar productos por categoría
+     */
+    @LecturaReplica
+    public List<Producto> listarPorCategoria(Long categoriaId) {
+        return conStockDisponible(productoRepository.findByCategoriaId(categoriaId));
+    }
+
+    /**
+     * Buscar productos por nombre (búsqueda parcial)
+     */
+    @LecturaReplica
+    public List<Producto> buscarPorNombre(String nombre) {
+        return conStockDisponible(productoRepository.findByNombreContainingIgnoreCase(nombre));
+    }
+
+    /**
+     * Listar productos con stock bajo (menos de X unidades disponibles)
+     */
+    @LecturaReplica
+    public List<Producto> listarConStockBajo(int umbral) {
+        return conStockDisponible(productoRepository.findAll()).stream()
+                .filter(producto -> producto.getStock() < umbral)
+                .toList();
+    }
+
+    /**
+     * Verificar si hay stock disponible
+     */
+    public boolean hayStockDisponible(Long id, Integer cantidadRequerida) {
+        buscarPorId(id);
+        return inventarioService.disponible(id) >= cantidadRequerida;
+    }
+
+    /**
+     * Búsqueda avanzada de productos con filtros múltiples
+     * Todos los parámetros son opcionales (pueden ser null)
+     * 
+     * @param nombre      Buscar por nombre (parcial, insensible a mayúsculas)
+     * @param categoriaId Filtrar por categoría
+     * @param precioMin   Precio mínimo
+     * @param precioMax   Precio máximo
+     * @param disponible  true = solo con stock, false = todos, null = todos
+     * @return Lista de productos que cumplen los criterios
+     */
+    @LecturaReplica
+    public List<Producto> buscarConFiltros(String nombre, Long categoriaId,
+            BigDecimal precioMin, BigDecimal precioMax,
+            Boolean disponible) {
+        List<Producto> productos = conStockDisponible(
+                productoRepository.buscarConFiltros(nombre, categoriaId, precioMin, precioMax));
+        if (Boolean.TRUE.equals(disponible)) {
+            return productos.stream().filter(producto -> producto.getStock() > 0).toList();
+        }
+        return productos;
+    }
+
+    /**
+     * Sustituir el stock volcado de cada producto por su disponible actual
+     * Las entidades son read-only y la columna no es actualizable: no se guarda
+     */
+    private List<Producto> conStockDisponible(List<Producto> productos) {
+        productos.forEach(producto -> producto.setStock(disponible(producto.getId())));
+        return productos;
+    }
+
+    private int disponible(Long productoId) {
+        return (int) Math.max(0, inventarioService.disponible(productoId));
+    }
+}
@@ -0,0 +1,90 @@
+package com.habilis.api.service;
+
+import com.habilis.api.entity.Usuario;
+import com.habilis.api.repository.UsuarioRepository;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Consultas de usuarios y validación de credenciales (solo lectura, ver
+ * ConsultaProductoService)
+ * Siempre en la primaria, nunca con @LecturaReplica: el login y la sesión
+ * tienen que ver la cuenta recién activada o la contraseña recién cambiada.
+ * El registro, la activación, el 2FA y las contraseñas están en UsuarioService
+ */
+@Service
+@Transactional(readOnly = true)
+public class ConsultaUsuarioService {
+
+    private final UsuarioRepository usuarioRepository;
+    private final PasswordEncoder passwordEncoder;
+
+    public ConsultaUsuarioService(UsuarioRepository usuarioRepository,
+            PasswordEncoder passwordEncoder) {
+        this.usuarioRepository = usuarioRepository;
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    /**
+     * Iniciar sesión - Paso 1: Validar credenciales
+     * 
+     * @param correoElectronico Email del usuario
+     * @param contrasena        Contraseña sin encriptar
+     * @return Usuario si las credenciales son correctas
+     */
+    public Usuario login(String correoElectronico, String contrasena) {
+        Optional<Usuario> usuarioOpt = usuarioRepository.findByCorreoElectronico(correoElectronico);
+
+        if (usuarioOpt.isEmpty()) {
+            throw new RuntimeException("Credenciales incorrectas");
+        }
+
+        Usuario usuario = usuarioOpt.get();
+
+        // Verificar que la cuenta esté activa
+        if (!usuario.getCuentaActiva()) {
+            throw new RuntimeException("La cuenta no está activada. Revisa tu correo electrónico.");
+        }
+
+        // Verificar contraseña
+        if (!passwordEncoder.matches(contrasena, usuario.getContrasena())) {
+            throw new RuntimeException("Credenciales incorrectas");
+        }
+
+        return usuario;
+    }
+
+    /**
+     * Buscar usuario por ID
+     * 
+     * @param id ID del usuario
+     * @return Usuario
+     */
+    public Usuario buscarPorId(Long id) {
+        return usuarioRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+    }
+
+    /**
+     * Buscar usuario por email
+     * 
+     * @param correoElectronico Email del usuario
+     * @return Usuario
+     */
+    public Optional<Usuario> buscarPorEmail(String correoElectronico) {
+        return usuarioRepository.findByCorreoElectronico(correoElectronico);
+    }
+
+    /**
+     * Verificar si un email existe en la base de datos
+     * 
+     * @param correoElectronico Email a verificar
+     * @return true si el email existe, false si no
+     */
+    public boolean existeEmail(String correoElectronico) {
+        return usuarioRepository.existsByCorreoElectronico(correoElectronico);
+    }
+}
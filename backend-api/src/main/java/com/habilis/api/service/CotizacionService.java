@@ -0,0 +1,170 @@
+package com.habilis.api.service;
+
+import com.habilis.api.dto.CotizacionResponse;
+import com.habilis.api.dto.ItemPedidoRequest;
+import com.habilis.api.dto.LineaCotizacion;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Servicio de cotización de carritos
+ * Valora el carrito una sola vez y emite un token firmado (HMAC-SHA256) de
+ * corta duración con los precios cotizados, de forma que la creación del
+ * pedido no tenga que volver a validar ni valorar el carrito
+ */
+@Service
+public class CotizacionService {
+
+    private static final String ALGORITMO = "HmacSHA256";
+
+    private final ConsultaPedidoService consultaPedidoService;
+    private final SecretKeySpec clave;
+    private final long validezSegundos;
+
+    public CotizacionService(ConsultaPedidoService consultaPedidoService,
+            @Value("${habilis.cotizacion.secreto:}") String secreto,
+            @Value("${habilis.cotizacion.validez-minutos:15}") long validezMinutos) {
+        this.consultaPedidoService = consultaPedidoService;
+        this.validezSegundos = validezMinutos * 60;
+
+        // Sin secreto configurado se genera uno aleatorio (los tokens no
+        // sobreviven a un reinicio ni son válidos entre varias instancias)
+        byte[] bytesClave;
+        if (secreto == null || secreto.isBlank()) {
+            bytesClave = new byte[32];
+            new SecureRandom().nextBytes(bytesClave);
+        } else {
+            bytesClave = secreto.getBytes(StandardCharsets.UTF_8);
+        }
+        this.clave = new SecretKeySpec(bytesClave, ALGORITMO);
+    }
+
+    /**
+     * Cotizar un carrito para un usuario
+     * Solo se emite token si todas las líneas son válidas
+     */
+    public CotizacionResponse cotizar(Long usuarioId, List<ItemPedidoRequest> items) {
+        CotizacionResponse cotizacion = consultaPedidoService.cotizar(items, usuarioId);
+
+        if (cotizacion.isValido() && usuarioId != null) {
+            Instant expiraEn = Instant.now().plusSeconds(validezSegundos);
+
+            Map<Long, BigDecimal> precios = new TreeMap<>();
+            for (LineaCotizacion linea : cotizacion.getLineas()) {
+                precios.put(linea.getProductoId(), linea.getPrecioUnitario());
+            }
+
+            String contenido = serializar(usuarioId, expiraEn.getEpochSecond(), agruparCantidades(items), precios);
+            cotizacion.setToken(codificar(contenido.getBytes(StandardCharsets.UTF_8)) + "." + firmar(contenido));
+            cotizacion.setExpiraEn(expiraEn);
+        }
+
+        return cotizacion;
+    }
+
+    /**
+     * Verificar un token de cotización contra el carrito que se va a comprar
+     * 
+     * @return Precios cotizados por producto
+     * @throws RuntimeException si el token no es válido, ha caducado, es de
+     *                          otro usuario o el carrito ha cambiado
+     */
+    public Map<Long, BigDecimal> verificar(String token, Long usuarioId, List<ItemPedidoRequest> items) {
+        int punto = token.indexOf('.');
+        if (punto < 0) {
+            throw new RuntimeException("Cotización no válida");
+        }
+
+        String contenido;
+        try {
+            contenido = new String(Base64.getUrlDecoder().decode(token.substring(0, punto)),
+                    StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Cotización no válida");
+        }
+
+        byte[] firmaEsperada = firmar(contenido).getBytes(StandardCharsets.US_ASCII);
+        byte[] firmaRecibida = token.substring(punto + 1).getBytes(StandardCharsets.US_ASCII);
+        if (!MessageDigest.isEqual(firmaEsperada, firmaRecibida)) {
+            throw new RuntimeException("Cotización no válida");
+        }
+
+        // Formato: usuarioId|expiraEn|productoId:cantidad:precio;...
+        String[] partes = contenido.split("\\|", 3);
+        if (!String.valueOf(usuarioId).equals(partes[0])) {
+            throw new RuntimeException("La cotización pertenece a otro usuario");
+        }
+        if (Instant.now().getEpochSecond() > Long.parseLong(partes[1])) {
+            throw new RuntimeException("La cotización ha caducado. Vuelve a revisar tu carrito.");
+        }
+
+        Map<Long, Integer> cantidades = new TreeMap<>();
+        Map<Long, BigDecimal> precios = new TreeMap<>();
+        for (String linea : partes[2].split(";")) {
+            String[] campos = linea.split(":");
+            Long productoId = Long.valueOf(campos[0]);
+            cantidades.put(productoId, Integer.valueOf(campos[1]));
+            precios.put(productoId, new BigDecimal(campos[2]));
+        }
+
+        if (!cantidades.equals(agruparCantidades(items))) {
+            throw new RuntimeException("El carrito ha cambiado desde la cotización. Vuelve a revisarlo.");
+        }
+
+        return precios;
+    }
+
+    private Map<Long, Integer> agruparCantidades(List<ItemPedidoRequest> items) {
+        Map<Long, Integer> cantidades = new TreeMap<>();
+        for (ItemPedidoRequest item : items) {
+            cantidades.merge(item.getProductoId(), item.getCantidad(), Integer::sum);
+        }
+        return cantidades;
+    }
+
+    private String serializar(Long usuarioId, long expiraEn, Map<Long, Integer> cantidades,
+            Map<Long, BigDecimal> precios) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(usuarioId).append('|').append(expiraEn).append('|');
+
+        boolean primero = true;
+        for (Map.Entry<Long, Integer> entrada : cantidades.entrySet()) {
+            if (!primero) {
+                sb.append(';');
+            }
+            sb.append(entrada.getKey()).append(':')
+                    .append(entrada.getValue()).append(':')
+                    .append(precios.get(entrada.getKey()).toPlainString());
+            primero = false;
+        }
+
+        return sb.toString();
+    }
+
+    private String firmar(String contenido) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITMO);
+            mac.init(clave);
+            return codificar(mac.doFinal(contenido.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Error firmando la cotización", e);
+        }
+    }
+
+    private String codificar(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
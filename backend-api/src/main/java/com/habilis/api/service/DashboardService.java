@@ -0,0 +1,199 @@
+package com.habilis.api.service;
+
+import com.habilis.api.entity.Usuario;
+import com.habilis.api.repository.UsuarioRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Panel del usuario en una sola respuesta
+ *
+ * Reúne perfil, estadísticas y pedidos recientes con sus líneas y códigos de
+ * factura lanzando las consultas en paralelo sobre un pool propio: hilos y
+ * cola acotados, para no agotar las conexiones con muchos paneles a la vez.
+ * Con la cola llena el panel se rechaza (RejectedExecutionException) en vez
+ * de esperar, y si las consultas no terminan a tiempo se cancelan las que
+ * sigan en marcha o en cola. Los pedidos se leen con una sola consulta JDBC
+ * y se devuelven en un formato compacto, sin entidades ni cargas perezosas.
+ */
+@Service
+public class DashboardService {
+
+    // Últimos pedidos del usuario con su factura y sus líneas (una fila por
+    // línea; como mucho una factura por pedido, uk_facturas_pedido)
+    private static final String SQL_PEDIDOS_RECIENTES = "SELECT p.id, p.fecha_pedido, p.estado, p.total_pedido, " +
+            "f.codigo_factura, d.cantidad, d.precio_unitario, pr.nombre " +
+            "FROM (SELECT id, fecha_pedido, estado, total_pedido FROM pedidos WHERE usuario_id = ? " +
+            "ORDER BY fecha_pedido DESC, id DESC LIMIT ?) p " +
+            "LEFT JOIN facturas f ON f.pedido_id = p.id " +
+            "LEFT JOIN detalle_pedido d ON d.pedido_id = p.id " +
+            "LEFT JOIN productos pr ON pr.id = d.producto_id " +
+            "ORDER BY p.fecha_pedido DESC, p.id DESC, d.id";
+
+    // Pedidos recientes máximos por panel
+    private static final int MAX_PEDIDOS = 50;
+
+    private final UsuarioRepository usuarioRepository;
+    private final EstadisticasUsuarioService estadisticasUsuarioService;
+    private final JdbcTemplate jdbcTemplate;
+    private final ThreadPoolExecutor consultas;
+    private final long timeoutMillis;
+
+    public DashboardService(UsuarioRepository usuarioRepository,
+            EstadisticasUsuarioService estadisticasUsuarioService,
+            JdbcTemplate jdbcTemplate,
+            @Value("${habilis.dashboard.hilos:8}") int hilos,
+            @Value("${habilis.dashboard.cola:64}") int cola,
+            @Value("${habilis.dashboard.timeout-ms:5000}") long timeoutMillis) {
+        this.usuarioRepository = usuarioRepository;
+        this.estadisticasUsuarioService = estadisticasUsuarioService;
+        this.consultas = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(cola), hilosConNombre("dashboard-"), new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutMillis = timeoutMillis;
+
+        // Interrumpir el hilo no para una consulta que ya está en la base de
+        // datos: la de pedidos lleva además su propio tiempo máximo
+        this.jdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.jdbcTemplate.setQueryTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(timeoutMillis)));
+    }
+
+    @PreDestroy
+    public void detener() {
+        consultas.shutdown();
+    }
+
+    /**
+     * Panel de un usuario
+     *
+     * @param limitePedidos Pedidos recientes a incluir (máximo 50)
+     * @return perfil, estadisticas y pedidosRecientes (con líneas y código de factura)
+     */
+    public Map<String, Object> obtener(Long usuarioId, int limitePedidos) {
+        int limite = Math.max(1, Math.min(limitePedidos, MAX_PEDIDOS));
+
+        List<Future<?>> tareas = new ArrayList<>();
+        try {
+            Future<Map<String, Object>> perfil = enParalelo(tareas, () -> perfil(usuarioId));
+            Future<Map<String, Object>> estadisticas =
+                    enParalelo(tareas, () -> estadisticasUsuarioService.obtener(usuarioId));
+            Future<List<Map<String, Object>>> pedidos =
+                    enParalelo(tareas, () -> pedidosRecientes(usuarioId, limite));
+
+            long limiteEspera = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            Map<String, Object> panel = new HashMap<>();
+            panel.put("perfil", esperar(perfil, limiteEspera));
+            panel.put("estadisticas", esperar(estadisticas, limiteEspera));
+            panel.put("pedidosRecientes", esperar(pedidos, limiteEspera));
+            return panel;
+        } finally {
+            // Sin efecto en las que ya terminaron; el resto se interrumpe (en
+            // marcha) o sale de la cola sin ejecutarse, dejando sitio a otros
+            boolean canceladas = false;
+            for (Future<?> tarea : tareas) {
+                canceladas |= tarea.cancel(true);
+            }
+            if (canceladas) {
+                consultas.purge();
+            }
+        }
+    }
+
+    private Map<String, Object> perfil(Long usuarioId) {
+        Usuario usuario = usuarioRepository.findById(usuarioId)
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado con ID: " + usuarioId));
+
+        // Mismos campos que GET /api/auth/me
+        Map<String, Object> perfil = new HashMap<>();
+        perfil.put("id", usuario.getId());
+        perfil.put("nombreCompleto", usuario.getNombreCompleto());
+        perfil.put("correoElectronico", usuario.getCorreoElectronico());
+        perfil.put("movil", usuario.getMovil());
+        perfil.put("tipoUsuario", usuario.getTipoUsuario());
+        perfil.put("cuentaActiva", usuario.getCuentaActiva());
+        perfil.put("twoFactorEnabled", usuario.getTwoFactorEnabled());
+        return perfil;
+    }
+
+    private List<Map<String, Object>> pedidosRecientes(Long usuarioId, int limite) {
+        Map<Long, Map<String, Object>> pedidos = new LinkedHashMap<>();
+        jdbcTemplate.query(SQL_PEDIDOS_RECIENTES, rs -> {
+            long id = rs.getLong(1);
+            Map<String, Object> pedido = pedidos.get(id);
+            if (pedido == null) {
+                pedido = new LinkedHashMap<>();
+                pedido.put("id", id);
+                pedido.put("fechaPedido", rs.getTimestamp(2).toLocalDateTime());
+                pedido.put("estado", rs.getString(3));
+                pedido.put("totalPedido", rs.getBigDecimal(4));
+                pedido.put("detalles", new ArrayList<Map<String, Object>>());
+                pedido.put("codigoFactura", rs.getString(5));
+                pedidos.put(id, pedido);
+            }
+
+            if (rs.getObject(6) != null) {
+                Map<String, Object> linea = new LinkedHashMap<>();
+                linea.put("producto", rs.getString(8));
+                linea.put("cantidad", rs.getInt(6));
+                linea.put("precioUnitario", rs.getBigDecimal(7));
+                @SuppressWarnings("unchecked")
+                List<Map<String, Object>> detalles = (List<Map<String, Object>>) pedido.get("detalles");
+                detalles.add(linea);
+            }
+        }, usuarioId, limite);
+        return new ArrayList<>(pedidos.values());
+    }
+
+    /**
+     * Lanzar una consulta en el pool
+     * Con la cola llena lanza RejectedExecutionException
+     */
+    private <T> Future<T> enParalelo(List<Future<?>> tareas, Callable<T> consulta) {
+        Future<T> tarea = consultas.submit(consulta);
+        tareas.add(tarea);
+        return tarea;
+    }
+
+    private <T> T esperar(Future<T> tarea, long limiteEspera) {
+        try {
+            return tarea.get(Math.max(0, limiteEspera - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new RuntimeException("El panel tardó más de " + timeoutMillis + " ms en cargarse", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Carga del panel interrumpida", e);
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new RuntimeException("No se pudo cargar el panel: " + causa.getMessage(), causa);
+        }
+    }
+
+    private static ThreadFactory hilosConNombre(String prefijo) {
+        AtomicInteger contador = new AtomicInteger();
+        return tarea -> {
+            Thread hilo = new Thread(tarea, prefijo + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        };
+    }
+}
@@ -0,0 +1,44 @@
+package com.habilis.api.service;
+
+import com.habilis.api.entity.EstadoPedido;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Devuelve al stock las unidades de los pedidos PENDIENTE que se cancelan
+ * Una sola agregación por lote de pedidos (unidades por producto)
+ */
+@Component
+@Order(10)
+public class DevolucionStockHook implements TransicionPedidoHook {
+
+    private static final String SQL_UNIDADES_POR_PRODUCTO = "SELECT producto_id, SUM(cantidad) " +
+            "FROM detalle_pedido WHERE pedido_id = ANY(?) GROUP BY producto_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final InventarioService inventarioService;
+
+    public DevolucionStockHook(JdbcTemplate jdbcTemplate, InventarioService inventarioService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.inventarioService = inventarioService;
+    }
+
+    @Override
+    public void alTransicionar(List<Long> pedidoIds, EstadoPedido desde, EstadoPedido hacia) {
+        // Los pedidos ya enviados no devuelven stock al cancelarse
+        if (desde != EstadoPedido.PENDIENTE || hacia != EstadoPedido.CANCELADO) {
+            return;
+        }
+
+        // En una cancelación individual el movimiento queda ligado al pedido
+        Long pedidoId = pedidoIds.size() == 1 ? pedidoIds.get(0) : null;
+        jdbcTemplate.query(SQL_UNIDADES_POR_PRODUCTO,
+                rs -> {
+                    inventarioService.reponer(rs.getLong(1), rs.getInt(2), "CANCELACION", pedidoId);
+                },
+                (Object) pedidoIds.toArray(new Long[0]));
+    }
+}
@@ -1,9 +1,14 @@
 package com.habilis.api.service;
 
+import com.habilis.api.config.Tramo;
+import com.habilis.api.config.Trazas;
 import com.habilis.api.entity.Factura;
 import com.habilis.api.entity.Pedido;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.mail.SimpleMailMessage;
@@ -11,6 +16,8 @@ import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * Servicio para envío de correos electrónicos
  * Usado para confirmación de cuenta, recuperación de contraseña y
@@ -19,13 +26,17 @@ import org.springframework.stereotype.Service;
 @Service
 public class EmailService {
 
+    private static final Logger log = LoggerFactory.getLogger(EmailService.class);
+
     private final JavaMailSender mailSender;
+    private final MeterRegistry meterRegistry;
 
     @Value("${spring.mail.username:noreply@habilis.com}")
     private String fromEmail;
 
-    public EmailService(JavaMailSender mailSender) {
+    public EmailService(JavaMailSender mailSender, MeterRegistry meterRegistry) {
         this.mailSender = mailSender;
+        this.meterRegistry = meterRegistry;
     }
 
     /**
@@ -48,7 +59,7 @@ public class EmailService {
                         "El equipo de HÁBILIS",
                 nombreCompleto, token, token);
 
-        enviarEmail(destinatario, asunto, mensaje);
+        enviarEmail("confirmacion-cuenta", destinatario, asunto, mensaje);
     }
 
     /**
@@ -71,7 +82,7 @@ public class EmailService {
                         "El equipo de HÁBILIS",
                 nombreCompleto, "http://localhost/reset-password.html?token=" + token);
 
-        enviarEmail(destinatario, asunto, mensaje);
+        enviarEmail("recuperacion", destinatario, asunto, mensaje);
     }
 
     /**
@@ -92,7 +103,43 @@ public class EmailService {
                         "El equipo de HÁBILIS",
                 nombreCompleto);
 
-        enviarEmail(destinatario, asunto, mensaje);
+        enviarEmail("2fa-activado", destinatario, asunto, mensaje);
+    }
+
+    /**
+     * Avisar al cliente de un cambio de estado de su pedido
+     * 
+     * @param destinatario   Email del usuario
+     * @param nombreCompleto Nombre del usuario
+     * @param pedidoId       ID del pedido
+     * @param estado         Nuevo estado ('ENVIADO', 'COMPLETADO', 'CANCELADO')
+     */
+    public void enviarAvisoEstadoPedido(String destinatario, String nombreCompleto, Long pedidoId, String estado) {
+        String detalle;
+        switch (estado) {
+            case "ENVIADO":
+                detalle = "ha salido de nuestro almacén y va de camino.";
+                break;
+            case "COMPLETADO":
+                detalle = "se ha entregado. ¡Esperamos que lo disfrutéis!";
+                break;
+            case "CANCELADO":
+                detalle = "ha sido cancelado.";
+                break;
+            default:
+                detalle = "ha pasado al estado " + estado + ".";
+        }
+
+        String asunto = "Tu pedido #" + pedidoId + " - HÁBILIS";
+        String mensaje = String.format(
+                "Hola %s,\n\n" +
+                        "Tu pedido #%d %s\n\n" +
+                        "Puedes consultar tus pedidos en cualquier momento desde tu panel de usuario.\n\n" +
+                        "Saludos,\n" +
+                        "El equipo de HÁBILIS",
+                nombreCompleto, pedidoId, detalle);
+
+        enviarEmail("estado-pedido", destinatario, asunto, mensaje);
     }
 
     /**
@@ -112,7 +159,7 @@ public class EmailService {
                         "El equipo de HÁBILIS",
                 nombreCompleto);
 
-        enviarEmail(destinatario, asunto, mensaje);
+        enviarEmail("2fa-desactivado", destinatario, asunto, mensaje);
     }
 
     /**
@@ -124,6 +171,9 @@ public class EmailService {
      * @param pdfFactura   Bytes del PDF de la factura
      */
     public void enviarConfirmacionPedido(String destinatario, Pedido pedido, Factura factura, byte[] pdfFactura) {
+        Tramo tramo = Trazas.tramo("EmailService.enviarConfirmacionPedido");
+        long inicio = System.nanoTime();
+        boolean enviado = false;
         try {
             MimeMessage message = mailSender.createMimeMessage();
             MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
@@ -140,12 +190,19 @@ public class EmailService {
             helper.addAttachment("factura_" + factura.getCodigoFactura() + ".pdf",
                     new ByteArrayResource(pdfFactura));
 
-            mailSender.send(message);
+            try (Tramo smtp = Trazas.tramoExterno("smtp")) {
+                smtp.atributo("adjunto.bytes", pdfFactura.length);
+                mailSender.send(message);
+            }
+            enviado = true;
 
-            System.out.println("✅ Email de confirmación enviado a: " + destinatario);
+            log.debug("Email de confirmación enviado a: {}", destinatario);
         } catch (MessagingException e) {
-            System.err.println("❌ Error al enviar email de confirmación a " + destinatario + ": " + e.getMessage());
+            log.error("Error al enviar email de confirmación a {}: {}", destinatario, e.getMessage());
             // No lanzar excepción para no bloquear la creación del pedido
+        } finally {
+            registrarEnvio("confirmacion-pedido", inicio, enviado);
+            tramo.close();
         }
     }
 
@@ -209,11 +266,15 @@ public class EmailService {
     /**
      * Método genérico para enviar emails
      * 
+     * @param tipo         Tipo de email (etiqueta de la métrica)
      * @param destinatario Email destino
      * @param asunto       Asunto del email
      * @param mensaje      Cuerpo del mensaje
      */
-    private void enviarEmail(String destinatario, String asunto, String mensaje) {
+    private void enviarEmail(String tipo, String destinatario, String asunto, String mensaje) {
+        Tramo tramo = Trazas.tramoExterno("smtp").atributo("tipo", tipo);
+        long inicio = System.nanoTime();
+        boolean enviado = false;
         try {
             SimpleMailMessage mailMessage = new SimpleMailMessage();
             mailMessage.setFrom(fromEmail);
@@ -222,11 +283,23 @@ public class EmailService {
             mailMessage.setText(mensaje);
 
             mailSender.send(mailMessage);
+            enviado = true;
 
-            System.out.println("✅ Email enviado a: " + destinatario);
+            log.debug("Email enviado a: {}", destinatario);
         } catch (Exception e) {
-            System.err.println("❌ Error al enviar email a " + destinatario + ": " + e.getMessage());
+            log.error("Error al enviar email a {}: {}", destinatario, e.getMessage());
             // En producción, registraríamos esto en el sistema de logs
+        } finally {
+            registrarEnvio(tipo, inicio, enviado);
+            tramo.close();
         }
     }
+
+    /**
+     * Tiempo de cada envío SMTP (habilis.email.envio) por tipo y resultado
+     */
+    private void registrarEnvio(String tipo, long inicio, boolean enviado) {
+        meterRegistry.timer("habilis.email.envio", "tipo", tipo, "resultado", enviado ? "ok" : "error")
+                .record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+    }
 }
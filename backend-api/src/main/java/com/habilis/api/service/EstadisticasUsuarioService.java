@@ -0,0 +1,263 @@
+package com.habilis.api.service;
+
+import com.habilis.api.entity.EstadisticasUsuario;
+import com.habilis.api.entity.EstadoPedido;
+import com.habilis.api.repository.EstadisticasUsuarioRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Estadísticas de pedidos por usuario (tabla 'estadisticas_usuario')
+ *
+ * Una fila por usuario con el número de pedidos por estado, el total gastado
+ * y la fecha del último pedido. Se mantiene de forma incremental: al crear un
+ * pedido (registrarPedidos) y al cambiar de estado (hook de transición), en la
+ * misma transacción que el cambio. Así /mis-estadisticas es una lectura por
+ * clave primaria, tenga el usuario los pedidos que tenga.
+ *
+ * La conciliación recalcula las filas desde 'pedidos' por rangos de usuario_id
+ * al arrancar y cada noche, y corrige cualquier desvío (pedidos anteriores a
+ * la tabla, cambios hechos a mano en la base de datos...).
+ *
+ * Para no pisar los cambios incrementales que confirman mientras tanto, la
+ * conciliación bloquea primero los usuarios del rango (FOR UPDATE) y agrega
+ * después, en otra sentencia que ya ve todo lo confirmado. Crear un pedido
+ * bloquea su usuario con FOR KEY SHARE (la comprobación de la clave ajena) y
+ * el hook de transición lo pide explícitamente, así que unos esperan a otros.
+ * Todos bloquean los usuarios en orden de id para no provocar interbloqueos.
+ */
+@Service
+@Order(50)
+public class EstadisticasUsuarioService implements TransicionPedidoHook {
+
+    private static final Logger log = LoggerFactory.getLogger(EstadisticasUsuarioService.class);
+
+    private static final String SQL_SUMAR_PEDIDOS = "INSERT INTO estadisticas_usuario AS e " +
+            "(usuario_id, total_pedidos, pendientes, enviados, completados, cancelados, " +
+            "total_gastado, ultimo_pedido, fecha_actualizacion) " +
+            "VALUES (?, ?, ?, 0, 0, 0, ?, ?, ?) " +
+            "ON CONFLICT (usuario_id) DO UPDATE SET " +
+            "total_pedidos = e.total_pedidos + EXCLUDED.total_pedidos, " +
+            "pendientes = e.pendientes + EXCLUDED.pendientes, " +
+            "total_gastado = e.total_gastado + EXCLUDED.total_gastado, " +
+            "ultimo_pedido = GREATEST(e.ultimo_pedido, EXCLUDED.ultimo_pedido), " +
+            "fecha_actualizacion = EXCLUDED.fecha_actualizacion";
+
+    // %1$s y %2$s: columnas de los estados de origen y destino
+    private static final String SQL_TRANSICION = "UPDATE estadisticas_usuario e " +
+            "SET %1$s = e.%1$s - x.n, %2$s = e.%2$s + x.n, fecha_actualizacion = ? " +
+            "FROM (SELECT usuario_id, COUNT(*) AS n FROM pedidos WHERE id = ANY(?) GROUP BY usuario_id) x " +
+            "WHERE e.usuario_id = x.usuario_id";
+
+    // Usuarios de los pedidos que cambian de estado: conflicto con SQL_BLOQUEAR_RANGO
+    private static final String SQL_BLOQUEAR_USUARIOS_PEDIDOS = "SELECT u.id FROM usuarios u " +
+            "WHERE u.id IN (SELECT usuario_id FROM pedidos WHERE id = ANY(?)) ORDER BY u.id FOR KEY SHARE";
+
+    private static final String SQL_RANGO_USUARIOS = "SELECT MIN(id), MAX(id) FROM usuarios";
+
+    // Espera a las transacciones que crean o cambian pedidos de estos usuarios
+    // y frena las nuevas hasta el final de la conciliación del rango
+    private static final String SQL_BLOQUEAR_RANGO = "SELECT id FROM usuarios " +
+            "WHERE id >= ? AND id < ? ORDER BY id FOR UPDATE";
+
+    private static final String SQL_CONCILIAR = "INSERT INTO estadisticas_usuario AS e " +
+            "(usuario_id, total_pedidos, pendientes, enviados, completados, cancelados, " +
+            "total_gastado, ultimo_pedido, fecha_actualizacion) " +
+            "SELECT usuario_id, COUNT(*), " +
+            "COUNT(*) FILTER (WHERE estado = 'PENDIENTE'), " +
+            "COUNT(*) FILTER (WHERE estado = 'ENVIADO'), " +
+            "COUNT(*) FILTER (WHERE estado = 'COMPLETADO'), " +
+            "COUNT(*) FILTER (WHERE estado = 'CANCELADO'), " +
+            "COALESCE(SUM(total_pedido), 0), MAX(fecha_pedido), ? " +
+            "FROM pedidos WHERE usuario_id >= ? AND usuario_id < ? GROUP BY usuario_id " +
+            "ON CONFLICT (usuario_id) DO UPDATE SET " +
+            "total_pedidos = EXCLUDED.total_pedidos, pendientes = EXCLUDED.pendientes, " +
+            "enviados = EXCLUDED.enviados, completados = EXCLUDED.completados, " +
+            "cancelados = EXCLUDED.cancelados, total_gastado = EXCLUDED.total_gastado, " +
+            "ultimo_pedido = EXCLUDED.ultimo_pedido, fecha_actualizacion = EXCLUDED.fecha_actualizacion " +
+            "WHERE (e.total_pedidos, e.pendientes, e.enviados, e.completados, e.cancelados, " +
+            "e.total_gastado, e.ultimo_pedido) IS DISTINCT FROM " +
+            "(EXCLUDED.total_pedidos, EXCLUDED.pendientes, EXCLUDED.enviados, EXCLUDED.completados, " +
+            "EXCLUDED.cancelados, EXCLUDED.total_gastado, EXCLUDED.ultimo_pedido)";
+
+    // Usuarios del rango que ya no tienen pedidos
+    private static final String SQL_BORRAR_SIN_PEDIDOS = "DELETE FROM estadisticas_usuario e " +
+            "WHERE e.usuario_id >= ? AND e.usuario_id < ? " +
+            "AND NOT EXISTS (SELECT 1 FROM pedidos p WHERE p.usuario_id = e.usuario_id)";
+
+    private final EstadisticasUsuarioRepository estadisticasUsuarioRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int usuariosPorLote;
+
+    private final AtomicBoolean conciliando = new AtomicBoolean(false);
+
+    public EstadisticasUsuarioService(EstadisticasUsuarioRepository estadisticasUsuarioRepository,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${habilis.estadisticas.lote-conciliacion:1000}") int usuariosPorLote) {
+        this.estadisticasUsuarioRepository = estadisticasUsuarioRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.usuariosPorLote = usuariosPorLote;
+    }
+
+    /**
+     * Estadísticas de un usuario: una lectura por clave primaria
+     * Un usuario sin fila (sin pedidos) tiene todo a cero
+     */
+    public Map<String, Object> obtener(Long usuarioId) {
+        EstadisticasUsuario e = estadisticasUsuarioRepository.findById(usuarioId)
+                .orElseGet(() -> new EstadisticasUsuario(usuarioId));
+
+        Map<String, Object> estadisticas = new HashMap<>();
+        estadisticas.put("totalPedidos", e.getTotalPedidos());
+        estadisticas.put("totalGastado", e.getTotalGastado());
+        estadisticas.put("pedidosPendientes", e.getPendientes());
+        estadisticas.put("pedidosEnviados", e.getEnviados());
+        estadisticas.put("pedidosCompletados", e.getCompletados());
+        estadisticas.put("pedidosCancelados", e.getCancelados());
+        estadisticas.put("ultimoPedido", e.getUltimoPedido());
+        return estadisticas;
+    }
+
+    /**
+     * Sumar un pedido PENDIENTE recién creado
+     * Debe llamarse dentro de la transacción que lo crea
+     */
+    public void registrarPedido(Long usuarioId, BigDecimal total, LocalDateTime fecha) {
+        jdbcTemplate.update(SQL_SUMAR_PEDIDOS, usuarioId, 1, 1, total,
+                Timestamp.valueOf(fecha), Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    /**
+     * Sumar muchos pedidos PENDIENTE creados a la vez (generación de
+     * suscripciones): un upsert por usuario en una sola inserción por lotes
+     *
+     * @param porUsuario Por usuario: { número de pedidos, total, fecha del último }
+     */
+    public void registrarPedidos(Map<Long, Object[]> porUsuario) {
+        if (porUsuario.isEmpty()) {
+            return;
+        }
+
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> filas = new ArrayList<>(porUsuario.size());
+        for (Map.Entry<Long, Object[]> entrada : porUsuario.entrySet()) {
+            Object[] resumen = entrada.getValue();
+            filas.add(new Object[] {
+                    entrada.getKey(), resumen[0], resumen[0], resumen[1],
+                    Timestamp.valueOf((LocalDateTime) resumen[2]), ahora
+            });
+        }
+        jdbcTemplate.batchUpdate(SQL_SUMAR_PEDIDOS, filas);
+    }
+
+    /**
+     * Hook de transición: mueve los pedidos de la columna del estado de origen
+     * a la del destino, con un solo UPDATE agrupado por usuario
+     * Antes bloquea sus usuarios para no cruzarse con una conciliación
+     */
+    @Override
+    public void alTransicionar(List<Long> pedidoIds, EstadoPedido desde, EstadoPedido hacia) {
+        if (pedidoIds.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.queryForList(SQL_BLOQUEAR_USUARIOS_PEDIDOS, Long.class, (Object) pedidoIds.toArray(new Long[0]));
+        String sql = String.format(SQL_TRANSICION, columna(desde), columna(hacia));
+        jdbcTemplate.update(sql, Timestamp.valueOf(LocalDateTime.now()), pedidoIds.toArray(new Long[0]));
+    }
+
+    /**
+     * Conciliación al arrancar (rellena las filas de los pedidos existentes)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void conciliarAlArrancar() {
+        conciliarProgramado();
+    }
+
+    /**
+     * Conciliación nocturna
+     */
+    @Scheduled(cron = "${habilis.estadisticas.cron-conciliacion:0 30 4 * * *}")
+    public void conciliarProgramado() {
+        try {
+            conciliar();
+        } catch (RuntimeException e) {
+            log.error("Error al conciliar estadísticas de usuario: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recalcular todas las estadísticas desde 'pedidos'
+     * Cada rango de usuarios va en su propia transacción, con sus usuarios
+     * bloqueados mientras dura
+     *
+     * @return Filas corregidas (insertadas, actualizadas o borradas)
+     */
+    public int conciliar() {
+        if (!conciliando.compareAndSet(false, true)) {
+            throw new RuntimeException("Ya hay una conciliación de estadísticas en curso");
+        }
+
+        try {
+            long inicio = System.currentTimeMillis();
+            Map<String, Object> rango = jdbcTemplate.queryForMap(SQL_RANGO_USUARIOS);
+            if (rango.get("min") == null) {
+                return 0;
+            }
+
+            long minimo = ((Number) rango.get("min")).longValue();
+            long maximo = ((Number) rango.get("max")).longValue();
+            int corregidas = 0;
+
+            for (long desde = minimo; desde <= maximo; desde += usuariosPorLote) {
+                long hasta = desde + usuariosPorLote;
+                long desdeRango = desde;
+                Integer resultado = transactionTemplate.execute(status -> {
+                    jdbcTemplate.queryForList(SQL_BLOQUEAR_RANGO, Long.class, desdeRango, hasta);
+                    Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+                    return jdbcTemplate.update(SQL_CONCILIAR, ahora, desdeRango, hasta)
+                            + jdbcTemplate.update(SQL_BORRAR_SIN_PEDIDOS, desdeRango, hasta);
+                });
+                corregidas += resultado != null ? resultado : 0;
+            }
+
+            if (corregidas > 0) {
+                log.warn("Estadísticas de usuario conciliadas: {} filas corregidas en {} ms",
+                        corregidas, System.currentTimeMillis() - inicio);
+            }
+            return corregidas;
+        } finally {
+            conciliando.set(false);
+        }
+    }
+
+    private String columna(EstadoPedido estado) {
+        return switch (estado) {
+            case PENDIENTE -> "pendientes";
+            case ENVIADO -> "enviados";
+            case COMPLETADO -> "completados";
+            case CANCELADO -> "cancelados";
+        };
+    }
+}
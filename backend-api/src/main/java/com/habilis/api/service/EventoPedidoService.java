@@ -0,0 +1,142 @@
+package com.habilis.api.service;
+
+import com.habilis.api.entity.EstadoPedido;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Bandeja de salida de eventos de pedido (tabla 'eventos_pedido')
+ *
+ * Los cambios de estado registran su evento en la misma transacción, con una
+ * inserción por lotes, y un publicador periódico los procesa después: avisa
+ * al cliente por email y los marca como publicados. El publicador reclama los
+ * eventos con SKIP LOCKED, así que puede correr en varias instancias.
+ *
+ * Como hook de transición es el último en ejecutarse: el evento solo se
+ * registra si los hooks anteriores no han fallado. La creación de pedidos
+ * también registra un evento, sin estado anterior, que no se avisa por email
+ * pero alimenta la analítica de ventas (AnaliticaVentasService).
+ */
+@Service
+@Order(100)
+public class EventoPedidoService implements TransicionPedidoHook {
+
+    private static final Logger log = LoggerFactory.getLogger(EventoPedidoService.class);
+
+    private static final String SQL_INSERTAR = "INSERT INTO eventos_pedido " +
+            "(pedido_id, estado_anterior, estado_nuevo, fecha, publicado) VALUES (?, ?, ?, ?, false)";
+
+    private static final String SQL_RECLAMAR = "SELECT e.id, e.pedido_id, e.estado_nuevo, " +
+            "u.correo_electronico, u.nombre_completo " +
+            "FROM eventos_pedido e " +
+            "JOIN pedidos p ON p.id = e.pedido_id " +
+            "JOIN usuarios u ON u.id = p.usuario_id " +
+            "WHERE e.publicado = false " +
+            "ORDER BY e.id LIMIT ? FOR UPDATE OF e SKIP LOCKED";
+
+    private static final String SQL_MARCAR_PUBLICADOS =
+            "UPDATE eventos_pedido SET publicado = true, fecha_publicacion = ? WHERE id = ANY(?)";
+
+    // Estados de los que se avisa al cliente
+    private static final Set<String> ESTADOS_AVISADOS = Set.of("ENVIADO", "COMPLETADO", "CANCELADO");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EmailService emailService;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanoLote;
+
+    public EventoPedidoService(JdbcTemplate jdbcTemplate,
+            EmailService emailService,
+            PlatformTransactionManager transactionManager,
+            @Value("${habilis.eventos.lote:200}") int tamanoLote) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.emailService = emailService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tamanoLote = tamanoLote;
+    }
+
+    @Override
+    public void alTransicionar(List<Long> pedidoIds, EstadoPedido desde, EstadoPedido hacia) {
+        registrar(pedidoIds, desde.name(), hacia.name());
+    }
+
+    /**
+     * Registrar el mismo cambio de estado para muchos pedidos
+     * Una sola inserción JDBC por lotes, dentro de la transacción del cambio
+     */
+    public void registrar(List<Long> pedidoIds, String estadoAnterior, String estadoNuevo) {
+        if (pedidoIds.isEmpty()) {
+            return;
+        }
+
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> filas = new ArrayList<>(pedidoIds.size());
+        for (Long pedidoId : pedidoIds) {
+            filas.add(new Object[] { pedidoId, estadoAnterior, estadoNuevo, ahora });
+        }
+        jdbcTemplate.batchUpdate(SQL_INSERTAR, filas);
+    }
+
+    /**
+     * Publicación periódica de los eventos pendientes
+     * Cada lote va en su propia transacción
+     */
+    @Scheduled(fixedDelayString = "${habilis.eventos.publicacion-ms:5000}")
+    public void publicarPendientes() {
+        int total = 0;
+        try {
+            // Tope de lotes por pasada para no acaparar el planificador
+            for (int i = 0; i < 50; i++) {
+                Integer publicados = transactionTemplate.execute(status -> publicarLote());
+                if (publicados == null || publicados == 0) {
+                    break;
+                }
+                total += publicados;
+            }
+        } catch (Exception e) {
+            log.error("Error al publicar eventos de pedido: {}", e.getMessage());
+        }
+
+        if (total > 0) {
+            log.info("Eventos de pedido publicados: {}", total);
+        }
+    }
+
+    private int publicarLote() {
+        List<Object[]> eventos = jdbcTemplate.query(SQL_RECLAMAR,
+                (rs, i) -> new Object[] {
+                        rs.getLong(1), rs.getLong(2), rs.getString(3), rs.getString(4), rs.getString(5)
+                },
+                tamanoLote);
+        if (eventos.isEmpty()) {
+            return 0;
+        }
+
+        Long[] ids = new Long[eventos.size()];
+        for (int i = 0; i < eventos.size(); i++) {
+            Object[] evento = eventos.get(i);
+            ids[i] = (Long) evento[0];
+
+            String estado = (String) evento[2];
+            if (ESTADOS_AVISADOS.contains(estado)) {
+                emailService.enviarAvisoEstadoPedido((String) evento[3], (String) evento[4], (Long) evento[1], estado);
+            }
+        }
+
+        jdbcTemplate.update(SQL_MARCAR_PUBLICADOS, Timestamp.valueOf(LocalDateTime.now()), ids);
+        return eventos.size();
+    }
+}
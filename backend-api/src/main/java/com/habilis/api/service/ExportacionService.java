@@ -0,0 +1,282 @@
+package com.habilis.api.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.habilis.api.config.LecturaReplica;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exportación de datos para contabilidad (pedidos, líneas de pedido y facturas)
+ *
+ * Las filas se leen con un cursor de servidor (JDBC de solo avance con tamaño
+ * de lectura, dentro de una transacción de solo lectura, que es cuando el
+ * driver de PostgreSQL usa cursor) y se escriben directamente en la salida
+ * como CSV o NDJSON, opcionalmente comprimidas con gzip. Ninguna exportación
+ * guarda filas en memoria, tenga las que tenga. Se leen de una réplica si
+ * hay alguna disponible (@LecturaReplica).
+ */
+@Service
+public class ExportacionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportacionService.class);
+
+    private static final String SQL_PEDIDOS = "SELECT p.id, p.usuario_id, u.correo_electronico, " +
+            "p.fecha_pedido, p.estado, p.total_pedido, p.suscripcion_id, p.periodo " +
+            "FROM pedidos p JOIN usuarios u ON u.id = p.usuario_id " +
+            "WHERE p.fecha_pedido >= ? AND p.fecha_pedido < ? ORDER BY p.id";
+
+    private static final String SQL_DETALLES = "SELECT d.id, d.pedido_id, p.fecha_pedido, d.producto_id, " +
+            "pr.nombre AS producto, d.cantidad, d.precio_unitario, d.cantidad * d.precio_unitario AS subtotal " +
+            "FROM detalle_pedido d JOIN pedidos p ON p.id = d.pedido_id " +
+            "LEFT JOIN productos pr ON pr.id = d.producto_id " +
+            "WHERE p.fecha_pedido >= ? AND p.fecha_pedido < ? ORDER BY d.pedido_id, d.id";
+
+    private static final String SQL_FACTURAS = "SELECT f.id, f.codigo_factura, f.pedido_id, f.usuario_id, " +
+            "f.fecha_emision, f.total " +
+            "FROM facturas f WHERE f.fecha_emision >= ? AND f.fecha_emision < ? ORDER BY f.id";
+
+    private static final Map<String, String> CONSULTAS = Map.of(
+            "pedidos", SQL_PEDIDOS,
+            "detalles", SQL_DETALLES,
+            "facturas", SQL_FACTURAS);
+
+    private final JdbcTemplate jdbcCursor;
+    private final TransactionTemplate transactionTemplate;
+    private final JsonFactory jsonFactory = new JsonFactory()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    public ExportacionService(DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            @Value("${habilis.exportacion.filas-por-lectura:1000}") int filasPorLectura) {
+        // JdbcTemplate propio: el tamaño de lectura solo debe afectar a las exportaciones
+        this.jdbcCursor = new JdbcTemplate(dataSource);
+        this.jdbcCursor.setFetchSize(filasPorLectura);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Comprobar el tipo y el formato antes de empezar a escribir la respuesta
+     */
+    public void validar(String tipo, String formato) {
+        if (!CONSULTAS.containsKey(tipo)) {
+            throw new RuntimeException("Tipo de exportación no válido: " + tipo
+                    + ". Valores permitidos: pedidos, detalles, facturas");
+        }
+        if (!"csv".equals(formato) && !"ndjson".equals(formato)) {
+            throw new RuntimeException("Formato no válido: " + formato + ". Valores permitidos: csv, ndjson");
+        }
+    }
+
+    /**
+     * Escribir una exportación en la salida
+     *
+     * @param desde     Primer día (opcional)
+     * @param hasta     Último día, incluido (opcional)
+     * @param comprimir Comprimir la salida con gzip
+     * @return Filas exportadas
+     */
+    @LecturaReplica
+    public long exportar(String tipo, String formato, LocalDate desde, LocalDate hasta,
+            OutputStream salida, boolean comprimir) throws IOException {
+        validar(tipo, formato);
+
+        long inicio = System.currentTimeMillis();
+        OutputStream destino = comprimir ? new GZIPOutputStream(salida, 64 * 1024) : salida;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(destino, StandardCharsets.UTF_8), 64 * 1024);
+        EscritorFilas escritor = "csv".equals(formato) ? new EscritorCsv(writer) : new EscritorNdjson(writer);
+
+        Object fechaDesde = desde != null ? desde.atStartOfDay() : LocalDate.of(1970, 1, 1).atStartOfDay();
+        Object fechaHasta = hasta != null
+                ? hasta.plusDays(1).atStartOfDay()
+                : LocalDate.now().plusYears(100).atStartOfDay();
+
+        try {
+            // ResultSetExtractor y no RowCallbackHandler: las columnas (y la
+            // cabecera CSV) salen de los metadatos aunque no haya ninguna fila
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcCursor.query(CONSULTAS.get(tipo), (ResultSetExtractor<Void>) rs -> {
+                        try {
+                            escritor.empezar(rs.getMetaData());
+                            while (rs.next()) {
+                                escritor.fila(rs);
+                            }
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        return null;
+                    }, fechaDesde, fechaHasta));
+        } catch (UncheckedIOException e) {
+            // Normalmente el cliente ha cortado la descarga
+            throw e.getCause();
+        }
+
+        escritor.terminar();
+        writer.flush();
+        if (comprimir) {
+            ((GZIPOutputStream) destino).finish();
+        }
+
+        log.info("Exportación de {} ({}): {} filas en {} ms",
+                tipo, formato, escritor.filas, System.currentTimeMillis() - inicio);
+        return escritor.filas;
+    }
+
+    /**
+     * Escribe las filas según el formato; los metadatos de la consulta dan
+     * las columnas
+     */
+    private abstract static class EscritorFilas {
+
+        protected final Writer writer;
+        protected String[] columnas;
+        protected long filas;
+
+        EscritorFilas(Writer writer) {
+            this.writer = writer;
+        }
+
+        void empezar(ResultSetMetaData meta) throws SQLException, IOException {
+            columnas = new String[meta.getColumnCount()];
+            for (int i = 0; i < columnas.length; i++) {
+                columnas[i] = meta.getColumnLabel(i + 1);
+            }
+            cabecera();
+        }
+
+        void fila(ResultSet rs) throws SQLException, IOException {
+            escribir(rs);
+            filas++;
+        }
+
+        void cabecera() throws IOException {
+        }
+
+        abstract void escribir(ResultSet rs) throws SQLException, IOException;
+
+        void terminar() throws IOException {
+        }
+    }
+
+    private static class EscritorCsv extends EscritorFilas {
+
+        EscritorCsv(Writer writer) {
+            super(writer);
+        }
+
+        @Override
+        void cabecera() throws IOException {
+            for (int i = 0; i < columnas.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(columnas[i]);
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        void escribir(ResultSet rs) throws SQLException, IOException {
+            for (int i = 0; i < columnas.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                Object valor = rs.getObject(i + 1);
+                if (valor instanceof Timestamp timestamp) {
+                    writer.write(timestamp.toLocalDateTime().toString());
+                } else if (valor instanceof BigDecimal decimal) {
+                    writer.write(decimal.toPlainString());
+                } else if (valor != null) {
+                    escribirTexto(valor.toString());
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        // RFC 4180: entre comillas si contiene separadores, comillas o saltos de línea
+        private void escribirTexto(String texto) throws IOException {
+            boolean comillas = false;
+            for (int i = 0; i < texto.length() && !comillas; i++) {
+                char c = texto.charAt(i);
+                comillas = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!comillas) {
+                writer.write(texto);
+                return;
+            }
+            writer.write('"');
+            writer.write(texto.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+
+    private class EscritorNdjson extends EscritorFilas {
+
+        private JsonGenerator generator;
+
+        EscritorNdjson(Writer writer) {
+            super(writer);
+        }
+
+        @Override
+        void cabecera() throws IOException {
+            generator = jsonFactory.createGenerator(writer);
+            generator.setRootValueSeparator(new SerializedString("\n"));
+        }
+
+        @Override
+        void escribir(ResultSet rs) throws SQLException, IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < columnas.length; i++) {
+                Object valor = rs.getObject(i + 1);
+                generator.writeFieldName(columnas[i]);
+                if (valor == null) {
+                    generator.writeNull();
+                } else if (valor instanceof BigDecimal decimal) {
+                    generator.writeNumber(decimal);
+                } else if (valor instanceof Number numero) {
+                    generator.writeNumber(numero.longValue());
+                } else if (valor instanceof Timestamp timestamp) {
+                    generator.writeString(timestamp.toLocalDateTime().toString());
+                } else {
+                    generator.writeString(valor.toString());
+                }
+            }
+            generator.writeEndObject();
+        }
+
+        @Override
+        void terminar() throws IOException {
+            // Sin filas la salida queda vacía, no con una línea en blanco
+            if (filas > 0) {
+                generator.writeRaw('\n');
+            }
+            generator.flush();
+        }
+    }
+}
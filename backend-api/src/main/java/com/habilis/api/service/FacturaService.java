@@ -1,8 +1,11 @@
 package com.habilis.api.service;
 
+import com.habilis.api.config.Tramo;
+import com.habilis.api.config.Trazas;
 import com.habilis.api.entity.Factura;
 import com.habilis.api.entity.Pedido;
 import com.habilis.api.entity.Usuario;
+import com.habilis.api.repository.ContadorFacturaRepository;
 import com.habilis.api.repository.FacturaRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -10,6 +13,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -19,9 +23,12 @@ import java.util.List;
 public class FacturaService {
 
     private final FacturaRepository facturaRepository;
+    private final ContadorFacturaRepository contadorFacturaRepository;
 
-    public FacturaService(FacturaRepository facturaRepository) {
+    public FacturaService(FacturaRepository facturaRepository,
+            ContadorFacturaRepository contadorFacturaRepository) {
         this.facturaRepository = facturaRepository;
+        this.contadorFacturaRepository = contadorFacturaRepository;
     }
 
     /**
@@ -30,22 +37,52 @@ public class FacturaService {
      * Ejemplo: FAC-20260126-00001
      */
     public String generarCodigoFactura() {
-        LocalDateTime now = LocalDateTime.now();
-        LocalDate today = now.toLocalDate();
+        try (Tramo tramo = Trazas.tramo("FacturaService.generarCodigoFactura")) {
+            return generarCodigosFactura(1).get(0);
+        }
+    }
 
-        // Formato de fecha: YYYYMMDD
-        String fecha = today.format(DateTimeFormatter.ofPattern("yyyyMMdd"));
+    /**
+     * Generar varios códigos de factura consecutivos con una sola reserva
+     * en el contador diario (contadores_factura)
+     */
+    public List<String> generarCodigosFactura(int cantidad) {
+        LocalDate today = LocalDate.now();
 
-        // Obtener número secuencial del día
-        LocalDateTime inicioDia = today.atStartOfDay();
-        LocalDateTime finDia = today.atTime(23, 59, 59);
+        Integer ultimo = contadorFacturaRepository.incrementar(today, cantidad);
+        if (ultimo == null) {
+            ultimo = contadorFacturaRepository.reservarBloque(today, cantidad,
+                    today.atStartOfDay(), today.plusDays(1).atStartOfDay());
+        }
+        return codigos(today, ultimo, cantidad);
+    }
 
-        long count = facturaRepository.countByFechaEmisionBetween(inicioDia, finDia);
+    /**
+     * Generar códigos consecutivos reservándolos en la transacción actual
+     * Si la transacción hace rollback el contador vuelve atrás y no quedan
+     * huecos; la fila del contador del día queda bloqueada hasta el commit
+     */
+    public List<String> generarCodigosFacturaEnTransaccion(int cantidad) {
+        LocalDate today = LocalDate.now();
 
-        // Número secuencial con 5 dígitos (00001, 00002, etc.)
-        String secuencial = String.format("%05d", count + 1);
+        Integer ultimo = contadorFacturaRepository.incrementarEnTransaccion(today, cantidad);
+        if (ultimo == null) {
+            ultimo = contadorFacturaRepository.reservarBloqueEnTransaccion(today, cantidad,
+                    today.atStartOfDay(), today.plusDays(1).atStartOfDay());
+        }
+        return codigos(today, ultimo, cantidad);
+    }
 
-        return "FAC-" + fecha + "-" + secuencial;
+    private List<String> codigos(LocalDate dia, int ultimo, int cantidad) {
+        // Formato de fecha: YYYYMMDD
+        String fecha = dia.format(DateTimeFormatter.ofPattern("yyyyMMdd"));
+
+        // Número secuencial con 5 dígitos (00001, 00002, etc.)
+        List<String> codigos = new ArrayList<>(cantidad);
+        for (int numero = ultimo - cantidad + 1; numero <= ultimo; numero++) {
+            codigos.add("FAC-" + fecha + "-" + String.format("%05d", numero));
+        }
+        return codigos;
     }
 
     /**
@@ -53,24 +90,27 @@ public class FacturaService {
      */
     @Transactional
     public Factura crearFactura(Pedido pedido, String codigoFactura) {
-        // Verificar que no exista ya una factura para este pedido
-        if (facturaRepository.existsByPedidoId(pedido.getId())) {
-            throw new RuntimeException("Ya existe una factura para este pedido");
+        try (Tramo tramo = Trazas.tramo("FacturaService.crearFactura")) {
+            // Verificar que no exista ya una factura para este pedido
+            if (facturaRepository.existsByPedidoId(pedido.getId())) {
+                throw new RuntimeException("Ya existe una factura para este pedido");
+            }
+
+            Factura factura = new Factura();
+            factura.setCodigoFactura(codigoFactura);
+            factura.setPedido(pedido);
+            factura.setUsuario(pedido.getUsuario());
+            factura.setTotal(pedido.getTotalPedido());
+            factura.setFechaEmision(LocalDateTime.now());
+
+            return facturaRepository.save(factura);
         }
-
-        Factura factura = new Factura();
-        factura.setCodigoFactura(codigoFactura);
-        factura.setPedido(pedido);
-        factura.setUsuario(pedido.getUsuario());
-        factura.setTotal(pedido.getTotalPedido());
-        factura.setFechaEmision(LocalDateTime.now());
-
-        return facturaRepository.save(factura);
     }
 
     /**
      * Listar todas las facturas de un usuario
      */
+    @Transactional(readOnly = true)
     public List<Factura> listarPorUsuario(Long usuarioId) {
         return facturaRepository.findByUsuarioIdOrderByFechaEmisionDesc(usuarioId);
     }
@@ -78,6 +118,7 @@ public class FacturaService {
     /**
      * Buscar factura por código
      */
+    @Transactional(readOnly = true)
     public Factura buscarPorCodigo(String codigoFactura) {
         return facturaRepository.findByCodigoFactura(codigoFactura)
                 .orElseThrow(() -> new RuntimeException("Factura no encontrada: " + codigoFactura));
@@ -86,6 +127,7 @@ public class FacturaService {
     /**
      * Buscar factura por ID de pedido
      */
+    @Transactional(readOnly = true)
     public Factura buscarPorPedido(Long pedidoId) {
         return facturaRepository.findByPedidoId(pedidoId)
                 .orElseThrow(() -> new RuntimeException("No se encontró factura para el pedido: " + pedidoId));
@@ -94,6 +136,7 @@ public class FacturaService {
     /**
      * Buscar factura por ID
      */
+    @Transactional(readOnly = true)
     public Factura buscarPorId(Long id) {
         return facturaRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Factura no encontrada: " + id));
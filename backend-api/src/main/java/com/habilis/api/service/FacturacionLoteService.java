@@ -0,0 +1,331 @@
+package com.habilis.api.service;
+
+import com.habilis.api.entity.Pedido;
+import com.habilis.api.repository.PedidoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Facturación por lotes de los pedidos de suscripción
+ *
+ * Dos etapas, cada una en lotes con su propia transacción:
+ * 1. Emisión: reclama pedidos sin factura (FOR UPDATE SKIP LOCKED), inserta
+ *    sus facturas con un código provisional y, justo antes del commit,
+ *    reserva en contadores_factura tantos códigos como facturas se
+ *    insertaron de verdad y los asigna
+ * 2. PDFs: reclama facturas sin PDF, las renderiza en paralelo en un
+ *    ForkJoinPool, las escribe en el directorio de facturas y guarda ruta_pdf
+ *
+ * SKIP LOCKED permite lanzar la facturación en varias instancias de la API a
+ * la vez sin que dos se lleven el mismo pedido; si una se cae, lo que no llegó
+ * a confirmar vuelve a estar pendiente. Con varias instancias el directorio
+ * de facturas debe ser compartido.
+ *
+ * Huecos en la numeración: la reserva de la emisión va en la transacción del
+ * lote, así que un lote que falla devuelve sus números y la facturación por
+ * lotes no deja huecos. Los que quedan en la serie vienen de los pedidos
+ * online, que reservan en su propia transacción (ContadorFacturaRepository).
+ * A cambio, el contador del día queda bloqueado desde la reserva hasta el
+ * commit del lote: solo lo que tarda en renumerar sus facturas.
+ */
+@Service
+public class FacturacionLoteService {
+
+    private static final Logger log = LoggerFactory.getLogger(FacturacionLoteService.class);
+
+    private static final String SQL_RECLAMAR_PEDIDOS = "SELECT p.id, p.usuario_id, p.total_pedido " +
+            "FROM pedidos p " +
+            "WHERE p.suscripcion_id IS NOT NULL AND p.periodo = ? " +
+            "AND NOT EXISTS (SELECT 1 FROM facturas f WHERE f.pedido_id = p.id) " +
+            "ORDER BY p.id LIMIT ? FOR UPDATE OF p SKIP LOCKED";
+
+    // Código provisional único (LOTE-<pedido>) hasta reservar los definitivos;
+    // RETURNING solo devuelve las filas insertadas de verdad
+    private static final String SQL_INSERTAR_FACTURAS = "INSERT INTO facturas " +
+            "(codigo_factura, pedido_id, usuario_id, fecha_emision, total) " +
+            "SELECT 'LOTE-' || p.id, p.id, p.usuario_id, ?, p.total_pedido FROM pedidos p " +
+            "WHERE p.id = ANY(?) " +
+            "ON CONFLICT (pedido_id) DO NOTHING " +
+            "RETURNING id, pedido_id";
+
+    private static final String SQL_ASIGNAR_CODIGOS = "UPDATE facturas f SET codigo_factura = v.codigo " +
+            "FROM unnest(?, ?) AS v(id, codigo) WHERE f.id = v.id";
+
+    private static final String SQL_RECLAMAR_SIN_PDF = "SELECT f.id, f.pedido_id, f.codigo_factura " +
+            "FROM facturas f JOIN pedidos p ON p.id = f.pedido_id " +
+            "WHERE f.ruta_pdf IS NULL AND f.id > ? " +
+            "AND p.suscripcion_id IS NOT NULL AND p.periodo = ? " +
+            "ORDER BY f.id LIMIT ? FOR UPDATE OF f SKIP LOCKED";
+
+    private static final String SQL_GUARDAR_RUTA = "UPDATE facturas SET ruta_pdf = ? WHERE id = ?";
+
+    private static final String SQL_PENDIENTES = "SELECT " +
+            "COUNT(*) FILTER (WHERE f.id IS NULL), " +
+            "COUNT(*) FILTER (WHERE f.id IS NOT NULL AND f.ruta_pdf IS NULL) " +
+            "FROM pedidos p LEFT JOIN facturas f ON f.pedido_id = p.id " +
+            "WHERE p.suscripcion_id IS NOT NULL AND p.periodo = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final FacturaService facturaService;
+    private final PdfService pdfService;
+    private final PedidoRepository pedidoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ForkJoinPool renderizado;
+    private final Path directorio;
+    private final int tamanoLote;
+
+    private final AtomicBoolean enCurso = new AtomicBoolean(false);
+
+    // Métricas de esta instancia desde el arranque
+    private final AtomicLong facturasEmitidas = new AtomicLong();
+    private final AtomicLong pdfsGenerados = new AtomicLong();
+    private final AtomicLong pdfsFallidos = new AtomicLong();
+    private final AtomicLong msEmision = new AtomicLong();
+    private final AtomicLong msPdf = new AtomicLong();
+
+    public FacturacionLoteService(JdbcTemplate jdbcTemplate,
+            FacturaService facturaService,
+            PdfService pdfService,
+            PedidoRepository pedidoRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${habilis.facturacion.lote:500}") int tamanoLote,
+            @Value("${habilis.facturacion.hilos-pdf:0}") int hilosPdf,
+            @Value("${habilis.facturacion.directorio-pdf:facturas}") String directorio) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.facturaService = facturaService;
+        this.pdfService = pdfService;
+        this.pedidoRepository = pedidoRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tamanoLote = tamanoLote;
+        this.directorio = Paths.get(directorio).toAbsolutePath();
+        this.renderizado = new ForkJoinPool(
+                hilosPdf > 0 ? hilosPdf : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void detener() {
+        renderizado.shutdown();
+    }
+
+    /**
+     * Lanzar la facturación de un periodo en segundo plano (panel de admin)
+     */
+    public void lanzar(String periodo) {
+        if (enCurso.get()) {
+            throw new RuntimeException("Ya hay una facturación por lotes en curso en esta instancia");
+        }
+
+        Thread hilo = new Thread(() -> {
+            try {
+                facturar(periodo);
+            } catch (RuntimeException e) {
+                log.error("Error en la facturación de suscripciones de {}: {}", periodo, e.getMessage());
+            }
+        }, "facturacion-lote-" + periodo);
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    /**
+     * Facturar todos los pedidos de suscripción pendientes de un periodo
+     * Puede ejecutarse a la vez en varias instancias (una vez por instancia)
+     *
+     * @param periodo Periodo 'YYYY-MM' de los pedidos
+     * @return Resumen de la ejecución
+     */
+    public Map<String, Object> facturar(String periodo) {
+        if (!enCurso.compareAndSet(false, true)) {
+            throw new RuntimeException("Ya hay una facturación por lotes en curso en esta instancia");
+        }
+
+        try {
+            int emitidas = emitirFacturas(periodo);
+            int pdfs = generarPdfs(periodo);
+
+            log.info("Facturación de suscripciones {}: {} facturas emitidas, {} PDFs generados",
+                    periodo, emitidas, pdfs);
+
+            Map<String, Object> resumen = progreso(periodo);
+            resumen.put("facturasEmitidas", emitidas);
+            resumen.put("pdfsGenerados", pdfs);
+            return resumen;
+        } finally {
+            enCurso.set(false);
+        }
+    }
+
+    /**
+     * Etapa 1: emitir las facturas de los pedidos sin factura, por lotes
+     */
+    public int emitirFacturas(String periodo) {
+        int total = 0;
+        while (true) {
+            long inicio = System.currentTimeMillis();
+            Integer emitidas = transactionTemplate.execute(status -> emitirLote(periodo));
+            msEmision.addAndGet(System.currentTimeMillis() - inicio);
+
+            if (emitidas == null || emitidas == 0) {
+                return total;
+            }
+            total += emitidas;
+            facturasEmitidas.addAndGet(emitidas);
+        }
+    }
+
+    /**
+     * Etapa 2: generar los PDFs de las facturas que no lo tienen, por lotes
+     * Las facturas cuyo PDF falla se saltan hasta la siguiente ejecución
+     */
+    public int generarPdfs(String periodo) {
+        int total = 0;
+        long[] desde = { 0L };
+        while (true) {
+            long inicio = System.currentTimeMillis();
+            long[] resultado = transactionTemplate.execute(status -> generarLotePdf(periodo, desde[0]));
+            msPdf.addAndGet(System.currentTimeMillis() - inicio);
+
+            if (resultado == null || resultado[0] == 0) {
+                return total;
+            }
+            total += (int) resultado[1];
+            desde[0] = resultado[2];
+        }
+    }
+
+    /**
+     * Pendientes de un periodo (en base de datos) y métricas de esta instancia
+     */
+    public Map<String, Object> progreso(String periodo) {
+        Map<String, Object> progreso = new HashMap<>();
+        jdbcTemplate.query(SQL_PENDIENTES, rs -> {
+            progreso.put("pendientesFacturar", rs.getLong(1));
+            progreso.put("pendientesPdf", rs.getLong(2));
+        }, periodo);
+        progreso.put("periodo", periodo);
+        progreso.put("enCurso", enCurso.get());
+        progreso.put("totalFacturasEmitidas", facturasEmitidas.get());
+        progreso.put("totalPdfsGenerados", pdfsGenerados.get());
+        progreso.put("totalPdfsFallidos", pdfsFallidos.get());
+        progreso.put("msEmision", msEmision.get());
+        progreso.put("msPdf", msPdf.get());
+        return progreso;
+    }
+
+    private int emitirLote(String periodo) {
+        List<Long> pedidos = jdbcTemplate.query(SQL_RECLAMAR_PEDIDOS,
+                (rs, i) -> rs.getLong(1), periodo, tamanoLote);
+        if (pedidos.isEmpty()) {
+            return 0;
+        }
+
+        // Un pedido facturado a la vez por otra vía (ON CONFLICT) no consume número
+        List<long[]> insertadas = jdbcTemplate.query(SQL_INSERTAR_FACTURAS,
+                (rs, i) -> new long[] { rs.getLong(1), rs.getLong(2) },
+                LocalDateTime.now(), pedidos.toArray(new Long[0]));
+        if (insertadas.isEmpty()) {
+            // Todos los pedidos reclamados ya tenían factura: el lote cuenta
+            // como trabajo hecho para que el bucle siga con los siguientes
+            return pedidos.size();
+        }
+
+        // Un bloque de códigos para las facturas insertadas, en orden de pedido
+        insertadas.sort(Comparator.comparingLong(fila -> fila[1]));
+        List<String> codigos = facturaService.generarCodigosFacturaEnTransaccion(insertadas.size());
+
+        Long[] ids = new Long[insertadas.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = insertadas.get(i)[0];
+        }
+        jdbcTemplate.update(SQL_ASIGNAR_CODIGOS, ids, codigos.toArray(new String[0]));
+
+        return insertadas.size();
+    }
+
+    /**
+     * @return [facturas reclamadas, PDFs generados, último ID de factura]
+     */
+    private long[] generarLotePdf(String periodo, long desde) {
+        List<Object[]> facturas = jdbcTemplate.query(SQL_RECLAMAR_SIN_PDF,
+                (rs, i) -> new Object[] { rs.getLong(1), rs.getLong(2), rs.getString(3) },
+                desde, periodo, tamanoLote);
+        if (facturas.isEmpty()) {
+            return new long[] { 0, 0, desde };
+        }
+
+        // Todo lo que usa el PDF se carga aquí: los hilos de renderizado no
+        // pueden usar la sesión de Hibernate de esta transacción
+        Map<Long, Pedido> pedidos = pedidoRepository
+                .findConDetallesByIdIn(facturas.stream().map(f -> (Long) f[1]).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(Pedido::getId, Function.identity()));
+
+        List<Object[]> rutas;
+        try {
+            rutas = renderizado.submit(() -> facturas.parallelStream()
+                    .map(f -> renderizar((Long) f[0], (String) f[2], pedidos.get((Long) f[1])))
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList()))
+                    .get();
+        } catch (Exception e) {
+            throw new RuntimeException("Error renderizando facturas: " + e.getMessage(), e);
+        }
+
+        if (!rutas.isEmpty()) {
+            jdbcTemplate.batchUpdate(SQL_GUARDAR_RUTA, rutas);
+        }
+
+        long ultimo = (Long) facturas.get(facturas.size() - 1)[0];
+        return new long[] { facturas.size(), rutas.size(), ultimo };
+    }
+
+    /**
+     * Renderiza y escribe el PDF de una factura
+     *
+     * @return [ruta, ID de factura] o null si falló
+     */
+    private Object[] renderizar(Long facturaId, String codigo, Pedido pedido) {
+        try {
+            byte[] pdf = pdfService.generarFacturaPedido(pedido);
+
+            // Subcarpeta por mes de emisión (FAC-YYYYMMDD-XXXXX)
+            Path carpeta = directorio.resolve(codigo.substring(4, 10));
+            Files.createDirectories(carpeta);
+
+            // Escritura atómica: nunca queda un PDF a medias con ruta guardada
+            Path destino = carpeta.resolve("factura_" + codigo + ".pdf");
+            Path temporal = carpeta.resolve("factura_" + codigo + ".pdf.tmp");
+            Files.write(temporal, pdf);
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            pdfsGenerados.incrementAndGet();
+            return new Object[] { destino.toString(), facturaId };
+        } catch (IOException | RuntimeException e) {
+            pdfsFallidos.incrementAndGet();
+            log.error("No se pudo generar el PDF de {}: {}", codigo, e.getMessage());
+            return null;
+        }
+    }
+}
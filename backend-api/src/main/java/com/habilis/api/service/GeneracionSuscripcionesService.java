@@ -0,0 +1,435 @@
+package com.habilis.api.service;
+
+import com.habilis.api.entity.EstadoPedido;
+import com.habilis.api.entity.ProgresoGeneracion;
+import com.habilis.api.entity.Producto;
+import com.habilis.api.repository.ProductoRepository;
+import com.habilis.api.repository.ProgresoGeneracionRepository;
+import com.habilis.api.repository.SuscripcionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Generación mensual de los pedidos de suscripción ("Misiones")
+ *
+ * Las suscripciones activas se reparten en rangos de usuario_id, uno por hilo.
+ * Cada hilo recorre su rango en lotes y, por lote y en una sola transacción:
+ * reserva los IDs de los pedidos con nextval, inserta pedidos y detalles con
+ * inserciones JDBC por lotes, descuenta el stock una vez por producto
+ * (devolviendo las unidades de los pedidos que ya existían) y guarda el punto
+ * de control de la partición con los pedidos realmente insertados. Si el proceso se interrumpe, volver a
+ * lanzarlo continúa donde se quedó cada partición.
+ *
+ * La generación es idempotente: un pedido por suscripción y periodo
+ * (uk_pedido_suscripcion_periodo). Las suscripciones que se quedan sin
+ * generar por falta de stock se recuperan relanzando el periodo con
+ * reiniciar = true cuando haya stock.
+ */
+@Service
+public class GeneracionSuscripcionesService {
+
+    private static final Logger log = LoggerFactory.getLogger(GeneracionSuscripcionesService.class);
+
+    private static final DateTimeFormatter FORMATO_PERIODO = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    private static final String SQL_LOTE = "SELECT s.id, s.usuario_id, s.categoria_id, s.fecha_inicio " +
+            "FROM suscripciones s " +
+            "WHERE s.estado = 'ACTIVA' AND s.usuario_id < ? " +
+            "AND (s.usuario_id, s.id) > (?, ?) " +
+            "AND s.fecha_inicio <= ? AND s.fecha_fin > ? " +
+            "AND NOT EXISTS (SELECT 1 FROM pedidos p WHERE p.suscripcion_id = s.id AND p.periodo = ?) " +
+            "ORDER BY s.usuario_id, s.id LIMIT ?";
+
+    // IDs de pedido por bloques, como los asigna Hibernate (pooled-lo): cada
+    // valor de la secuencia reserva [valor, valor + incremento)
+    private static final String SQL_BLOQUES_ID_PEDIDO =
+            "SELECT nextval('pedidos_id_seq') FROM generate_series(1, ?)";
+
+    private static final String SQL_INCREMENTO_ID_PEDIDO =
+            "SELECT increment_by FROM pg_sequences WHERE sequencename = 'pedidos_id_seq'";
+
+    // Con reWriteBatchedInserts el driver no devuelve filas afectadas por
+    // sentencia: los pedidos insertados se comprueban después
+    private static final String SQL_PEDIDOS_INSERTADOS = "SELECT id FROM pedidos WHERE id = ANY(?)";
+
+    private static final String SQL_INSERTAR_PEDIDO = "INSERT INTO pedidos " +
+            "(id, usuario_id, fecha_pedido, total_pedido, estado, version, suscripcion_id, periodo) " +
+            "VALUES (?, ?, ?, ?, 'PENDIENTE', 0, ?, ?) " +
+            "ON CONFLICT (suscripcion_id, periodo) DO NOTHING";
+
+    // Si el pedido ya existía (ON CONFLICT) no se inserta su detalle
+    private static final String SQL_INSERTAR_DETALLE = "INSERT INTO detalle_pedido " +
+            "(pedido_id, producto_id, cantidad, precio_unitario) " +
+            "SELECT ?, ?, 1, ? WHERE EXISTS (SELECT 1 FROM pedidos WHERE id = ?)";
+
+    private static final String SQL_PUNTO_CONTROL = "UPDATE progreso_generacion " +
+            "SET ultimo_usuario_id = ?, ultima_suscripcion_id = ?, " +
+            "pedidos_generados = pedidos_generados + ?, fecha_actualizacion = ? WHERE id = ?";
+
+    private static final String SQL_COMPLETAR = "UPDATE progreso_generacion " +
+            "SET completada = true, fecha_actualizacion = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SuscripcionRepository suscripcionRepository;
+    private final ProgresoGeneracionRepository progresoGeneracionRepository;
+    private final ProductoRepository productoRepository;
+    private final InventarioService inventarioService;
+    private final FacturacionLoteService facturacionLoteService;
+    private final EstadisticasUsuarioService estadisticasUsuarioService;
+    private final EventoPedidoService eventoPedidoService;
+    private final TransactionTemplate transactionTemplate;
+    private final int hilos;
+    private final int tamanoLote;
+
+    private final AtomicBoolean enCurso = new AtomicBoolean(false);
+
+    public GeneracionSuscripcionesService(JdbcTemplate jdbcTemplate,
+            SuscripcionRepository suscripcionRepository,
+            ProgresoGeneracionRepository progresoGeneracionRepository,
+            ProductoRepository productoRepository,
+            InventarioService inventarioService,
+            FacturacionLoteService facturacionLoteService,
+            EstadisticasUsuarioService estadisticasUsuarioService,
+            EventoPedidoService eventoPedidoService,
+            PlatformTransactionManager transactionManager,
+            @Value("${habilis.suscripciones.hilos:4}") int hilos,
+            @Value("${habilis.suscripciones.lote:1000}") int tamanoLote) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.suscripcionRepository = suscripcionRepository;
+        this.progresoGeneracionRepository = progresoGeneracionRepository;
+        this.productoRepository = productoRepository;
+        this.inventarioService = inventarioService;
+        this.facturacionLoteService = facturacionLoteService;
+        this.estadisticasUsuarioService = estadisticasUsuarioService;
+        this.eventoPedidoService = eventoPedidoService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.hilos = hilos;
+        this.tamanoLote = tamanoLote;
+    }
+
+    /**
+     * Generación automática el día 1 de cada mes, seguida de su facturación
+     */
+    @Scheduled(cron = "${habilis.suscripciones.cron:0 0 3 1 * *}")
+    public void generarMesActual() {
+        try {
+            YearMonth periodo = YearMonth.now();
+            generar(periodo, false);
+            facturacionLoteService.facturar(periodo.format(FORMATO_PERIODO));
+        } catch (RuntimeException e) {
+            log.error("Error en la generación mensual de suscripciones: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Lanzar la generación de un periodo en segundo plano (panel de admin)
+     * El avance se consulta con progreso(periodo)
+     */
+    public void lanzar(YearMonth periodo, boolean reiniciar) {
+        if (enCurso.get()) {
+            throw new RuntimeException("Ya hay una generación de suscripciones en curso");
+        }
+
+        Thread hilo = new Thread(() -> {
+            try {
+                generar(periodo, reiniciar);
+            } catch (RuntimeException e) {
+                log.error("Error en la generación de suscripciones de {}: {}", periodo, e.getMessage());
+            }
+        }, "generacion-suscripciones-" + periodo);
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    /**
+     * Generar los pedidos de un periodo
+     *
+     * @param periodo   Mes a generar
+     * @param reiniciar true para descartar los puntos de control y recorrer
+     *                  de nuevo todas las suscripciones (las que ya tienen
+     *                  pedido se saltan)
+     * @return Resumen de la ejecución
+     */
+    public Map<String, Object> generar(YearMonth periodo, boolean reiniciar) {
+        if (!enCurso.compareAndSet(false, true)) {
+            throw new RuntimeException("Ya hay una generación de suscripciones en curso");
+        }
+
+        try {
+            long inicio = System.currentTimeMillis();
+            String clave = periodo.format(FORMATO_PERIODO);
+
+            if (reiniciar) {
+                progresoGeneracionRepository.deleteAllInBatch(
+                        progresoGeneracionRepository.findByPeriodoOrderByParticion(clave));
+            }
+
+            List<ProgresoGeneracion> particiones = prepararParticiones(clave);
+            Map<Long, List<Producto>> kits = cargarKits();
+
+            List<ProgresoGeneracion> pendientes = particiones.stream()
+                    .filter(p -> !p.getCompletada())
+                    .collect(Collectors.toList());
+
+            int generados = 0;
+            if (!pendientes.isEmpty()) {
+                ExecutorService pool = Executors.newFixedThreadPool(pendientes.size());
+                try {
+                    List<Future<Integer>> resultados = new ArrayList<>();
+                    for (ProgresoGeneracion particion : pendientes) {
+                        resultados.add(pool.submit(() -> procesarParticion(particion, periodo, kits)));
+                    }
+                    for (Future<Integer> resultado : resultados) {
+                        generados += resultado.get();
+                    }
+                } catch (Exception e) {
+                    throw new RuntimeException("Generación de " + clave + " interrumpida: " + e.getMessage(), e);
+                } finally {
+                    pool.shutdownNow();
+                }
+            }
+
+            long segundos = (System.currentTimeMillis() - inicio) / 1000;
+            log.info("Pedidos de suscripción generados para {}: {} en {} s ({} particiones)",
+                    clave, generados, segundos, pendientes.size());
+
+            Map<String, Object> resumen = new HashMap<>();
+            resumen.put("periodo", clave);
+            resumen.put("particiones", particiones.size());
+            resumen.put("pedidosGenerados", generados);
+            resumen.put("segundos", segundos);
+            return resumen;
+        } finally {
+            enCurso.set(false);
+        }
+    }
+
+    /**
+     * Estado de las particiones de un periodo
+     */
+    public List<ProgresoGeneracion> progreso(YearMonth periodo) {
+        return progresoGeneracionRepository.findByPeriodoOrderByParticion(periodo.format(FORMATO_PERIODO));
+    }
+
+    /**
+     * Particiones del periodo: las existentes (reanudación) o unas nuevas que
+     * reparten en rangos iguales los usuario_id con suscripciones activas
+     */
+    private List<ProgresoGeneracion> prepararParticiones(String periodo) {
+        List<ProgresoGeneracion> existentes = progresoGeneracionRepository.findByPeriodoOrderByParticion(periodo);
+        if (!existentes.isEmpty()) {
+            return existentes;
+        }
+
+        Object[] rango = suscripcionRepository.rangoUsuariosActivos().get(0);
+        if (rango[0] == null) {
+            return existentes;
+        }
+
+        long minimo = ((Number) rango[0]).longValue();
+        long maximo = ((Number) rango[1]).longValue();
+        long ancho = Math.max(1, (maximo - minimo + hilos) / hilos);
+
+        List<ProgresoGeneracion> particiones = new ArrayList<>();
+        for (long desde = minimo, i = 0; desde <= maximo; desde += ancho, i++) {
+            particiones.add(new ProgresoGeneracion(periodo, (int) i, desde, Math.min(desde + ancho, maximo + 1)));
+        }
+        return progresoGeneracionRepository.saveAll(particiones);
+    }
+
+    /**
+     * Kits de cada línea de edad, en orden de ID: el mes N de una suscripción
+     * recibe el kit N (módulo el número de kits de su categoría)
+     */
+    private Map<Long, List<Producto>> cargarKits() {
+        return productoRepository.findAll().stream()
+                .sorted(Comparator.comparing(Producto::getId))
+                .collect(Collectors.groupingBy(p -> p.getCategoria().getId()));
+    }
+
+    private int procesarParticion(ProgresoGeneracion particion, YearMonth periodo, Map<Long, List<Producto>> kits) {
+        long ultimoUsuario = particion.getUltimoUsuarioId();
+        long ultimaSuscripcion = particion.getUltimaSuscripcionId();
+        int generados = 0;
+
+        while (true) {
+            long[] desde = { ultimoUsuario, ultimaSuscripcion };
+            ResultadoLote resultado = transactionTemplate.execute(
+                    status -> procesarLote(particion, periodo, kits, desde[0], desde[1]));
+            if (resultado == null || resultado.leidas == 0) {
+                return generados;
+            }
+
+            generados += resultado.generados;
+            ultimoUsuario = resultado.ultimoUsuario;
+            ultimaSuscripcion = resultado.ultimaSuscripcion;
+        }
+    }
+
+    private ResultadoLote procesarLote(ProgresoGeneracion particion, YearMonth periodo,
+            Map<Long, List<Producto>> kits, long desdeUsuario, long desdeSuscripcion) {
+        String clave = periodo.format(FORMATO_PERIODO);
+        LocalDateTime ahora = LocalDateTime.now();
+
+        List<long[]> filas = jdbcTemplate.query(SQL_LOTE,
+                (rs, i) -> new long[] {
+                        rs.getLong(1), rs.getLong(2), rs.getLong(3),
+                        YearMonth.from(rs.getObject(4, LocalDate.class)).until(periodo, ChronoUnit.MONTHS)
+                },
+                particion.getUsuarioHasta(), desdeUsuario, desdeSuscripcion,
+                periodo.atEndOfMonth(), periodo.atDay(1), clave, tamanoLote);
+
+        if (filas.isEmpty()) {
+            jdbcTemplate.update(SQL_COMPLETAR, ahora, particion.getId());
+            return new ResultadoLote(0, 0, desdeUsuario, desdeSuscripcion);
+        }
+
+        // Kit del mes de cada suscripción, agrupado por producto
+        Map<Producto, List<long[]>> porKit = new LinkedHashMap<>();
+        for (long[] fila : filas) {
+            List<Producto> kitsCategoria = kits.get(fila[2]);
+            if (kitsCategoria == null || kitsCategoria.isEmpty()) {
+                continue;
+            }
+            Producto kit = kitsCategoria.get((int) (fila[3] % kitsCategoria.size()));
+            porKit.computeIfAbsent(kit, k -> new ArrayList<>()).add(fila);
+        }
+
+        // Una venta por producto y lote; si no alcanza, lo que haya
+        List<Object[]> pedidos = new ArrayList<>();
+        List<Object[]> detalles = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+        int total = porKit.values().stream().mapToInt(List::size).sum();
+        if (total > 0) {
+            ids = reservarIdsPedido(total);
+        }
+
+        int siguiente = 0;
+        for (Map.Entry<Producto, List<long[]>> entrada : porKit.entrySet()) {
+            Producto kit = entrada.getKey();
+            int servibles = venderHasta(kit, entrada.getValue().size());
+
+            BigDecimal precio = kit.getPrecio();
+            for (long[] fila : entrada.getValue().subList(0, servibles)) {
+                Long pedidoId = ids.get(siguiente++);
+                pedidos.add(new Object[] { pedidoId, fila[1], ahora, precio, fila[0], clave });
+                detalles.add(new Object[] { pedidoId, kit.getId(), precio, pedidoId });
+            }
+        }
+
+        List<Long> creados = new ArrayList<>();
+        if (!pedidos.isEmpty()) {
+            jdbcTemplate.batchUpdate(SQL_INSERTAR_PEDIDO, pedidos);
+            jdbcTemplate.batchUpdate(SQL_INSERTAR_DETALLE, detalles);
+
+            // Estadísticas y eventos de creación, solo de los pedidos realmente insertados
+            Set<Long> insertados = new HashSet<>(jdbcTemplate.queryForList(SQL_PEDIDOS_INSERTADOS, Long.class,
+                    (Object) ids.subList(0, siguiente).toArray(new Long[0])));
+            Map<Long, Object[]> porUsuario = new HashMap<>();
+            Map<Long, Integer> sinInsertar = new HashMap<>();
+            for (int i = 0; i < pedidos.size(); i++) {
+                Object[] pedido = pedidos.get(i);
+                if (!insertados.contains((Long) pedido[0])) {
+                    // La suscripción ya tenía pedido del periodo (ON CONFLICT): su kit no se envía
+                    sinInsertar.merge((Long) detalles.get(i)[1], 1, Integer::sum);
+                    continue;
+                }
+                creados.add((Long) pedido[0]);
+                Object[] resumen = porUsuario.computeIfAbsent((Long) pedido[1],
+                        u -> new Object[] { 0, BigDecimal.ZERO, ahora });
+                resumen[0] = (Integer) resumen[0] + 1;
+                resumen[1] = ((BigDecimal) resumen[1]).add((BigDecimal) pedido[3]);
+            }
+            estadisticasUsuarioService.registrarPedidos(porUsuario);
+            eventoPedidoService.registrar(creados, null, EstadoPedido.PENDIENTE.name());
+
+            // Devolver las unidades vendidas para pedidos que no se han insertado
+            sinInsertar.forEach((kitId, unidades) ->
+                    inventarioService.reponer(kitId, unidades, "CANCELACION", null));
+        }
+
+        // Punto de control en la misma transacción que los pedidos
+        long[] ultima = filas.get(filas.size() - 1);
+        jdbcTemplate.update(SQL_PUNTO_CONTROL, ultima[1], ultima[0], creados.size(), ahora, particion.getId());
+
+        return new ResultadoLote(filas.size(), creados.size(), ultima[1], ultima[0]);
+    }
+
+    /**
+     * Reserva 'cantidad' IDs de pedido con un nextval por bloque
+     */
+    private List<Long> reservarIdsPedido(int cantidad) {
+        Long incremento = jdbcTemplate.queryForObject(SQL_INCREMENTO_ID_PEDIDO, Long.class);
+        long tamanoBloque = incremento != null && incremento > 0 ? incremento : 1;
+        int bloques = (int) ((cantidad + tamanoBloque - 1) / tamanoBloque);
+
+        List<Long> ids = new ArrayList<>(cantidad);
+        for (Long inicio : jdbcTemplate.queryForList(SQL_BLOQUES_ID_PEDIDO, Long.class, bloques)) {
+            for (long id = inicio; id < inicio + tamanoBloque && ids.size() < cantidad; id++) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Descuenta hasta 'cantidad' unidades de un kit
+     *
+     * @return Unidades realmente descontadas
+     */
+    private int venderHasta(Producto kit, int cantidad) {
+        if (inventarioService.vender(kit.getId(), cantidad, null)) {
+            return cantidad;
+        }
+
+        int disponible = (int) Math.max(0, Math.min(cantidad, inventarioService.disponible(kit.getId())));
+        if (disponible > 0 && inventarioService.vender(kit.getId(), disponible, null)) {
+            log.warn("Stock insuficiente de {}: {} envíos de suscripción sin generar",
+                    kit.getNombre(), cantidad - disponible);
+            return disponible;
+        }
+
+        log.warn("Sin stock de {}: {} envíos de suscripción sin generar", kit.getNombre(), cantidad);
+        return 0;
+    }
+
+    private static final class ResultadoLote {
+        private final int leidas;
+        private final int generados;
+        private final long ultimoUsuario;
+        private final long ultimaSuscripcion;
+
+        ResultadoLote(int leidas, int generados, long ultimoUsuario, long ultimaSuscripcion) {
+            this.leidas = leidas;
+            this.generados = generados;
+            this.ultimoUsuario = ultimoUsuario;
+            this.ultimaSuscripcion = ultimaSuscripcion;
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package com.habilis.api.service;
+
+import com.habilis.api.config.EnrutadorDataSource;
+import com.habilis.api.entity.MovimientoStock;
+import com.habilis.api.repository.MovimientoStockRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Motor de inventario en memoria
+ *
+ * El stock disponible de cada producto (stock - reservas activas) vive en un
+ * contador repartido en celdas atómicas, de forma que miles de checkouts
+ * concurrentes sobre el mismo producto no se serializan en el bloqueo de la
+ * fila de 'productos'. Cada cambio del stock comprometido se anota en el
+ * diario 'movimientos_stock' dentro de la transacción del pedido, y una tarea
+ * periódica vuelca a productos.stock los deltas agregados por producto.
+ *
+ * Reglas para que el contador y la base de datos no diverjan:
+ * - Las bajadas se aplican al contador en el momento y se deshacen si la
+ *   transacción hace rollback
+ * - Las subidas se aplican al contador solo después del commit
+ *
+ * Los contadores son locales a la JVM: con varias instancias de la API
+ * cada una vendería sobre su propia copia del stock.
+ */
+@Service
+public class InventarioService {
+
+    private static final Logger log = LoggerFactory.getLogger(InventarioService.class);
+
+    private final MovimientoStockRepository movimientoStockRepository;
+    private final TransactionTemplate lecturaIndependiente;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanoLote;
+    private final Counter aciertos;
+    private final Counter fallos;
+
+    private final Map<Long, ContadorStock> contadores = new ConcurrentHashMap<>();
+
+    public InventarioService(MovimientoStockRepository movimientoStockRepository,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${habilis.inventario.lote-volcado:5000}") int tamanoLote) {
+        this.movimientoStockRepository = movimientoStockRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tamanoLote = tamanoLote;
+
+        // Los contadores se cargan siempre con lo ya confirmado, nunca con
+        // los cambios sin commit de la transacción que los pide, y siempre de
+        // la primaria (enPrimaria): una réplica atrasada vendería stock que
+        // ya no existe
+        this.lecturaIndependiente = new TransactionTemplate(transactionManager);
+        this.lecturaIndependiente.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.lecturaIndependiente.setReadOnly(true);
+
+        this.aciertos = meterRegistry.counter("habilis.cache.accesos", "cache", "inventario", "resultado", "acierto");
+        this.fallos = meterRegistry.counter("habilis.cache.accesos", "cache", "inventario", "resultado", "fallo");
+        meterRegistry.gaugeMapSize("habilis.cache.entradas", Tags.of("cache", "inventario"), contadores);
+    }
+
+    /**
+     * Cargar los contadores de todos los productos al arrancar
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void precargar() {
+        try {
+            List<Object[]> filas = EnrutadorDataSource.enPrimaria(() -> lecturaIndependiente.execute(
+                    status -> movimientoStockRepository.stockDisponible(null)));
+            for (Object[] fila : filas) {
+                Long productoId = ((Number) fila[0]).longValue();
+                contadores.putIfAbsent(productoId, new ContadorStock(((Number) fila[1]).longValue()));
+            }
+            log.info("Inventario cargado en memoria: {} productos", contadores.size());
+        } catch (Exception e) {
+            log.warn("No se pudo precargar el inventario (se cargará bajo demanda): {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Stock disponible ahora mismo (descontadas las reservas activas)
+     */
+    public long disponible(Long productoId) {
+        return contador(productoId).total();
+    }
+
+    /**
+     * Stock comprometido (volcado + movimientos pendientes), sin descontar
+     * las reservas: el valor que fija ajustar
+     */
+    public long comprometido(Long productoId) {
+        Long comprometido = movimientoStockRepository.stockComprometido(productoId);
+        if (comprometido == null) {
+            throw new RuntimeException("Producto no encontrado con ID: " + productoId);
+        }
+        return comprometido;
+    }
+
+    /**
+     * Retener unidades para una reserva de checkout
+     * No cambia el stock comprometido, así que no se anota en el diario
+     *
+     * @return false si no hay stock disponible suficiente
+     */
+    public boolean reservar(Long productoId, int cantidad) {
+        return descontar(productoId, cantidad);
+    }
+
+    /**
+     * Devolver al disponible unidades de una reserva liberada o caducada
+     */
+    public void liberar(Long productoId, int cantidad) {
+        sumarTrasCommit(productoId, cantidad);
+    }
+
+    /**
+     * Vender unidades no reservadas
+     *
+     * @return false si no hay stock disponible suficiente
+     */
+    public boolean vender(Long productoId, int cantidad, Long pedidoId) {
+        if (!descontar(productoId, cantidad)) {
+            return false;
+        }
+        anotar(productoId, -cantidad, "VENTA", pedidoId);
+        return true;
+    }
+
+    /**
+     * Vender unidades que ya estaban reservadas
+     * El disponible ya se descontó al reservar; solo baja el stock comprometido
+     */
+    public void venderReservado(Long productoId, int cantidad, Long pedidoId) {
+        anotar(productoId, -cantidad, "VENTA", pedidoId);
+    }
+
+    /**
+     * Devolver unidades al stock (cancelaciones, devoluciones, reposiciones)
+     */
+    public void reponer(Long productoId, int cantidad, String motivo, Long pedidoId) {
+        anotar(productoId, cantidad, motivo, pedidoId);
+        sumarTrasCommit(productoId, cantidad);
+    }
+
+    /**
+     * Fijar el stock comprometido de un producto (edición desde el panel)
+     * Se anota la diferencia con el stock actual como un movimiento de ajuste
+     */
+    public void ajustar(Long productoId, int nuevoStock) {
+        int delta = nuevoStock - (int) comprometido(productoId);
+        if (delta == 0) {
+            return;
+        }
+
+        if (delta < 0) {
+            // Un ajuste a la baja no espera al commit: se retira ya del
+            // disponible (puede quedar negativo) y se devuelve si hay rollback
+            ContadorStock contador = contador(productoId);
+            contador.sumar(delta);
+            alCompletar(productoId, () -> contador.sumar(-delta), false);
+        } else {
+            sumarTrasCommit(productoId, delta);
+        }
+        anotar(productoId, delta, "AJUSTE", null);
+    }
+
+    /**
+     * Olvidar el contador de un producto eliminado (tras el commit)
+     */
+    public void olvidar(Long productoId) {
+        alCompletar(productoId, () -> contadores.remove(productoId), true);
+    }
+
+    /**
+     * Volcado periódico del diario a productos.stock
+     * Un UPDATE por producto y lote, en transacciones cortas e independientes
+     */
+    @Scheduled(fixedDelayString = "${habilis.inventario.volcado-ms:2000}")
+    public void volcarMovimientos() {
+        try {
+            // Tope de lotes por pasada para no acaparar el planificador
+            for (int i = 0; i < 100; i++) {
+                Integer productos = transactionTemplate.execute(
+                        status -> movimientoStockRepository.aplicarPendientes(tamanoLote));
+                if (productos == null || productos == 0) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.error("Error al volcar movimientos de stock: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Bajar el disponible si alcanza, deshaciéndolo si la transacción no
+     * llega a confirmarse
+     */
+    private boolean descontar(Long productoId, int cantidad) {
+        ContadorStock contador = contador(productoId);
+        if (!contador.descontarSiAlcanza(cantidad)) {
+            return false;
+        }
+        alCompletar(productoId, () -> contador.sumar(cantidad), false);
+        return true;
+    }
+
+    private void sumarTrasCommit(Long productoId, int cantidad) {
+        // Se carga antes del commit para que la carga no incluya ya esta subida
+        ContadorStock contador = contador(productoId);
+        alCompletar(productoId, () -> contador.sumar(cantidad), true);
+    }
+
+    private void anotar(Long productoId, int delta, String motivo, Long pedidoId) {
+        movimientoStockRepository.save(new MovimientoStock(productoId, delta, motivo, pedidoId));
+    }
+
+    /**
+     * Ejecuta una acción tras el commit (trasCommit = true) o tras un
+     * rollback (trasCommit = false) de la transacción actual
+     */
+    private void alCompletar(Long productoId, Runnable accion, boolean trasCommit) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException(
+                    "Los movimientos de stock del producto " + productoId + " requieren una transacción activa");
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if ((status == STATUS_COMMITTED) == trasCommit) {
+                    accion.run();
+                }
+            }
+        });
+    }
+
+    private ContadorStock contador(Long productoId) {
+        ContadorStock contador = contadores.get(productoId);
+        if (contador != null) {
+            aciertos.increment();
+            return contador;
+        }
+
+        fallos.increment();
+
+        // La lectura se hace fuera del mapa: dentro de computeIfAbsent la
+        // consulta (y la espera de una conexión) bloquearía a todos los
+        // productos que caen en la misma celda del ConcurrentHashMap. Si
+        // otro hilo carga el mismo producto a la vez gana el primero que
+        // lo publica y la otra carga se descarta
+        List<Object[]> filas = EnrutadorDataSource.enPrimaria(() -> lecturaIndependiente.execute(
+                status -> movimientoStockRepository.stockDisponible(productoId)));
+        if (filas == null || filas.isEmpty()) {
+            throw new RuntimeException("Producto no encontrado con ID: " + productoId);
+        }
+        ContadorStock cargado = new ContadorStock(((Number) filas.get(0)[1]).longValue());
+        ContadorStock existente = contadores.putIfAbsent(productoId, cargado);
+        return existente != null ? existente : cargado;
+    }
+
+    /**
+     * Contador repartido en celdas atómicas
+     *
+     * Cada hilo descuenta de su celda con CAS; si su celda no alcanza prueba
+     * las demás y, como último recurso, junta todas las celdas bajo un cerrojo.
+     * Las subidas también pasan por el cerrojo, que vuelve a repartir el total:
+     * así una celda solo es negativa si el total lo es, y el camino rápido
+     * nunca vende más de lo que hay.
+     */
+    private static final class ContadorStock {
+
+        // 8 longs = 64 bytes: cada celda en su propia línea de caché
+        private static final int SEPARACION = 8;
+        private static final int CELDAS = celdas();
+
+        private final AtomicLongArray valores = new AtomicLongArray(CELDAS * SEPARACION);
+
+        ContadorStock(long inicial) {
+            repartir(inicial);
+        }
+
+        long total() {
+            long total = 0;
+            for (int i = 0; i < CELDAS; i++) {
+                total += valores.get(i * SEPARACION);
+            }
+            return total;
+        }
+
+        boolean descontarSiAlcanza(int cantidad) {
+            int propia = celdaDelHilo();
+            for (int i = 0; i < CELDAS; i++) {
+                int indice = ((propia + i) & (CELDAS - 1)) * SEPARACION;
+                long actual = valores.get(indice);
+                while (actual >= cantidad) {
+                    if (valores.compareAndSet(indice, actual, actual - cantidad)) {
+                        return true;
+                    }
+                    actual = valores.get(indice);
+                }
+            }
+
+            // Hay stock repartido entre celdas pero ninguna alcanza sola
+            synchronized (this) {
+                long total = recoger();
+                if (total < cantidad) {
+                    repartir(total);
+                    return false;
+                }
+                repartir(total - cantidad);
+                return true;
+            }
+        }
+
+        synchronized void sumar(long delta) {
+            repartir(recoger() + delta);
+        }
+
+        private long recoger() {
+            long total = 0;
+            for (int i = 0; i < CELDAS; i++) {
+                total += valores.getAndSet(i * SEPARACION, 0);
+            }
+            return total;
+        }
+
+        private void repartir(long total) {
+            if (total <= 0) {
+                valores.addAndGet(0, total);
+                return;
+            }
+            long porCelda = total / CELDAS;
+            long resto = total % CELDAS;
+            for (int i = 0; i < CELDAS; i++) {
+                valores.addAndGet(i * SEPARACION, porCelda + (i < resto ? 1 : 0));
+            }
+        }
+
+        private static int celdaDelHilo() {
+            long h = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+            return (int) (h >>> 32) & (CELDAS - 1);
+        }
+
+        private static int celdas() {
+            int procesadores = Runtime.getRuntime().availableProcessors();
+            return Math.min(64, Integer.highestOneBit(Math.max(1, procesadores - 1)) << 1);
+        }
+    }
+}
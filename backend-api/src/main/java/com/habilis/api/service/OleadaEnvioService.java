@@ -0,0 +1,186 @@
+package com.habilis.api.service;
+
+import com.habilis.api.config.LecturaReplica;
+import com.habilis.api.dto.LineaPreparacion;
+import com.habilis.api.entity.Categoria;
+import com.habilis.api.entity.EstadoPedido;
+import com.habilis.api.entity.OleadaEnvio;
+import com.habilis.api.repository.CategoriaRepository;
+import com.habilis.api.repository.OleadaEnvioRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Servicio de oleadas de envío
+ *
+ * En lugar de pasar los pedidos a ENVIADO uno a uno, el almacén agrupa los
+ * pendientes en una oleada, prepara la mercancía con una lista de unidades por
+ * producto y envía la oleada entera con un único UPDATE. Los hooks de
+ * transición (eventos de la bandeja de salida...) se ejecutan una sola vez
+ * para todos los pedidos enviados.
+ */
+@Service
+@Transactional
+public class OleadaEnvioService {
+
+    private static final Logger log = LoggerFactory.getLogger(OleadaEnvioService.class);
+
+    private static final String SQL_ASIGNAR = "UPDATE pedidos SET oleada_id = ? WHERE id IN (" +
+            "SELECT p.id FROM pedidos p " +
+            "WHERE p.estado = 'PENDIENTE' AND p.oleada_id IS NULL " +
+            "AND p.fecha_pedido >= ? AND p.fecha_pedido < ? " +
+            "AND (CAST(? AS BIGINT) IS NULL OR EXISTS (" +
+            "    SELECT 1 FROM detalle_pedido d JOIN productos pr ON pr.id = d.producto_id " +
+            "    WHERE d.pedido_id = p.id AND pr.categoria_id = ?)) " +
+            "ORDER BY p.fecha_pedido, p.id LIMIT ? FOR UPDATE SKIP LOCKED)";
+
+    // Una sola agregación: unidades por producto de toda la oleada
+    private static final String SQL_LISTA_PREPARACION = "SELECT d.producto_id, pr.nombre, c.nombre, " +
+            "SUM(d.cantidad), COUNT(DISTINCT d.pedido_id) " +
+            "FROM detalle_pedido d " +
+            "JOIN pedidos p ON p.id = d.pedido_id " +
+            "JOIN productos pr ON pr.id = d.producto_id " +
+            "JOIN categorias c ON c.id = pr.categoria_id " +
+            "WHERE p.oleada_id = ? AND p.estado = 'PENDIENTE' " +
+            "GROUP BY d.producto_id, pr.nombre, c.nombre " +
+            "ORDER BY c.nombre, pr.nombre";
+
+    private static final String SQL_ENVIAR = "UPDATE pedidos SET estado = 'ENVIADO', version = version + 1 " +
+            "WHERE oleada_id = ? AND estado = 'PENDIENTE' RETURNING id";
+
+    private static final String SQL_LIBERAR = "UPDATE pedidos SET oleada_id = NULL " +
+            "WHERE oleada_id = ? AND estado = 'PENDIENTE'";
+
+    // Pedidos máximos por oleada si no se indica un límite
+    private static final int LIMITE_POR_DEFECTO = 5000;
+
+    private final OleadaEnvioRepository oleadaEnvioRepository;
+    private final CategoriaRepository categoriaRepository;
+    private final TransicionPedidoService transicionPedidoService;
+    private final JdbcTemplate jdbcTemplate;
+
+    public OleadaEnvioService(OleadaEnvioRepository oleadaEnvioRepository,
+            CategoriaRepository categoriaRepository,
+            TransicionPedidoService transicionPedidoService,
+            JdbcTemplate jdbcTemplate) {
+        this.oleadaEnvioRepository = oleadaEnvioRepository;
+        this.categoriaRepository = categoriaRepository;
+        this.transicionPedidoService = transicionPedidoService;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Crear una oleada con los pedidos pendientes que cumplen los filtros
+     * Los pedidos que ya están en otra oleada (o bloqueados por otra creación
+     * en curso) no se incluyen
+     *
+     * @param fechaDesde  Pedidos desde esta fecha (opcional)
+     * @param fechaHasta  Pedidos anteriores a esta fecha (opcional)
+     * @param categoriaId Solo pedidos con algún producto de esta categoría (opcional)
+     * @param limite      Pedidos máximos (opcional)
+     */
+    public OleadaEnvio crear(LocalDateTime fechaDesde, LocalDateTime fechaHasta, Long categoriaId, Integer limite) {
+        Categoria categoria = null;
+        if (categoriaId != null) {
+            categoria = categoriaRepository.findById(categoriaId)
+                    .orElseThrow(() -> new RuntimeException("Categoría no encontrada con ID: " + categoriaId));
+        }
+
+        if (limite != null && limite <= 0) {
+            throw new RuntimeException("El límite de pedidos debe ser mayor que 0");
+        }
+
+        OleadaEnvio oleada = oleadaEnvioRepository.saveAndFlush(new OleadaEnvio(fechaDesde, fechaHasta, categoria));
+
+        int asignados = jdbcTemplate.update(SQL_ASIGNAR,
+                oleada.getId(),
+                fechaDesde != null ? fechaDesde : LocalDateTime.of(1970, 1, 1, 0, 0),
+                fechaHasta != null ? fechaHasta : LocalDateTime.now().plusYears(100),
+                categoriaId, categoriaId,
+                limite != null ? limite : LIMITE_POR_DEFECTO);
+
+        if (asignados == 0) {
+            throw new RuntimeException("No hay pedidos pendientes que cumplan los filtros");
+        }
+
+        oleada.setNumeroPedidos(asignados);
+        log.info("Oleada de envío #{} creada con {} pedidos", oleada.getId(), asignados);
+        return oleada;
+    }
+
+    /**
+     * Listar oleadas (más recientes primero)
+     */
+    @Transactional(readOnly = true)
+    @LecturaReplica
+    public List<OleadaEnvio> listarTodas() {
+        return oleadaEnvioRepository.findAllByOrderByFechaCreacionDesc();
+    }
+
+    /**
+     * Buscar oleada por ID
+     */
+    @Transactional(readOnly = true)
+    public OleadaEnvio buscarPorId(Long id) {
+        return oleadaEnvioRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Oleada de envío no encontrada con ID: " + id));
+    }
+
+    /**
+     * Lista de preparación de una oleada: unidades a recoger por producto
+     * Solo cuenta los pedidos que siguen pendientes (no los cancelados)
+     */
+    @Transactional(readOnly = true)
+    public List<LineaPreparacion> listaPreparacion(Long id) {
+        buscarPorId(id);
+        return jdbcTemplate.query(SQL_LISTA_PREPARACION,
+                (rs, i) -> new LineaPreparacion(rs.getLong(1), rs.getString(2), rs.getString(3),
+                        rs.getLong(4), rs.getLong(5)),
+                id);
+    }
+
+    /**
+     * Enviar una oleada: todos sus pedidos pendientes pasan a ENVIADO con un
+     * solo UPDATE y los hooks de transición se ejecutan en la misma transacción
+     */
+    public OleadaEnvio enviar(Long id) {
+        OleadaEnvio oleada = buscarEnPreparacion(id);
+
+        List<Long> enviados = new ArrayList<>(jdbcTemplate.queryForList(SQL_ENVIAR, Long.class, id));
+        transicionPedidoService.ejecutarHooks(enviados, EstadoPedido.PENDIENTE, EstadoPedido.ENVIADO);
+
+        oleada.setEstado("ENVIADA");
+        oleada.setPedidosEnviados(enviados.size());
+        oleada.setFechaEnvio(LocalDateTime.now());
+
+        log.info("Oleada de envío #{} enviada: {} pedidos", id, enviados.size());
+        return oleadaEnvioRepository.save(oleada);
+    }
+
+    /**
+     * Anular una oleada en preparación: sus pedidos vuelven a estar libres
+     */
+    public OleadaEnvio anular(Long id) {
+        OleadaEnvio oleada = buscarEnPreparacion(id);
+
+        jdbcTemplate.update(SQL_LIBERAR, id);
+        oleada.setEstado("ANULADA");
+        return oleadaEnvioRepository.save(oleada);
+    }
+
+    private OleadaEnvio buscarEnPreparacion(Long id) {
+        OleadaEnvio oleada = oleadaEnvioRepository.findConBloqueoById(id)
+                .orElseThrow(() -> new RuntimeException("Oleada de envío no encontrada con ID: " + id));
+        if (!"PREPARACION".equals(oleada.getEstado())) {
+            throw new RuntimeException("La oleada ya está " + oleada.getEstado().toLowerCase());
+        }
+        return oleada;
+    }
+}
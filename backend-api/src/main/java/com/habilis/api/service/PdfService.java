@@ -1,5 +1,7 @@
 package com.habilis.api.service;
 
+import com.habilis.api.config.Tramo;
+import com.habilis.api.config.Trazas;
 import com.habilis.api.entity.DetallePedido;
 import com.habilis.api.entity.Pedido;
 import com.habilis.api.repository.PedidoRepository;
@@ -14,6 +16,9 @@ import com.itextpdf.layout.element.Paragraph;
 import com.itextpdf.layout.element.Table;
 import com.itextpdf.layout.properties.TextAlignment;
 import com.itextpdf.layout.properties.UnitValue;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -26,9 +31,14 @@ import java.time.format.DateTimeFormatter;
 @Service
 public class PdfService {
 
+        private static final Logger log = LoggerFactory.getLogger(PdfService.class);
+
         @Autowired
         private PedidoRepository pedidoRepository;
 
+        @Autowired
+        private MeterRegistry meterRegistry;
+
         /**
          * Generar factura en PDF para un pedido
          * 
@@ -36,8 +46,29 @@ public class PdfService {
          * @return byte[] con el PDF generado
          */
         public byte[] generarFacturaPedido(Long pedidoId) {
-                Pedido pedido = pedidoRepository.findById(pedidoId)
-                                .orElseThrow(() -> new RuntimeException("Pedido no encontrado"));
+                try (Tramo tramo = Trazas.tramo("PdfService.generarFacturaPedido")) {
+                        tramo.atributo("pedido", pedidoId);
+                        Pedido pedido = pedidoRepository.findParaFacturaById(pedidoId)
+                                        .orElseThrow(() -> new RuntimeException("Pedido no encontrado"));
+
+                        return generarFacturaPedido(pedido);
+                }
+        }
+
+        /**
+         * Generar factura en PDF para un pedido ya cargado
+         * El pedido debe traer cargados usuario, detalles y productos: la
+         * facturación por lotes renderiza desde varios hilos sin sesión
+         * 
+         * @param pedido Pedido con sus detalles
+         * @return byte[] con el PDF generado
+         */
+        public byte[] generarFacturaPedido(Pedido pedido) {
+                return meterRegistry.timer("habilis.pdf.factura").record(() -> renderizarFactura(pedido));
+        }
+
+        private byte[] renderizarFactura(Pedido pedido) {
+                Long pedidoId = pedido.getId();
 
                 try {
                         ByteArrayOutputStream baos = new ByteArrayOutputStream();
@@ -215,12 +246,12 @@ public class PdfService {
 
                         document.close();
 
-                        System.out.println("✅ PDF generado para pedido #" + pedidoId + " (" + baos.size() + " bytes)");
+                        log.debug("PDF generado para pedido #{} ({} bytes)", pedidoId, baos.size());
 
                         return baos.toByteArray();
 
                 } catch (Exception e) {
-                        System.err.println("❌ Error generando PDF: " + e.getMessage());
+                        log.error("Error generando PDF: {}", e.getMessage());
                         throw new RuntimeException("Error generando PDF de factura", e);
                 }
         }
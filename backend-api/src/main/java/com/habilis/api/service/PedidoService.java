@@ -1,44 +1,63 @@
 package com.habilis.api.service;
 
+import com.habilis.api.config.Tramo;
+import com.habilis.api.config.Trazas;
 import com.habilis.api.dto.ItemPedidoRequest;
 import com.habilis.api.entity.DetallePedido;
+import com.habilis.api.entity.EstadoPedido;
 import com.habilis.api.entity.Pedido;
 import com.habilis.api.entity.Producto;
 import com.habilis.api.entity.Usuario;
-import com.habilis.api.repository.DetallePedidoRepository;
 import com.habilis.api.repository.PedidoRepository;
-import com.habilis.api.repository.ProductoRepository;
 import com.habilis.api.repository.UsuarioRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.Hibernate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Servicio para gestionar pedidos y carrito de compra
+ * Servicio para gestionar pedidos: creación y cambios de estado
+ * Las consultas y la valoración del carrito están en ConsultaPedidoService
  */
 @Service
 @Transactional
 public class PedidoService {
 
     private final PedidoRepository pedidoRepository;
-    private final DetallePedidoRepository detallePedidoRepository;
     private final UsuarioRepository usuarioRepository;
-    private final ProductoRepository productoRepository;
+    private final ConsultaPedidoService consultaPedidoService;
+    private final ReservaStockService reservaStockService;
+    private final InventarioService inventarioService;
+    private final TransicionPedidoService transicionPedidoService;
+    private final EstadisticasUsuarioService estadisticasUsuarioService;
+    private final EventoPedidoService eventoPedidoService;
+    private final MeterRegistry meterRegistry;
 
     public PedidoService(PedidoRepository pedidoRepository,
-            DetallePedidoRepository detallePedidoRepository,
             UsuarioRepository usuarioRepository,
-            ProductoRepository productoRepository) {
+            ConsultaPedidoService consultaPedidoService,
+            ReservaStockService reservaStockService,
+            InventarioService inventarioService,
+            TransicionPedidoService transicionPedidoService,
+            EstadisticasUsuarioService estadisticasUsuarioService,
+            EventoPedidoService eventoPedidoService,
+            MeterRegistry meterRegistry) {
         this.pedidoRepository = pedidoRepository;
-        this.detallePedidoRepository = detallePedidoRepository;
         this.usuarioRepository = usuarioRepository;
-        this.productoRepository = productoRepository;
+        this.consultaPedidoService = consultaPedidoService;
+        this.reservaStockService = reservaStockService;
+        this.inventarioService = inventarioService;
+        this.transicionPedidoService = transicionPedidoService;
+        this.estadisticasUsuarioService = estadisticasUsuarioService;
+        this.eventoPedidoService = eventoPedidoService;
+        this.meterRegistry = meterRegistry;
     }
 
     /**
@@ -49,6 +68,27 @@ public class PedidoService {
      * - Guarda precio histórico en detalle_pedido
      */
     public Pedido crearPedido(Long usuarioId, List<ItemPedidoRequest> items) {
+        return crearPedido(usuarioId, items, null);
+    }
+
+    /**
+     * Crear un nuevo pedido usando los precios de una cotización firmada
+     * Si preciosCotizados es null se usa el precio actual de cada producto
+     * El stock se verifica siempre, aunque exista cotización
+     * Las unidades que el usuario tenga reservadas se consumen primero y el
+     * resto se descuenta del stock disponible de InventarioService
+     */
+    public Pedido crearPedido(Long usuarioId, List<ItemPedidoRequest> items,
+            Map<Long, BigDecimal> preciosCotizados) {
+        try (Tramo tramo = Trazas.tramo("PedidoService.crearPedido")) {
+            tramo.atributo("items", items != null ? items.size() : 0);
+            return crear(usuarioId, items, preciosCotizados);
+        }
+    }
+
+    private Pedido crear(Long usuarioId, List<ItemPedidoRequest> items, Map<Long, BigDecimal> preciosCotizados) {
+        long inicio = System.nanoTime();
+
         // Verificar que el usuario existe
         Usuario usuario = usuarioRepository.findById(usuarioId)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado con ID: " + usuarioId));
@@ -58,15 +98,74 @@ public class PedidoService {
             throw new RuntimeException("El carrito está vacío");
         }
 
-        // Crear el pedido
+        // Cargar todos los productos del carrito en una sola consulta
+        Map<Long, Producto> productos = consultaPedidoService.cargarProductos(items);
+        inicio = medirEtapa("carga", inicio);
+
+        Pedido pedido = registrarPedido(usuario, items, productos, preciosCotizados);
+        inicio = medirEtapa("registro", inicio);
+
+        // Reservas de checkout del usuario (unidades ya retenidas por producto)
+        Map<Long, Integer> reservado = reservaStockService.consumir(usuarioId);
+
+        for (ItemPedidoRequest item : items) {
+            Producto producto = productos.get(item.getProductoId());
+
+            // Reducir stock: primero lo reservado, después lo disponible
+            int deReserva = Math.min(reservado.getOrDefault(producto.getId(), 0), item.getCantidad());
+            int sinReserva = item.getCantidad() - deReserva;
+            reservado.computeIfPresent(producto.getId(), (id, cantidad) -> cantidad - deReserva);
+
+            if (sinReserva > 0 && !inventarioService.vender(producto.getId(), sinReserva, pedido.getId())) {
+                throw new RuntimeException(
+                        "Stock insuficiente para " + producto.getNombre() +
+                                ". Disponible: " + inventarioService.disponible(producto.getId()) +
+                                ", solicitado: " + item.getCantidad());
+            }
+            if (deReserva > 0) {
+                inventarioService.venderReservado(producto.getId(), deReserva, pedido.getId());
+            }
+        }
+
+        // Devolver al disponible lo reservado que no se ha pedido
+        reservado.forEach((productoId, cantidad) -> {
+            if (cantidad > 0) {
+                inventarioService.liberar(productoId, cantidad);
+            }
+        });
+        medirEtapa("stock", inicio);
+
+        return pedido;
+    }
+
+    /**
+     * Registrar la duración de una etapa de crearPedido
+     * (habilis.pedido.creacion, etiqueta etapa) y devolver el instante actual
+     * El commit queda fuera: se mide en http.server.requests del endpoint
+     */
+    private long medirEtapa(String etapa, long desde) {
+        long ahora = System.nanoTime();
+        meterRegistry.timer("habilis.pedido.creacion", "etapa", etapa)
+                .record(ahora - desde, TimeUnit.NANOSECONDS);
+        return ahora;
+    }
+
+    /**
+     * Guardar un pedido PENDIENTE con sus detalles, sin tocar el stock
+     * Quien llama es responsable de descontar el stock en la misma transacción
+     * 
+     * @param productos        Productos del carrito ya cargados en la misma
+     *                         transacción (ConsultaPedidoService.cargarProductos)
+     * @param preciosCotizados Precios de una cotización firmada, o null para
+     *                         usar el precio actual
+     */
+    public Pedido registrarPedido(Usuario usuario, List<ItemPedidoRequest> items,
+            Map<Long, Producto> productos, Map<Long, BigDecimal> preciosCotizados) {
+        // Crear el pedido (se guarda una sola vez, con sus detalles en cascada)
         Pedido pedido = new Pedido();
         pedido.setUsuario(usuario);
         pedido.setFechaPedido(LocalDateTime.now());
         pedido.setEstado("PENDIENTE");
-        pedido.setTotalPedido(BigDecimal.ZERO);
-
-        // Guardar para obtener ID
-        pedido = pedidoRepository.save(pedido);
 
         // Procesar cada item del carrito
         BigDecimal totalPedido = BigDecimal.ZERO;
@@ -74,155 +173,52 @@ public class PedidoService {
 
         for (ItemPedidoRequest item : items) {
             // Buscar producto
-            Producto producto = productoRepository.findById(item.getProductoId())
-                    .orElseThrow(() -> new RuntimeException(
-                            "Producto no encontrado con ID: " + item.getProductoId()));
-
-            // Verificar stock disponible
-            if (producto.getStock() < item.getCantidad()) {
-                throw new RuntimeException(
-                        "Stock insuficiente para " + producto.getNombre() +
-                                ". Disponible: " + producto.getStock() +
-                                ", solicitado: " + item.getCantidad());
+            Producto producto = productos.get(item.getProductoId());
+            if (producto == null) {
+                throw new RuntimeException("Producto no encontrado con ID: " + item.getProductoId());
             }
 
-            // Reducir stock
-            producto.setStock(producto.getStock() - item.getCantidad());
-            productoRepository.save(producto);
+            // Precio cotizado si existe, si no el precio actual
+            BigDecimal precioUnitario = preciosCotizados != null
+                    ? preciosCotizados.get(producto.getId())
+                    : producto.getPrecio();
 
             // Crear detalle del pedido (guardar precio histórico)
             DetallePedido detalle = new DetallePedido();
             detalle.setPedido(pedido);
             detalle.setProducto(producto);
             detalle.setCantidad(item.getCantidad());
-            detalle.setPrecioUnitario(producto.getPrecio()); // Precio histórico
+            detalle.setPrecioUnitario(precioUnitario); // Precio histórico
 
             detalles.add(detalle);
 
             // Calcular subtotal
-            BigDecimal subtotal = producto.getPrecio()
+            BigDecimal subtotal = precioUnitario
                     .multiply(BigDecimal.valueOf(item.getCantidad()));
             totalPedido = totalPedido.add(subtotal);
         }
 
-        // Guardar todos los detalles
-        detallePedidoRepository.saveAll(detalles);
-
-        // Actualizar total del pedido
         pedido.setTotalPedido(totalPedido);
         pedido.setDetalles(detalles);
 
-        return pedidoRepository.save(pedido);
-    }
+        // Un INSERT del pedido y un INSERT por lotes de los detalles; el flush
+        // va antes del evento, que se inserta por JDBC y referencia el pedido
+        pedido = pedidoRepository.saveAndFlush(pedido);
 
-    /**
-     * Obtener pedido por ID
-     */
-    public Pedido buscarPorId(Long id) {
-        return pedidoRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Pedido no encontrado con ID: " + id));
-    }
+        estadisticasUsuarioService.registrarPedido(usuario.getId(), totalPedido, pedido.getFechaPedido());
+        eventoPedidoService.registrar(List.of(pedido.getId()), null, EstadoPedido.PENDIENTE.name());
 
-    /**
-     * Listar todos los pedidos (solo ADMIN)
-     */
-    public List<Pedido> listarTodos() {
-        return pedidoRepository.findAll();
-    }
-
-    /**
-     * Listar pedidos de un usuario
-     */
-    public List<Pedido> listarPorUsuario(Long usuarioId) {
-        return pedidoRepository.findByUsuarioIdOrderByFechaPedidoDesc(usuarioId);
-    }
-
-    /**
-     * Listar pedidos por estado
-     */
-    public List<Pedido> listarPorEstado(String estado) {
-        return pedidoRepository.findByEstado(estado);
+        return pedido;
     }
 
     /**
      * Cambiar estado de un pedido
-     * Estados válidos: PENDIENTE, ENVIADO, COMPLETADO, CANCELADO
+     * Solo se permiten las transiciones de EstadoPedido; los efectos (devolver
+     * stock, eventos...) los ejecutan los hooks de TransicionPedidoService
      */
     public Pedido cambiarEstado(Long pedidoId, String nuevoEstado) {
-        // Validar estado
-        List<String> estadosValidos = List.of("PENDIENTE", "ENVIADO", "COMPLETADO", "CANCELADO");
-        if (!estadosValidos.contains(nuevoEstado)) {
-            throw new RuntimeException(
-                    "Estado inválido. Estados válidos: " + String.join(", ", estadosValidos));
-        }
-
-        Pedido pedido = buscarPorId(pedidoId);
-        String estadoAnterior = pedido.getEstado();
-
-        // Si se cancela un pedido PENDIENTE, devolver stock
-        if ("CANCELADO".equals(nuevoEstado) && "PENDIENTE".equals(estadoAnterior)) {
-            devolverStock(pedido);
-        }
-
-        pedido.setEstado(nuevoEstado);
-        return pedidoRepository.save(pedido);
-    }
-
-    /**
-     * Devolver stock al cancelar un pedido
-     */
-    private void devolverStock(Pedido pedido) {
-        for (DetallePedido detalle : pedido.getDetalles()) {
-            Producto producto = detalle.getProducto();
-            producto.setStock(producto.getStock() + detalle.getCantidad());
-            productoRepository.save(producto);
-        }
-    }
-
-    /**
-     * Calcular total de un pedido (sin guardarlo)
-     * Útil para mostrar en el carrito antes de confirmar
-     */
-    public BigDecimal calcularTotal(List<ItemPedidoRequest> items) {
-        BigDecimal total = BigDecimal.ZERO;
-
-        for (ItemPedidoRequest item : items) {
-            Producto producto = productoRepository.findById(item.getProductoId())
-                    .orElseThrow(() -> new RuntimeException(
-                            "Producto no encontrado con ID: " + item.getProductoId()));
-
-            BigDecimal subtotal = producto.getPrecio()
-                    .multiply(BigDecimal.valueOf(item.getCantidad()));
-            total = total.add(subtotal);
-        }
-
-        return total;
-    }
-
-    /**
-     * Validar carrito antes de crear pedido
-     * Retorna lista de productos con stock insuficiente
-     */
-    public List<String> validarCarrito(List<ItemPedidoRequest> items) {
-        List<String> errores = new ArrayList<>();
-
-        for (ItemPedidoRequest item : items) {
-            Producto producto = productoRepository.findById(item.getProductoId())
-                    .orElse(null);
-
-            if (producto == null) {
-                errores.add("Producto con ID " + item.getProductoId() + " no encontrado");
-                continue;
-            }
-
-            if (producto.getStock() < item.getCantidad()) {
-                errores.add(producto.getNombre() + ": Stock insuficiente. " +
-                        "Disponible: " + producto.getStock() +
-                        ", solicitado: " + item.getCantidad());
-            }
-        }
-
-        return errores;
+        transicionPedidoService.transicionar(pedidoId, EstadoPedido.desde(nuevoEstado));
+        return buscarConDetalles(pedidoId);
     }
 
     /**
@@ -230,42 +226,18 @@ public class PedidoService {
      * Solo se puede cancelar si está en estado PENDIENTE
      */
     public Pedido cancelarPedido(Long pedidoId) {
-        Pedido pedido = buscarPorId(pedidoId);
-
-        if (!"PENDIENTE".equals(pedido.getEstado())) {
-            throw new RuntimeException(
-                    "Solo se pueden cancelar pedidos en estado PENDIENTE. " +
-                            "Estado actual: " + pedido.getEstado());
-        }
-
-        return cambiarEstado(pedidoId, "CANCELADO");
+        transicionPedidoService.transicionar(pedidoId, EstadoPedido.PENDIENTE, EstadoPedido.CANCELADO);
+        return buscarConDetalles(pedidoId);
     }
 
     /**
-     * Obtener estadísticas de pedidos por usuario
+     * Pedido con sus detalles tras modificarlo, en la transacción actual
+     * El usuario se inicializa aquí: la respuesta se serializa sin sesión JPA
      */
-    public Map<String, Object> obtenerEstadisticasUsuario(Long usuarioId) {
-        List<Pedido> pedidos = listarPorUsuario(usuarioId);
-
-        long totalPedidos = pedidos.size();
-        BigDecimal totalGastado = pedidos.stream()
-                .map(Pedido::getTotalPedido)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        long pedidosPendientes = pedidos.stream()
-                .filter(p -> "PENDIENTE".equals(p.getEstado()))
-                .count();
-
-        long pedidosCompletados = pedidos.stream()
-                .filter(p -> "COMPLETADO".equals(p.getEstado()))
-                .count();
-
-        Map<String, Object> estadisticas = new HashMap<>();
-        estadisticas.put("totalPedidos", totalPedidos);
-        estadisticas.put("totalGastado", totalGastado);
-        estadisticas.put("pedidosPendientes", pedidosPendientes);
-        estadisticas.put("pedidosCompletados", pedidosCompletados);
-
-        return estadisticas;
+    private Pedido buscarConDetalles(Long id) {
+        Pedido pedido = pedidoRepository.findConDetallesById(id)
+                .orElseThrow(() -> new RuntimeException("Pedido no encontrado con ID: " + id));
+        Hibernate.initialize(pedido.getUsuario());
+        return pedido;
     }
 }
@@ -3,15 +3,17 @@ package com.habilis.api.service;
 import com.habilis.api.entity.Categoria;
 import com.habilis.api.entity.Producto;
 import com.habilis.api.repository.CategoriaRepository;
+import com.habilis.api.repository.MovimientoStockRepository;
 import com.habilis.api.repository.ProductoRepository;
+import com.habilis.api.repository.ReservaStockRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.util.List;
 
 /**
- * Servicio para gestión de productos
+ * Servicio para gestión de productos (altas, cambios, stock y bajas)
+ * Las lecturas del catálogo están en ConsultaProductoService
  */
 @Service
 @Transactional
@@ -19,47 +21,23 @@ public class ProductoService {
 
     private final ProductoRepository productoRepository;
     private final CategoriaRepository categoriaRepository;
+    private final CarritoService carritoService;
+    private final ReservaStockRepository reservaStockRepository;
+    private final MovimientoStockRepository movimientoStockRepository;
+    private final InventarioService inventarioService;
 
     public ProductoService(ProductoRepository productoRepository,
-            CategoriaRepository categoriaRepository) {
+            CategoriaRepository categoriaRepository,
+            CarritoService carritoService,
+            ReservaStockRepository reservaStockRepository,
+            MovimientoStockRepository movimientoStockRepository,
+            InventarioService inventarioService) {
         this.productoRepository = productoRepository;
         this.categoriaRepository = categoriaRepository;
-    }
-
-    /**
-     * Listar todos los productos
-     */
-    public List<Producto> listarTodos() {
-        return productoRepository.findAll();
-    }
-
-    /**
-     * Buscar producto por ID
-     */
-    public Producto buscarPorId(Long id) {
-        return productoRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Producto no encontrado con ID: " + id));
-    }
-
-    /**
-     * Listar productos por categoría
-     */
-    public List<Producto> listarPorCategoria(Long categoriaId) {
-        return productoRepository.findByCategoriaId(categoriaId);
-    }
-
-    /**
-     * Buscar productos por nombre (búsqueda parcial)
-     */
-    public List<Producto> buscarPorNombre(String nombre) {
-        return productoRepository.findByNombreContainingIgnoreCase(nombre);
-    }
-
-    /**
-     * Listar productos con stock bajo (menos de X unidades)
-     */
-    public List<Producto> listarConStockBajo(int umbral) {
-        return productoRepository.findByStockLessThan(umbral);
+        this.carritoService = carritoService;
+        this.reservaStockRepository = reservaStockRepository;
+        this.movimientoStockRepository = movimientoStockRepository;
+        this.inventarioService = inventarioService;
     }
 
     /**
@@ -88,7 +66,7 @@ public class ProductoService {
      */
     public Producto actualizar(Long id, Long categoriaId, String nombre, String descripcion,
             BigDecimal precio, Integer stock, String imagenUrl) {
-        Producto producto = buscarPorId(id);
+        Producto producto = cargar(id);
 
         // Si se cambió la categoría, verificar que existe
         if (!producto.getCategoria().getId().equals(categoriaId)) {
@@ -100,23 +78,41 @@ public class ProductoService {
         producto.setNombre(nombre);
         producto.setDescripcion(descripcion);
         producto.setPrecio(precio);
-        producto.setStock(stock);
         producto.setImagenUrl(imagenUrl);
 
-        return productoRepository.save(producto);
+        // El stock no se guarda con la entidad: se ajusta en el inventario
+        inventarioService.ajustar(id, stock);
+        producto.setStock(stock);
+
+        Producto actualizado = productoRepository.save(producto);
+
+        // Revalorar los carritos que contienen el producto
+        carritoService.productoActualizado(actualizado);
+
+        return actualizado;
     }
 
     /**
      * Actualizar solo el stock de un producto
      */
     public Producto actualizarStock(Long id, Integer nuevoStock) {
-        Producto producto = buscarPorId(id);
+        Producto producto = cargar(id);
 
         if (nuevoStock < 0) {
             throw new RuntimeException("El stock no puede ser negativo");
         }
 
+        inventarioService.ajustar(id, nuevoStock);
         producto.setStock(nuevoStock);
+        return producto;
+    }
+
+    /**
+     * Activar o desactivar la cola de admisión de pedidos de un producto
+     */
+    public Producto cambiarAdmisionCola(Long id, Boolean activa) {
+        Producto producto = cargar(id);
+        producto.setAdmisionCola(activa);
         return productoRepository.save(producto);
     }
 
@@ -124,25 +120,22 @@ public class ProductoService {
      * Reducir stock (útil para pedidos)
      */
     public void reducirStock(Long id, Integer cantidad) {
-        Producto producto = buscarPorId(id);
+        cargar(id);
 
-        if (producto.getStock() < cantidad) {
+        // No vende unidades reservadas por otros checkouts
+        if (!inventarioService.vender(id, cantidad, null)) {
             throw new RuntimeException(
-                    "Stock insuficiente. Disponible: " + producto.getStock() +
+                    "Stock insuficiente. Disponible: " + inventarioService.disponible(id) +
                             ", solicitado: " + cantidad);
         }
-
-        producto.setStock(producto.getStock() - cantidad);
-        productoRepository.save(producto);
     }
 
     /**
      * Aumentar stock (útil para devoluciones o restock)
      */
     public void aumentarStock(Long id, Integer cantidad) {
-        Producto producto = buscarPorId(id);
-        producto.setStock(producto.getStock() + cantidad);
-        productoRepository.save(producto);
+        cargar(id);
+        inventarioService.reponer(id, cantidad, "REPOSICION", null);
     }
 
     /**
@@ -150,36 +143,25 @@ public class ProductoService {
      * NOTA: En producción, considerar "soft delete" en lugar de eliminar
      */
     public void eliminar(Long id) {
-        Producto producto = buscarPorId(id);
+        Producto producto = cargar(id);
 
         // TODO: Verificar que no tenga pedidos asociados
         // Por ahora permitimos la eliminación
 
-        productoRepository.delete(producto);
-    }
+        // Quitar el producto de los carritos antes de eliminarlo
+        carritoService.productoEliminado(id);
+        reservaStockRepository.deleteByProductoId(id);
+        movimientoStockRepository.deleteByProductoId(id);
+        inventarioService.olvidar(id);
 
-    /**
-     * Verificar si hay stock disponible
-     */
-    public boolean hayStockDisponible(Long id, Integer cantidadRequerida) {
-        Producto producto = buscarPorId(id);
-        return producto.getStock() >= cantidadRequerida;
+        productoRepository.delete(producto);
     }
 
     /**
-     * Búsqueda avanzada de productos con filtros múltiples
-     * Todos los parámetros son opcionales (pueden ser null)
-     * 
-     * @param nombre      Buscar por nombre (parcial, insensible a mayúsculas)
-     * @param categoriaId Filtrar por categoría
-     * @param precioMin   Precio mínimo
-     * @param precioMax   Precio máximo
-     * @param disponible  true = solo con stock, false = todos, null = todos
-     * @return Lista de productos que cumplen los criterios
+     * Cargar un producto para modificarlo en la transacción actual
      */
-    public List<Producto> buscarConFiltros(String nombre, Long categoriaId,
-            BigDecimal precioMin, BigDecimal precioMax,
-            Boolean disponible) {
-        return productoRepository.buscarConFiltros(nombre, categoriaId, precioMin, precioMax, disponible);
+    private Producto cargar(Long id) {
+        return productoRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Producto no encontrado con ID: " + id));
     }
 }
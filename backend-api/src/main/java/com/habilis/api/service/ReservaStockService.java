@@ -0,0 +1,230 @@
+package com.habilis.api.service;
+
+import com.habilis.api.dto.ItemPedidoRequest;
+import com.habilis.api.entity.Producto;
+import com.habilis.api.entity.ReservaStock;
+import com.habilis.api.entity.Usuario;
+import com.habilis.api.repository.ProductoRepository;
+import com.habilis.api.repository.ReservaStockRepository;
+import com.habilis.api.repository.UsuarioRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Servicio de reservas temporales de stock durante el checkout
+ *
+ * Al empezar el pago se retienen las unidades del carrito durante unos minutos:
+ * se descuentan del stock disponible de InventarioService pero el stock
+ * comprometido solo cambia al crear el pedido. Si el usuario abandona el pago,
+ * un barrido periódico libera por lotes las reservas caducadas.
+ */
+@Service
+public class ReservaStockService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservaStockService.class);
+
+    private final ReservaStockRepository reservaStockRepository;
+    private final ProductoRepository productoRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final InventarioService inventarioService;
+    private final TransactionTemplate transactionTemplate;
+    private final long validezMinutos;
+    private final int tamanoLote;
+
+    public ReservaStockService(ReservaStockRepository reservaStockRepository,
+            ProductoRepository productoRepository,
+            UsuarioRepository usuarioRepository,
+            InventarioService inventarioService,
+            PlatformTransactionManager transactionManager,
+            @Value("${habilis.reservas.validez-minutos:10}") long validezMinutos,
+            @Value("${habilis.reservas.lote-barrido:200}") int tamanoLote) {
+        this.reservaStockRepository = reservaStockRepository;
+        this.productoRepository = productoRepository;
+        this.usuarioRepository = usuarioRepository;
+        this.inventarioService = inventarioService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validezMinutos = validezMinutos;
+        this.tamanoLote = tamanoLote;
+    }
+
+    /**
+     * Reservar el stock de un carrito para un usuario
+     * Sustituye cualquier reserva activa anterior del mismo usuario
+     * Si algún producto no tiene stock disponible no se reserva nada
+     */
+    @Transactional
+    public List<ReservaStock> reservar(Long usuarioId, List<ItemPedidoRequest> items) {
+        if (items == null || items.isEmpty()) {
+            throw new RuntimeException("El carrito está vacío");
+        }
+
+        Usuario usuario = usuarioRepository.findById(usuarioId)
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado con ID: " + usuarioId));
+
+        // Una sola reserva viva por usuario: liberar la anterior
+        liberarActivas(usuarioId, "LIBERADA");
+
+        Map<Long, Integer> cantidadPorProducto = new LinkedHashMap<>();
+        for (ItemPedidoRequest item : items) {
+            cantidadPorProducto.merge(item.getProductoId(), item.getCantidad(), Integer::sum);
+        }
+
+        Map<Long, Producto> productos = productoRepository.findAllById(cantidadPorProducto.keySet()).stream()
+                .collect(Collectors.toMap(Producto::getId, p -> p));
+
+        LocalDateTime expiraEn = LocalDateTime.now().plusMinutes(validezMinutos);
+        List<ReservaStock> reservas = new ArrayList<>();
+
+        for (Map.Entry<Long, Integer> entrada : cantidadPorProducto.entrySet()) {
+            Producto producto = productos.get(entrada.getKey());
+            if (producto == null) {
+                throw new RuntimeException("Producto no encontrado con ID: " + entrada.getKey());
+            }
+
+            // Falla si otro checkout se llevó las unidades
+            if (!inventarioService.reservar(producto.getId(), entrada.getValue())) {
+                throw new RuntimeException(
+                        "Stock insuficiente para " + producto.getNombre() +
+                                ". Disponible: " + inventarioService.disponible(producto.getId()) +
+                                ", solicitado: " + entrada.getValue());
+            }
+
+            reservas.add(new ReservaStock(usuario, producto, entrada.getValue(), expiraEn));
+        }
+
+        return reservaStockRepository.saveAll(reservas);
+    }
+
+    /**
+     * Liberar las reservas activas de un usuario (pago abandonado o cancelado)
+     */
+    @Transactional
+    public void liberar(Long usuarioId) {
+        liberarActivas(usuarioId, "LIBERADA");
+    }
+
+    /**
+     * Consumir las reservas vigentes de un usuario al crear su pedido
+     * Marca las reservas como CONSUMIDA y devuelve las unidades retenidas por
+     * producto; quien llama debe convertirlas en venta o liberarlas dentro de
+     * la misma transacción. Las reservas ya caducadas se liberan aquí mismo.
+     *
+     * @return Unidades reservadas por producto
+     */
+    @Transactional
+    public Map<Long, Integer> consumir(Long usuarioId) {
+        List<ReservaStock> activas = reservaStockRepository.bloquearActivasDeUsuario(usuarioId);
+        if (activas.isEmpty()) {
+            return new HashMap<>();
+        }
+
+        LocalDateTime ahora = LocalDateTime.now();
+        List<ReservaStock> vigentes = new ArrayList<>();
+        List<ReservaStock> caducadas = new ArrayList<>();
+        for (ReservaStock reserva : activas) {
+            (reserva.getExpiraEn().isBefore(ahora) ? caducadas : vigentes).add(reserva);
+        }
+
+        if (!caducadas.isEmpty()) {
+            cerrar(caducadas, "CADUCADA");
+        }
+
+        Map<Long, Integer> reservado = new HashMap<>();
+        if (!vigentes.isEmpty()) {
+            reservaStockRepository.actualizarEstado(
+                    vigentes.stream().map(ReservaStock::getId).collect(Collectors.toList()), "CONSUMIDA");
+            for (ReservaStock reserva : vigentes) {
+                reservado.merge(reserva.getProducto().getId(), reserva.getCantidad(), Integer::sum);
+            }
+        }
+
+        return reservado;
+    }
+
+    /**
+     * Unidades que un usuario tiene reservadas ahora mismo, por producto
+     * Sirve para no contar su propia reserva como stock ocupado al cotizar
+     * Siempre en la primaria (sin @LecturaReplica): la reserva recién hecha
+     * tiene que contar aunque las réplicas vayan atrasadas
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Integer> reservadoPorUsuario(Long usuarioId) {
+        Map<Long, Integer> reservado = new HashMap<>();
+        for (Object[] fila : reservaStockRepository.sumarActivasPorProducto(usuarioId, LocalDateTime.now())) {
+            reservado.put((Long) fila[0], ((Number) fila[1]).intValue());
+        }
+        return reservado;
+    }
+
+    /**
+     * Barrido periódico de reservas caducadas
+     * Cada lote va en su propia transacción para no mantener bloqueos largos;
+     * las filas bloqueadas por un pedido en curso se saltan (SKIP LOCKED)
+     */
+    @Scheduled(fixedDelayString = "${habilis.reservas.barrido-ms:30000}")
+    public void liberarCaducadas() {
+        int total = 0;
+        try {
+            while (true) {
+                Integer liberadas = transactionTemplate.execute(status -> {
+                    List<ReservaStock> lote = reservaStockRepository
+                            .bloquearCaducadas(LocalDateTime.now(), tamanoLote);
+                    if (!lote.isEmpty()) {
+                        cerrar(lote, "CADUCADA");
+                    }
+                    return lote.size();
+                });
+
+                total += liberadas;
+                if (liberadas < tamanoLote) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.error("Error al liberar reservas de stock caducadas: {}", e.getMessage());
+        }
+
+        if (total > 0) {
+            log.info("Reservas de stock caducadas liberadas: {}", total);
+        }
+    }
+
+    /**
+     * Libera las reservas activas de un usuario con el estado indicado
+     */
+    private void liberarActivas(Long usuarioId, String estado) {
+        List<ReservaStock> activas = reservaStockRepository.bloquearActivasDeUsuario(usuarioId);
+        if (!activas.isEmpty()) {
+            cerrar(activas, estado);
+        }
+    }
+
+    /**
+     * Cierra un grupo de reservas (ya bloqueadas) y devuelve sus unidades al
+     * stock disponible cuando la transacción se confirme
+     */
+    private void cerrar(List<ReservaStock> reservas, String estado) {
+        reservaStockRepository.actualizarEstado(
+                reservas.stream().map(ReservaStock::getId).collect(Collectors.toList()), estado);
+
+        Map<Long, Integer> porProducto = new HashMap<>();
+        for (ReservaStock reserva : reservas) {
+            porProducto.merge(reserva.getProducto().getId(), reserva.getCantidad(), Integer::sum);
+        }
+        porProducto.forEach(inventarioService::liberar);
+    }
+}
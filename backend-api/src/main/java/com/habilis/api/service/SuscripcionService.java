@@ -0,0 +1,81 @@
+package com.habilis.api.service;
+
+import com.habilis.api.entity.Categoria;
+import com.habilis.api.entity.Suscripcion;
+import com.habilis.api.entity.Usuario;
+import com.habilis.api.repository.CategoriaRepository;
+import com.habilis.api.repository.SuscripcionRepository;
+import com.habilis.api.repository.UsuarioRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Servicio para gestión de suscripciones mensuales ("Misiones")
+ * Cada suscripción recibe un kit de su línea de edad al mes durante un año
+ */
+@Service
+@Transactional
+public class SuscripcionService {
+
+    private final SuscripcionRepository suscripcionRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final CategoriaRepository categoriaRepository;
+
+    public SuscripcionService(SuscripcionRepository suscripcionRepository,
+            UsuarioRepository usuarioRepository,
+            CategoriaRepository categoriaRepository) {
+        this.suscripcionRepository = suscripcionRepository;
+        this.usuarioRepository = usuarioRepository;
+        this.categoriaRepository = categoriaRepository;
+    }
+
+    /**
+     * Suscribir a un usuario a una línea de edad
+     * El primer envío se genera en la próxima generación mensual
+     */
+    public Suscripcion crear(Long usuarioId, Long categoriaId) {
+        Usuario usuario = usuarioRepository.findById(usuarioId)
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado con ID: " + usuarioId));
+        Categoria categoria = categoriaRepository.findById(categoriaId)
+                .orElseThrow(() -> new RuntimeException("Categoría no encontrada con ID: " + categoriaId));
+
+        boolean yaSuscrito = suscripcionRepository.findByUsuarioIdOrderByFechaCreacionDesc(usuarioId).stream()
+                .anyMatch(s -> "ACTIVA".equals(s.getEstado()) && s.getCategoria().getId().equals(categoriaId));
+        if (yaSuscrito) {
+            throw new RuntimeException("Ya tienes una suscripción activa a " + categoria.getNombre());
+        }
+
+        return suscripcionRepository.save(new Suscripcion(usuario, categoria, LocalDate.now()));
+    }
+
+    /**
+     * Listar las suscripciones de un usuario
+     */
+    @Transactional(readOnly = true)
+    public List<Suscripcion> listarPorUsuario(Long usuarioId) {
+        return suscripcionRepository.findByUsuarioIdOrderByFechaCreacionDesc(usuarioId);
+    }
+
+    /**
+     * Cancelar una suscripción del usuario
+     * Los pedidos ya generados no se tocan
+     */
+    public Suscripcion cancelar(Long id, Long usuarioId) {
+        Suscripcion suscripcion = suscripcionRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Suscripción no encontrada con ID: " + id));
+
+        if (!suscripcion.getUsuario().getId().equals(usuarioId)) {
+            throw new RuntimeException("No tienes permiso para cancelar esta suscripción");
+        }
+
+        if (!"ACTIVA".equals(suscripcion.getEstado())) {
+            throw new RuntimeException("La suscripción no está activa");
+        }
+
+        suscripcion.setEstado("CANCELADA");
+        return suscripcionRepository.save(suscripcion);
+    }
+}
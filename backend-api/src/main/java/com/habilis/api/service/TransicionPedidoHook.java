@@ -0,0 +1,23 @@
+package com.habilis.api.service;
+
+import com.habilis.api.entity.EstadoPedido;
+
+import java.util.List;
+
+/**
+ * Acción que se ejecuta cuando uno o varios pedidos cambian de estado
+ *
+ * Las implementaciones son beans de Spring que TransicionPedidoService llama,
+ * en orden de @Order, dentro de la misma transacción que el cambio: si un hook
+ * falla, el cambio de estado se deshace. Los cambios masivos llaman una vez
+ * por lote con todos los pedidos que pasaron de 'desde' a 'hacia'.
+ */
+public interface TransicionPedidoHook {
+
+    /**
+     * @param pedidoIds Pedidos que acaban de cambiar (ya confirmados en el UPDATE)
+     * @param desde     Estado anterior de todos ellos
+     * @param hacia     Estado nuevo
+     */
+    void alTransicionar(List<Long> pedidoIds, EstadoPedido desde, EstadoPedido hacia);
+}
@@ -0,0 +1,97 @@
+package com.habilis.api.service;
+
+import com.habilis.api.entity.EstadoPedido;
+import com.habilis.api.repository.PedidoRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Máquina de estados de los pedidos
+ *
+ * Cada cambio es un comparar-e-intercambiar sobre (estado, version): se lee el
+ * estado confirmado, se valida la transición y el UPDATE solo se aplica si
+ * nadie ha tocado el pedido entretanto. Si otro proceso ganó la carrera (por
+ * ejemplo, un usuario cancela mientras un admin lo envía) se vuelve a leer y
+ * se revalida, hasta MAX_INTENTOS veces. Sin SELECT ... FOR UPDATE, y los
+ * hooks (devolver stock, eventos...) se ejecutan una sola vez por transición.
+ */
+@Service
+@Transactional
+public class TransicionPedidoService {
+
+    private static final int MAX_INTENTOS = 3;
+
+    private final PedidoRepository pedidoRepository;
+    private final List<TransicionPedidoHook> hooks;
+
+    public TransicionPedidoService(PedidoRepository pedidoRepository,
+            List<TransicionPedidoHook> hooks) {
+        this.pedidoRepository = pedidoRepository;
+        this.hooks = hooks;
+    }
+
+    /**
+     * Pasar un pedido a otro estado desde el que tenga ahora
+     *
+     * @return Estado anterior del pedido
+     */
+    public EstadoPedido transicionar(Long pedidoId, EstadoPedido hacia) {
+        return transicionar(pedidoId, null, hacia);
+    }
+
+    /**
+     * Pasar un pedido a otro estado
+     *
+     * @param esperado Estado en el que debe estar el pedido (null = cualquiera
+     *                 desde el que la transición sea válida)
+     * @return Estado anterior del pedido
+     */
+    public EstadoPedido transicionar(Long pedidoId, EstadoPedido esperado, EstadoPedido hacia) {
+        for (int intento = 1; intento <= MAX_INTENTOS; intento++) {
+            List<Object[]> filas = pedidoRepository.leerEstadoYVersion(pedidoId);
+            if (filas.isEmpty()) {
+                throw new RuntimeException("Pedido no encontrado con ID: " + pedidoId);
+            }
+
+            EstadoPedido desde = EstadoPedido.desde((String) filas.get(0)[0]);
+            Long version = ((Number) filas.get(0)[1]).longValue();
+
+            if (esperado != null && desde != esperado) {
+                throw new RuntimeException("Solo se puede pasar a " + hacia + " un pedido en estado "
+                        + esperado + ". Estado actual: " + desde);
+            }
+
+            // Repetir el estado actual no es un cambio
+            if (desde == hacia) {
+                return desde;
+            }
+
+            if (!desde.puedePasarA(hacia)) {
+                throw new RuntimeException("No se puede pasar un pedido de " + desde + " a " + hacia);
+            }
+
+            if (pedidoRepository.compararYCambiarEstado(pedidoId, desde.name(), hacia.name(), version) == 1) {
+                ejecutarHooks(List.of(pedidoId), desde, hacia);
+                return desde;
+            }
+        }
+
+        throw new RuntimeException("El pedido " + pedidoId
+                + " se está modificando desde otro sitio, inténtalo de nuevo");
+    }
+
+    /**
+     * Ejecutar los hooks de una transición ya aplicada
+     * Para cambios masivos que hacen el UPDATE por su cuenta
+     */
+    public void ejecutarHooks(List<Long> pedidoIds, EstadoPedido desde, EstadoPedido hacia) {
+        if (pedidoIds.isEmpty()) {
+            return;
+        }
+        for (TransicionPedidoHook hook : hooks) {
+            hook.alTransicionar(pedidoIds, desde, hacia);
+        }
+    }
+}
@@ -13,11 +13,15 @@ import dev.samstevens.totp.qr.ZxingPngQrGenerator;
 import dev.samstevens.totp.secret.DefaultSecretGenerator;
 import dev.samstevens.totp.time.SystemTimeProvider;
 import dev.samstevens.totp.time.TimeProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.Base64;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Servicio para manejar autenticación de dos factores (2FA) con TOTP
@@ -27,13 +31,17 @@ import java.util.Base64;
 @Service
 public class TwoFactorService {
 
+    private static final Logger log = LoggerFactory.getLogger(TwoFactorService.class);
+
     private final DefaultSecretGenerator secretGenerator;
     private final TimeProvider timeProvider;
     private final CodeGenerator codeGenerator;
     private final CodeVerifier codeVerifier;
     private final QrGenerator qrGenerator;
+    private final MeterRegistry meterRegistry;
 
-    public TwoFactorService() {
+    public TwoFactorService(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
         this.secretGenerator = new DefaultSecretGenerator();
         this.timeProvider = new SystemTimeProvider();
         this.codeGenerator = new DefaultCodeGenerator();
@@ -43,11 +51,7 @@ public class TwoFactorService {
 
         this.qrGenerator = new ZxingPngQrGenerator();
 
-        System.out.println("✅ TwoFactorService (TOTP-Java) inicializado");
-        System.out.println("   - Algoritmo: SHA1");
-        System.out.println("   - Dígitos: 6");
-        System.out.println("   - Intervalo: 30 segundos");
-        System.out.println("   - Discrepancia permitida: ±3 intervalos (±90s)");
+        log.info("TwoFactorService (TOTP-Java) inicializado: SHA1, 6 dígitos, intervalos de 30 segundos");
     }
 
     /**
@@ -57,11 +61,7 @@ public class TwoFactorService {
      */
     public String generarSecreto() {
         String secret = secretGenerator.generate();
-        System.out.println("🔑 Secreto TOTP generado:");
-        System.out.println("   - Longitud: " + secret.length() + " caracteres");
-        System.out.println("   - Formato: BASE32");
-        System.out.println(
-                "   - Secret (primeros 10 chars): " + secret.substring(0, Math.min(10, secret.length())) + "...");
+        log.debug("Secreto TOTP generado ({} caracteres BASE32)", secret.length());
         return secret;
     }
 
@@ -84,21 +84,18 @@ public class TwoFactorService {
                     .period(30)
                     .build();
 
-            System.out.println("📱 Generando QR para: " + email);
-            System.out.println("   - Issuer: HABILIS");
-            System.out.println("   - URL: otpauth://totp/HABILIS:" + email + "?secret=" + secreto + "&issuer=HABILIS");
+            log.debug("Generando QR TOTP para {}", email);
 
             // Generar imagen QR
             byte[] imageData = qrGenerator.generate(data);
 
             // Convertir a Base64
             String base64 = Base64.getEncoder().encodeToString(imageData);
-            System.out.println("   - QR generado exitosamente (" + imageData.length + " bytes)");
 
             return base64;
 
         } catch (QrGenerationException e) {
-            System.err.println("❌ Error generando QR: " + e.getMessage());
+            log.error("Error generando QR: {}", e.getMessage());
             throw new RuntimeException("Error al generar código QR: " + e.getMessage());
         }
     }
@@ -111,34 +108,26 @@ public class TwoFactorService {
      * @return true si el código es válido, false si no
      */
     public boolean verificarCodigo(String secreto, int codigo) {
+        long inicio = System.nanoTime();
+        boolean valido = comprobarCodigo(secreto, codigo);
+        registrarVerificacion("estandar", inicio, valido);
+        return valido;
+    }
+
+    private boolean comprobarCodigo(String secreto, int codigo) {
         try {
             String codigoStr = String.format("%06d", codigo);
 
-            // Obtener el código esperado actual
-            String codigoEsperado = codeGenerator.generate(secreto, Math.floorDiv(timeProvider.getTime(), 30));
-
-            // Verificar con discrepancia de ±1 intervalo PRIMERO (más estricto)
+            // Verificar con la discrepancia por defecto (más estricto)
             boolean valido = codeVerifier.isValidCode(secreto, codigoStr);
 
-            System.out.println("🔐 Verificación TOTP:");
-            System.out.println("   - Código ingresado: " + codigoStr);
-            System.out.println("   - Código esperado (ventana actual): " + codigoEsperado);
-            System.out.println("   - Timestamp: " + timeProvider.getTime());
-            System.out.println("   - Ventana: " + Math.floorDiv(timeProvider.getTime(), 30));
-            System.out.println("   - Resultado: " + (valido ? "✅ VÁLIDO" : "❌ INVÁLIDO"));
-
-            if (!valido) {
-                // Mostrar códigos de ventanas anteriores y posteriores para debugging
-                long currentBucket = Math.floorDiv(timeProvider.getTime(), 30);
-                String codePrev = codeGenerator.generate(secreto, currentBucket - 1);
-                String codeNext = codeGenerator.generate(secreto, currentBucket + 1);
-                System.out.println("   - Ventana anterior (-30s): " + codePrev);
-                System.out.println("   - Ventana posterior (+30s): " + codeNext);
-            }
+            // Los códigos esperados no se registran: serían válidos durante la ventana
+            log.debug("Verificación TOTP: intervalo {}, resultado {}",
+                    Math.floorDiv(timeProvider.getTime(), 30), valido ? "válido" : "inválido");
 
             return valido;
         } catch (Exception e) {
-            System.err.println("❌ Error verificando código: " + e.getMessage());
+            log.warn("Error verificando código: {}", e.getMessage());
             return false;
         }
     }
@@ -152,6 +141,13 @@ public class TwoFactorService {
      * @return true si el código es válido, false si no
      */
     public boolean verificarCodigoConVentana(String secreto, int codigo, int ventana) {
+        long inicio = System.nanoTime();
+        boolean valido = comprobarCodigoConVentana(secreto, codigo, ventana);
+        registrarVerificacion("ventana", inicio, valido);
+        return valido;
+    }
+
+    private boolean comprobarCodigoConVentana(String secreto, int codigo, int ventana) {
         try {
             String codigoStr = String.format("%06d", codigo);
 
@@ -160,34 +156,24 @@ public class TwoFactorService {
             verifierConVentana.setTimePeriod(30); // 30 segundos por intervalo
             verifierConVentana.setAllowedTimePeriodDiscrepancy(ventana); // Ventana de tolerancia
 
-            // Obtener el código esperado actual
-            String codigoEsperado = codeGenerator.generate(secreto, Math.floorDiv(timeProvider.getTime(), 30));
-
             boolean valido = verifierConVentana.isValidCode(secreto, codigoStr);
 
-            System.out.println("🔐 Verificación TOTP (ventana " + ventana + "):");
-            System.out.println("   - Código ingresado: " + codigoStr);
-            System.out.println("   - Código esperado (ventana actual): " + codigoEsperado);
-            System.out.println("   - Timestamp: " + timeProvider.getTime());
-            System.out.println("   - Ventana: " + Math.floorDiv(timeProvider.getTime(), 30));
-            System.out.println("   - Tolerancia: ±" + (ventana * 30) + " segundos");
-            System.out.println("   - Resultado: " + (valido ? "✅ VÁLIDO" : "❌ INVÁLIDO"));
-
-            if (!valido) {
-                // Mostrar todos los códigos posibles en la ventana
-                long currentBucket = Math.floorDiv(timeProvider.getTime(), 30);
-                System.out.println("   - Códigos válidos en ventana ±" + ventana + ":");
-                for (int i = -ventana; i <= ventana; i++) {
-                    String code = codeGenerator.generate(secreto, currentBucket + i);
-                    String label = i == 0 ? " (ACTUAL)" : (i < 0 ? " (" + i + "x30s)" : " (+" + i + "x30s)");
-                    System.out.println("     " + code + label);
-                }
-            }
+            log.debug("Verificación TOTP: intervalo {}, tolerancia ±{}s, resultado {}",
+                    Math.floorDiv(timeProvider.getTime(), 30), ventana * 30, valido ? "válido" : "inválido");
 
             return valido;
         } catch (Exception e) {
-            System.err.println("❌ Error verificando código con ventana: " + e.getMessage());
+            log.warn("Error verificando código con ventana: {}", e.getMessage());
             return false;
         }
     }
+
+    /**
+     * Tiempo de cada verificación TOTP (habilis.2fa.verificacion) por modo y
+     * resultado
+     */
+    private void registrarVerificacion(String modo, long inicio, boolean valido) {
+        meterRegistry.timer("habilis.2fa.verificacion", "modo", modo, "resultado", valido ? "valido" : "invalido")
+                .record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+    }
 }
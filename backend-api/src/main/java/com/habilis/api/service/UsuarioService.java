@@ -12,7 +12,9 @@ import java.util.UUID;
 
 /**
  * Servicio para la gestión de usuarios
- * Contiene toda la lógica de negocio relacionada con autenticación y usuarios
+ * Contiene la lógica de negocio que modifica usuarios: registro, activación,
+ * 2FA y recuperación de contraseña. Las consultas y la comprobación de
+ * credenciales están en ConsultaUsuarioService
  */
 @Service
 @Transactional
@@ -90,35 +92,6 @@ public class UsuarioService {
         return usuarioRepository.save(usuario);
     }
 
-    /**
-     * Iniciar sesión - Paso 1: Validar credenciales
-     * 
-     * @param correoElectronico Email del usuario
-     * @param contrasena        Contraseña sin encriptar
-     * @return Usuario si las credenciales son correctas
-     */
-    public Usuario login(String correoElectronico, String contrasena) {
-        Optional<Usuario> usuarioOpt = usuarioRepository.findByCorreoElectronico(correoElectronico);
-
-        if (usuarioOpt.isEmpty()) {
-            throw new RuntimeException("Credenciales incorrectas");
-        }
-
-        Usuario usuario = usuarioOpt.get();
-
-        // Verificar que la cuenta esté activa
-        if (!usuario.getCuentaActiva()) {
-            throw new RuntimeException("La cuenta no está activada. Revisa tu correo electrónico.");
-        }
-
-        // Verificar contraseña
-        if (!passwordEncoder.matches(contrasena, usuario.getContrasena())) {
-            throw new RuntimeException("Credenciales incorrectas");
-        }
-
-        return usuario;
-    }
-
     /**
      * Verificar código 2FA - Paso 2 del login
      * 
@@ -301,27 +274,6 @@ public class UsuarioService {
         usuarioRepository.save(usuario);
     }
 
-    /**
-     * Buscar usuario por ID
-     * 
-     * @param id ID del usuario
-     * @return Usuario
-     */
-    public Usuario buscarPorId(Long id) {
-        return usuarioRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-    }
-
-    /**
-     * Buscar usuario por email
-     * 
-     * @param correoElectronico Email del usuario
-     * @return Usuario
-     */
-    public Optional<Usuario> buscarPorEmail(String correoElectronico) {
-        return usuarioRepository.findByCorreoElectronico(correoElectronico);
-    }
-
     /**
      * Reenviar email de confirmación (genera nuevo token)
      * 
@@ -352,14 +304,4 @@ public class UsuarioService {
                 usuario.getNombreCompleto(),
                 nuevoToken);
     }
-
-    /**
-     * Verificar si un email existe en la base de datos
-     * 
-     * @param correoElectronico Email a verificar
-     * @return true si el email existe, false si no
-     */
-    public boolean existeEmail(String correoElectronico) {
-        return usuarioRepository.existsByCorreoElectronico(correoElectronico);
-    }
 }
@@ -4,7 +4,7 @@
 -- ========================================
 
 -- 1. Limpiar tablas existentes y reiniciar secuencias
-TRUNCATE TABLE detalle_pedido, pedidos, productos, categorias RESTART IDENTITY CASCADE;
+TRUNCATE TABLE detalle_pedido, pedidos, productos, categorias, movimientos_stock, contadores_factura, suscripciones, progreso_generacion, eventos_pedido, oleadas_envio, estadisticas_usuario, ventas_hora, ventas_dia, ventas_dia_producto RESTART IDENTITY CASCADE;
 
 -- 2. Crear Categorías Pedagógicas (Basadas en Piaget/Gardner)
 INSERT INTO categorias (nombre, descripcion) VALUES 
@@ -0,0 +1,38 @@
+-- ========================================
+-- OLEADAS DE ENVÍO Y EVENTOS DE PEDIDO
+-- ========================================
+CREATE TABLE IF NOT EXISTS oleadas_envio (
+    id BIGSERIAL PRIMARY KEY,
+    fecha_desde TIMESTAMP,
+    fecha_hasta TIMESTAMP,
+    categoria_id BIGINT REFERENCES categorias(id) ON DELETE SET NULL,
+    estado VARCHAR(20) NOT NULL DEFAULT 'PREPARACION'
+        CHECK (estado IN ('PREPARACION', 'ENVIADA', 'ANULADA')),
+    numero_pedidos INTEGER NOT NULL DEFAULT 0,
+    pedidos_enviados INTEGER NOT NULL DEFAULT 0,
+    fecha_creacion TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    fecha_envio TIMESTAMP
+);
+
+ALTER TABLE pedidos ADD COLUMN IF NOT EXISTS oleada_id BIGINT REFERENCES oleadas_envio(id);
+
+-- Pedidos de una oleada
+CREATE INDEX IF NOT EXISTS idx_pedidos_oleada ON pedidos(oleada_id) WHERE oleada_id IS NOT NULL;
+
+-- Selección de pendientes sin oleada por fecha
+CREATE INDEX IF NOT EXISTS idx_pedidos_pendientes_fecha
+    ON pedidos(fecha_pedido, id) WHERE estado = 'PENDIENTE' AND oleada_id IS NULL;
+
+-- Bandeja de salida de cambios de estado
+CREATE TABLE IF NOT EXISTS eventos_pedido (
+    id BIGSERIAL PRIMARY KEY,
+    pedido_id BIGINT NOT NULL REFERENCES pedidos(id) ON DELETE CASCADE,
+    estado_anterior VARCHAR(20),
+    estado_nuevo VARCHAR(20) NOT NULL,
+    fecha TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    publicado BOOLEAN NOT NULL DEFAULT FALSE,
+    fecha_publicacion TIMESTAMP
+);
+
+-- El publicador solo recorre los pendientes
+CREATE INDEX IF NOT EXISTS idx_eventos_pedido_pendientes ON eventos_pedido(id) WHERE publicado = false;
@@ -0,0 +1,8 @@
+-- ========================================
+-- ÍNDICES PARA CAMBIOS DE ESTADO MASIVOS
+-- ========================================
+-- Selección por estado y fecha de los cambios por filtro
+CREATE INDEX IF NOT EXISTS idx_pedidos_estado_fecha ON pedidos(estado, fecha_pedido, id);
+
+-- Unidades por producto de un lote de pedidos (devolución de stock)
+CREATE INDEX IF NOT EXISTS idx_detalle_pedido_pedido ON detalle_pedido(pedido_id);
@@ -0,0 +1,6 @@
+-- ========================================
+-- VERSIÓN DE PEDIDOS (CONCURRENCIA OPTIMISTA)
+-- ========================================
+-- Cada cambio de estado compara y aumenta la versión; los UPDATE masivos
+-- también la aumentan para que una lectura anterior no pueda sobrescribirlos
+ALTER TABLE pedidos ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,30 @@
+-- ========================================
+-- ESTADÍSTICAS DE PEDIDOS POR USUARIO
+-- ========================================
+-- Una fila por usuario, mantenida al crear pedidos y al cambiar su estado;
+-- /mis-estadisticas la lee por clave primaria
+CREATE TABLE IF NOT EXISTS estadisticas_usuario (
+    usuario_id BIGINT PRIMARY KEY REFERENCES usuarios(id) ON DELETE CASCADE,
+    total_pedidos INTEGER NOT NULL DEFAULT 0,
+    pendientes INTEGER NOT NULL DEFAULT 0,
+    enviados INTEGER NOT NULL DEFAULT 0,
+    completados INTEGER NOT NULL DEFAULT 0,
+    cancelados INTEGER NOT NULL DEFAULT 0,
+    total_gastado NUMERIC(12, 2) NOT NULL DEFAULT 0,
+    ultimo_pedido TIMESTAMP,
+    fecha_actualizacion TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Carga inicial desde los pedidos existentes (la conciliación lo repite al arrancar)
+INSERT INTO estadisticas_usuario
+    (usuario_id, total_pedidos, pendientes, enviados, completados, cancelados,
+     total_gastado, ultimo_pedido, fecha_actualizacion)
+SELECT usuario_id, COUNT(*),
+       COUNT(*) FILTER (WHERE estado = 'PENDIENTE'),
+       COUNT(*) FILTER (WHERE estado = 'ENVIADO'),
+       COUNT(*) FILTER (WHERE estado = 'COMPLETADO'),
+       COUNT(*) FILTER (WHERE estado = 'CANCELADO'),
+       COALESCE(SUM(total_pedido), 0), MAX(fecha_pedido), CURRENT_TIMESTAMP
+FROM pedidos
+GROUP BY usuario_id
+ON CONFLICT (usuario_id) DO NOTHING;
@@ -0,0 +1,82 @@
+-- ========================================
+-- RESÚMENES DE VENTAS (ANALÍTICA DEL PANEL DE ADMIN)
+-- ========================================
+-- Alimentados por AnaliticaVentasService desde eventos_pedido; las ventas y
+-- sus cancelaciones se imputan a la fecha del pedido
+CREATE TABLE IF NOT EXISTS ventas_hora (
+    hora TIMESTAMP PRIMARY KEY,
+    pedidos INTEGER NOT NULL DEFAULT 0,
+    unidades INTEGER NOT NULL DEFAULT 0,
+    ingresos NUMERIC(14, 2) NOT NULL DEFAULT 0,
+    cancelados INTEGER NOT NULL DEFAULT 0,
+    unidades_canceladas INTEGER NOT NULL DEFAULT 0,
+    ingresos_cancelados NUMERIC(14, 2) NOT NULL DEFAULT 0
+);
+
+CREATE TABLE IF NOT EXISTS ventas_dia (
+    dia DATE PRIMARY KEY,
+    pedidos INTEGER NOT NULL DEFAULT 0,
+    unidades INTEGER NOT NULL DEFAULT 0,
+    ingresos NUMERIC(14, 2) NOT NULL DEFAULT 0,
+    cancelados INTEGER NOT NULL DEFAULT 0,
+    unidades_canceladas INTEGER NOT NULL DEFAULT 0,
+    ingresos_cancelados NUMERIC(14, 2) NOT NULL DEFAULT 0
+);
+
+CREATE TABLE IF NOT EXISTS ventas_dia_producto (
+    id BIGSERIAL PRIMARY KEY,
+    dia DATE NOT NULL,
+    producto_id BIGINT NOT NULL,
+    categoria_id BIGINT,
+    pedidos INTEGER NOT NULL DEFAULT 0,
+    unidades INTEGER NOT NULL DEFAULT 0,
+    ingresos NUMERIC(14, 2) NOT NULL DEFAULT 0,
+    cancelados INTEGER NOT NULL DEFAULT 0,
+    unidades_canceladas INTEGER NOT NULL DEFAULT 0,
+    ingresos_cancelados NUMERIC(14, 2) NOT NULL DEFAULT 0,
+    CONSTRAINT uk_ventas_dia_producto UNIQUE (dia, producto_id)
+);
+
+-- Ranking por categoría en un rango de días
+CREATE INDEX IF NOT EXISTS idx_ventas_dia_producto_categoria ON ventas_dia_producto(categoria_id, dia);
+
+-- Eventos pendientes de agregar (los de creación no tienen estado anterior)
+ALTER TABLE eventos_pedido ADD COLUMN IF NOT EXISTS agregado BOOLEAN NOT NULL DEFAULT FALSE;
+CREATE INDEX IF NOT EXISTS idx_eventos_pedido_sin_agregar ON eventos_pedido(id) WHERE agregado = false;
+
+-- Carga inicial desde los pedidos existentes; sus eventos ya quedan agregados
+UPDATE eventos_pedido SET agregado = true WHERE agregado = false;
+
+INSERT INTO ventas_hora
+    (hora, pedidos, unidades, ingresos, cancelados, unidades_canceladas, ingresos_cancelados)
+SELECT date_trunc('hour', p.fecha_pedido), COUNT(*), COALESCE(SUM(u.unidades), 0), SUM(p.total_pedido),
+       COUNT(*) FILTER (WHERE p.estado = 'CANCELADO'),
+       COALESCE(SUM(u.unidades) FILTER (WHERE p.estado = 'CANCELADO'), 0),
+       COALESCE(SUM(p.total_pedido) FILTER (WHERE p.estado = 'CANCELADO'), 0)
+FROM pedidos p
+LEFT JOIN (SELECT pedido_id, SUM(cantidad) AS unidades FROM detalle_pedido GROUP BY pedido_id) u
+    ON u.pedido_id = p.id
+GROUP BY 1
+ON CONFLICT (hora) DO NOTHING;
+
+INSERT INTO ventas_dia
+    (dia, pedidos, unidades, ingresos, cancelados, unidades_canceladas, ingresos_cancelados)
+SELECT CAST(hora AS DATE), SUM(pedidos), SUM(unidades), SUM(ingresos),
+       SUM(cancelados), SUM(unidades_canceladas), SUM(ingresos_cancelados)
+FROM ventas_hora
+GROUP BY 1
+ON CONFLICT (dia) DO NOTHING;
+
+INSERT INTO ventas_dia_producto
+    (dia, producto_id, categoria_id, pedidos, unidades, ingresos,
+     cancelados, unidades_canceladas, ingresos_cancelados)
+SELECT CAST(p.fecha_pedido AS DATE), d.producto_id, MAX(pr.categoria_id),
+       COUNT(DISTINCT p.id), SUM(d.cantidad), SUM(d.cantidad * d.precio_unitario),
+       COUNT(DISTINCT p.id) FILTER (WHERE p.estado = 'CANCELADO'),
+       COALESCE(SUM(d.cantidad) FILTER (WHERE p.estado = 'CANCELADO'), 0),
+       COALESCE(SUM(d.cantidad * d.precio_unitario) FILTER (WHERE p.estado = 'CANCELADO'), 0)
+FROM pedidos p
+JOIN detalle_pedido d ON d.pedido_id = p.id
+JOIN productos pr ON pr.id = d.producto_id
+GROUP BY 1, 2
+ON CONFLICT (dia, producto_id) DO NOTHING;
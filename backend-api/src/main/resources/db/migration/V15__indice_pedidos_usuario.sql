@@ -0,0 +1,5 @@
+-- ========================================
+-- PEDIDOS RECIENTES POR USUARIO (PANEL DEL USUARIO)
+-- ========================================
+-- GET /api/dashboard lee los últimos pedidos de un usuario sin ordenar en memoria
+CREATE INDEX IF NOT EXISTS idx_pedidos_usuario_fecha ON pedidos(usuario_id, fecha_pedido DESC, id DESC);
@@ -0,0 +1,36 @@
+-- ========================================
+-- SECUENCIAS CON ASIGNACIÓN POR BLOQUES
+-- ========================================
+-- Las entidades con más inserciones pasan de IDENTITY a secuencias con
+-- incremento 50 (pooled-lo en Hibernate), para poder agrupar los INSERT en
+-- lotes JDBC. Se reutiliza la secuencia existente de cada columna id
+-- (<tabla>_id_seq), así el DEFAULT de la columna sigue sirviendo a las
+-- inserciones por SQL: cada valor que toma es el inicio de un bloque que
+-- Hibernate ya no usará.
+DO $$
+DECLARE
+    tabla TEXT;
+    secuencia TEXT;
+BEGIN
+    FOREACH tabla IN ARRAY ARRAY['pedidos', 'detalle_pedido', 'facturas', 'movimientos_stock',
+            'eventos_pedido', 'reservas_stock', 'carritos', 'carrito_items', 'suscripciones'] LOOP
+        IF to_regclass(tabla) IS NULL THEN
+            CONTINUE;
+        END IF;
+
+        secuencia := pg_get_serial_sequence(tabla, 'id');
+        IF secuencia IS NULL THEN
+            -- Columna sin secuencia propia: crear la que espera Hibernate
+            secuencia := tabla || '_id_seq';
+            EXECUTE format('CREATE SEQUENCE IF NOT EXISTS %I INCREMENT BY 50', secuencia);
+            EXECUTE format('SELECT setval(%L, GREATEST((SELECT COALESCE(MAX(id), 0) FROM %I), 1))',
+                    secuencia, tabla);
+            EXECUTE format('ALTER TABLE %I ALTER COLUMN id SET DEFAULT nextval(%L)', tabla, secuencia);
+        ELSIF EXISTS (SELECT 1 FROM information_schema.columns
+                      WHERE table_name = tabla AND column_name = 'id' AND is_identity = 'YES') THEN
+            EXECUTE format('ALTER TABLE %I ALTER COLUMN id SET INCREMENT BY 50', tabla);
+        ELSE
+            EXECUTE format('ALTER SEQUENCE %s INCREMENT BY 50', secuencia);
+        END IF;
+    END LOOP;
+END $$;
@@ -0,0 +1,31 @@
+-- ========================================
+-- PLAN DE ÍNDICES DE LAS CONSULTAS DE LOS REPOSITORIOS
+-- ========================================
+-- Un índice por patrón de acceso; PlanIndicesTest (pruebas de integración)
+-- comprueba con EXPLAIN que cada consulta los usa. Ya cubiertos por
+-- migraciones anteriores:
+--   pedidos por usuario ordenados por fecha    idx_pedidos_usuario_fecha (V15)
+--   pedidos por estado (y fecha)               idx_pedidos_estado_fecha (V11)
+--   detalle de un pedido                       idx_detalle_pedido_pedido (V11)
+--   facturas por rango de fecha de emisión     idx_facturas_fecha (V3)
+
+-- Facturas de un usuario, más recientes primero (sustituye a idx_facturas_usuario)
+CREATE INDEX IF NOT EXISTS idx_facturas_usuario_fecha ON facturas(usuario_id, fecha_emision DESC);
+DROP INDEX IF EXISTS idx_facturas_usuario;
+
+-- codigo_factura ya tiene su índice único
+DROP INDEX IF EXISTS idx_facturas_codigo;
+
+-- Ventas de un producto (detalle_pedido.producto_id) y productos de una categoría
+CREATE INDEX IF NOT EXISTS idx_detalle_pedido_producto ON detalle_pedido(producto_id);
+CREATE INDEX IF NOT EXISTS idx_productos_categoria ON productos(categoria_id);
+
+-- Pedidos por rango de fecha (listado de admin, exportaciones, analítica)
+CREATE INDEX IF NOT EXISTS idx_pedidos_fecha ON pedidos(fecha_pedido DESC, id DESC);
+
+-- Suscripciones de un usuario, más recientes primero
+CREATE INDEX IF NOT EXISTS idx_suscripciones_usuario_fecha ON suscripciones(usuario_id, fecha_creacion DESC);
+
+-- Restablecimiento de contraseña: solo los usuarios con token pendiente
+CREATE INDEX IF NOT EXISTS idx_usuarios_token_recuperacion
+    ON usuarios(token_recuperacion) WHERE token_recuperacion IS NOT NULL;
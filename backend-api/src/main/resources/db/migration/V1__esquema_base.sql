@@ -0,0 +1,64 @@
+-- ========================================
+-- ESQUEMA BASE (USUARIOS, CATÁLOGO Y PEDIDOS)
+-- ========================================
+-- Tablas que antes creaba Hibernate (ddl-auto=update) y de las que dependen
+-- las migraciones siguientes. Las columnas añadidas después (admision_cola,
+-- suscripcion_id, periodo, oleada_id, version) se crean en su migración.
+-- Las bases de datos anteriores a Flyway parten de la línea base V3
+-- (spring.flyway.baseline-version) y no ejecutan este script ni V3.
+
+CREATE TABLE IF NOT EXISTS usuarios (
+    id BIGSERIAL PRIMARY KEY,
+    nombre_completo VARCHAR(50) NOT NULL,
+    movil VARCHAR(20) NOT NULL,
+    correo_electronico VARCHAR(100) NOT NULL,
+    tipo_usuario VARCHAR(20) NOT NULL,
+    contrasena VARCHAR(255) NOT NULL,
+    token_recuperacion VARCHAR(100),
+    cuenta_activa BOOLEAN NOT NULL,
+    tfa_habilitado BOOLEAN NOT NULL,
+    tfa_secreto VARCHAR(100),
+    intentos_tfa INTEGER NOT NULL,
+    ultimo_intento_tfa TIMESTAMP,
+
+    CONSTRAINT uk_usuarios_correo UNIQUE (correo_electronico)
+);
+
+CREATE TABLE IF NOT EXISTS categorias (
+    id BIGSERIAL PRIMARY KEY,
+    nombre VARCHAR(50) NOT NULL,
+    descripcion TEXT
+);
+
+CREATE TABLE IF NOT EXISTS productos (
+    id BIGSERIAL PRIMARY KEY,
+    categoria_id BIGINT NOT NULL,
+    nombre VARCHAR(100) NOT NULL,
+    descripcion TEXT,
+    precio DECIMAL(10,2) NOT NULL,
+    stock INTEGER NOT NULL,
+    imagen_url VARCHAR(255),
+
+    CONSTRAINT fk_producto_categoria FOREIGN KEY (categoria_id) REFERENCES categorias(id)
+);
+
+CREATE TABLE IF NOT EXISTS pedidos (
+    id BIGSERIAL PRIMARY KEY,
+    usuario_id BIGINT NOT NULL,
+    fecha_pedido TIMESTAMP NOT NULL,
+    total_pedido DECIMAL(10,2) NOT NULL,
+    estado VARCHAR(20) NOT NULL,
+
+    CONSTRAINT fk_pedido_usuario FOREIGN KEY (usuario_id) REFERENCES usuarios(id)
+);
+
+CREATE TABLE IF NOT EXISTS detalle_pedido (
+    id BIGSERIAL PRIMARY KEY,
+    pedido_id BIGINT NOT NULL,
+    producto_id BIGINT NOT NULL,
+    cantidad INTEGER NOT NULL,
+    precio_unitario DECIMAL(10,2) NOT NULL,
+
+    CONSTRAINT fk_detalle_pedido FOREIGN KEY (pedido_id) REFERENCES pedidos(id),
+    CONSTRAINT fk_detalle_producto FOREIGN KEY (producto_id) REFERENCES productos(id)
+);
@@ -0,0 +1,34 @@
+-- ========================================
+-- TABLAS: CARRITOS / CARRITO_ITEMS
+-- ========================================
+-- Carritos persistentes de los usuarios (uno por usuario)
+-- La API los mantiene en caché y los escribe de forma diferida
+
+CREATE TABLE IF NOT EXISTS carritos (
+    id BIGSERIAL PRIMARY KEY,
+    usuario_id BIGINT UNIQUE NOT NULL,
+    total DECIMAL(10,2) NOT NULL DEFAULT 0,
+    fecha_actualizacion TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT fk_carrito_usuario FOREIGN KEY (usuario_id) REFERENCES usuarios(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS carrito_items (
+    id BIGSERIAL PRIMARY KEY,
+    carrito_id BIGINT NOT NULL,
+    producto_id BIGINT NOT NULL,
+    cantidad INTEGER NOT NULL,
+    precio_unitario DECIMAL(10,2) NOT NULL,
+
+    CONSTRAINT fk_carrito_item_carrito FOREIGN KEY (carrito_id) REFERENCES carritos(id) ON DELETE CASCADE,
+    CONSTRAINT fk_carrito_item_producto FOREIGN KEY (producto_id) REFERENCES productos(id) ON DELETE CASCADE,
+    CONSTRAINT uk_carrito_item_producto UNIQUE (carrito_id, producto_id)
+);
+
+-- Índices para mejorar rendimiento
+CREATE INDEX IF NOT EXISTS idx_carrito_items_producto ON carrito_items(producto_id);
+
+-- Comentarios
+COMMENT ON TABLE carritos IS 'Carritos persistentes de los usuarios de HÁBILIS';
+COMMENT ON COLUMN carritos.total IS 'Total acumulado con los precios vigentes (mantenido incrementalmente)';
+COMMENT ON COLUMN carrito_items.precio_unitario IS 'Precio vigente con el que se calculó el total del carrito';
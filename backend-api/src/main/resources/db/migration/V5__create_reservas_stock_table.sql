@@ -0,0 +1,27 @@
+-- ========================================
+-- TABLA: RESERVAS_STOCK
+-- ========================================
+-- Reservas temporales de stock durante el checkout
+-- Mientras una reserva está ACTIVA sus unidades cuentan en
+-- productos.stock_reservado; un barrido libera las caducadas
+
+ALTER TABLE productos ADD COLUMN IF NOT EXISTS stock_reservado INTEGER NOT NULL DEFAULT 0;
+
+CREATE TABLE IF NOT EXISTS reservas_stock (
+    id BIGSERIAL PRIMARY KEY,
+    usuario_id BIGINT NOT NULL,
+    producto_id BIGINT NOT NULL,
+    cantidad INTEGER NOT NULL,
+    fecha_creacion TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expira_en TIMESTAMP NOT NULL,
+    estado VARCHAR(20) NOT NULL DEFAULT 'ACTIVA',
+
+    CONSTRAINT fk_reserva_usuario FOREIGN KEY (usuario_id) REFERENCES usuarios(id) ON DELETE CASCADE,
+    CONSTRAINT fk_reserva_producto FOREIGN KEY (producto_id) REFERENCES productos(id) ON DELETE CASCADE,
+    CONSTRAINT chk_reserva_cantidad CHECK (cantidad > 0),
+    CONSTRAINT chk_reserva_estado CHECK (estado IN ('ACTIVA', 'CONSUMIDA', 'LIBERADA', 'CADUCADA'))
+);
+
+-- Índices parciales: solo las reservas activas se consultan en caliente
+CREATE INDEX IF NOT EXISTS idx_reservas_activas_usuario ON reservas_stock(usuario_id) WHERE estado = 'ACTIVA';
+CREATE INDEX IF NOT EXISTS idx_reservas_activas_expira ON reservas_stock(expira_en) WHERE estado = 'ACTIVA';
@@ -0,0 +1,27 @@
+-- ========================================
+-- TABLA: MOVIMIENTOS_STOCK
+-- ========================================
+-- Diario de solo inserción de los cambios del stock comprometido
+-- Los movimientos pendientes (aplicado = false) se vuelcan agregados a
+-- productos.stock; stock real = productos.stock + SUM(delta pendiente)
+
+CREATE TABLE IF NOT EXISTS movimientos_stock (
+    id BIGSERIAL PRIMARY KEY,
+    producto_id BIGINT NOT NULL,
+    delta INTEGER NOT NULL,
+    motivo VARCHAR(20) NOT NULL,
+    pedido_id BIGINT,
+    fecha TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    aplicado BOOLEAN NOT NULL DEFAULT FALSE,
+
+    CONSTRAINT fk_movimiento_producto FOREIGN KEY (producto_id) REFERENCES productos(id) ON DELETE CASCADE,
+    CONSTRAINT chk_movimiento_motivo CHECK (motivo IN ('VENTA', 'CANCELACION', 'REPOSICION', 'AJUSTE'))
+);
+
+-- Índices parciales: el volcado y la carga de contadores solo leen pendientes
+CREATE INDEX IF NOT EXISTS idx_movimientos_pendientes ON movimientos_stock(id) WHERE aplicado = FALSE;
+CREATE INDEX IF NOT EXISTS idx_movimientos_pendientes_producto ON movimientos_stock(producto_id) WHERE aplicado = FALSE;
+
+-- Las reservas ya no se acumulan en productos: el disponible se calcula
+-- como stock + movimientos pendientes - reservas activas
+ALTER TABLE productos DROP COLUMN IF EXISTS stock_reservado;
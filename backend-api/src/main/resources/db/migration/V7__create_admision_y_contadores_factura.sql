@@ -0,0 +1,19 @@
+-- ========================================
+-- COLA DE ADMISIÓN Y CONTADORES DE FACTURA
+-- ========================================
+-- Productos de lanzamiento limitado cuyos pedidos pasan por la cola
+ALTER TABLE productos ADD COLUMN IF NOT EXISTS admision_cola BOOLEAN NOT NULL DEFAULT FALSE;
+
+-- Último número de factura emitido cada día (FAC-YYYYMMDD-XXXXX)
+-- Se reserva por bloques con INSERT ... ON CONFLICT DO UPDATE ... RETURNING
+CREATE TABLE IF NOT EXISTS contadores_factura (
+    fecha DATE PRIMARY KEY,
+    ultimo INTEGER NOT NULL
+);
+
+-- Inicializar los contadores con las facturas ya emitidas
+INSERT INTO contadores_factura (fecha, ultimo)
+SELECT CAST(fecha_emision AS DATE), COUNT(*)
+FROM facturas
+GROUP BY CAST(fecha_emision AS DATE)
+ON CONFLICT (fecha) DO NOTHING;
@@ -0,0 +1,43 @@
+-- ========================================
+-- SUSCRIPCIONES MENSUALES
+-- ========================================
+CREATE TABLE IF NOT EXISTS suscripciones (
+    id BIGSERIAL PRIMARY KEY,
+    usuario_id BIGINT NOT NULL REFERENCES usuarios(id),
+    categoria_id BIGINT NOT NULL REFERENCES categorias(id),
+    fecha_inicio DATE NOT NULL,
+    fecha_fin DATE NOT NULL,
+    estado VARCHAR(20) NOT NULL DEFAULT 'ACTIVA'
+        CHECK (estado IN ('ACTIVA', 'CANCELADA', 'FINALIZADA')),
+    fecha_creacion TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Recorrido por lotes de la generación mensual: (usuario_id, id) de las activas
+CREATE INDEX IF NOT EXISTS idx_suscripciones_activas_usuario
+    ON suscripciones(usuario_id, id) WHERE estado = 'ACTIVA';
+
+-- Un pedido por suscripción y mes (la generación es idempotente)
+ALTER TABLE pedidos ADD COLUMN IF NOT EXISTS suscripcion_id BIGINT REFERENCES suscripciones(id);
+ALTER TABLE pedidos ADD COLUMN IF NOT EXISTS periodo VARCHAR(7);
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uk_pedido_suscripcion_periodo') THEN
+        ALTER TABLE pedidos ADD CONSTRAINT uk_pedido_suscripcion_periodo UNIQUE (suscripcion_id, periodo);
+    END IF;
+END $$;
+
+-- Punto de control de cada partición de la generación mensual
+CREATE TABLE IF NOT EXISTS progreso_generacion (
+    id BIGSERIAL PRIMARY KEY,
+    periodo VARCHAR(7) NOT NULL,
+    particion INTEGER NOT NULL,
+    usuario_desde BIGINT NOT NULL,
+    usuario_hasta BIGINT NOT NULL,
+    ultimo_usuario_id BIGINT NOT NULL,
+    ultima_suscripcion_id BIGINT NOT NULL DEFAULT 0,
+    pedidos_generados INTEGER NOT NULL DEFAULT 0,
+    completada BOOLEAN NOT NULL DEFAULT FALSE,
+    fecha_actualizacion TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_progreso_periodo_particion UNIQUE (periodo, particion)
+);
@@ -0,0 +1,13 @@
+-- ========================================
+-- FACTURACIÓN POR LOTES
+-- ========================================
+-- Una factura por pedido: permite INSERT ... ON CONFLICT (pedido_id) DO NOTHING
+-- en la emisión por lotes
+CREATE UNIQUE INDEX IF NOT EXISTS uk_facturas_pedido ON facturas(pedido_id);
+
+-- Reclamar por lotes los pedidos de suscripción de un mes
+CREATE INDEX IF NOT EXISTS idx_pedidos_suscripcion_periodo
+    ON pedidos(periodo, id) WHERE suscripcion_id IS NOT NULL;
+
+-- Facturas pendientes de PDF
+CREATE INDEX IF NOT EXISTS idx_facturas_sin_pdf ON facturas(id) WHERE ruta_pdf IS NULL;
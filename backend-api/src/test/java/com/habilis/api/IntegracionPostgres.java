@@ -0,0 +1,157 @@
+package com.habilis.api;
+
+import com.habilis.api.entity.Categoria;
+import com.habilis.api.entity.DetallePedido;
+import com.habilis.api.entity.Factura;
+import com.habilis.api.entity.Pedido;
+import com.habilis.api.entity.Producto;
+import com.habilis.api.entity.Usuario;
+import com.habilis.api.repository.CategoriaRepository;
+import com.habilis.api.repository.FacturaRepository;
+import com.habilis.api.repository.PedidoRepository;
+import com.habilis.api.repository.ProductoRepository;
+import com.habilis.api.repository.UsuarioRepository;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Base de las pruebas de integración: la aplicación completa contra PostgreSQL
+ *
+ * La base de datos es un contenedor de Testcontainers (postgres:15, como en
+ * docker-compose) compartido por todas las pruebas, con el esquema de Flyway.
+ * Sin Docker se puede usar una base de datos ya arrancada con
+ * HABILIS_TEST_DATASOURCE_URL (y _USERNAME/_PASSWORD); sin ninguna de las dos
+ * las pruebas se omiten. data.sql vacía las tablas de pedidos al arrancar, así
+ * que no se debe apuntar a una base de datos con datos reales.
+ *
+ * Cada prueba crea sus propios datos (usuario, productos, pedidos) para no
+ * depender del orden de ejecución.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public abstract class IntegracionPostgres {
+
+    private static final String URL_EXTERNA = System.getenv("HABILIS_TEST_DATASOURCE_URL");
+
+    private static PostgreSQLContainer<?> postgres;
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    protected TransactionTemplate transactionTemplate;
+
+    @Autowired
+    protected UsuarioRepository usuarioRepository;
+
+    @Autowired
+    protected CategoriaRepository categoriaRepository;
+
+    @Autowired
+    protected ProductoRepository productoRepository;
+
+    @Autowired
+    protected PedidoRepository pedidoRepository;
+
+    @Autowired
+    protected FacturaRepository facturaRepository;
+
+    @BeforeAll
+    static void comprobarBaseDatos() {
+        Assumptions.assumeTrue(URL_EXTERNA != null || DockerClientFactory.instance().isDockerAvailable(),
+                "Sin Docker ni HABILIS_TEST_DATASOURCE_URL: pruebas de integración omitidas");
+    }
+
+    @DynamicPropertySource
+    static void baseDatos(DynamicPropertyRegistry registro) {
+        if (URL_EXTERNA != null) {
+            registro.add("spring.datasource.url", () -> URL_EXTERNA);
+            registro.add("spring.datasource.username",
+                    () -> System.getenv().getOrDefault("HABILIS_TEST_DATASOURCE_USERNAME", "postgres"));
+            registro.add("spring.datasource.password",
+                    () -> System.getenv().getOrDefault("HABILIS_TEST_DATASOURCE_PASSWORD", "postgres"));
+            return;
+        }
+        registro.add("spring.datasource.url", () -> contenedor().getJdbcUrl());
+        registro.add("spring.datasource.username", () -> contenedor().getUsername());
+        registro.add("spring.datasource.password", () -> contenedor().getPassword());
+    }
+
+    private static synchronized PostgreSQLContainer<?> contenedor() {
+        if (postgres == null) {
+            postgres = new PostgreSQLContainer<>("postgres:15");
+            postgres.start();
+        }
+        return postgres;
+    }
+
+    /**
+     * Sesión HTTP de un usuario ya autenticado (como la deja AuthController)
+     */
+    protected MockHttpSession sesion(Usuario usuario) {
+        MockHttpSession sesion = new MockHttpSession();
+        sesion.setAttribute("userId", usuario.getId());
+        sesion.setAttribute("userRole", usuario.getTipoUsuario());
+        return sesion;
+    }
+
+    protected Usuario crearUsuario(String tipo) {
+        String sufijo = UUID.randomUUID().toString().substring(0, 8);
+        Usuario usuario = new Usuario("Prueba " + sufijo, "600000000", "prueba-" + sufijo + "@habilis.test",
+                tipo, "$2a$10$abcdefghijklmnopqrstuuabcdefghijklmnopqrstuvwxyz01234");
+        usuario.setCuentaActiva(true);
+        return usuarioRepository.save(usuario);
+    }
+
+    protected List<Producto> crearProductos(int cantidad) {
+        return transactionTemplate.execute(status -> {
+            Categoria categoria = categoriaRepository.save(
+                    new Categoria("Prueba " + UUID.randomUUID().toString().substring(0, 8), "Categoría de prueba"));
+            List<Producto> productos = new ArrayList<>();
+            for (int i = 1; i <= cantidad; i++) {
+                productos.add(new Producto(categoria, "Producto de prueba " + i, "Descripción " + i,
+                        new BigDecimal("9.95").add(BigDecimal.valueOf(i)), 100, null));
+            }
+            return productoRepository.saveAll(productos);
+        });
+    }
+
+    /**
+     * Pedido de un usuario con una línea por producto
+     */
+    protected Pedido crearPedido(Usuario usuario, List<Producto> productos) {
+        return transactionTemplate.execute(status -> {
+            Pedido pedido = new Pedido(usuario, BigDecimal.ZERO);
+            BigDecimal total = BigDecimal.ZERO;
+            for (Producto producto : productos) {
+                DetallePedido detalle = new DetallePedido(pedido, producto, 2, producto.getPrecio());
+                pedido.getDetalles().add(detalle);
+                total = total.add(detalle.getSubtotal());
+            }
+            pedido.setTotalPedido(total);
+            return pedidoRepository.save(pedido);
+        });
+    }
+
+    protected Factura crearFactura(Pedido pedido) {
+        String codigo = "FAC-TEST-" + UUID.randomUUID().toString().substring(0, 8);
+        return facturaRepository.save(new Factura(codigo, pedido, pedido.getUsuario(), pedido.getTotalPedido()));
+    }
+}
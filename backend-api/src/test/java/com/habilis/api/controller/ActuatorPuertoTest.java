@@ -0,0 +1,32 @@
+package com.habilis.api.controller;
+
+import com.habilis.api.IntegracionPostgres;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Las métricas de Actuator no se sirven en el puerto público de la API
+ *
+ * Van en el puerto de gestión (management.server.port), que docker-compose
+ * no publica; en el de la API /actuator no existe.
+ */
+class ActuatorPuertoTest extends IntegracionPostgres {
+
+    @Value("${management.server.port}")
+    private int puertoGestion;
+
+    @Value("${server.port:8080}")
+    private int puertoApi;
+
+    @Test
+    void metricasFueraDelPuertoDeLaApi() throws Exception {
+        assertThat(puertoGestion).isNotEqualTo(puertoApi);
+
+        mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/actuator/metrics")).andExpect(status().isNotFound());
+    }
+}
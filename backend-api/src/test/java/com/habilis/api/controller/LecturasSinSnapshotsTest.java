@@ -0,0 +1,142 @@
+package com.habilis.api.controller;
+
+import com.habilis.api.IntegracionPostgres;
+import com.habilis.api.entity.Pedido;
+import com.habilis.api.entity.Producto;
+import com.habilis.api.entity.Usuario;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Las lecturas no guardan copia de las entidades para el dirty checking
+ *
+ * Al terminar cada GET, con la respuesta ya serializada, se revisa el
+ * PersistenceContext de la sesión de la petición (SesionJpaPorPeticionFilter):
+ * cualquier entidad que no sea read-only, también las cargadas al serializar
+ * asociaciones perezosas, hace fallar la prueba. Las escrituras que se hacen
+ * en un GET (confirmar el email) se siguen guardando.
+ */
+class LecturasSinSnapshotsTest extends IntegracionPostgres {
+
+    private static final String ENTIDADES = "prueba.entidades";
+    private static final String CON_SNAPSHOT = "prueba.conSnapshot";
+
+    @Test
+    void catalogoSinSnapshots() throws Exception {
+        Usuario usuario = crearUsuario("CLIENTE");
+        List<Producto> productos = crearProductos(3);
+        Long categoriaId = productos.get(0).getCategoria().getId();
+
+        assertSinSnapshots(usuario, "/api/productos");
+        assertSinSnapshots(usuario, "/api/productos/" + productos.get(0).getId());
+        assertSinSnapshots(usuario, "/api/productos/categoria/" + categoriaId);
+        assertSinSnapshots(usuario, "/api/categorias");
+        assertSinSnapshots(usuario, "/api/categorias/" + categoriaId);
+    }
+
+    @Test
+    void pedidosSinSnapshots() throws Exception {
+        Usuario usuario = crearUsuario("CLIENTE");
+        Pedido pedido = crearPedido(usuario, crearProductos(3));
+
+        assertSinSnapshots(usuario, "/api/pedidos");
+        assertSinSnapshots(usuario, "/api/pedidos/" + pedido.getId());
+    }
+
+    @Test
+    void listadosDeAdministracionSinSnapshots() throws Exception {
+        Usuario admin = crearUsuario("ADMIN");
+        crearPedido(crearUsuario("CLIENTE"), crearProductos(2));
+
+        assertSinSnapshots(admin, "/api/pedidos/estado/PENDIENTE");
+        assertSinSnapshots(admin, "/api/productos/stock-bajo?umbral=1000");
+    }
+
+    @Test
+    void escrituraEnUnGetSeGuarda() throws Exception {
+        Usuario usuario = crearUsuario("CLIENTE");
+        usuario.setCuentaActiva(false);
+        usuario.setTokenRecuperacion("confirmar-" + usuario.getId());
+        usuarioRepository.save(usuario);
+
+        mockMvc.perform(get("/api/auth/confirmar-email").param("token", "confirmar-" + usuario.getId()))
+                .andExpect(status().isOk());
+
+        assertThat(usuarioRepository.findById(usuario.getId()).orElseThrow().getCuentaActiva()).isTrue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void assertSinSnapshots(Usuario usuario, String ruta) throws Exception {
+        MvcResult resultado = mockMvc.perform(get(ruta).session(sesion(usuario)))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        List<String> entidades = (List<String>) resultado.getRequest().getAttribute(ENTIDADES);
+        List<String> conSnapshot = (List<String>) resultado.getRequest().getAttribute(CON_SNAPSHOT);
+
+        assertThat(entidades).as("Entidades cargadas por %s", ruta).isNotEmpty();
+        assertThat(conSnapshot).as("Entidades con snapshot en %s", ruta).isEmpty();
+    }
+
+    /**
+     * Revisar la sesión de la petición al terminar, antes de que el filtro la cierre
+     */
+    @TestConfiguration
+    static class RevisionSesion implements WebMvcConfigurer {
+
+        private final EntityManagerFactory entityManagerFactory;
+
+        RevisionSesion(EntityManagerFactory entityManagerFactory) {
+            this.entityManagerFactory = entityManagerFactory;
+        }
+
+        @Override
+        public void addInterceptors(InterceptorRegistry registry) {
+            registry.addInterceptor(new HandlerInterceptor() {
+                @Override
+                public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                        Object handler, Exception ex) {
+                    EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager
+                            .getResource(entityManagerFactory);
+                    if (holder == null) {
+                        return;
+                    }
+
+                    List<String> entidades = new ArrayList<>();
+                    List<String> conSnapshot = new ArrayList<>();
+                    for (Map.Entry<Object, EntityEntry> entrada : holder.getEntityManager()
+                            .unwrap(SessionImplementor.class).getPersistenceContextInternal()
+                            .reentrantSafeEntityEntries()) {
+                        EntityEntry entry = entrada.getValue();
+                        String entidad = entry.getEntityName() + "#" + entry.getId();
+                        entidades.add(entidad);
+                        if (!entry.isReadOnly() || entry.getLoadedState() != null) {
+                            conSnapshot.add(entidad);
+                        }
+                    }
+                    request.setAttribute(ENTIDADES, entidades);
+                    request.setAttribute(CON_SNAPSHOT, conSnapshot);
+                }
+            });
+        }
+    }
+}
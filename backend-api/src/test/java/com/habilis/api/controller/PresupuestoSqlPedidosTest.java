@@ -0,0 +1,113 @@
+package com.habilis.api.controller;
+
+import com.habilis.api.IntegracionPostgres;
+import com.habilis.api.config.ContadorSentenciasSql;
+import com.habilis.api.entity.Factura;
+import com.habilis.api.entity.Pedido;
+import com.habilis.api.entity.Producto;
+import com.habilis.api.entity.Usuario;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Presupuesto de sentencias SQL de las lecturas de pedidos y facturas
+ *
+ * Cada lectura tiene que quedarse dentro de habilis.sql.presupuesto.sentencias
+ * y no puede crecer con el número de líneas o de pedidos: un N+1 (una
+ * asociación perezosa sin grafo de carga ni batch fetch) hace fallar la prueba.
+ * Se cuentan las sentencias de Hibernate de toda la petición, incluida la
+ * serialización JSON, con la sesión por petición de los GET.
+ */
+class PresupuestoSqlPedidosTest extends IntegracionPostgres {
+
+    @Value("${habilis.sql.presupuesto.sentencias}")
+    private int presupuesto;
+
+    @Test
+    void obtenerPedidoNoDependeDeLasLineas() throws Exception {
+        Usuario usuario = crearUsuario("CLIENTE");
+        Pedido pequeno = crearPedido(usuario, crearProductos(1));
+        Pedido grande = crearPedido(usuario, crearProductos(30));
+
+        int sentenciasPequeno = sentencias(usuario, "/api/pedidos/" + pequeno.getId());
+        int sentenciasGrande = sentencias(usuario, "/api/pedidos/" + grande.getId());
+
+        assertThat(sentenciasGrande).isLessThanOrEqualTo(presupuesto).isEqualTo(sentenciasPequeno);
+    }
+
+    @Test
+    void listarMisPedidosNoDependeDeLosPedidos() throws Exception {
+        List<Producto> productos = crearProductos(5);
+        Usuario conUno = crearUsuario("CLIENTE");
+        crearPedido(conUno, productos);
+        Usuario conVeinte = crearUsuario("CLIENTE");
+        for (int i = 0; i < 20; i++) {
+            crearPedido(conVeinte, productos.subList(0, 1 + i % productos.size()));
+        }
+
+        int sentenciasUno = sentencias(conUno, "/api/pedidos");
+        int sentenciasVeinte = sentencias(conVeinte, "/api/pedidos");
+
+        assertThat(sentenciasVeinte).isLessThanOrEqualTo(presupuesto).isEqualTo(sentenciasUno);
+    }
+
+    @Test
+    void listadosDeAdministracionDentroDelPresupuesto() throws Exception {
+        List<Producto> productos = crearProductos(5);
+        Usuario cliente = crearUsuario("CLIENTE");
+        for (int i = 0; i < 10; i++) {
+            crearPedido(cliente, productos);
+        }
+        Usuario admin = crearUsuario("ADMIN");
+
+        assertThat(sentencias(admin, "/api/pedidos")).isLessThanOrEqualTo(presupuesto);
+        assertThat(sentencias(admin, "/api/pedidos/usuario/" + cliente.getId())).isLessThanOrEqualTo(presupuesto);
+        assertThat(sentencias(admin, "/api/pedidos/estado/PENDIENTE")).isLessThanOrEqualTo(presupuesto);
+    }
+
+    @Test
+    void facturaPdfNoDependeDeLasLineas() throws Exception {
+        Usuario usuario = crearUsuario("CLIENTE");
+        Pedido pequeno = crearPedido(usuario, crearProductos(1));
+        Pedido grande = crearPedido(usuario, crearProductos(30));
+
+        int sentenciasPequeno = sentencias(usuario, "/api/pedidos/" + pequeno.getId() + "/factura");
+        int sentenciasGrande = sentencias(usuario, "/api/pedidos/" + grande.getId() + "/factura");
+
+        assertThat(sentenciasGrande).isLessThanOrEqualTo(presupuesto).isEqualTo(sentenciasPequeno);
+    }
+
+    @Test
+    void facturasDelUsuarioDentroDelPresupuesto() throws Exception {
+        Usuario usuario = crearUsuario("CLIENTE");
+        List<Producto> productos = crearProductos(3);
+        Factura factura = null;
+        for (int i = 0; i < 10; i++) {
+            factura = crearFactura(crearPedido(usuario, productos));
+        }
+
+        assertThat(sentencias(usuario, "/api/facturas/mis-facturas")).isLessThanOrEqualTo(presupuesto);
+        assertThat(sentencias(usuario, "/api/facturas/" + factura.getCodigoFactura() + "/descargar"))
+                .isLessThanOrEqualTo(presupuesto);
+    }
+
+    /**
+     * Sentencias de Hibernate de un GET que debe responder 200
+     */
+    private int sentencias(Usuario usuario, String ruta) throws Exception {
+        int sentencias;
+        ContadorSentenciasSql.iniciar("GET " + ruta, presupuesto, false);
+        try {
+            mockMvc.perform(get(ruta).session(sesion(usuario))).andExpect(status().isOk());
+        } finally {
+            sentencias = ContadorSentenciasSql.terminar();
+        }
+        return sentencias;
+    }
+}
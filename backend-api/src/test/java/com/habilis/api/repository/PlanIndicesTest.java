@@ -0,0 +1,105 @@
+package com.habilis.api.repository;
+
+import com.habilis.api.IntegracionPostgres;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Plan de índices de las consultas de los repositorios (V17__plan_indices.sql)
+ *
+ * Pide a PostgreSQL el plan (EXPLAIN) de las consultas que más se ejecutan y
+ * falla si alguna deja de usar su índice. Se desactiva el recorrido secuencial
+ * en la transacción: con las tablas casi vacías de la prueba el planificador lo
+ * prefiere aunque el índice exista, así que un Seq Scan solo aparece cuando el
+ * índice falta o la consulta ya no puede usarlo.
+ *
+ * Con pocas filas dos índices pueden costar lo mismo (idx_pedidos_fecha con
+ * un filtro frente a idx_pedidos_usuario_fecha) y el plan dependería de las
+ * estadísticas que haya dejado el resto de pruebas. Por eso cada consulta se
+ * explica sobre un volumen fijo (DATOS, con sus estadísticas) que se deshace
+ * al terminar.
+ */
+class PlanIndicesTest extends IntegracionPostgres {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // 200 usuarios con 10 pedidos (y su factura) y una suscripción cada uno
+    private static final String[] DATOS = {
+            "INSERT INTO categorias (nombre) VALUES ('Plan de índices')",
+            "INSERT INTO usuarios (nombre_completo, movil, correo_electronico, tipo_usuario, contrasena, "
+                    + "cuenta_activa, tfa_habilitado, intentos_tfa) "
+                    + "SELECT 'Plan ' || g, '600000000', 'plan-' || g || '-' || gen_random_uuid() || '@habilis.test', "
+                    + "'CLIENTE', 'x', true, false, 0 FROM generate_series(1, 200) g",
+            "INSERT INTO pedidos (usuario_id, fecha_pedido, total_pedido, estado) "
+                    + "SELECT u.id, now() - g * interval '1 day', 10, "
+                    + "(ARRAY['PENDIENTE', 'ENVIADO', 'COMPLETADO', 'CANCELADO'])[1 + g % 4] "
+                    + "FROM usuarios u CROSS JOIN generate_series(1, 10) g WHERE u.nombre_completo LIKE 'Plan %'",
+            "INSERT INTO facturas (codigo_factura, pedido_id, usuario_id, fecha_emision, total) "
+                    + "SELECT 'PLAN-' || p.id, p.id, p.usuario_id, p.fecha_pedido, p.total_pedido "
+                    + "FROM pedidos p JOIN usuarios u ON u.id = p.usuario_id WHERE u.nombre_completo LIKE 'Plan %'",
+            "INSERT INTO suscripciones (usuario_id, categoria_id, fecha_inicio, fecha_fin) "
+                    + "SELECT u.id, c.id, current_date, current_date + 30 FROM usuarios u "
+                    + "CROSS JOIN categorias c WHERE u.nombre_completo LIKE 'Plan %' AND c.nombre = 'Plan de índices'",
+            "ANALYZE usuarios, pedidos, facturas, suscripciones"
+    };
+
+    // Consulta (con valores de ejemplo) -> índice que debe aparecer en su plan
+    static Stream<Arguments> consultas() {
+        return Stream.of(
+                // PedidoRepository.findByUsuarioIdOrderByFechaPedidoDesc
+                Arguments.of("SELECT * FROM pedidos WHERE usuario_id = 1 ORDER BY fecha_pedido DESC",
+                        "idx_pedidos_usuario_fecha"),
+                // PedidoRepository.findByEstado
+                Arguments.of("SELECT * FROM pedidos WHERE estado = 'PENDIENTE'",
+                        "idx_pedidos_estado_fecha"),
+                // PedidoRepository.findAllOrderByFechaDesc (y rangos de fecha)
+                Arguments.of("SELECT * FROM pedidos ORDER BY fecha_pedido DESC LIMIT 50",
+                        "idx_pedidos_fecha"),
+                // FacturaRepository.countByFechaEmisionBetween
+                Arguments.of("SELECT COUNT(*) FROM facturas "
+                        + "WHERE fecha_emision BETWEEN '2026-01-01 00:00' AND '2026-01-31 23:59:59'",
+                        "idx_facturas_fecha"),
+                // FacturaRepository.findByUsuarioIdOrderByFechaEmisionDesc
+                Arguments.of("SELECT * FROM facturas WHERE usuario_id = 1 ORDER BY fecha_emision DESC",
+                        "idx_facturas_usuario_fecha"),
+                // DetallePedidoRepository.findByPedidoId
+                Arguments.of("SELECT * FROM detalle_pedido WHERE pedido_id = 1",
+                        "idx_detalle_pedido_pedido"),
+                // DetallePedidoRepository.findByProductoId
+                Arguments.of("SELECT * FROM detalle_pedido WHERE producto_id = 1",
+                        "idx_detalle_pedido_producto"),
+                // ProductoRepository.findByCategoriaId
+                Arguments.of("SELECT * FROM productos WHERE categoria_id = 1",
+                        "idx_productos_categoria"),
+                // SuscripcionRepository.findByUsuarioIdOrderByFechaCreacionDesc
+                Arguments.of("SELECT * FROM suscripciones WHERE usuario_id = 1 ORDER BY fecha_creacion DESC",
+                        "idx_suscripciones_usuario_fecha"),
+                // UsuarioRepository.findByTokenRecuperacion
+                Arguments.of("SELECT * FROM usuarios WHERE token_recuperacion = 'abc'",
+                        "idx_usuarios_token_recuperacion"));
+    }
+
+    @ParameterizedTest(name = "{1}")
+    @MethodSource("consultas")
+    void consultaUsaSuIndice(String consulta, String indice) {
+        String plan = transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            jdbcTemplate.batchUpdate(DATOS);
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+            return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + consulta, String.class));
+        });
+
+        assertThat(plan)
+                .as("Plan de %s", consulta)
+                .contains(indice)
+                .doesNotContain("Seq Scan");
+    }
+}
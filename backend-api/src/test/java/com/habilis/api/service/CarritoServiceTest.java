@@ -0,0 +1,57 @@
+package com.habilis.api.service;
+
+import com.habilis.api.IntegracionPostgres;
+import com.habilis.api.dto.LineaCarrito;
+import com.habilis.api.entity.Producto;
+import com.habilis.api.entity.Usuario;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Eliminar un producto quita sus líneas de los carritos en caché solo si la
+ * eliminación se confirma
+ */
+class CarritoServiceTest extends IntegracionPostgres {
+
+    @Autowired
+    private CarritoService carritoService;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Test
+    void eliminacionDeshechaNoTocaLosCarritos() {
+        Usuario usuario = crearUsuario("CLIENTE");
+        Producto producto = crearProductos(1).get(0);
+        carritoService.agregar(usuario.getId(), producto.getId(), 2);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            productoService.eliminar(producto.getId());
+            status.setRollbackOnly();
+        });
+
+        assertThat(productosEnCarrito(usuario)).containsExactly(producto.getId());
+    }
+
+    @Test
+    void eliminacionConfirmadaQuitaLaLinea() {
+        Usuario usuario = crearUsuario("CLIENTE");
+        List<Producto> productos = crearProductos(2);
+        carritoService.agregar(usuario.getId(), productos.get(0).getId(), 1);
+        carritoService.agregar(usuario.getId(), productos.get(1).getId(), 1);
+
+        productoService.eliminar(productos.get(0).getId());
+
+        assertThat(productosEnCarrito(usuario)).containsExactly(productos.get(1).getId());
+    }
+
+    private List<Long> productosEnCarrito(Usuario usuario) {
+        return carritoService.obtener(usuario.getId()).getLineas().stream()
+                .map(LineaCarrito::getProductoId)
+                .toList();
+    }
+}
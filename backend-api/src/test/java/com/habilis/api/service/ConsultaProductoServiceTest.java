@@ -0,0 +1,75 @@
+package com.habilis.api.service;
+
+import com.habilis.api.IntegracionPostgres;
+import com.habilis.api.dto.ProductoResumen;
+import com.habilis.api.entity.Producto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Las consultas del catálogo devuelven el stock del inventario, no el que
+ * todavía no se ha volcado a productos.stock
+ *
+ * Cada prueba vende 95 unidades del primer producto y las 100 del segundo,
+ * y retiene 2 del primero en una reserva: disponible 3 y 0, comprometido 5.
+ */
+class ConsultaProductoServiceTest extends IntegracionPostgres {
+
+    @Autowired
+    private ConsultaProductoService consultaProductoService;
+
+    @Autowired
+    private InventarioService inventarioService;
+
+    private Producto primero;
+    private Producto segundo;
+
+    @BeforeEach
+    void venderCasiTodo() {
+        List<Producto> productos = crearProductos(2);
+        primero = productos.get(0);
+        segundo = productos.get(1);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            inventarioService.vender(primero.getId(), 95, null);
+            inventarioService.vender(segundo.getId(), 100, null);
+            inventarioService.reservar(primero.getId(), 2);
+        });
+    }
+
+    @Test
+    void resumenConStockDisponible() {
+        List<ProductoResumen> resumenes = consultaProductoService
+                .buscarResumenPorIds(List.of(primero.getId(), segundo.getId()));
+
+        assertThat(resumenes).extracting(ProductoResumen::getStock).containsExactly(3, 0);
+    }
+
+    @Test
+    void stockBajoSegunElDisponible() {
+        List<Long> ids = consultaProductoService.listarConStockBajo(4).stream()
+                .map(Producto::getId)
+                .toList();
+
+        assertThat(ids).contains(primero.getId(), segundo.getId());
+    }
+
+    @Test
+    void filtroDisponibleSegunElInventario() {
+        List<Producto> productos = consultaProductoService.buscarConFiltros(null,
+                primero.getCategoria().getId(), null, null, true);
+
+        assertThat(productos).extracting(Producto::getId).containsExactly(primero.getId());
+        assertThat(productos).extracting(Producto::getStock).containsExactly(3);
+    }
+
+    @Test
+    void busquedaPorIdConStockComprometido() {
+        assertThat(consultaProductoService.buscarPorId(primero.getId()).getStock()).isEqualTo(5);
+    }
+}
@@ -0,0 +1,81 @@
+package com.habilis.api.service;
+
+import com.habilis.api.IntegracionPostgres;
+import com.habilis.api.entity.Factura;
+import com.habilis.api.entity.Pedido;
+import com.habilis.api.entity.Usuario;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Panel del usuario: pedidos con factura en una consulta, pool acotado y
+ * tiempo máximo de carga
+ */
+class DashboardServiceTest extends IntegracionPostgres {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private EstadisticasUsuarioService estadisticasUsuarioService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void pedidosConFacturaYLineas() {
+        Usuario usuario = crearUsuario("CLIENTE");
+        Pedido sinFactura = crearPedido(usuario, crearProductos(1));
+        Pedido conFactura = crearPedido(usuario, crearProductos(2));
+        Factura factura = crearFactura(conFactura);
+
+        List<Map<String, Object>> pedidos =
+                (List<Map<String, Object>>) dashboardService.obtener(usuario.getId(), 10).get("pedidosRecientes");
+
+        assertThat(pedidos).extracting(pedido -> pedido.get("id"))
+                .containsExactly(conFactura.getId(), sinFactura.getId());
+        assertThat(pedidos).extracting(pedido -> pedido.get("codigoFactura"))
+                .containsExactly(factura.getCodigoFactura(), null);
+        assertThat(pedidos).extracting(pedido -> ((List<?>) pedido.get("detalles")).size())
+                .containsExactly(2, 1);
+    }
+
+    @Test
+    void colaLlenaRechazaElPanel() {
+        Usuario usuario = crearUsuario("CLIENTE");
+
+        // Un hilo y una plaza en cola: la tercera consulta no cabe
+        DashboardService saturado = new DashboardService(usuarioRepository, estadisticasUsuarioService,
+                jdbcTemplate, 1, 1, 5000);
+        try {
+            assertThatThrownBy(() -> saturado.obtener(usuario.getId(), 10))
+                    .isInstanceOf(RejectedExecutionException.class);
+        } finally {
+            saturado.detener();
+        }
+    }
+
+    @Test
+    void tiempoAgotadoFallaSinEsperar() {
+        Usuario usuario = crearUsuario("CLIENTE");
+
+        DashboardService lento = new DashboardService(usuarioRepository, estadisticasUsuarioService,
+                jdbcTemplate, 1, 8, 0);
+        try {
+            assertThatThrownBy(() -> lento.obtener(usuario.getId(), 10))
+                    .hasCauseInstanceOf(TimeoutException.class);
+        } finally {
+            lento.detener();
+        }
+    }
+}
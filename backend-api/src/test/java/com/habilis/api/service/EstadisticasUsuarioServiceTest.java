@@ -0,0 +1,101 @@
+package com.habilis.api.service;
+
+import com.habilis.api.IntegracionPostgres;
+import com.habilis.api.entity.EstadisticasUsuario;
+import com.habilis.api.entity.EstadoPedido;
+import com.habilis.api.entity.Pedido;
+import com.habilis.api.entity.Producto;
+import com.habilis.api.entity.Usuario;
+import com.habilis.api.repository.EstadisticasUsuarioRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * La conciliación de estadísticas no pisa los cambios incrementales que se
+ * confirman mientras recalcula
+ *
+ * Cada prueba deja una transacción abierta a mitad de un cambio (pedido
+ * creado o cambio de estado ya sumado en estadisticas_usuario), arranca la
+ * conciliación y confirma la transacción cuando la conciliación ya está
+ * esperando. Al final la fila tiene que coincidir con los pedidos.
+ */
+class EstadisticasUsuarioServiceTest extends IntegracionPostgres {
+
+    @Autowired
+    private EstadisticasUsuarioService estadisticasUsuarioService;
+
+    @Autowired
+    private EstadisticasUsuarioRepository estadisticasUsuarioRepository;
+
+    @Autowired
+    private TransicionPedidoService transicionPedidoService;
+
+    @Test
+    void conciliarNoPisaUnPedidoQueSeEstaCreando() throws Exception {
+        Usuario usuario = crearUsuario("CLIENTE");
+        crearPedido(usuario, crearProductos(1));
+        estadisticasUsuarioService.conciliar();
+
+        conciliarDuranteLaTransaccion(() -> {
+            Pedido pedido = pedidoRepository.saveAndFlush(new Pedido(usuario, new BigDecimal("10.00")));
+            estadisticasUsuarioService.registrarPedido(usuario.getId(), pedido.getTotalPedido(),
+                    LocalDateTime.now());
+        });
+
+        assertThat(estadisticasUsuarioRepository.findById(usuario.getId()).orElseThrow().getTotalPedidos())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void conciliarNoPisaUnCambioDeEstado() throws Exception {
+        Usuario usuario = crearUsuario("CLIENTE");
+        List<Producto> productos = crearProductos(1);
+        Pedido pedido = crearPedido(usuario, productos);
+        estadisticasUsuarioService.conciliar();
+
+        conciliarDuranteLaTransaccion(
+                () -> transicionPedidoService.transicionar(pedido.getId(), EstadoPedido.ENVIADO));
+
+        EstadisticasUsuario estadisticas = estadisticasUsuarioRepository.findById(usuario.getId()).orElseThrow();
+        assertThat(estadisticas.getPendientes()).isZero();
+        assertThat(estadisticas.getEnviados()).isEqualTo(1);
+    }
+
+    /**
+     * Hacer el cambio en una transacción que no se confirma hasta que la
+     * conciliación lleva un rato esperando
+     */
+    private void conciliarDuranteLaTransaccion(Runnable cambio) throws Exception {
+        CountDownLatch cambioHecho = new CountDownLatch(1);
+        CountDownLatch confirmar = new CountDownLatch(1);
+
+        CompletableFuture<Void> transaccion = CompletableFuture.runAsync(() ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    cambio.run();
+                    cambioHecho.countDown();
+                    try {
+                        confirmar.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+        assertThat(cambioHecho.await(10, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<Integer> conciliacion = CompletableFuture.supplyAsync(estadisticasUsuarioService::conciliar);
+        Thread.sleep(500);
+        assertThat(conciliacion).as("La conciliación espera al cambio sin confirmar").isNotDone();
+
+        confirmar.countDown();
+        transaccion.get(10, TimeUnit.SECONDS);
+        conciliacion.get(10, TimeUnit.SECONDS);
+    }
+}
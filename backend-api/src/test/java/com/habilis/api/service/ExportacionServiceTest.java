@@ -0,0 +1,44 @@
+package com.habilis.api.service;
+
+import com.habilis.api.IntegracionPostgres;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Una exportación sin filas sigue siendo un fichero válido: el CSV lleva su
+ * cabecera y el NDJSON queda vacío
+ */
+class ExportacionServiceTest extends IntegracionPostgres {
+
+    // Un día sin pedidos ni facturas
+    private static final LocalDate DIA_VACIO = LocalDate.of(1990, 1, 1);
+
+    @Autowired
+    private ExportacionService exportacionService;
+
+    @Test
+    void csvSinFilasConCabecera() throws Exception {
+        assertThat(exportarDiaVacio("pedidos", "csv")).isEqualTo(
+                "id,usuario_id,correo_electronico,fecha_pedido,estado,total_pedido,suscripcion_id,periodo\r\n");
+        assertThat(exportarDiaVacio("facturas", "csv"))
+                .isEqualTo("id,codigo_factura,pedido_id,usuario_id,fecha_emision,total\r\n");
+    }
+
+    @Test
+    void ndjsonSinFilasVacio() throws Exception {
+        assertThat(exportarDiaVacio("detalles", "ndjson")).isEmpty();
+    }
+
+    private String exportarDiaVacio(String tipo, String formato) throws Exception {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        long filas = exportacionService.exportar(tipo, formato, DIA_VACIO, DIA_VACIO, salida, false);
+        assertThat(filas).isZero();
+        return salida.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,97 @@
+package com.habilis.api.service;
+
+import com.habilis.api.IntegracionPostgres;
+import com.habilis.api.entity.Pedido;
+import com.habilis.api.entity.Producto;
+import com.habilis.api.entity.Usuario;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * La emisión por lotes no deja huecos en la numeración de facturas
+ *
+ * Cada prueba crea tres pedidos de suscripción en un periodo propio (uno
+ * inventado, para no llevarse pedidos de otras pruebas) y mira el contador
+ * del día antes y después de emitir.
+ */
+class FacturacionLoteServiceTest extends IntegracionPostgres {
+
+    @Autowired
+    private FacturacionLoteService facturacionLoteService;
+
+    @Autowired
+    private FacturaService facturaService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String periodo;
+    private List<Long> pedidos;
+
+    @BeforeEach
+    void crearPedidosDeSuscripcion() {
+        periodo = String.format("1%03d-%02d", ThreadLocalRandom.current().nextInt(1000),
+                ThreadLocalRandom.current().nextInt(1, 13));
+
+        Usuario usuario = crearUsuario("CLIENTE");
+        List<Producto> productos = crearProductos(1);
+        pedidos = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Pedido pedido = crearPedido(usuario, productos);
+            Long suscripcionId = jdbcTemplate.queryForObject("INSERT INTO suscripciones "
+                    + "(usuario_id, categoria_id, fecha_inicio, fecha_fin) "
+                    + "VALUES (?, ?, current_date, current_date + 30) RETURNING id",
+                    Long.class, usuario.getId(), productos.get(0).getCategoria().getId());
+            jdbcTemplate.update("UPDATE pedidos SET suscripcion_id = ?, periodo = ? WHERE id = ?",
+                    suscripcionId, periodo, pedido.getId());
+            pedidos.add(pedido.getId());
+        }
+
+        // Que el contador del día exista antes de medir
+        facturaService.generarCodigoFactura();
+    }
+
+    @Test
+    void numeraLasFacturasSeguidas() {
+        int antes = ultimoNumero();
+
+        assertThat(facturacionLoteService.emitirFacturas(periodo)).isEqualTo(3);
+
+        assertThat(ultimoNumero()).isEqualTo(antes + 3);
+        List<Integer> numeros = new ArrayList<>();
+        for (Long pedidoId : pedidos) {
+            String codigo = jdbcTemplate.queryForObject(
+                    "SELECT codigo_factura FROM facturas WHERE pedido_id = ?", String.class, pedidoId);
+            numeros.add(Integer.parseInt(codigo.substring(codigo.lastIndexOf('-') + 1)));
+        }
+        assertThat(numeros).containsExactly(antes + 1, antes + 2, antes + 3);
+    }
+
+    @Test
+    void loteDeshechoDevuelveLosNumeros() {
+        int antes = ultimoNumero();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            facturacionLoteService.emitirFacturas(periodo);
+            status.setRollbackOnly();
+        });
+
+        assertThat(ultimoNumero()).isEqualTo(antes);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM facturas WHERE pedido_id = ANY(?)",
+                Integer.class, (Object) pedidos.toArray(new Long[0]))).isZero();
+    }
+
+    private int ultimoNumero() {
+        return jdbcTemplate.queryForObject("SELECT ultimo FROM contadores_factura WHERE fecha = ?",
+                Integer.class, LocalDate.now());
+    }
+}
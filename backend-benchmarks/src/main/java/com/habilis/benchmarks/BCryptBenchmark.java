@@ -0,0 +1,38 @@
+package com.habilis.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verificación BCrypt del login con distintos costes
+ * El coste 10 es el que usa la API (BCryptPasswordEncoder por defecto)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BCryptBenchmark {
+
+    private static final String CONTRASENA = "Contrasena.Segura123";
+
+    @Param({ "4", "8", "10", "12" })
+    private int coste;
+
+    private BCryptPasswordEncoder encoder;
+    private String hash;
+
+    @Setup
+    public void preparar() {
+        encoder = new BCryptPasswordEncoder(coste);
+        hash = encoder.encode(CONTRASENA);
+    }
+
+    @Benchmark
+    public boolean verificar() {
+        return encoder.matches(CONTRASENA, hash);
+    }
+}
@@ -0,0 +1,95 @@
+package com.habilis.benchmarks;
+
+import com.habilis.api.entity.Categoria;
+import com.habilis.api.entity.DetallePedido;
+import com.habilis.api.entity.Factura;
+import com.habilis.api.entity.Pedido;
+import com.habilis.api.entity.Producto;
+import com.habilis.api.entity.Usuario;
+
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Datos sintéticos para los benchmarks
+ * Entidades construidas en memoria, sin base de datos, con ids fijos y
+ * precios deterministas para que las ejecuciones sean comparables
+ */
+final class DatosSinteticos {
+
+    private static final LocalDateTime FECHA = LocalDateTime.of(2024, 3, 15, 10, 30);
+
+    private DatosSinteticos() {
+    }
+
+    static List<Producto> productos(int n) {
+        Categoria categoria = new Categoria("Material didáctico", "Recursos para el aula");
+        categoria.setId(1L);
+
+        List<Producto> productos = new ArrayList<>(n);
+        for (int i = 1; i <= n; i++) {
+            Producto producto = new Producto(categoria, "Producto " + i,
+                    "Descripción del producto de prueba número " + i,
+                    new BigDecimal(i % 50 + 4).add(new BigDecimal("0.95")), 100 + i,
+                    "/img/productos/" + i + ".jpg");
+            producto.setId((long) i);
+            productos.add(producto);
+        }
+        return productos;
+    }
+
+    static Usuario usuario() {
+        Usuario usuario = new Usuario("María García López", "600123456", "maria.garcia@example.com",
+                "CLIENTE", "$2a$10$abcdefghijklmnopqrstuvwxyz0123456789ABCDEFGHIJKLMNOPQ");
+        usuario.setId(1L);
+        return usuario;
+    }
+
+    /**
+     * Pedido con sus detalles, usuario y total ya calculado
+     */
+    static Pedido pedido(long id, int lineas) {
+        Pedido pedido = new Pedido();
+        pedido.setId(id);
+        pedido.setUsuario(usuario());
+        pedido.setFechaPedido(FECHA);
+        pedido.setEstado("PENDIENTE");
+
+        List<DetallePedido> detalles = new ArrayList<>(lineas);
+        BigDecimal total = BigDecimal.ZERO;
+        for (Producto producto : productos(lineas)) {
+            int cantidad = (int) (producto.getId() % 3) + 1;
+            DetallePedido detalle = new DetallePedido(pedido, producto, cantidad, producto.getPrecio());
+            detalles.add(detalle);
+            total = total.add(detalle.getSubtotal());
+        }
+        pedido.setDetalles(detalles);
+        pedido.setTotalPedido(total);
+        return pedido;
+    }
+
+    static Factura factura(Pedido pedido) {
+        Factura factura = new Factura("FAC-2024-" + String.format("%06d", pedido.getId()), pedido,
+                pedido.getUsuario(), pedido.getTotalPedido());
+        factura.setFechaEmision(FECHA);
+        return factura;
+    }
+
+    /**
+     * Asignar un campo inyectado por Spring (@Autowired, @Value) en un
+     * servicio creado a mano
+     */
+    static void asignarCampo(Object destino, String nombre, Object valor) {
+        Field campo = ReflectionUtils.findField(destino.getClass(), nombre);
+        if (campo == null) {
+            throw new IllegalArgumentException("Campo no encontrado: " + nombre);
+        }
+        ReflectionUtils.makeAccessible(campo);
+        ReflectionUtils.setField(campo, destino, valor);
+    }
+}
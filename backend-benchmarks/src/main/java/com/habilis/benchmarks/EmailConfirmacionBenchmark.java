@@ -0,0 +1,77 @@
+package com.habilis.benchmarks;
+
+import com.habilis.api.entity.Factura;
+import com.habilis.api.entity.Pedido;
+import com.habilis.api.service.EmailService;
+import com.habilis.api.service.PdfService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Email de confirmación de pedido: HTML, MIME multiparte y adjunto PDF
+ * No hay servidor SMTP: el mensaje se serializa a un stream nulo, así que
+ * se mide el coste de construirlo y codificarlo, no el de la red
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class EmailConfirmacionBenchmark {
+
+    @Param({ "1", "10", "100" })
+    private int lineas;
+
+    private EmailService emailService;
+    private Pedido pedido;
+    private Factura factura;
+    private byte[] pdfFactura;
+
+    @Setup
+    public void preparar() {
+        emailService = new EmailService(new SinSmtp(), new SimpleMeterRegistry());
+        DatosSinteticos.asignarCampo(emailService, "fromEmail", "noreply@habilis.com");
+
+        pedido = DatosSinteticos.pedido(1L, lineas);
+        factura = DatosSinteticos.factura(pedido);
+
+        // El adjunto real crece con las líneas del pedido
+        PdfService pdfService = new PdfService();
+        DatosSinteticos.asignarCampo(pdfService, "meterRegistry", new SimpleMeterRegistry());
+        pdfFactura = pdfService.generarFacturaPedido(pedido);
+    }
+
+    @Benchmark
+    public void enviarConfirmacion() {
+        emailService.enviarConfirmacionPedido(pedido.getUsuario().getCorreoElectronico(), pedido, factura,
+                pdfFactura);
+    }
+
+    /**
+     * JavaMailSender que codifica el mensaje completo y lo descarta
+     */
+    private static final class SinSmtp extends JavaMailSenderImpl {
+
+        @Override
+        protected void doSend(MimeMessage[] mensajes, Object[] originales) throws MailException {
+            try {
+                for (MimeMessage mensaje : mensajes) {
+                    mensaje.saveChanges();
+                    mensaje.writeTo(OutputStream.nullOutputStream());
+                }
+            } catch (MessagingException | IOException e) {
+                throw new MailPreparationException("Error serializando el mensaje", e);
+            }
+        }
+    }
+}
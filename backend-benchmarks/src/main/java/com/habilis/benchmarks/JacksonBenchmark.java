@@ -0,0 +1,60 @@
+package com.habilis.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.habilis.api.entity.Pedido;
+import com.habilis.api.entity.Producto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialización JSON de listados de productos y pedidos
+ * El ObjectMapper replica la configuración spring.jackson.* de la API
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JacksonBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    private int tamano;
+
+    private ObjectMapper objectMapper;
+    private List<Producto> productos;
+    private List<Pedido> pedidos;
+
+    @Setup
+    public void preparar() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .timeZone(TimeZone.getTimeZone("Europe/Madrid"))
+                .build();
+
+        productos = DatosSinteticos.productos(tamano);
+
+        // Pedidos de 1 a 5 líneas, como en el historial de un cliente
+        pedidos = new ArrayList<>(tamano);
+        for (int i = 1; i <= tamano; i++) {
+            pedidos.add(DatosSinteticos.pedido(i, i % 5 + 1));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializarProductos() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(productos);
+    }
+
+    @Benchmark
+    public byte[] serializarPedidos() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(pedidos);
+    }
+}
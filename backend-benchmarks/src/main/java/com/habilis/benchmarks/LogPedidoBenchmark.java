@@ -0,0 +1,163 @@
+package com.habilis.benchmarks;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import ch.qos.logback.core.util.Duration;
+import com.habilis.api.config.CorrelacionFilter;
+import com.habilis.api.config.MuestreoDebugTurboFilter;
+import net.logstash.logback.appender.LoggingEventAsyncDisruptorAppender;
+import net.logstash.logback.encoder.LogstashEncoder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.slf4j.MDC;
+
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logs de la creación de un pedido: appender síncrono frente a asíncrono
+ *
+ * Reproduce los mensajes de PedidoController.crearPedido en una petición
+ * muestreada (MuestreoDebugTurboFilter deja pasar sus DEBUG), con el
+ * correlacionId en el MDC y los formatos de logback-spring.xml: texto fuera
+ * de prod y JSON (LogstashEncoder) en prod.
+ * - sincrono: el hilo de la petición formatea y escribe bajo el lock del
+ *   appender, como el ConsoleAppender directo
+ * - asincrono: LoggingEventAsyncDisruptorAppender delante, como ASINCRONO en
+ *   la API (espera hasta 100 ms a que haya sitio en el buffer antes de
+ *   descartar)
+ *
+ * trabajo simula el resto de la petición entre mensaje y mensaje
+ * (Blackhole.consumeCPU); con 0 solo se mide el log.
+ *
+ * La salida va al dispositivo nulo (una escritura real por evento, sin
+ * terminal). Al terminar se imprime cuántos eventos se escribieron: si el
+ * buffer sigue lleno pasado el tiempo de espera el appender asíncrono
+ * descarta eventos, y esos no cuentan como rendimiento ganado.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Threads(4)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class LogPedidoBenchmark {
+
+    private static final String PATRON = "%d{HH:mm:ss.SSS} %5p [%X{correlacionId:-}] %-40.40logger{39} : %m%n";
+    private static final int EVENTOS_POR_PEDIDO = 4;
+
+    @Param({ "sincrono", "asincrono" })
+    private String appender;
+
+    @Param({ "texto", "json" })
+    private String formato;
+
+    @Param({ "0", "2000" })
+    private long trabajo;
+
+    private LoggerContext contexto;
+    private Logger log;
+    private final LongAdder publicados = new LongAdder();
+    private final LongAdder escritos = new LongAdder();
+
+    @Setup
+    public void preparar() throws FileNotFoundException {
+        contexto = new LoggerContext();
+        contexto.setName("benchmark");
+        contexto.setMDCAdapter(MDC.getMDCAdapter());
+
+        MuestreoDebugTurboFilter muestreo = new MuestreoDebugTurboFilter();
+        muestreo.setContext(contexto);
+        muestreo.start();
+        contexto.addTurboFilter(muestreo);
+
+        OutputStreamAppender<ILoggingEvent> salida = new OutputStreamAppender<>() {
+            @Override
+            protected void subAppend(ILoggingEvent evento) {
+                super.subAppend(evento);
+                escritos.increment();
+            }
+        };
+        salida.setContext(contexto);
+        salida.setName("SALIDA");
+        salida.setEncoder(encoder());
+        salida.setOutputStream(new FileOutputStream(dispositivoNulo()));
+        salida.start();
+
+        Appender<ILoggingEvent> raiz = salida;
+        if ("asincrono".equals(appender)) {
+            LoggingEventAsyncDisruptorAppender asincrono = new LoggingEventAsyncDisruptorAppender();
+            asincrono.setContext(contexto);
+            asincrono.setName("ASINCRONO");
+            asincrono.setRingBufferSize(8192);
+            asincrono.setAppendTimeout(Duration.buildByMilliseconds(100));
+            asincrono.setAppendRetryFrequency(Duration.buildByMilliseconds(1));
+            asincrono.addAppender(salida);
+            asincrono.start();
+            raiz = asincrono;
+        }
+
+        Logger root = contexto.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        root.addAppender(raiz);
+
+        log = contexto.getLogger("com.habilis.api.controller.PedidoController");
+    }
+
+    @TearDown
+    public void terminar() {
+        contexto.stop();
+        System.out.printf("%n%s/%s/%d: %d de %d eventos escritos%n", appender, formato, trabajo, escritos.sum(),
+                publicados.sum());
+    }
+
+    @Benchmark
+    public void crearPedido() {
+        MDC.put(CorrelacionFilter.MDC_CORRELACION, UUID.randomUUID().toString());
+        MDC.put(CorrelacionFilter.MDC_MUESTREO, "true");
+        try {
+            log.debug("Crear pedido: usuario={}, rol={}, items={}", 42L, "CLIENTE", 3);
+            Blackhole.consumeCPU(trabajo);
+            log.debug("Carrito validado");
+            Blackhole.consumeCPU(trabajo);
+            log.debug("Pedido {} creado", 1001L);
+            Blackhole.consumeCPU(trabajo);
+            log.debug("Factura {} ({}) creada", 977L, "FAC-2026-000977");
+            publicados.add(EVENTOS_POR_PEDIDO);
+        } finally {
+            MDC.remove(CorrelacionFilter.MDC_CORRELACION);
+            MDC.remove(CorrelacionFilter.MDC_MUESTREO);
+        }
+    }
+
+    private Encoder<ILoggingEvent> encoder() {
+        if ("json".equals(formato)) {
+            LogstashEncoder json = new LogstashEncoder();
+            json.setContext(contexto);
+            json.setCustomFields("{\"aplicacion\":\"habilis-api\"}");
+            json.start();
+            return json;
+        }
+        PatternLayoutEncoder texto = new PatternLayoutEncoder();
+        texto.setContext(contexto);
+        texto.setPattern(PATRON);
+        texto.setCharset(StandardCharsets.UTF_8);
+        texto.start();
+        return texto;
+    }
+
+    private static String dispositivoNulo() {
+        return System.getProperty("os.name").startsWith("Windows") ? "NUL" : "/dev/null";
+    }
+}
@@ -0,0 +1,38 @@
+package com.habilis.benchmarks;
+
+import com.habilis.api.entity.Pedido;
+import com.habilis.api.service.PdfService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generación del PDF de factura para pedidos de 1 a 100 líneas
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PdfFacturaBenchmark {
+
+    @Param({ "1", "10", "50", "100" })
+    private int lineas;
+
+    private PdfService pdfService;
+    private Pedido pedido;
+
+    @Setup
+    public void preparar() {
+        pdfService = new PdfService();
+        DatosSinteticos.asignarCampo(pdfService, "meterRegistry", new SimpleMeterRegistry());
+        pedido = DatosSinteticos.pedido(1L, lineas);
+    }
+
+    @Benchmark
+    public byte[] generarFactura() {
+        return pdfService.generarFacturaPedido(pedido);
+    }
+}
@@ -0,0 +1,60 @@
+package com.habilis.benchmarks;
+
+import com.habilis.api.dto.ItemPedidoRequest;
+import com.habilis.api.entity.Producto;
+import com.habilis.api.repository.ProductoRepository;
+import com.habilis.api.service.ConsultaPedidoService;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cálculo del total del carrito con BigDecimal
+ * El repositorio es un proxy en memoria que devuelve los productos ya
+ * cargados: se mide el mapa por id y la aritmética, no la consulta
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PrecioCarritoBenchmark {
+
+    @Param({ "1", "10", "100" })
+    private int lineas;
+
+    private ConsultaPedidoService consultaPedidoService;
+    private List<ItemPedidoRequest> items;
+
+    @Setup
+    public void preparar() {
+        List<Producto> productos = DatosSinteticos.productos(lineas);
+
+        items = new ArrayList<>(lineas);
+        for (Producto producto : productos) {
+            items.add(new ItemPedidoRequest(producto.getId(), (int) (producto.getId() % 3) + 1));
+        }
+
+        ProductoRepository productoRepository = (ProductoRepository) Proxy.newProxyInstance(
+                ProductoRepository.class.getClassLoader(),
+                new Class<?>[] { ProductoRepository.class },
+                (proxy, metodo, args) -> {
+                    if (metodo.getName().equals("findAllById")) {
+                        return productos;
+                    }
+                    throw new UnsupportedOperationException(metodo.getName());
+                });
+
+        consultaPedidoService = new ConsultaPedidoService(null, productoRepository, null, null, null);
+    }
+
+    @Benchmark
+    public BigDecimal calcularTotal() {
+        return consultaPedidoService.calcularTotal(items);
+    }
+}
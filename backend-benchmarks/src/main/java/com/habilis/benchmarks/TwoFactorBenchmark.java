@@ -0,0 +1,55 @@
+package com.habilis.benchmarks;
+
+import com.habilis.api.service.TwoFactorService;
+import dev.samstevens.totp.code.DefaultCodeGenerator;
+import dev.samstevens.totp.exceptions.CodeGenerationException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verificación TOTP con ventana de tolerancia
+ * El código válido se recalcula en cada iteración para no cruzar el cambio
+ * de intervalo; el inválido recorre siempre la ventana completa
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TwoFactorBenchmark {
+
+    @Param({ "1", "3" })
+    private int ventana;
+
+    private TwoFactorService twoFactorService;
+    private String secreto;
+    private int codigoValido;
+    private int codigoInvalido;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        twoFactorService = new TwoFactorService(new SimpleMeterRegistry());
+        secreto = twoFactorService.generarSecreto();
+    }
+
+    @Setup(Level.Iteration)
+    public void calcularCodigos() throws CodeGenerationException {
+        long intervalo = Math.floorDiv(System.currentTimeMillis() / 1000, 30);
+        String codigo = new DefaultCodeGenerator().generate(secreto, intervalo);
+        codigoValido = Integer.parseInt(codigo);
+        codigoInvalido = (codigoValido + 500_000) % 1_000_000;
+    }
+
+    @Benchmark
+    public boolean codigoValido() {
+        return twoFactorService.verificarCodigoConVentana(secreto, codigoValido, ventana);
+    }
+
+    @Benchmark
+    public boolean codigoInvalido() {
+        return twoFactorService.verificarCodigoConVentana(secreto, codigoInvalido, ventana);
+    }
+}
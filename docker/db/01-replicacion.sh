@@ -0,0 +1,6 @@
+#!/bin/bash
+# Permite que las réplicas de lectura (perfil "replicas" de docker-compose)
+# se clonen y sigan a la primaria por replicación en streaming
+# Solo se ejecuta al crear el volumen de datos
+set -e
+echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"
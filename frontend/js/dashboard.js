@@ -4,14 +4,44 @@
 
 const API_BASE_URL = '/api';
 
-// Check auth on page load
+// Datos del panel (GET /api/dashboard): perfil, estadísticas y pedidos recientes
+let dashboardData = null;
+
+// Load dashboard on page load
 document.addEventListener('DOMContentLoaded', () => {
-    checkAuth();
-    loadUserData();
-    loadStats();
-    load2FAStatus();
+    loadDashboard();
 });
 
+// ========================================
+// LOAD DASHBOARD
+// ========================================
+
+async function loadDashboard() {
+    try {
+        const response = await fetch(`${API_BASE_URL}/dashboard`, {
+            credentials: 'include'
+        });
+
+        if (!response.ok) {
+            window.location.href = 'login.html';
+            return;
+        }
+
+        dashboardData = await response.json();
+        localStorage.setItem('currentUser', JSON.stringify(dashboardData.perfil));
+
+        // Update UI with user name
+        document.getElementById('userName').textContent = dashboardData.perfil.nombreCompleto;
+
+        loadUserData();
+        renderStats(dashboardData.estadisticas);
+        load2FAStatus();
+    } catch (error) {
+        console.error('Dashboard load error:', error);
+        window.location.href = 'login.html';
+    }
+}
+
 // ========================================
 // AUTH CHECK
 // ========================================
@@ -63,23 +93,11 @@ async function loadUserData() {
 // LOAD STATS
 // ========================================
 
-async function loadStats() {
-    try {
-        const response = await fetch(`${API_BASE_URL}/pedidos/mis-estadisticas`, {
-            credentials: 'include'
-        });
-
-        if (!response.ok) throw new Error('Failed to load stats');
-
-        const stats = await response.json();
-
-        document.getElementById('totalOrders').textContent = stats.totalPedidos;
-        document.getElementById('pendingOrders').textContent = stats.pedidosPendientes;
-        document.getElementById('completedOrders').textContent = stats.pedidosCompletados;
-        document.getElementById('totalSpent').textContent = `€${stats.totalGastado.toFixed(2)}`;
-    } catch (error) {
-        console.error('Error loading stats:', error);
-    }
+function renderStats(stats) {
+    document.getElementById('totalOrders').textContent = stats.totalPedidos;
+    document.getElementById('pendingOrders').textContent = stats.pedidosPendientes;
+    document.getElementById('completedOrders').textContent = stats.pedidosCompletados;
+    document.getElementById('totalSpent').textContent = `€${stats.totalGastado.toFixed(2)}`;
 }
 
 // =======================================
@@ -119,6 +137,24 @@ function showSection(sectionName) {
 
 async function loadOrders() {
     const container = document.getElementById('ordersContainer');
+
+    // Los pedidos recientes ya vienen en el panel
+    if (dashboardData) {
+        const orders = dashboardData.pedidosRecientes;
+        renderOrders(orders, dashboardData.estadisticas.totalPedidos > orders.length);
+        return;
+    }
+
+    container.innerHTML = '<div class="loading">Cargando pedidos...</div>';
+    await loadDashboard();
+    if (dashboardData) {
+        loadOrders();
+    }
+}
+
+// Historial completo (solo si hay más pedidos de los recientes)
+async function loadAllOrders() {
+    const container = document.getElementById('ordersContainer');
     container.innerHTML = '<div class="loading">Cargando pedidos...</div>';
 
     try {
@@ -128,8 +164,17 @@ async function loadOrders() {
 
         if (!response.ok) throw new Error('Failed to load orders');
 
-        const orders = await response.json();
+        renderOrders(await response.json(), false);
+    } catch (error) {
+        console.error('Error loading orders:', error);
+        renderOrdersError();
+    }
+}
 
+function renderOrders(orders, hasMore) {
+    const container = document.getElementById('ordersContainer');
+
+    try {
         if (orders.length === 0) {
             container.innerHTML = `
                 <div class="empty-state">
@@ -161,7 +206,7 @@ async function loadOrders() {
                 <div class="order-items">
                     ${order.detalles && order.detalles.length > 0 ? order.detalles.map(detail => `
                         <div class="order-item">
-                            <span>${detail.producto.nombre}</span>
+                            <span>${typeof detail.producto === 'string' ? detail.producto : detail.producto.nombre}</span>
                             <span>${detail.cantidad}x €${detail.precioUnitario.toFixed(2)}</span>
                         </div>
                     `).join('') : '<p class="text-muted">Sin detalles disponibles</p>'}
@@ -180,24 +225,33 @@ async function loadOrders() {
                     ` : ''}
                 </div>
             </div>
-        `).join('');
-    } catch (error) {
-        console.error('Error loading orders:', error);
-        container.innerHTML = `
-            <div class="error-state">
-                <svg xmlns="http://www.w3.org/2000/svg" width="64" height="64" viewBox="0 0 24 24" fill="none" stroke="currentColor" stroke-width="2" stroke-linecap="round" stroke-linejoin="round" style="color: var(--danger); margin-bottom: 1rem;">
-                    <circle cx="12" cy="12" r="10"></circle>
-                    <line x1="12" y1="8" x2="12" y2="12"></line>
-                    <line x1="12" y1="16" x2="12.01" y2="16"></line>
-                </svg>
-                <h3>Error al cargar pedidos</h3>
-                <p>Por favor, intenta de nuevo más tarde</p>
-                <button onclick="loadOrders()" class="btn btn-primary">Reintentar</button>
+        `).join('') + (hasMore ? `
+            <div class="text-center">
+                <button onclick="loadAllOrders()" class="btn btn-secondary">Ver todos los pedidos</button>
             </div>
-        `;
+        ` : '');
+    } catch (error) {
+        console.error('Error rendering orders:', error);
+        renderOrdersError();
     }
 }
 
+function renderOrdersError() {
+    const container = document.getElementById('ordersContainer');
+    container.innerHTML = `
+        <div class="error-state">
+            <svg xmlns="http://www.w3.org/2000/svg" width="64" height="64" viewBox="0 0 24 24" fill="none" stroke="currentColor" stroke-width="2" stroke-linecap="round" stroke-linejoin="round" style="color: var(--danger); margin-bottom: 1rem;">
+                <circle cx="12" cy="12" r="10"></circle>
+                <line x1="12" y1="8" x2="12" y2="12"></line>
+                <line x1="12" y1="16" x2="12.01" y2="16"></line>
+            </svg>
+            <h3>Error al cargar pedidos</h3>
+            <p>Por favor, intenta de nuevo más tarde</p>
+            <button onclick="loadOrders()" class="btn btn-primary">Reintentar</button>
+        </div>
+    `;
+}
+
 function getStatusClass(status) {
     const classes = {
         'PENDIENTE': 'warning',
@@ -221,8 +275,8 @@ async function cancelOrder(orderId) {
 
         if (data.success) {
             alert('Pedido cancelado exitosamente');
+            await loadDashboard();
             loadOrders();
-            loadStats();
         } else {
             alert(data.error || 'Error al cancelar pedido');
         }
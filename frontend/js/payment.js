@@ -31,7 +31,6 @@ async function loadPaymentData() {
     // SEGUNDO: Obtener datos de pago de sessionStorage o del carrito
     const paymentDataStr = sessionStorage.getItem('paymentData');
     const pendingQuizStr = localStorage.getItem('pendingQuizCheckout');
-    const cartStr = localStorage.getItem('cart');
 
     let paymentData = null;
 
@@ -54,43 +53,56 @@ async function loadPaymentData() {
         };
         console.log('✅ Datos cargados desde pendingQuizCheckout');
     }
-    // Prioridad 3: Carrito (usuario agregó productos desde catálogo)
-    else if (cartStr) {
-        const cart = JSON.parse(cartStr);
+    // Prioridad 3: Carrito persistente (usuario agregó productos desde catálogo)
+    else {
+        // Se cotiza en una sola llamada: precios, stock y total del servidor
+        try {
+            const carritoResponse = await fetch(`${API_BASE_URL}/carrito`, { credentials: 'include' });
+            const cart = carritoResponse.ok ? (await carritoResponse.json()).lineas : [];
 
-        if (cart.length === 0) {
-            alert('⚠️ Tu carrito está vacío.');
-            window.location.href = 'catalog.html';
-            return;
-        }
+            if (cart.length === 0) {
+                alert('⚠️ Tu carrito está vacío.');
+                window.location.href = 'catalog.html';
+                return;
+            }
 
-        // IMPORTANTE: El carrito guarda solo {productoId, cantidad}
-        // Necesitamos fetch de productos para obtener detalles completos
-        try {
-            // Obtener detalles de todos los productos
-            const productPromises = cart.map(item =>
-                fetch(`${API_BASE_URL}/productos/${item.productoId}`, {
-                    credentials: 'include'
-                }).then(r => r.json())
-            );
-
-            const products = await Promise.all(productPromises);
-
-            // Calcular total y crear lista de items
-            const cartItems = cart.map((item, index) => ({
-                productoId: item.productoId,
-                cantidad: item.cantidad,
-                nombreProducto: products[index].nombre,
-                precio: products[index].precio
+            const response = await fetch(`${API_BASE_URL}/pedidos/cotizar`, {
+                method: 'POST',
+                headers: { 'Content-Type': 'application/json' },
+                credentials: 'include',
+                body: JSON.stringify({
+                    items: cart.map(item => ({
+                        productoId: item.productoId,
+                        cantidad: item.cantidad
+                    }))
+                })
+            });
+
+            const cotizacion = await response.json();
+
+            if (!cotizacion.valido) {
+                const errores = (cotizacion.lineas || [])
+                    .filter(linea => !linea.disponible)
+                    .map(linea => linea.mensaje);
+                alert('⚠️ Revisa tu carrito:\n' + errores.join('\n'));
+                window.location.href = 'cart.html';
+                return;
+            }
+
+            const cartItems = cotizacion.lineas.map(linea => ({
+                productoId: linea.productoId,
+                cantidad: linea.cantidad,
+                nombreProducto: linea.nombre,
+                precio: linea.precioUnitario
             }));
 
-            const total = cartItems.reduce((sum, item) =>
-                sum + (item.precio * item.cantidad), 0);
+            const total = cotizacion.total;
 
             // Crear datos de pago desde el carrito
             paymentData = {
                 fromCart: true, // Flag para identificar que viene del carrito
                 cartItems: cartItems, // Items completos con detalles
+                cotizacionToken: cotizacion.token, // Evita revalorar el carrito al pagar
                 productName: cartItems.length === 1
                     ? cartItems[0].nombreProducto
                     : `${cartItems.length} productos`,
@@ -115,6 +127,16 @@ async function loadPaymentData() {
         return;
     }
 
+    // TERCERO: Reservar el stock mientras el usuario introduce la tarjeta
+    const itemsReserva = paymentData.fromCart
+        ? paymentData.cartItems.map(item => ({ productoId: item.productoId, cantidad: item.cantidad }))
+        : [{ productoId: paymentData.productId, cantidad: 1 }];
+
+    if (!(await reservarStock(itemsReserva))) {
+        window.location.href = paymentData.fromCart ? 'cart.html' : 'catalog.html';
+        return;
+    }
+
     // Display order summary
     document.getElementById('summaryProduct').textContent = paymentData.productName;
 
@@ -140,6 +162,71 @@ async function loadPaymentData() {
     console.log('✅ Datos de pago cargados correctamente:', paymentData);
 }
 
+/**
+ * Retener el stock de los productos durante el pago
+ * El servidor libera la reserva sola si el pago no se completa a tiempo
+ * Devuelve false si no hay stock suficiente
+ */
+async function reservarStock(items) {
+    try {
+        const response = await fetch(`${API_BASE_URL}/pedidos/reservar`, {
+            method: 'POST',
+            headers: { 'Content-Type': 'application/json' },
+            credentials: 'include',
+            body: JSON.stringify({ items })
+        });
+
+        if (response.status === 409) {
+            const data = await response.json();
+            alert('⚠️ ' + (data.error || 'No hay stock suficiente para tu pedido.'));
+            return false;
+        }
+
+        if (response.ok) {
+            const data = await response.json();
+            console.log('✅ Stock reservado hasta', data.expiraEn);
+        }
+    } catch (error) {
+        // Sin reserva el pedido se sigue pudiendo crear si queda stock
+        console.error('⚠️ No se pudo reservar el stock:', error);
+    }
+
+    return true;
+}
+
+/**
+ * Consultar un ticket de la cola de admisión hasta que se resuelva
+ * Devuelve los datos del pedido con el mismo formato que POST /pedidos
+ */
+async function esperarTicket(ticket) {
+    while (true) {
+        await new Promise(resolve => setTimeout(resolve, 1000));
+
+        const response = await fetch(`${API_BASE_URL}/pedidos/tickets/${ticket}`, {
+            credentials: 'include'
+        });
+
+        if (!response.ok) {
+            throw new Error('No se pudo consultar el estado del pedido');
+        }
+
+        const estado = await response.json();
+        console.log('🔍 Ticket', ticket, estado.estado);
+
+        if (estado.estado === 'COMPLETADO') {
+            return {
+                success: true,
+                pedidoId: estado.pedidoId,
+                codigoFactura: estado.codigoFactura
+            };
+        }
+
+        if (estado.estado === 'RECHAZADO') {
+            throw new Error(estado.error || 'No se pudo completar el pedido');
+        }
+    }
+}
+
 function setupPaymentForm() {
     const form = document.getElementById('paymentForm');
     const cardNumber = document.getElementById('cardNumber');
@@ -224,7 +311,8 @@ async function handlePaymentSubmit(e) {
                 items: paymentData.cartItems.map(item => ({
                     productoId: item.productoId,
                     cantidad: item.cantidad
-                }))
+                })),
+                cotizacionToken: paymentData.cotizacionToken
             };
             console.log('🛒 Creando pedido desde carrito con', paymentData.cartItems.length, 'items');
         } else {
@@ -273,7 +361,14 @@ async function handlePaymentSubmit(e) {
             throw new Error(errorMessage);
         }
 
-        const data = await response.json();
+        let data = await response.json();
+
+        // Lanzamiento limitado: el pedido espera en la cola de admisión
+        if (response.status === 202 && data.ticket) {
+            showMessage('paymentSuccess', 'Tu pedido está en cola, no cierres esta página...');
+            data = await esperarTicket(data.ticket);
+        }
+
         console.log('✅ Order created:', data);
 
         if (data.success && data.pedidoId && data.codigoFactura) {
@@ -281,9 +376,9 @@ async function handlePaymentSubmit(e) {
             sessionStorage.removeItem('paymentData');
             localStorage.removeItem('pendingQuizCheckout');
 
-            // Si vino del carrito, limpiar el carrito
+            // Si vino del carrito, vaciar el carrito del servidor
             if (paymentData.fromCart) {
-                localStorage.removeItem('cart');
+                await fetch(`${API_BASE_URL}/carrito`, { method: 'DELETE', credentials: 'include' });
                 console.log('🛒 Carrito limpiado');
             }
 